@@ -0,0 +1,117 @@
+package ru.khitrova.scoring.benchmark;
+
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.CompiledRulesScoringService;
+import ru.khitrova.scoring.scoring.DecisionTableScoringService;
+import ru.khitrova.scoring.scoring.FixedPointScoringService;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Запросы и реализации сервиса скоринга для бенчмарков.
+ */
+public final class BenchmarkRequests {
+
+    /**
+     * Одобряемый запрос: проходит все проверки.
+     */
+    public static final String APPROVED_JSON = "{\"age\":30,\"sex\":\"F\",\"sourceOfIncome\":\"EMPLOYEE\","
+            + "\"lastYearIncome\":10,\"creditRating\":2,\"requestedAmount\":1,\"repaymentPeriod\":2,"
+            + "\"loanPurpose\":\"CAR\"}";
+
+    private BenchmarkRequests() {
+    }
+
+    /**
+     * Одобряемый запрос: проходит все проверки.
+     */
+    public static LoanRequest approved() {
+        return request(30, Sex.F, SourceOfIncome.EMPLOYEE, 2, BigDecimal.ONE, 2, LoanPurpose.CAR, BigDecimal.TEN);
+    }
+
+    /**
+     * Запрос, отклоняемый первой проверкой (возраст).
+     */
+    public static LoanRequest rejectedEarly() {
+        return request(17, Sex.F, SourceOfIncome.EMPLOYEE, 2, BigDecimal.ONE, 2, LoanPurpose.CAR, BigDecimal.TEN);
+    }
+
+    /**
+     * Запрос, отклоняемый последней проверкой (годовой платеж больше половины дохода):
+     * сумма в год 0.6 не больше трети дохода 0.7, а платеж 1.3 больше половины дохода 1.0.
+     */
+    public static LoanRequest rejectedLate() {
+        return request(30, Sex.M, SourceOfIncome.OWN_BUSINESS, 2, BigDecimal.valueOf(6.8), 10, LoanPurpose.CAR,
+                BigDecimal.valueOf(2.1));
+    }
+
+    /**
+     * Поток запросов с преобладанием отказов: 30% без источника дохода, 20% с суммой больше допустимой,
+     * 15% с низким рейтингом, 10% по возрасту, 10% по годовому платежу и 15% одобренных.
+     */
+    public static LoanRequest[] rejectionMix(int size, long seed) {
+        Random random = new Random(seed);
+        LoanRequest[] requests = new LoanRequest[size];
+        for (int i = 0; i < size; i++) {
+            int percent = random.nextInt(100);
+            BigDecimal amount = BigDecimal.valueOf(1 + random.nextInt(50), 1);
+            LoanPurpose purpose = LoanPurpose.values()[random.nextInt(LoanPurpose.values().length)];
+            int period = 1 + random.nextInt(5);
+            if (percent < 30) {
+                requests[i] = request(30 + random.nextInt(20), Sex.M, SourceOfIncome.UNEMPLOYED, 1, amount, period,
+                        purpose, BigDecimal.TEN);
+            } else if (percent < 50) {
+                requests[i] = request(30 + random.nextInt(20), Sex.F, SourceOfIncome.PASSIVE, 1,
+                        BigDecimal.valueOf(11 + random.nextInt(40), 1), period, purpose, BigDecimal.TEN);
+            } else if (percent < 65) {
+                requests[i] = request(30 + random.nextInt(20), Sex.M, SourceOfIncome.EMPLOYEE, -2, amount, period,
+                        purpose, BigDecimal.TEN);
+            } else if (percent < 75) {
+                requests[i] = request(66 + random.nextInt(20), Sex.M, SourceOfIncome.EMPLOYEE, 1, amount, period,
+                        purpose, BigDecimal.TEN);
+            } else if (percent < 85) {
+                requests[i] = rejectedLate();
+            } else {
+                requests[i] = request(18 + random.nextInt(40), Sex.F, SourceOfIncome.EMPLOYEE, 2, amount, period,
+                        purpose, BigDecimal.valueOf(100));
+            }
+        }
+        return requests;
+    }
+
+    public static LoanRequest request(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating,
+                                      BigDecimal requestedAmount, int repaymentPeriod, LoanPurpose loanPurpose,
+                                      BigDecimal lastYearIncome) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = age;
+        loanRequest.sex = sex;
+        loanRequest.sourceOfIncome = sourceOfIncome;
+        loanRequest.creditRating = creditRating;
+        loanRequest.requestedAmount = requestedAmount;
+        loanRequest.repaymentPeriod = repaymentPeriod;
+        loanRequest.loanPurpose = loanPurpose;
+        loanRequest.lastYearIncome = lastYearIncome;
+        return loanRequest;
+    }
+
+    /**
+     * Реализация сервиса скоринга по значению свойства {@code scoring.engine}.
+     */
+    public static ScoringService engine(String name) {
+        switch (name) {
+            case "big-decimal":
+                return new InMemoryScoringService();
+            case "fixed-point":
+                return new FixedPointScoringService();
+            case "decision-table":
+                return new DecisionTableScoringService();
+            case "compiled-rules":
+                return new CompiledRulesScoringService();
+            default:
+                throw new IllegalArgumentException("Неизвестная реализация: " + name);
+        }
+    }
+}
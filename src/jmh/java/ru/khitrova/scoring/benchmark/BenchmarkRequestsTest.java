@@ -0,0 +1,101 @@
+package ru.khitrova.scoring.benchmark;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.rules.ScoringRules;
+import ru.khitrova.scoring.scoring.*;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Проверка запросов бенчмарков: каждый запрос отклоняется той проверкой, которую измеряет бенчмарк.
+ * Запускается в профиле benchmark: mvn -Pbenchmark test
+ */
+public class BenchmarkRequestsTest {
+
+    private static final int MIX_SIZE = 10_000;
+
+    private final RecordingListener listener = new RecordingListener();
+
+    private static List<Function<ScoringListener, ScoringService>> engines() {
+        return List.of(
+                InMemoryScoringService::new,
+                FixedPointScoringService::new,
+                DecisionTableScoringService::new,
+                listener -> new CompiledRulesScoringService(listener, ScoringRules.defaults()));
+    }
+
+    @Test
+    public void fixturesTest() {
+        for (Function<ScoringListener, ScoringService> engine : engines()) {
+            ScoringService scoringService = engine.apply(listener);
+
+            Assert.assertNull(reason(scoringService, BenchmarkRequests.approved()));
+            Assert.assertEquals(RejectionReason.AGE, reason(scoringService, BenchmarkRequests.rejectedEarly()));
+            Assert.assertEquals(RejectionReason.ANNUAL_PAYMENT,
+                    reason(scoringService, BenchmarkRequests.rejectedLate()));
+        }
+    }
+
+    /**
+     * Доли причин отказа в потоке запросов совпадают с описанием {@link BenchmarkRequests#rejectionMix}.
+     */
+    @Test
+    public void rejectionMixTest() {
+        LoanRequest[] loanRequests = BenchmarkRequests.rejectionMix(MIX_SIZE, 42);
+        for (Function<ScoringListener, ScoringService> engine : engines()) {
+            ScoringService scoringService = engine.apply(listener);
+
+            Map<RejectionReason, Integer> counts = new EnumMap<>(RejectionReason.class);
+            int approved = 0;
+            for (LoanRequest loanRequest : loanRequests) {
+                RejectionReason reason = reason(scoringService, loanRequest);
+                if (reason == null) {
+                    approved++;
+                } else {
+                    counts.merge(reason, 1, Integer::sum);
+                }
+            }
+
+            assertShare(30, counts.get(RejectionReason.SOURCE_OF_INCOME));
+            assertShare(20, counts.get(RejectionReason.REQUESTED_AMOUNT));
+            assertShare(15, counts.get(RejectionReason.CREDIT_RATING));
+            assertShare(10, counts.get(RejectionReason.AGE));
+            assertShare(10, counts.get(RejectionReason.ANNUAL_PAYMENT));
+            assertShare(15, approved);
+        }
+    }
+
+    private RejectionReason reason(ScoringService scoringService, LoanRequest loanRequest) {
+        listener.reason = null;
+        listener.approved = false;
+        boolean approved = scoringService.checkLoan(loanRequest).approved;
+        Assert.assertEquals(approved, listener.approved);
+        return listener.reason;
+    }
+
+    private static void assertShare(int percent, Integer count) {
+        Assert.assertNotNull(count);
+        Assert.assertEquals(percent, count * 100.0 / MIX_SIZE, 2.0);
+    }
+
+    private static final class RecordingListener implements ScoringListener {
+        private RejectionReason reason;
+        private boolean approved;
+
+        @Override
+        public void approved(BigDecimal annualPayment) {
+            approved = true;
+        }
+
+        @Override
+        public void rejected(RejectionReason reason) {
+            this.reason = reason;
+        }
+    }
+}
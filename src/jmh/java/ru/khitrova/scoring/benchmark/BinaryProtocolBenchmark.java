@@ -0,0 +1,95 @@
+package ru.khitrova.scoring.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.khitrova.scoring.ScoringApplication;
+import ru.khitrova.scoring.binary.BinaryScoringClient;
+import ru.khitrova.scoring.binary.BinaryScoringServer;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка запросов через HTTP (JSON, keep-alive) и через двоичный протокол на одном локальном сервере.
+ * Одиночные запросы сравнивают задержку полного обмена, пакеты из {@value #BATCH} запросов:
+ * одни и те же запросы через {@code /scoring/check-batch} и отправки запросов по двоичному протоколу без ожидания ответов.
+ * Результаты приводятся к одному запросу.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryProtocolBenchmark {
+
+    private static final int BATCH = 256;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest singleRequest;
+    private HttpRequest batchRequest;
+    private BinaryScoringClient binaryClient;
+    private List<LoanRequest> batch;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(ScoringApplication.class)
+                .run("--server.port=0", "--scoring.binary.enabled=true", "--scoring.binary.host=localhost",
+                        "--scoring.binary.port=0", "--logging.level.root=WARN");
+        int httpPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+        int binaryPort = context.getBean(BinaryScoringServer.class).getPort();
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        singleRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + httpPort + "/scoring/check"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(BenchmarkRequests.APPROVED_JSON))
+                .build();
+        batch = Arrays.asList(BenchmarkRequests.rejectionMix(BATCH, 42));
+        batchRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + httpPort + "/scoring/check-batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(new ObjectMapper().writeValueAsString(batch)))
+                .build();
+
+        binaryClient = new BinaryScoringClient("localhost", binaryPort);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        binaryClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public String httpSingle() throws IOException, InterruptedException {
+        return httpClient.send(singleRequest, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public LoanResponse binarySingle() throws IOException {
+        return binaryClient.checkLoan(BenchmarkRequests.approved());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public String httpBatch() throws IOException, InterruptedException {
+        return httpClient.send(batchRequest, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<LoanResponse> binaryPipelined() throws IOException {
+        return binaryClient.checkLoans(batch);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.khitrova.scoring.benchmark;
+
+import ru.khitrova.scoring.binary.BinaryProtocol;
+import ru.khitrova.scoring.bulk.CsvRecordFormat;
+import ru.khitrova.scoring.model.LoanRequest;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Входной файл для {@code BulkScoringApplication} из запросов {@link BenchmarkRequests#rejectionMix}:
+ * {@code BulkInputGenerator <файл> <количество записей> [csv|binary]}.
+ */
+public class BulkInputGenerator {
+
+    private static final int DISTINCT_REQUESTS = 4096;
+
+    public static void main(String[] args) throws IOException {
+        long records = Long.parseLong(args[1]);
+        boolean binary = args.length > 2 && "binary".equals(args[2]);
+        LoanRequest[] loanRequests = BenchmarkRequests.rejectionMix(DISTINCT_REQUESTS, 42);
+
+        byte[][] encoded = new byte[loanRequests.length][];
+        for (int i = 0; i < loanRequests.length; i++) {
+            encoded[i] = binary ? frame(loanRequests[i]) : csv(loanRequests[i]);
+        }
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[0])), 1 << 16)) {
+            if (!binary) {
+                out.write((CsvRecordFormat.HEADER + "\n").getBytes(StandardCharsets.US_ASCII));
+            }
+            ByteBuffer id = ByteBuffer.allocate(4);
+            for (long i = 0; i < records; i++) {
+                byte[] record = encoded[(int) (i % encoded.length)];
+                if (binary) {
+                    id.putInt(0, (int) i);
+                    out.write(id.array());
+                    out.write(record, 4, record.length - 4);
+                } else {
+                    out.write(record);
+                }
+            }
+        }
+    }
+
+    private static byte[] frame(LoanRequest loanRequest) {
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryProtocol.REQUEST_SIZE);
+        buffer.putInt(0);
+        BinaryProtocol.writeRequest(buffer, loanRequest);
+        return buffer.array();
+    }
+
+    private static byte[] csv(LoanRequest loanRequest) {
+        return (loanRequest.age + "," + loanRequest.sex + "," + loanRequest.sourceOfIncome + ","
+                + loanRequest.lastYearIncome + "," + loanRequest.creditRating + "," + loanRequest.requestedAmount + ","
+                + loanRequest.repaymentPeriod + "," + loanRequest.loanPurpose + "\n").getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,83 @@
+package ru.khitrova.scoring.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.scoring.ColumnarScoringEngine;
+import ru.khitrova.scoring.scoring.FixedPointScoringService;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+import ru.khitrova.scoring.scoring.InterestRateTable;
+import ru.khitrova.scoring.scoring.LoanColumns;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка пачки запросов в одном потоке, записей в секунду на ядро: по одному {@link LoanRequest},
+ * по одной записи через примитивный вход и пачкой в столбцах через {@link ColumnarScoringEngine}.
+ * Вклад автовекторизации виден при запуске с {@code -jvmArgsAppend -XX:-UseSuperWord}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+@OperationsPerInvocation(ColumnarScoringBenchmark.BATCH)
+public class ColumnarScoringBenchmark {
+
+    static final int BATCH = 10_000;
+
+    private final ScoringService bigDecimal = new InMemoryScoringService();
+    private final ScoringService fixedPoint = new FixedPointScoringService();
+    private final ColumnarScoringEngine columnar = new ColumnarScoringEngine();
+
+    private LoanRequest[] loanRequests;
+    private LoanColumns columns;
+    private long[] decisions;
+
+    @Setup
+    public void setUp() {
+        loanRequests = BenchmarkRequests.rejectionMix(BATCH, 42);
+        columns = new LoanColumns(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            LoanRequest loanRequest = loanRequests[i];
+            columns.age[i] = loanRequest.age;
+            columns.sex[i] = loanRequest.sex.ordinal();
+            columns.sourceOfIncome[i] = loanRequest.sourceOfIncome.ordinal();
+            columns.creditRating[i] = loanRequest.creditRating;
+            columns.amountTenths[i] = InterestRateTable.amountInTenths(loanRequest.requestedAmount);
+            columns.repaymentPeriod[i] = loanRequest.repaymentPeriod;
+            columns.loanPurpose[i] = loanRequest.loanPurpose.ordinal();
+            columns.incomeUnscaled[i] = loanRequest.lastYearIncome.unscaledValue().longValueExact();
+            columns.incomeScale[i] = loanRequest.lastYearIncome.scale();
+        }
+        decisions = new long[BATCH];
+    }
+
+    @Benchmark
+    public void perObject(Blackhole blackhole) {
+        for (LoanRequest loanRequest : loanRequests) {
+            blackhole.consume(bigDecimal.checkLoan(loanRequest));
+        }
+    }
+
+    @Benchmark
+    public long perRecord() {
+        long checksum = 0;
+        for (LoanRequest loanRequest : loanRequests) {
+            checksum += fixedPoint.checkLoan(loanRequest.age, loanRequest.sex, loanRequest.sourceOfIncome,
+                    loanRequest.creditRating, InterestRateTable.amountInTenths(loanRequest.requestedAmount),
+                    loanRequest.repaymentPeriod, loanRequest.loanPurpose,
+                    loanRequest.lastYearIncome.unscaledValue().longValue(), loanRequest.lastYearIncome.scale());
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long[] columnar() {
+        columnar.checkLoans(columns, decisions, fixedPoint);
+        return decisions;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.khitrova.scoring.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.web.LoanJsonCodec;
+import ru.khitrova.scoring.web.LoanResponseCache;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор {@link LoanRequest} и запись {@link LoanResponse}: Jackson databind, {@link LoanJsonCodec}
+ * и готовые байты из {@link LoanResponseCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private byte[] requestJson;
+    private LoanResponse approved;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        requestReader = objectMapper.readerFor(LoanRequest.class);
+        responseWriter = objectMapper.writerFor(LoanResponse.class);
+        requestJson = BenchmarkRequests.APPROVED_JSON.getBytes(StandardCharsets.UTF_8);
+        approved = new LoanResponse();
+        approved.approved = true;
+        approved.annualPayment = BigDecimal.valueOf(123, 1);
+    }
+
+    @Benchmark
+    public LoanRequest readJackson() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public LoanRequest readCodec() {
+        return LoanJsonCodec.readRequest(requestJson, 0, requestJson.length);
+    }
+
+    @Benchmark
+    public byte[] writeJackson() throws IOException {
+        return responseWriter.writeValueAsBytes(approved);
+    }
+
+    @Benchmark
+    public byte[] writeCodec() {
+        return LoanJsonCodec.writeResponse(approved);
+    }
+
+    @Benchmark
+    public byte[] writeCached() {
+        return LoanResponseCache.get(approved);
+    }
+}
@@ -0,0 +1,210 @@
+package ru.khitrova.scoring.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Нагрузочный тест {@code /scoring/check} на большом количестве постоянных (keep-alive) соединений:
+ * пропускная способность и 99-й процентиль времени ответа в режиме пула потоков Tomcat и в режиме
+ * виртуальных потоков ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * Сервер запускается отдельным процессом ({@link LoadTestServer}), так как на каждое соединение приходится
+ * по дескриптору у клиента и у сервера. Каждое соединение обслуживается своим виртуальным потоком клиента,
+ * который после ответа ждет случайное время (в среднем заданную паузу) и отправляет следующий запрос:
+ * большая часть соединений простаивает, как у реальных клиентов. Без паузы Tomcat продолжает читать
+ * уже пришедший следующий запрос того же соединения, и несколько соединений вытесняют остальные.
+ * Ошибки - соединения, закрытые до окончания теста.
+ * <p>
+ * Запуск: {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark.main=ru.khitrova.scoring.benchmark.KeepAliveLoadTest
+ * -Djmh.args="platform 10000 30 2000"}, аргументы - режим (platform или virtual), количество соединений,
+ * длительность измерения в секундах и средняя пауза между запросами соединения в миллисекундах.
+ */
+public final class KeepAliveLoadTest {
+
+    private static final int WARMUP_SECONDS = 10;
+
+    /**
+     * Гистограмма времени ответа с шагом 0.1 мс до 60 с.
+     */
+    private static final int BUCKET_MICROS = 100;
+    private static final int BUCKETS = 600_000;
+
+    private static final byte[] BODY = BenchmarkRequests.APPROVED_JSON.getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private final AtomicLong errors = new AtomicLong();
+    private volatile boolean recording;
+    private volatile long recordingEnd;
+
+    /**
+     * Время отправки запроса, на который еще нет ответа, по номеру соединения (0 - запроса нет).
+     */
+    private AtomicLongArray inFlight;
+    private volatile boolean running = true;
+
+    private KeepAliveLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "platform";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int thinkMillis = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+        new KeepAliveLoadTest().run(mode, connections, seconds, thinkMillis);
+    }
+
+    private void run(String mode, int connections, int seconds, int thinkMillis) throws Exception {
+        try (LoadTestServer server = LoadTestServer.start(
+                "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                "--server.tomcat.max-connections=" + (connections + 100),
+                "--server.tomcat.max-keep-alive-requests=-1",
+                "--server.tomcat.keep-alive-timeout=-1")) {
+            List<Thread> clients = new ArrayList<>(connections);
+            inFlight = new AtomicLongArray(connections);
+            for (int i = 0; i < connections; i++) {
+                Socket socket = connect(server.port());
+                int client = i;
+                clients.add(Thread.ofVirtual().start(() -> client(client, socket, thinkMillis)));
+            }
+
+            TimeUnit.SECONDS.sleep(WARMUP_SECONDS);
+            recording = true;
+            TimeUnit.SECONDS.sleep(seconds);
+            recording = false;
+            recordingEnd = System.nanoTime();
+            long unanswered = recordUnanswered();
+            running = false;
+            for (Thread client : clients) {
+                client.join();
+            }
+
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += histogram.get(i);
+            }
+            System.out.printf("mode: %s, connections: %d, seconds: %d, think time: %d ms%n",
+                    mode, connections, seconds, thinkMillis);
+            System.out.printf("throughput: %.0f req/s, p50: %.1f ms, p99: %.1f ms, max: %.1f ms, "
+                            + "unanswered: %d, errors: %d%n",
+                    (double) (count - unanswered) / seconds, percentile(count, 0.50), percentile(count, 0.99),
+                    percentile(count, 1.0), unanswered, errors.get());
+        }
+    }
+
+    private void client(int client, Socket socket, int thinkMillis) {
+        byte[] request = ("POST /scoring/check HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n"
+                + "Accept: application/json\r\nContent-Length: " + BODY.length + "\r\n\r\n"
+                + BenchmarkRequests.APPROVED_JSON).getBytes(StandardCharsets.US_ASCII);
+        try (socket) {
+            OutputStream outputStream = socket.getOutputStream();
+            InputStream inputStream = new BufferedInputStream(socket.getInputStream());
+            while (running) {
+                TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextInt(2 * thinkMillis + 1));
+                long start = System.nanoTime();
+                inFlight.set(client, start);
+                outputStream.write(request);
+                outputStream.flush();
+                readResponse(inputStream);
+                if (recording) {
+                    record(System.nanoTime() - start);
+                }
+                inFlight.set(client, 0);
+            }
+        } catch (IOException e) {
+            errors.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void record(long nanos) {
+        histogram.incrementAndGet((int) Math.min(nanos / 1000 / BUCKET_MICROS, BUCKETS - 1));
+    }
+
+    /**
+     * Запросы без ответа к концу измерения учитываются со временем ожидания до конца измерения,
+     * иначе зависшие соединения не попали бы в процентили.
+     */
+    private long recordUnanswered() {
+        long unanswered = 0;
+        for (int i = 0; i < inFlight.length(); i++) {
+            long start = inFlight.get(i);
+            if (start != 0 && start < recordingEnd) {
+                record(recordingEnd - start);
+                unanswered++;
+            }
+        }
+        return unanswered;
+    }
+
+    /**
+     * Соединения открываются по одному, чтобы не переполнить очередь ожидающих соединений сервера.
+     */
+    private static Socket connect(int port) throws IOException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Socket socket = new Socket("localhost", port);
+                socket.setTcpNoDelay(true);
+                return socket;
+            } catch (IOException e) {
+                if (attempt == 10) {
+                    throw e;
+                }
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+    }
+
+    /**
+     * Чтение ответа: заголовки до пустой строки и тело длиной Content-Length.
+     */
+    private static void readResponse(InputStream inputStream) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int contentLength = 0;
+        int b;
+        while ((b = inputStream.read()) >= 0) {
+            if (b != '\n') {
+                line.append((char) b);
+                continue;
+            }
+            String header = line.toString().trim();
+            line.setLength(0);
+            if (header.isEmpty()) {
+                break;
+            }
+            if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Integer.parseInt(header.substring(15).trim());
+            }
+        }
+        if (b < 0) {
+            throw new IOException("Соединение закрыто сервером");
+        }
+        for (int i = 0; i < contentLength; i++) {
+            if (inputStream.read() < 0) {
+                throw new IOException("Соединение закрыто сервером");
+            }
+        }
+    }
+
+    private double percentile(long count, double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(count * percentile));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram.get(i);
+            if (seen >= rank) {
+                return (i + 1) * BUCKET_MICROS / 1000.0;
+            }
+        }
+        return Double.NaN;
+    }
+}
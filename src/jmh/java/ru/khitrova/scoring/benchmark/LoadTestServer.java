@@ -0,0 +1,82 @@
+package ru.khitrova.scoring.benchmark;
+
+import ru.khitrova.scoring.ScoringApplication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запуск сервиса скоринга для нагрузочных тестов отдельным процессом с тем же classpath
+ * на свободном порту, чтобы клиент и сервер не делили кучу и сборщик мусора.
+ */
+final class LoadTestServer implements AutoCloseable {
+
+    private final Process process;
+    private final int port;
+
+    private LoadTestServer(Process process, int port) {
+        this.process = process;
+        this.port = port;
+    }
+
+    /**
+     * Запуск сервера и ожидание, пока он не начнет принимать соединения.
+     * @param properties дополнительные свойства Spring Boot в виде {@code --name=value}
+     */
+    static LoadTestServer start(String... properties) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + "/bin/java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ScoringApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--logging.level.root=ERROR");
+        command.addAll(Arrays.asList(properties));
+        LoadTestServer server = new LoadTestServer(new ProcessBuilder(command).inheritIO().start(), port);
+        try {
+            server.await();
+        } catch (RuntimeException | InterruptedException e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    int port() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void await() throws InterruptedException {
+        for (int attempt = 0; attempt < 600; attempt++) {
+            try {
+                new Socket("localhost", port).close();
+                return;
+            } catch (IOException e) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Сервер не запустился на порту " + port);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.khitrova.scoring.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.scoring.MicroBatchingScoringService;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность и время ответа при одновременных запросах: проверка сразу в вызывающем потоке
+ * ({@code maxWaitMicros = -1}) и сборка запросов в пачки с разным максимальным ожиданием пачки.
+ * Запуск с {@code -t} задает количество одновременных вызывающих.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class MicroBatchingBenchmark {
+
+    private static final int REQUESTS = 1024;
+
+    @Param({"fixed-point"})
+    public String engine;
+
+    @Param({"-1", "10", "100", "1000"})
+    public long maxWaitMicros;
+
+    @Param({"64"})
+    public int maxBatchSize;
+
+    private ScoringService scoringService;
+    private LoanRequest[] loanRequests;
+
+    @Setup
+    public void setUp() {
+        ScoringService engineService = BenchmarkRequests.engine(engine);
+        scoringService = maxWaitMicros < 0 ? engineService : new MicroBatchingScoringService(engineService,
+                maxBatchSize, TimeUnit.MICROSECONDS.toNanos(maxWaitMicros), 0);
+        loanRequests = BenchmarkRequests.rejectionMix(REQUESTS, 42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (scoringService instanceof MicroBatchingScoringService microBatching) {
+            microBatching.close();
+        }
+    }
+
+    @Benchmark
+    public LoanResponse checkLoan() {
+        return scoringService.checkLoan(loanRequests[ThreadLocalRandom.current().nextInt(REQUESTS)]);
+    }
+}
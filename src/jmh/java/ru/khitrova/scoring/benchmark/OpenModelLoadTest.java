@@ -0,0 +1,182 @@
+package ru.khitrova.scoring.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import ru.khitrova.scoring.model.LoanRequest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест {@code /scoring/check} в открытой модели: запросы отправляются с заданной частотой
+ * по расписанию и не ждут ответов на предыдущие, как от множества независимых клиентов.
+ * <p>
+ * Время ответа отсчитывается от запланированного момента отправки, а не от фактического. Если сервер
+ * или сам генератор задержались, ожидание очереди входит во время ответа, а не пропадает из измерения
+ * (поправка на coordinated omission). Для сравнения печатается и время от фактической отправки.
+ * Значения записываются в {@link Histogram} HdrHistogram с тремя значащими цифрами.
+ * <p>
+ * Запросы берутся по кругу из {@link BenchmarkRequests#rejectionMix(int, long)}. Ошибки - ответы
+ * со статусом не 200, разрывы соединения и ответы дольше {@code TIMEOUT_SECONDS}; ошибки прогрева печатаются
+ * отдельно и на результат не влияют. Тест завершается с кодом 1, если есть ошибки в измерении или процентиль
+ * превышает порог, поэтому сборка Maven тоже падает.
+ * <p>
+ * Запуск: {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark.main=ru.khitrova.scoring.benchmark.OpenModelLoadTest
+ * -Djmh.args="1000 30 5 20 50 200"}, аргументы - частота запросов в секунду, длительность измерения в секундах
+ * и пороги p50, p99, p99.9 и максимума в миллисекундах.
+ */
+public final class OpenModelLoadTest {
+
+    private static final int WARMUP_SECONDS = 10;
+    private static final int TIMEOUT_SECONDS = 10;
+    private static final int REQUESTS = 10_000;
+    private static final long SEED = 42;
+
+    private static final long HIGHEST_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final double[] PERCENTILES = {50.0, 99.0, 99.9, 100.0};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p99", "p99.9", "max"};
+
+    private final Histogram corrected = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    private final Histogram uncorrected = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong warmupErrors = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+
+    private OpenModelLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        double[] thresholds = {
+                args.length > 2 ? Double.parseDouble(args[2]) : 5,
+                args.length > 3 ? Double.parseDouble(args[3]) : 20,
+                args.length > 4 ? Double.parseDouble(args[4]) : 50,
+                args.length > 5 ? Double.parseDouble(args[5]) : 200
+        };
+        boolean passed = new OpenModelLoadTest().run(rate, seconds, thresholds);
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run(int rate, int seconds, double[] thresholds) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        LoanRequest[] loanRequests = BenchmarkRequests.rejectionMix(REQUESTS, SEED);
+        byte[][] bodies = new byte[loanRequests.length][];
+        for (int i = 0; i < loanRequests.length; i++) {
+            bodies[i] = objectMapper.writeValueAsBytes(loanRequests[i]);
+        }
+
+        try (LoadTestServer server = LoadTestServer.start();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .build();
+            URI uri = URI.create("http://localhost:" + server.port() + "/scoring/check");
+            long sent = generate(client, uri, bodies, rate, seconds);
+            awaitPending();
+            return report(rate, seconds, sent, thresholds);
+        }
+    }
+
+    /**
+     * Отправка запросов по расписанию: {@code i}-й запрос планируется на {@code start + i * interval}.
+     * Если генератор отстал, запросы отправляются сразу, без сдвига расписания.
+     * @return количество запросов, попавших в измерение
+     */
+    private long generate(HttpClient client, URI uri, byte[][] bodies, int rate, int seconds) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long recordingStart = start + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long end = recordingStart + TimeUnit.SECONDS.toNanos(seconds);
+        long recorded = 0;
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                return recorded;
+            }
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            boolean recording = intended >= recordingStart;
+            if (recording) {
+                recorded++;
+            }
+            send(client, uri, bodies[(int) (i % bodies.length)], intended, recording);
+        }
+    }
+
+    private void send(HttpClient client, URI uri, byte[] body, long intended, boolean recording) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(TIMEOUT_SECONDS))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        pending.incrementAndGet();
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long now = System.nanoTime();
+            if (error != null || response.statusCode() != 200) {
+                (recording ? errors : warmupErrors).incrementAndGet();
+            }
+            if (recording) {
+                record(corrected, now - intended);
+                record(uncorrected, now - sent);
+            }
+            pending.decrementAndGet();
+        });
+    }
+
+    private static void record(Histogram histogram, long nanos) {
+        histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_MICROS));
+    }
+
+    /**
+     * Ожидание ответов на отправленные запросы: каждый из них завершается ответом или ошибкой по тайм-ауту.
+     */
+    private void awaitPending() throws InterruptedException {
+        while (pending.get() > 0) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private boolean report(int rate, int seconds, long sent, double[] thresholds) {
+        System.out.printf("rate: %d req/s, seconds: %d, requests: %d, errors: %d, warm-up errors: %d%n",
+                rate, seconds, sent, errors.get(), warmupErrors.get());
+        System.out.printf("%-12s %10s %10s%n", "", "corrected", "uncorrected");
+        List<String> breaches = new ArrayList<>();
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            double value = millis(corrected, PERCENTILES[i]);
+            System.out.printf("%-12s %10.2f %10.2f ms%n", PERCENTILE_NAMES[i], value, millis(uncorrected, PERCENTILES[i]));
+            if (value > thresholds[i]) {
+                breaches.add(String.format("%s %.2f ms > %.2f ms", PERCENTILE_NAMES[i], value, thresholds[i]));
+            }
+        }
+        if (errors.get() > 0) {
+            breaches.add("errors: " + errors.get());
+        }
+        if (!breaches.isEmpty()) {
+            System.out.println("thresholds breached: " + String.join(", ", breaches));
+            return false;
+        }
+        return true;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        long micros = percentile == 100.0 ? histogram.getMaxValue() : histogram.getValueAtPercentile(percentile);
+        return micros / 1000.0;
+    }
+}
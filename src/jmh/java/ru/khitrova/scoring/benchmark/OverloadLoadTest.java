@@ -0,0 +1,173 @@
+package ru.khitrova.scoring.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import ru.khitrova.scoring.model.LoanRequest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест {@code /scoring/check} при перегрузке: открытая модель, как в {@link OpenModelLoadTest},
+ * с частотой вдвое выше насыщения сервера. Тест запускает сервер дважды, без ограничения одновременных
+ * запросов и с ним ({@code scoring.limit.enabled=true}), и печатает для каждого запуска процентили времени
+ * ответов 200 и 503 от запланированного момента отправки, долю отклоненных запросов и ошибки.
+ * <p>
+ * Без ограничения запросы копятся в очереди Tomcat и время ответа растет весь тест. С ограничением лишние
+ * запросы сразу получают 503, а p99 принятых запросов должен остаться в пределах порога. Тест завершается
+ * с кодом 1, если p99 ответов 200 с ограничением превышает порог или есть ответы, кроме 200 и 503.
+ * <p>
+ * Запуск: {@code mvn -Pbenchmark -DskipTests verify -Dbenchmark.main=ru.khitrova.scoring.benchmark.OverloadLoadTest
+ * -Djmh.args="500 30 100"}, аргументы - частота насыщения в запросах в секунду (например, наибольшая частота,
+ * которую выдерживает {@link OpenModelLoadTest}), длительность измерения в секундах и порог p99 в миллисекундах.
+ */
+public final class OverloadLoadTest {
+
+    private static final int OVERLOAD = 2;
+    private static final int WARMUP_SECONDS = 10;
+    private static final int TIMEOUT_SECONDS = 10;
+    private static final int REQUESTS = 10_000;
+    private static final long SEED = 42;
+
+    private static final long HIGHEST_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final double[] PERCENTILES = {50.0, 99.0, 100.0};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p99", "max"};
+
+    private final Histogram accepted = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    private final Histogram shed = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+
+    private OverloadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int saturation = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 100;
+
+        int rate = OVERLOAD * saturation;
+        new OverloadLoadTest().run("without limit", rate, seconds);
+        OverloadLoadTest limited = new OverloadLoadTest();
+        limited.run("with limit", rate, seconds, "--scoring.limit.enabled=true");
+
+        double p99 = millis(limited.accepted, 99.0);
+        boolean passed = p99 <= threshold && limited.errors.get() == 0;
+        if (!passed) {
+            System.out.printf("thresholds breached: p99 with limit %.2f ms (threshold %.2f ms), errors: %d%n",
+                    p99, threshold, limited.errors.get());
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private void run(String name, int rate, int seconds, String... properties) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        LoanRequest[] loanRequests = BenchmarkRequests.rejectionMix(REQUESTS, SEED);
+        byte[][] bodies = new byte[loanRequests.length][];
+        for (int i = 0; i < loanRequests.length; i++) {
+            bodies[i] = objectMapper.writeValueAsBytes(loanRequests[i]);
+        }
+
+        try (LoadTestServer server = LoadTestServer.start(properties);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .build();
+            URI uri = URI.create("http://localhost:" + server.port() + "/scoring/check");
+            long sent = generate(client, uri, bodies, rate, seconds);
+            while (pending.get() > 0) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            report(name, rate, sent);
+            limiterMetrics(client, server.port());
+        }
+    }
+
+    /**
+     * Метрики ограничения одновременных запросов с endpoint Prometheus после теста, если ограничение включено.
+     */
+    private static void limiterMetrics(HttpClient client, int port) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/prometheus"))
+                .GET()
+                .build();
+        client.send(request, HttpResponse.BodyHandlers.ofLines()).body()
+                .filter(line -> line.startsWith("scoring_limit"))
+                .forEach(System.out::println);
+    }
+
+    /**
+     * Отправка запросов по расписанию, как в {@link OpenModelLoadTest}.
+     * @return количество запросов, попавших в измерение
+     */
+    private long generate(HttpClient client, URI uri, byte[][] bodies, int rate, int seconds) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long recordingStart = start + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long end = recordingStart + TimeUnit.SECONDS.toNanos(seconds);
+        long recorded = 0;
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                return recorded;
+            }
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            boolean recording = intended >= recordingStart;
+            if (recording) {
+                recorded++;
+            }
+            send(client, uri, bodies[(int) (i % bodies.length)], intended, recording);
+        }
+    }
+
+    private void send(HttpClient client, URI uri, byte[] body, long intended, boolean recording) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(TIMEOUT_SECONDS))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        pending.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended), HIGHEST_MICROS);
+            if (recording) {
+                if (error == null && response.statusCode() == 200) {
+                    accepted.recordValue(micros);
+                } else if (error == null && response.statusCode() == 503) {
+                    shed.recordValue(micros);
+                } else {
+                    errors.incrementAndGet();
+                }
+            }
+            pending.decrementAndGet();
+        });
+    }
+
+    private void report(String name, int rate, long sent) {
+        System.out.printf("%s: rate %d req/s, requests: %d, accepted: %d, shed: %d (%.1f%%), errors: %d%n",
+                name, rate, sent, accepted.getTotalCount(), shed.getTotalCount(),
+                100.0 * shed.getTotalCount() / Math.max(1, sent), errors.get());
+        System.out.printf("%-12s %10s %10s%n", "", "200", "503");
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            System.out.printf("%-12s %10.2f %10.2f ms%n", PERCENTILE_NAMES[i],
+                    millis(accepted, PERCENTILES[i]), millis(shed, PERCENTILES[i]));
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        long micros = percentile == 100.0 ? histogram.getMaxValue() : histogram.getValueAtPercentile(percentile);
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.khitrova.scoring.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.scoring.LoanRequestValidator;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы на обработку запроса до вызова сервиса скоринга:
+ * десериализация {@link LoanRequest} из JSON и валидация через Bean Validation и {@link LoanRequestValidator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestProcessingBenchmark {
+
+    private ObjectReader requestReader;
+    private Validator validator;
+    private LoanRequestValidator loanRequestValidator;
+    private byte[] requestJson;
+    private LoanRequest validRequest;
+    private LoanRequest invalidRequest;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        requestReader = objectMapper.readerFor(LoanRequest.class);
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        loanRequestValidator = new LoanRequestValidator(validator);
+        requestJson = BenchmarkRequests.APPROVED_JSON.getBytes(StandardCharsets.UTF_8);
+        validRequest = BenchmarkRequests.approved();
+        invalidRequest = BenchmarkRequests.approved();
+        invalidRequest.age = 201;
+        invalidRequest.repaymentPeriod = null;
+    }
+
+    @Benchmark
+    public LoanRequest deserialize() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<LoanRequest>> validateValid() {
+        return validator.validate(validRequest);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<LoanRequest>> validateInvalid() {
+        return validator.validate(invalidRequest);
+    }
+
+    @Benchmark
+    public List<String> validateValidSpecialized() {
+        return loanRequestValidator.validate(validRequest);
+    }
+
+    @Benchmark
+    public List<String> validateInvalidSpecialized() {
+        return loanRequestValidator.validate(invalidRequest);
+    }
+}
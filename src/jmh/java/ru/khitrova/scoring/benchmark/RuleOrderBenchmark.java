@@ -0,0 +1,43 @@
+package ru.khitrova.scoring.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+import ru.khitrova.scoring.scoring.ScoringListener;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Среднее время проверки в {@link InMemoryScoringService} на потоке запросов с преобладанием отказов
+ * ({@link BenchmarkRequests#rejectionMix(int, long)}) в исходном и адаптивном порядке проверок.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class RuleOrderBenchmark {
+
+    private static final int MASK = 1023;
+
+    @Param({"false", "true"})
+    public boolean adaptiveOrder;
+
+    private InMemoryScoringService scoringService;
+    private LoanRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        scoringService = new InMemoryScoringService(ScoringListener.NOOP, adaptiveOrder);
+        requests = BenchmarkRequests.rejectionMix(MASK + 1, 42);
+    }
+
+    @Benchmark
+    public LoanResponse rejectionMix() {
+        return scoringService.checkLoan(requests[next++ & MASK]);
+    }
+}
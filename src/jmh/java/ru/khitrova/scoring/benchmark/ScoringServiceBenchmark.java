@@ -0,0 +1,63 @@
+package ru.khitrova.scoring.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.scoring.ScoringDecision;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Производительность {@link ScoringService#checkLoan(LoanRequest)} в одном потоке:
+ * одобренный запрос, запрос, отклоненный первой проверкой, и запрос, отклоненный последней.
+ * Одобренный запрос проверяется также через примитивный вход ({@link ScoringDecision}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class ScoringServiceBenchmark {
+
+    @Param({"big-decimal", "fixed-point", "decision-table", "compiled-rules"})
+    public String engine;
+
+    private ScoringService scoringService;
+    private LoanRequest approved;
+    private LoanRequest rejectedEarly;
+    private LoanRequest rejectedLate;
+
+    @Setup
+    public void setUp() {
+        scoringService = BenchmarkRequests.engine(engine);
+        approved = BenchmarkRequests.approved();
+        rejectedEarly = BenchmarkRequests.rejectedEarly();
+        rejectedLate = BenchmarkRequests.rejectedLate();
+    }
+
+    @Benchmark
+    public LoanResponse approved() {
+        return scoringService.checkLoan(approved);
+    }
+
+    /**
+     * Одобренный запрос через примитивный вход, как в контроллере.
+     */
+    @Benchmark
+    public LoanResponse approvedDecision() {
+        return ScoringDecision.checkLoan(scoringService, approved);
+    }
+
+    @Benchmark
+    public LoanResponse rejectedEarly() {
+        return scoringService.checkLoan(rejectedEarly);
+    }
+
+    @Benchmark
+    public LoanResponse rejectedLate() {
+        return scoringService.checkLoan(rejectedLate);
+    }
+}
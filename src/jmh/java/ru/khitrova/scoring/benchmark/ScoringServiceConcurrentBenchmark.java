@@ -0,0 +1,14 @@
+package ru.khitrova.scoring.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность сервиса скоринга при вызове из всех доступных потоков.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(Threads.MAX)
+public class ScoringServiceConcurrentBenchmark extends ScoringServiceBenchmark {
+}
@@ -0,0 +1,109 @@
+package ru.khitrova.scoring.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.khitrova.scoring.ScoringApplication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный тест масштабируемости по соединениям: время ответа на {@code /scoring/check} по HTTP
+ * при заданном количестве медленных клиентов, которые отправили заголовки и часть тела запроса и ждут.
+ * <p>
+ * В режиме servlet каждый такой клиент занимает поток Tomcat на чтении тела, поэтому когда медленных клиентов
+ * больше {@code server.tomcat.threads.max}, обычные запросы ждут освобождения потока (до таймаута клиента).
+ * В режиме reactive тело читается без блокировки потока, и медленные клиенты занимают только соединения.
+ * Запросы, не получившие ответа за {@link #READ_TIMEOUT_MILLIS}, считаются неудачными и выводятся
+ * после прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class WebModeLoadBenchmark {
+
+    private static final int MAX_THREADS = 50;
+    private static final int READ_TIMEOUT_MILLIS = 2000;
+    private static final byte[] BODY = BenchmarkRequests.APPROVED_JSON.getBytes(StandardCharsets.UTF_8);
+
+    @Param({"servlet", "reactive"})
+    public String webApplicationType;
+
+    @Param({"0", "100"})
+    public int slowClients;
+
+    private ConfigurableApplicationContext context;
+    private URL url;
+    private final List<Socket> sockets = new ArrayList<>();
+    private final AtomicLong failures = new AtomicLong();
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(ScoringApplication.class)
+                .run("--server.port=0", "--spring.main.web-application-type=" + webApplicationType,
+                        "--server.tomcat.threads.max=" + MAX_THREADS, "--logging.level.root=ERROR");
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        url = URI.create("http://localhost:" + port + "/scoring/check").toURL();
+        for (int i = 0; i < slowClients; i++) {
+            Socket socket = new Socket("localhost", port);
+            OutputStream outputStream = socket.getOutputStream();
+            outputStream.write(("POST /scoring/check HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Content-Type: application/json\r\nContent-Length: " + BODY.length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            outputStream.write(BODY, 0, BODY.length / 2);
+            outputStream.flush();
+            sockets.add(socket);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        sockets.clear();
+        context.close();
+        System.out.println("Запросов без ответа: " + failures.get());
+    }
+
+    @Benchmark
+    public int check() {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(READ_TIMEOUT_MILLIS);
+            connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(BODY);
+            }
+            int status = connection.getResponseCode();
+            try (InputStream inputStream = connection.getInputStream()) {
+                while (inputStream.read() >= 0) {
+                    // ответ дочитывается, чтобы соединение вернулось в пул keep-alive
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            failures.incrementAndGet();
+            return -1;
+        }
+    }
+}
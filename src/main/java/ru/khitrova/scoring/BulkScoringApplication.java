@@ -0,0 +1,71 @@
+package ru.khitrova.scoring;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import ru.khitrova.scoring.bulk.BinaryRecordFormat;
+import ru.khitrova.scoring.bulk.BulkScoringProcessor;
+import ru.khitrova.scoring.bulk.BulkScoringReport;
+import ru.khitrova.scoring.bulk.CsvRecordFormat;
+import ru.khitrova.scoring.bulk.RecordFormat;
+import ru.khitrova.scoring.scoring.BatchScoringService;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакетная проверка файла с запросами без веб-сервера:
+ * {@code BulkScoringApplication <входной файл> <выходной файл> [--scoring.bulk.format=csv|binary] ...}.
+ * Остальные параметры передаются Spring, например {@code --scoring.engine=decision-table}.
+ */
+public class BulkScoringApplication {
+
+    public static void main(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                files.add(arg);
+            }
+        }
+        if (files.size() != 2) {
+            System.err.println("Использование: BulkScoringApplication <входной файл> <выходной файл>"
+                    + " [--scoring.bulk.format=csv|binary] [--scoring.bulk.chunk-size=байт]"
+                    + " [--scoring.bulk.parallelism=потоков] [--scoring.engine=...]");
+            System.exit(2);
+        }
+
+        String[] springArgs = new String[args.length + 1];
+        springArgs[0] = "--spring.main.web-application-type=none";
+        System.arraycopy(args, 0, springArgs, 1, args.length);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ScoringApplication.class)
+                .logStartupInfo(false)
+                .run(springArgs)) {
+            Environment environment = context.getEnvironment();
+            RecordFormat format = recordFormat(environment.getProperty("scoring.bulk.format", "csv"));
+            BulkScoringProcessor processor = new BulkScoringProcessor(
+                    context.getBean(BatchScoringService.class),
+                    format,
+                    environment.getProperty("scoring.bulk.chunk-size", Integer.class, 8 * 1024 * 1024),
+                    environment.getProperty("scoring.bulk.parallelism", Integer.class,
+                            Runtime.getRuntime().availableProcessors()));
+
+            BulkScoringReport report = processor.process(Paths.get(files.get(0)), Paths.get(files.get(1)),
+                    progress -> System.err.println(progress.progress()));
+            System.out.println(report);
+        }
+    }
+
+    private static RecordFormat recordFormat(String name) {
+        switch (name) {
+            case "csv":
+                return new CsvRecordFormat();
+            case "binary":
+                return new BinaryRecordFormat();
+            default:
+                throw new IllegalArgumentException("Неизвестный формат файла: " + name);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.khitrova.scoring;
+
+import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import ru.khitrova.scoring.journal.JournalReader;
+import ru.khitrova.scoring.replay.ReplayProcessor;
+import ru.khitrova.scoring.replay.ReplayReport;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Повторная проверка журнала решений другой конфигурацией без веб-сервера:
+ * {@code ReplayApplication <каталог журнала> <файл различий> [--scoring.replay.parallelism=потоков] ...}.
+ * Конфигурация задается параметрами Spring, например
+ * {@code --scoring.engine=compiled-rules --scoring.rules.location=file:candidate-rules.json}:
+ * пороги и модификаторы ставки меняются в файле правил без изменения кода.
+ * Изменившиеся решения записываются в файл различий, итоговый отчет выводится в стандартный вывод.
+ */
+public class ReplayApplication {
+
+    public static void main(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                files.add(arg);
+            }
+        }
+        if (files.size() != 2) {
+            System.err.println("Использование: ReplayApplication <каталог журнала> <файл различий>"
+                    + " [--scoring.replay.parallelism=потоков] [--scoring.replay.chunk-records=записей]"
+                    + " [--scoring.engine=...] [--scoring.rules.location=...]");
+            System.exit(2);
+        }
+
+        String[] springArgs = new String[args.length + 2];
+        springArgs[0] = "--spring.main.web-application-type=none";
+        springArgs[1] = "--scoring.journal.enabled=false";
+        System.arraycopy(args, 0, springArgs, 2, args.length);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ScoringApplication.class)
+                .logStartupInfo(false)
+                .run(springArgs);
+             OutputStream diff = new BufferedOutputStream(Files.newOutputStream(Paths.get(files.get(1))))) {
+            Environment environment = context.getEnvironment();
+            ScoringService candidate = BeanFactoryAnnotationUtils.qualifiedBeanOfType(context.getBeanFactory(),
+                    ScoringService.class, ScoringService.ENGINE);
+            ReplayProcessor processor = new ReplayProcessor(
+                    candidate,
+                    environment.getProperty("scoring.replay.chunk-records", Integer.class, 65536),
+                    environment.getProperty("scoring.replay.parallelism", Integer.class,
+                            Runtime.getRuntime().availableProcessors()));
+
+            ReplayReport report = processor.process(JournalReader.open(Paths.get(files.get(0))), diff,
+                    progress -> System.err.println(progress.progress()));
+            System.out.println(report);
+        }
+    }
+}
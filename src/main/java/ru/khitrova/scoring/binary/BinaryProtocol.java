@@ -0,0 +1,221 @@
+package ru.khitrova.scoring.binary;
+
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+/**
+ * Двоичный формат запросов и ответов сервиса скоринга: кадры фиксированного размера без разделителей.
+ * Каждый кадр начинается с номера запроса ({@code int}), ответы приходят в порядке запросов,
+ * поэтому по одному соединению можно отправлять запросы, не дожидаясь ответов.
+ * <p>
+ * Запрос ({@value #REQUEST_SIZE} байт, big-endian):
+ * <pre>
+ *  0 int   номер запроса
+ *  4 byte  признаки null полей (бит = номер поля ниже, начиная с 0)
+ *  5 short возраст
+ *  7 byte  пол (порядковый номер {@link Sex})
+ *  8 byte  источник дохода (порядковый номер {@link SourceOfIncome})
+ *  9 byte  кредитный рейтинг
+ * 10 byte  срок погашения
+ * 11 byte  цель кредита (порядковый номер {@link LoanPurpose})
+ * 12 long  запрошенная сумма без масштаба
+ * 20 byte  масштаб запрошенной суммы
+ * 21 long  доход без масштаба
+ * 29 byte  масштаб дохода
+ * </pre>
+ * Суммы передаются как немасштабированное значение и масштаб {@link BigDecimal}: от масштаба дохода
+ * зависит округление, поэтому он сохраняется как есть.
+ * <p>
+ * Ответ ({@value #RESPONSE_SIZE} байт):
+ * <pre>
+ *  0 int   номер запроса
+ *  4 byte  результат: {@link #REJECTED}, {@link #APPROVED}, {@link #INVALID} или {@link #ERROR}
+ *  5 long  годовой платеж без масштаба
+ * 13 byte  масштаб годового платежа
+ * </pre>
+ */
+public final class BinaryProtocol {
+
+    public static final int REQUEST_SIZE = 30;
+    public static final int RESPONSE_SIZE = 14;
+
+    /**
+     * В кредите отказано
+     */
+    public static final byte REJECTED = 0;
+
+    /**
+     * Кредит одобрен
+     */
+    public static final byte APPROVED = 1;
+
+    /**
+     * Запрос не прошел валидацию
+     */
+    public static final byte INVALID = 2;
+
+    /**
+     * Кадр не удалось разобрать или запрос не удалось проверить
+     */
+    public static final byte ERROR = 3;
+
+    private static final int AGE = 0;
+    private static final int SEX = 1;
+    private static final int SOURCE_OF_INCOME = 2;
+    private static final int CREDIT_RATING = 3;
+    private static final int REPAYMENT_PERIOD = 4;
+    private static final int LOAN_PURPOSE = 5;
+    private static final int REQUESTED_AMOUNT = 6;
+    private static final int LAST_YEAR_INCOME = 7;
+
+    private static final Sex[] SEXES = Sex.values();
+    private static final SourceOfIncome[] SOURCES = SourceOfIncome.values();
+    private static final LoanPurpose[] PURPOSES = LoanPurpose.values();
+
+    private BinaryProtocol() {
+    }
+
+    /**
+     * Запись запроса без номера.
+     * @throws IllegalArgumentException если значение поля не помещается в кадр
+     */
+    public static void writeRequest(ByteBuffer buffer, LoanRequest loanRequest) {
+        int nulls = 0;
+        nulls |= isNull(loanRequest.age, AGE);
+        nulls |= isNull(loanRequest.sex, SEX);
+        nulls |= isNull(loanRequest.sourceOfIncome, SOURCE_OF_INCOME);
+        nulls |= isNull(loanRequest.creditRating, CREDIT_RATING);
+        nulls |= isNull(loanRequest.repaymentPeriod, REPAYMENT_PERIOD);
+        nulls |= isNull(loanRequest.loanPurpose, LOAN_PURPOSE);
+        nulls |= isNull(loanRequest.requestedAmount, REQUESTED_AMOUNT);
+        nulls |= isNull(loanRequest.lastYearIncome, LAST_YEAR_INCOME);
+
+        buffer.put((byte) nulls);
+        buffer.putShort((short) checkRange("Возраст", loanRequest.age, Short.MIN_VALUE, Short.MAX_VALUE));
+        buffer.put(loanRequest.sex == null ? 0 : (byte) loanRequest.sex.ordinal());
+        buffer.put(loanRequest.sourceOfIncome == null ? 0 : (byte) loanRequest.sourceOfIncome.ordinal());
+        buffer.put((byte) checkRange("Кредитный рейтинг", loanRequest.creditRating, Byte.MIN_VALUE, Byte.MAX_VALUE));
+        buffer.put((byte) checkRange("Срок", loanRequest.repaymentPeriod, Byte.MIN_VALUE, Byte.MAX_VALUE));
+        buffer.put(loanRequest.loanPurpose == null ? 0 : (byte) loanRequest.loanPurpose.ordinal());
+        putDecimal(buffer, "Сумма", loanRequest.requestedAmount);
+        putDecimal(buffer, "Доход", loanRequest.lastYearIncome);
+    }
+
+    /**
+     * Чтение запроса без номера.
+     * @throws IllegalArgumentException если в кадре неизвестный порядковый номер перечисления
+     */
+    public static LoanRequest readRequest(ByteBuffer buffer) {
+        int nulls = buffer.get();
+        LoanRequest loanRequest = new LoanRequest();
+        int age = buffer.getShort();
+        int sex = buffer.get();
+        int sourceOfIncome = buffer.get();
+        int creditRating = buffer.get();
+        int repaymentPeriod = buffer.get();
+        int loanPurpose = buffer.get();
+        long amountUnscaled = buffer.getLong();
+        int amountScale = buffer.get();
+        long incomeUnscaled = buffer.getLong();
+        int incomeScale = buffer.get();
+
+        loanRequest.age = present(nulls, AGE) ? age : null;
+        loanRequest.sex = present(nulls, SEX) ? ordinal(SEXES, sex) : null;
+        loanRequest.sourceOfIncome = present(nulls, SOURCE_OF_INCOME) ? ordinal(SOURCES, sourceOfIncome) : null;
+        loanRequest.creditRating = present(nulls, CREDIT_RATING) ? creditRating : null;
+        loanRequest.repaymentPeriod = present(nulls, REPAYMENT_PERIOD) ? repaymentPeriod : null;
+        loanRequest.loanPurpose = present(nulls, LOAN_PURPOSE) ? ordinal(PURPOSES, loanPurpose) : null;
+        loanRequest.requestedAmount = present(nulls, REQUESTED_AMOUNT)
+                ? BigDecimal.valueOf(amountUnscaled, amountScale) : null;
+        loanRequest.lastYearIncome = present(nulls, LAST_YEAR_INCOME)
+                ? BigDecimal.valueOf(incomeUnscaled, incomeScale) : null;
+        return loanRequest;
+    }
+
+    /**
+     * Запись ответа без номера.
+     */
+    public static void writeResponse(ByteBuffer buffer, LoanResponse loanResponse) {
+        if (loanResponse.errors != null) {
+            buffer.put(INVALID);
+            buffer.putLong(0);
+            buffer.put((byte) 0);
+            return;
+        }
+        buffer.put(Boolean.TRUE.equals(loanResponse.approved) ? APPROVED : REJECTED);
+        putDecimal(buffer, "Годовой платеж", loanResponse.annualPayment);
+    }
+
+    /**
+     * Запись ответа об ошибке без номера.
+     */
+    public static void writeError(ByteBuffer buffer) {
+        buffer.put(ERROR);
+        buffer.putLong(0);
+        buffer.put((byte) 0);
+    }
+
+    /**
+     * Чтение ответа без номера.
+     * Для {@link #INVALID} и {@link #ERROR} в ответе заполняется только {@link LoanResponse#errors}.
+     */
+    public static LoanResponse readResponse(ByteBuffer buffer) {
+        byte result = buffer.get();
+        long paymentUnscaled = buffer.getLong();
+        int paymentScale = buffer.get();
+
+        LoanResponse loanResponse = new LoanResponse();
+        if (result == APPROVED || result == REJECTED) {
+            loanResponse.approved = result == APPROVED;
+            loanResponse.annualPayment = BigDecimal.valueOf(paymentUnscaled, paymentScale);
+        } else if (result == INVALID) {
+            loanResponse.errors = Collections.singletonList("Запрос не прошел проверку");
+        } else {
+            loanResponse.errors = Collections.singletonList("Не удалось проверить запрос");
+        }
+        return loanResponse;
+    }
+
+    private static int isNull(Object value, int field) {
+        return value == null ? 1 << field : 0;
+    }
+
+    private static boolean present(int nulls, int field) {
+        return (nulls & (1 << field)) == 0;
+    }
+
+    private static int checkRange(String field, Integer value, int min, int max) {
+        if (value == null) {
+            return 0;
+        }
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(field + " не помещается в двоичный формат: " + value);
+        }
+        return value;
+    }
+
+    private static void putDecimal(ByteBuffer buffer, String field, BigDecimal value) {
+        if (value == null) {
+            buffer.putLong(0);
+            buffer.put((byte) 0);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() > 63 || value.scale() < Byte.MIN_VALUE || value.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException(field + " не помещается в двоичный формат: " + value);
+        }
+        buffer.putLong(unscaled.longValue());
+        buffer.put((byte) value.scale());
+    }
+
+    private static <E> E ordinal(E[] values, int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("Неизвестное значение перечисления: " + ordinal);
+        }
+        return values[ordinal];
+    }
+}
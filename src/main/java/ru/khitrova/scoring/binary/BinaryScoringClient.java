@@ -0,0 +1,91 @@
+package ru.khitrova.scoring.binary;
+
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Клиент двоичного протокола скоринга ({@link BinaryProtocol}).
+ * Держит одно соединение; пакет запросов отправляется окнами по {@link #WINDOW} кадров без ожидания ответов,
+ * поэтому на пакет тратится одно ожидание ответа на окно, а не на каждый запрос.
+ * Не потокобезопасен.
+ */
+public class BinaryScoringClient implements Closeable {
+
+    /**
+     * Количество запросов, которые отправляются до чтения ответов.
+     * Окно помещается в буферы сокета, поэтому запись не блокируется, пока сервер ждет чтения ответов.
+     */
+    public static final int WINDOW = 256;
+
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocateDirect(WINDOW * BinaryProtocol.REQUEST_SIZE);
+    private final ByteBuffer in = ByteBuffer.allocateDirect(WINDOW * BinaryProtocol.RESPONSE_SIZE);
+    private int nextRequestId;
+
+    public BinaryScoringClient(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+    }
+
+    /**
+     * Проверка одного запроса.
+     * @throws IllegalArgumentException если значение поля не помещается в двоичный формат
+     */
+    public LoanResponse checkLoan(LoanRequest loanRequest) throws IOException {
+        return checkLoans(Collections.singletonList(loanRequest)).get(0);
+    }
+
+    /**
+     * Проверка пакета запросов по одному соединению.
+     * @return ответы в порядке запросов
+     * @throws IllegalArgumentException если значение поля не помещается в двоичный формат
+     */
+    public List<LoanResponse> checkLoans(List<LoanRequest> loanRequests) throws IOException {
+        List<LoanResponse> loanResponses = new ArrayList<>(loanRequests.size());
+        for (int from = 0; from < loanRequests.size(); from += WINDOW) {
+            int to = Math.min(from + WINDOW, loanRequests.size());
+            int firstRequestId = nextRequestId;
+
+            out.clear();
+            for (int i = from; i < to; i++) {
+                out.putInt(nextRequestId++);
+                BinaryProtocol.writeRequest(out, loanRequests.get(i));
+            }
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+
+            in.clear().limit((to - from) * BinaryProtocol.RESPONSE_SIZE);
+            while (in.hasRemaining()) {
+                if (channel.read(in) < 0) {
+                    throw new EOFException("Сервер закрыл соединение");
+                }
+            }
+            in.flip();
+            for (int requestId = firstRequestId; in.hasRemaining(); requestId++) {
+                int responseId = in.getInt();
+                if (responseId != requestId) {
+                    throw new IOException("Ожидался ответ на запрос " + requestId + ", получен " + responseId);
+                }
+                loanResponses.add(BinaryProtocol.readResponse(in));
+            }
+        }
+        return loanResponses;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,217 @@
+package ru.khitrova.scoring.binary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.scoring.BatchScoringService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * Сервер двоичного протокола скоринга ({@link BinaryProtocol}) на неблокирующих каналах.
+ * Все соединения обслуживает один поток: запросы проверяются тем же {@link BatchScoringService},
+ * что и пакетные запросы HTTP, поэтому валидация и сервис скоринга у двух API общие.
+ * Из буфера чтения обрабатываются все полученные кадры, ответы копятся в буфере записи соединения;
+ * пока буфер записи заполнен, новые запросы из соединения не читаются. Когда клиент закрывает свою сторону
+ * соединения, сервер проверяет оставшиеся в буфере полные кадры, отправляет ответы и только затем закрывает
+ * соединение; неполный последний кадр отбрасывается.
+ * <p>
+ * Проверка выполняется в потоке селектора, поэтому пропускная способность протокола ограничена одним ядром,
+ * а долгая проверка (например, ожидание места в буфере журнала решений) задерживает все соединения.
+ * Для нагрузки больше одного ядра запускается несколько экземпляров приложения.
+ */
+@Component
+@ConditionalOnProperty(name = "scoring.binary.enabled", havingValue = "true")
+public class BinaryScoringServer implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryScoringServer.class);
+
+    /**
+     * Количество кадров, которое помещается в буферы одного соединения.
+     */
+    private static final int BUFFERED_FRAMES = 1024;
+
+    private final BatchScoringService batchScoringService;
+    private final String host;
+    private final int port;
+
+    private volatile Selector selector;
+    private volatile ServerSocketChannel serverChannel;
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    public BinaryScoringServer(BatchScoringService batchScoringService,
+                               @Value("${scoring.binary.host:0.0.0.0}") String host,
+                               @Value("${scoring.binary.port:7070}") int port) {
+        this.batchScoringService = batchScoringService;
+        this.host = host;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(host, port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть порт двоичного протокола " + port, e);
+        }
+        running = true;
+        thread = new Thread(this::serve, "binary-scoring");
+        thread.start();
+        LOG.info("Двоичный протокол скоринга на порту {}", getPort());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Порт, на котором принимаются соединения (при {@code scoring.binary.port=0} выбирается свободный порт).
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    private void serve() {
+        try (Selector selector = this.selector; ServerSocketChannel serverChannel = this.serverChannel) {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept(selector, serverChannel);
+                        } else {
+                            handle(key);
+                        }
+                    } catch (IOException e) {
+                        LOG.debug("Соединение двоичного протокола закрыто с ошибкой", e);
+                        close(key);
+                    }
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                close(key);
+            }
+        } catch (IOException e) {
+            LOG.error("Сервер двоичного протокола остановлен с ошибкой", e);
+        }
+    }
+
+    private void accept(Selector selector, ServerSocketChannel serverChannel) throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection());
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+
+        if (key.isReadable() && channel.read(connection.in) < 0) {
+            connection.endOfInput = true;
+        }
+
+        connection.in.flip();
+        while (connection.in.remaining() >= BinaryProtocol.REQUEST_SIZE
+                && connection.out.remaining() >= BinaryProtocol.RESPONSE_SIZE) {
+            process(connection.in, connection.out);
+        }
+        connection.in.compact();
+
+        connection.out.flip();
+        channel.write(connection.out);
+        connection.out.compact();
+
+        boolean framesLeft = connection.in.position() >= BinaryProtocol.REQUEST_SIZE;
+        if (connection.endOfInput && !framesLeft && connection.out.position() == 0) {
+            close(key);
+            return;
+        }
+        int ops = 0;
+        if (!connection.endOfInput && connection.in.hasRemaining()) {
+            ops |= SelectionKey.OP_READ;
+        }
+        if (connection.out.position() > 0 || connection.endOfInput && framesLeft) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(ops);
+    }
+
+    /**
+     * Проверка одного кадра: ответ с тем же номером записывается в буфер записи.
+     */
+    private void process(ByteBuffer in, ByteBuffer out) {
+        int frameEnd = in.position() + BinaryProtocol.REQUEST_SIZE;
+        int requestId = in.getInt();
+        out.putInt(requestId);
+        int responseStart = out.position();
+        try {
+            LoanRequest loanRequest = BinaryProtocol.readRequest(in);
+            BinaryProtocol.writeResponse(out, batchScoringService.checkLoan(loanRequest));
+        } catch (RuntimeException e) {
+            LOG.debug("Не удалось проверить запрос {} двоичного протокола", requestId, e);
+            in.position(frameEnd);
+            out.position(responseStart);
+            BinaryProtocol.writeError(out);
+        }
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            LOG.debug("Не удалось закрыть соединение двоичного протокола", e);
+        }
+    }
+
+    /**
+     * Буферы одного соединения.
+     */
+    private static final class Connection {
+        private final ByteBuffer in = ByteBuffer.allocateDirect(BUFFERED_FRAMES * BinaryProtocol.REQUEST_SIZE);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(BUFFERED_FRAMES * BinaryProtocol.RESPONSE_SIZE);
+        /**
+         * Клиент закрыл свою сторону соединения: новых кадров не будет.
+         */
+        private boolean endOfInput;
+    }
+}
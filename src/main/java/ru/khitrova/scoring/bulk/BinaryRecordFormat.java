@@ -0,0 +1,46 @@
+package ru.khitrova.scoring.bulk;
+
+import ru.khitrova.scoring.binary.BinaryProtocol;
+import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.scoring.BatchScoringService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Файл из кадров запросов двоичного протокола ({@link BinaryProtocol}), ответы записываются кадрами ответов
+ * с теми же номерами.
+ */
+public class BinaryRecordFormat implements RecordFormat {
+
+    @Override
+    public long chunkEnd(FileChannel input, long nominalEnd, long size) throws IOException {
+        if (size % BinaryProtocol.REQUEST_SIZE != 0) {
+            throw new IOException("Размер файла " + size + " не кратен размеру кадра " + BinaryProtocol.REQUEST_SIZE);
+        }
+        return Math.min(size, nominalEnd - nominalEnd % BinaryProtocol.REQUEST_SIZE);
+    }
+
+    @Override
+    public void score(ByteBuffer chunk, boolean first, BatchScoringService batchScoringService, ChunkOutput output) {
+        ByteBuffer out = output.reserve(chunk.remaining() / BinaryProtocol.REQUEST_SIZE * BinaryProtocol.RESPONSE_SIZE);
+        while (chunk.remaining() >= BinaryProtocol.REQUEST_SIZE) {
+            int frameEnd = chunk.position() + BinaryProtocol.REQUEST_SIZE;
+            out.putInt(chunk.getInt());
+            int responseStart = out.position();
+            try {
+                LoanResponse loanResponse =
+                        batchScoringService.checkLoan(BinaryProtocol.readRequest(chunk));
+                BinaryProtocol.writeResponse(out, loanResponse);
+                output.count(loanResponse);
+            } catch (RuntimeException e) {
+                chunk.position(frameEnd);
+                out.position(responseStart);
+                BinaryProtocol.writeError(out);
+                output.invalid++;
+            }
+        }
+        output.written(out);
+    }
+}
@@ -0,0 +1,144 @@
+package ru.khitrova.scoring.bulk;
+
+import ru.khitrova.scoring.scoring.BatchScoringService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Пакетная проверка запросов из файла без веб-слоя.
+ * Входной файл делится на части по границам записей, части отображаются в память и проверяются
+ * параллельно в {@link ForkJoinPool}. Части обрабатываются волнами по {@code parallelism * 4}:
+ * ответы волны записываются по порядку в отображенную в память область выходного файла,
+ * поэтому занятая память зависит от размера части, а не от размера файла.
+ */
+public class BulkScoringProcessor {
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final BatchScoringService batchScoringService;
+    private final RecordFormat format;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public BulkScoringProcessor(BatchScoringService batchScoringService, RecordFormat format, int chunkSize,
+                                int parallelism) {
+        if (chunkSize < 1024) {
+            throw new IllegalArgumentException("Размер части не может быть меньше 1024 байт");
+        }
+        this.batchScoringService = batchScoringService;
+        this.format = format;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Проверка всех запросов входного файла с записью ответов в выходной файл.
+     * @param progress получает отчет о ходе проверки после каждой волны
+     * @return итоговый отчет
+     */
+    public BulkScoringReport process(Path input, Path output, Consumer<BulkScoringReport> progress)
+            throws IOException {
+        long started = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            long written = 0;
+            long approved = 0;
+            long rejected = 0;
+            long invalid = 0;
+            BulkScoringReport report = new BulkScoringReport(size, 0, 0, 0, 0, 0);
+
+            while (position < size) {
+                List<Chunk> wave = new ArrayList<>(parallelism * CHUNKS_PER_THREAD);
+                while (position < size && wave.size() < parallelism * CHUNKS_PER_THREAD) {
+                    long end = format.chunkEnd(in, Math.min(size, position + chunkSize), size);
+                    wave.add(new Chunk(in.map(FileChannel.MapMode.READ_ONLY, position, end - position),
+                            position == 0));
+                    position = end;
+                }
+                pool.invoke(new ScoreChunks(wave, 0, wave.size()));
+
+                long waveSize = 0;
+                for (Chunk chunk : wave) {
+                    waveSize += chunk.output.length();
+                }
+                if (waveSize > 0) {
+                    MappedByteBuffer target = out.map(FileChannel.MapMode.READ_WRITE, written, waveSize);
+                    for (Chunk chunk : wave) {
+                        chunk.output.copyTo(target);
+                        approved += chunk.output.approved;
+                        rejected += chunk.output.rejected;
+                        invalid += chunk.output.invalid;
+                    }
+                    written += waveSize;
+                }
+
+                report = new BulkScoringReport(size, position, approved, rejected, invalid,
+                        System.nanoTime() - started);
+                progress.accept(report);
+            }
+            return report;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Часть входного файла и ответы на ее записи.
+     */
+    private final class Chunk {
+        private final ByteBuffer input;
+        private final boolean first;
+        private final ChunkOutput output;
+
+        Chunk(ByteBuffer input, boolean first) {
+            this.input = input;
+            this.first = first;
+            this.output = new ChunkOutput(input.remaining() / 4);
+        }
+
+        void score() {
+            format.score(input, first, batchScoringService, output);
+        }
+    }
+
+    /**
+     * Проверка частей волны: диапазон делится пополам, пока в нем больше одной части.
+     */
+    private static final class ScoreChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Chunk> chunks;
+        private final int from;
+        private final int to;
+
+        ScoreChunks(List<Chunk> chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                chunks.get(from).score();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreChunks(chunks, from, middle), new ScoreChunks(chunks, middle, to));
+        }
+    }
+}
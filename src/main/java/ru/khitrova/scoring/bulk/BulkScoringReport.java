@@ -0,0 +1,57 @@
+package ru.khitrova.scoring.bulk;
+
+import java.util.Locale;
+
+/**
+ * Ход и итог пакетной проверки файла.
+ */
+public class BulkScoringReport {
+
+    public final long totalBytes;
+    public final long processedBytes;
+    public final long approved;
+    public final long rejected;
+    public final long invalid;
+    public final long elapsedNanos;
+
+    public BulkScoringReport(long totalBytes, long processedBytes, long approved, long rejected, long invalid,
+                             long elapsedNanos) {
+        this.totalBytes = totalBytes;
+        this.processedBytes = processedBytes;
+        this.approved = approved;
+        this.rejected = rejected;
+        this.invalid = invalid;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Количество проверенных записей.
+     */
+    public long records() {
+        return approved + rejected + invalid;
+    }
+
+    /**
+     * Скорость проверки, записей в минуту.
+     */
+    public double recordsPerMinute() {
+        return elapsedNanos == 0 ? 0 : records() * 60e9 / elapsedNanos;
+    }
+
+    /**
+     * Строка о ходе проверки.
+     */
+    public String progress() {
+        return String.format(Locale.ROOT, "%5.1f%%  %,d записей  %,.0f записей/мин",
+                totalBytes == 0 ? 100.0 : processedBytes * 100.0 / totalBytes, records(), recordsPerMinute());
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Проверено записей: %,d (одобрено %,d, отказано %,d, с ошибками %,d)%n"
+                        + "Время: %.2f с, %,.0f записей/мин, %.1f МБ/с",
+                records(), approved, rejected, invalid,
+                elapsedNanos / 1e9, recordsPerMinute(), processedBytes * 1e3 / Math.max(elapsedNanos, 1));
+    }
+}
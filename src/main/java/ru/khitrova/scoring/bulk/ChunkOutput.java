@@ -0,0 +1,78 @@
+package ru.khitrova.scoring.bulk;
+
+import ru.khitrova.scoring.model.LoanResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Ответы на записи одной части файла и количество решений каждого вида.
+ */
+public class ChunkOutput {
+
+    private byte[] bytes;
+    private int length;
+
+    long approved;
+    long rejected;
+    long invalid;
+
+    public ChunkOutput(int capacity) {
+        bytes = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Учет решения по записи.
+     */
+    public void count(LoanResponse loanResponse) {
+        if (loanResponse.errors != null) {
+            invalid++;
+        } else if (Boolean.TRUE.equals(loanResponse.approved)) {
+            approved++;
+        } else {
+            rejected++;
+        }
+    }
+
+    public void write(byte b) {
+        ensureCapacity(1);
+        bytes[length++] = b;
+    }
+
+    public void write(byte[] source) {
+        ensureCapacity(source.length);
+        System.arraycopy(source, 0, bytes, length, source.length);
+        length += source.length;
+    }
+
+    public void write(String text) {
+        write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Буфер для записи {@code size} байт, который после записи нужно передать в {@link #written(ByteBuffer)}.
+     */
+    public ByteBuffer reserve(int size) {
+        ensureCapacity(size);
+        return ByteBuffer.wrap(bytes, length, size);
+    }
+
+    public void written(ByteBuffer buffer) {
+        length = buffer.position();
+    }
+
+    public int length() {
+        return length;
+    }
+
+    void copyTo(ByteBuffer target) {
+        target.put(bytes, 0, length);
+    }
+
+    private void ensureCapacity(int size) {
+        if (length + size > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + size));
+        }
+    }
+}
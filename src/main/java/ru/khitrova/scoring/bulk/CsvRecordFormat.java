@@ -0,0 +1,255 @@
+package ru.khitrova.scoring.bulk;
+
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.BatchScoringService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * Файл CSV с запросами, по одному на строку, поля в порядке
+ * {@code age,sex,sourceOfIncome,lastYearIncome,creditRating,requestedAmount,repaymentPeriod,loanPurpose}.
+ * Пустое поле означает {@code null}, строка заголовка в начале файла пропускается.
+ * <p>
+ * На каждую непустую строку записывается строка ответа {@code approved,annualPayment,errors}:
+ * {@code true,0.5,} или {@code false,0,}, а для запроса с ошибками {@code ,,"ошибка; ошибка"}.
+ * Поля разбираются прямо из буфера файла, без промежуточных строк.
+ */
+public class CsvRecordFormat implements RecordFormat {
+
+    public static final String HEADER =
+            "age,sex,sourceOfIncome,lastYearIncome,creditRating,requestedAmount,repaymentPeriod,loanPurpose";
+
+    private static final String PARSE_ERROR = "Некорректная строка CSV";
+    private static final int FIELDS = 8;
+    private static final int MAX_FAST_INT_DIGITS = 9;
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final int SEARCH_BUFFER_SIZE = 4096;
+
+    private static final byte[] TRUE = "true,".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false,".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REJECTED = "false,0,\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Sex[] SEXES = Sex.values();
+    private static final SourceOfIncome[] SOURCES = SourceOfIncome.values();
+    private static final LoanPurpose[] PURPOSES = LoanPurpose.values();
+    private static final byte[][] SEX_NAMES = names(SEXES);
+    private static final byte[][] SOURCE_NAMES = names(SOURCES);
+    private static final byte[][] PURPOSE_NAMES = names(PURPOSES);
+
+    @Override
+    public long chunkEnd(FileChannel input, long nominalEnd, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SEARCH_BUFFER_SIZE);
+        long position = nominalEnd;
+        while (position < size) {
+            buffer.clear();
+            int read = input.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    @Override
+    public void score(ByteBuffer chunk, boolean first, BatchScoringService batchScoringService, ChunkOutput output) {
+        int[] bounds = new int[FIELDS + 1];
+        int position = chunk.position();
+        int limit = chunk.limit();
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > position && chunk.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            boolean header = first && startsWith(chunk, position, lineEnd, "age,");
+            first = false;
+            if (lineEnd > position && !header) {
+                score(chunk, position, lineEnd, bounds, batchScoringService, output);
+            }
+            position = next;
+        }
+    }
+
+    private void score(ByteBuffer chunk, int start, int end, int[] bounds,
+                       BatchScoringService batchScoringService, ChunkOutput output) {
+        LoanRequest loanRequest = parse(chunk, start, end, bounds);
+        LoanResponse loanResponse;
+        if (loanRequest == null) {
+            loanResponse = new LoanResponse();
+            loanResponse.errors = Collections.singletonList(PARSE_ERROR);
+        } else {
+            loanResponse = batchScoringService.checkLoan(loanRequest);
+        }
+        output.count(loanResponse);
+
+        if (loanResponse.errors != null) {
+            output.write((byte) ',');
+            output.write((byte) ',');
+            output.write((byte) '"');
+            output.write(String.join("; ", loanResponse.errors).replace("\"", "\"\""));
+            output.write((byte) '"');
+        } else if (Boolean.TRUE.equals(loanResponse.approved)) {
+            output.write(TRUE);
+            output.write(loanResponse.annualPayment.toString());
+            output.write((byte) ',');
+        } else if (loanResponse.annualPayment.signum() == 0 && loanResponse.annualPayment.scale() == 0) {
+            output.write(REJECTED);
+            return;
+        } else {
+            output.write(FALSE);
+            output.write(loanResponse.annualPayment.toString());
+            output.write((byte) ',');
+        }
+        output.write((byte) '\n');
+    }
+
+    /**
+     * Разбор строки.
+     * @return запрос или {@code null}, если строку не удалось разобрать
+     */
+    private LoanRequest parse(ByteBuffer chunk, int start, int end, int[] bounds) {
+        int fields = 0;
+        bounds[0] = start - 1;
+        for (int i = start; i < end; i++) {
+            if (chunk.get(i) == ',') {
+                if (++fields == FIELDS) {
+                    return null;
+                }
+                bounds[fields] = i;
+            }
+        }
+        if (fields != FIELDS - 1) {
+            return null;
+        }
+        bounds[FIELDS] = end;
+
+        try {
+            LoanRequest loanRequest = new LoanRequest();
+            loanRequest.age = parseInteger(chunk, bounds[0] + 1, bounds[1]);
+            loanRequest.sex = parseEnum(chunk, bounds[1] + 1, bounds[2], SEX_NAMES, SEXES);
+            loanRequest.sourceOfIncome = parseEnum(chunk, bounds[2] + 1, bounds[3], SOURCE_NAMES, SOURCES);
+            loanRequest.lastYearIncome = parseDecimal(chunk, bounds[3] + 1, bounds[4]);
+            loanRequest.creditRating = parseInteger(chunk, bounds[4] + 1, bounds[5]);
+            loanRequest.requestedAmount = parseDecimal(chunk, bounds[5] + 1, bounds[6]);
+            loanRequest.repaymentPeriod = parseInteger(chunk, bounds[6] + 1, bounds[7]);
+            loanRequest.loanPurpose = parseEnum(chunk, bounds[7] + 1, bounds[8], PURPOSE_NAMES, PURPOSES);
+            return loanRequest;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseInteger(ByteBuffer chunk, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        int i = start;
+        boolean negative = chunk.get(i) == '-';
+        if (negative || chunk.get(i) == '+') {
+            i++;
+        }
+        if (i == end || end - i > MAX_FAST_INT_DIGITS) {
+            return Integer.parseInt(text(chunk, start, end));
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            byte b = chunk.get(i);
+            if (b < '0' || b > '9') {
+                throw new NumberFormatException("Некорректное число: " + text(chunk, start, end));
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Разбор числа: без знака экспоненты и длиной до {@value #MAX_FAST_DIGITS} цифр число собирается
+     * в {@code long} с масштабом, остальное разбирает {@link BigDecimal}. Масштаб сохраняется как в строке.
+     */
+    private static BigDecimal parseDecimal(ByteBuffer chunk, int start, int end) {
+        if (start == end) {
+            return null;
+        }
+        int i = start;
+        boolean negative = chunk.get(i) == '-';
+        if (negative || chunk.get(i) == '+') {
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = chunk.get(i);
+            if (b >= '0' && b <= '9') {
+                unscaled = unscaled * 10 + (b - '0');
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return new BigDecimal(text(chunk, start, end));
+            }
+        }
+        if (digits == 0 || digits > MAX_FAST_DIGITS) {
+            return new BigDecimal(text(chunk, start, end));
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(ByteBuffer chunk, int start, int end, byte[][] names, E[] values) {
+        if (start == end) {
+            return null;
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (equals(chunk, start, end, names[i])) {
+                return values[i];
+            }
+        }
+        throw new NumberFormatException("Неизвестное значение: " + text(chunk, start, end));
+    }
+
+    private static boolean equals(ByteBuffer chunk, int start, int end, byte[] name) {
+        if (end - start != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (chunk.get(start + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(ByteBuffer chunk, int start, int end, String prefix) {
+        return end - start >= prefix.length()
+                && equals(chunk, start, start + prefix.length(), prefix.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String text(ByteBuffer chunk, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        chunk.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[][] names(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+        return names;
+    }
+}
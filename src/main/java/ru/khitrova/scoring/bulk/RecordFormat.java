@@ -0,0 +1,25 @@
+package ru.khitrova.scoring.bulk;
+
+import ru.khitrova.scoring.scoring.BatchScoringService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Формат файла с запросами для пакетной проверки.
+ */
+public interface RecordFormat {
+
+    /**
+     * Конец части файла, которая начинается до {@code nominalEnd}: часть должна заканчиваться на границе записи.
+     * @param size размер файла
+     */
+    long chunkEnd(FileChannel input, long nominalEnd, long size) throws IOException;
+
+    /**
+     * Проверка всех записей части файла. Ответы записываются в {@code output} в порядке записей.
+     * @param first {@code true} для первой части файла
+     */
+    void score(ByteBuffer chunk, boolean first, BatchScoringService batchScoringService, ChunkOutput output);
+}
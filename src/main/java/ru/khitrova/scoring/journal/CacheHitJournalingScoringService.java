@@ -0,0 +1,31 @@
+package ru.khitrova.scoring.journal;
+
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.CachingScoringService;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+/**
+ * Обертка над кэшем ({@link CachingScoringService}), которая добавляет в {@link DecisionJournal} ответы из кэша.
+ * Рассчитанные ответы записывает {@link JournalingScoringService} под кэшем, поэтому в журнале есть каждое
+ * решение, и при воспроизведении журнала повторные запросы учитываются столько раз, сколько поступили.
+ * Ставка записывается по ставкам, с которыми ответ попал в кэш, а не по действующим правилам.
+ */
+public class CacheHitJournalingScoringService implements ScoringService {
+
+    private final CachingScoringService delegate;
+    private final DecisionJournal journal;
+
+    public CacheHitJournalingScoringService(CachingScoringService delegate, DecisionJournal journal) {
+        this.delegate = delegate;
+        this.journal = journal;
+    }
+
+    @Override
+    public LoanResponse checkLoan(LoanRequest loanRequest) {
+        CachingScoringService.CachedResponse cached = delegate.checkCached(loanRequest);
+        if (cached.hit && cached.loanResponse.errors == null) {
+            journal.append(loanRequest, cached.loanResponse, cached.rates);
+        }
+        return cached.loanResponse;
+    }
+}
@@ -0,0 +1,300 @@
+package ru.khitrova.scoring.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.InterestRates;
+import ru.khitrova.scoring.scoring.ScoringDecision;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Журнал решений: каждый проверенный запрос, ответ и общая процентная ставка записываются в сегменты на диске
+ * ({@link JournalFormat}). Поток запроса только копирует поля в ячейку кольцевого буфера без блокировок;
+ * кодирование, расчет ставки и запись в отображенные в память сегменты выполняет один поток записи.
+ * <p>
+ * Если буфер заполнен, поток запроса ждет освобождения ячейки не дольше {@code maxBlockNanos},
+ * после чего запись отбрасывается и учитывается в {@link #getDropped()}: проверка запроса
+ * не останавливается из-за медленного диска. При {@code maxBlockNanos = 0} запись отбрасывается сразу.
+ * <p>
+ * Вызывающий передает ставки, по которым проверен запрос ({@link InterestRates}), поток запроса запоминает их
+ * в ячейке, и поток записи рассчитывает ставку по ним. Для compiled-rules это версия правил, переданная
+ * в проверку ({@link JournalingScoringService}), поэтому замена правил после проверки ставку не меняет.
+ */
+public class DecisionJournal implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DecisionJournal.class);
+
+    private static final int SCRATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = 100_000;
+    private static final long BLOCK_PARK_NANOS = 10_000;
+
+    /**
+     * Поля, без которых ставку не определить
+     */
+    private static final int RATE_FIELDS = 1 << JournalFormat.SOURCE_OF_INCOME | 1 << JournalFormat.CREDIT_RATING
+            | 1 << JournalFormat.LOAN_PURPOSE | 1 << JournalFormat.REQUESTED_AMOUNT;
+
+    private static final SourceOfIncome[] SOURCES = SourceOfIncome.values();
+    private static final LoanPurpose[] PURPOSES = LoanPurpose.values();
+
+    private final JournalRingBuffer ring;
+    private final JournalSegmentWriter segments;
+    private final SyncPolicy syncPolicy;
+    private final long syncIntervalNanos;
+    private final long maxBlockNanos;
+    private final Thread writer;
+
+    private final LongAdder dropped = new LongAdder();
+    private volatile long written;
+    private volatile long failed;
+    private volatile boolean running = true;
+
+    private ByteBuffer scratch = ByteBuffer.allocate(SCRATCH_SIZE);
+
+    /**
+     * @param segmentSize размер файла сегмента в байтах
+     * @param bufferSize количество ячеек кольцевого буфера, степень двойки
+     * @param syncIntervalNanos интервал сброса на диск для {@link SyncPolicy#INTERVAL}
+     * @param maxBlockNanos максимальное ожидание свободной ячейки потоком запроса
+     */
+    public DecisionJournal(Path directory, int segmentSize, int bufferSize, SyncPolicy syncPolicy,
+                           long syncIntervalNanos, long maxBlockNanos) throws IOException {
+        if (syncIntervalNanos < 0 || maxBlockNanos < 0) {
+            throw new IllegalArgumentException("Некорректные параметры журнала: интервал сброса " + syncIntervalNanos
+                    + " нс, ожидание " + maxBlockNanos + " нс");
+        }
+        this.ring = new JournalRingBuffer(bufferSize);
+        this.segments = new JournalSegmentWriter(directory, segmentSize, syncPolicy != SyncPolicy.NONE);
+        this.syncPolicy = syncPolicy;
+        this.syncIntervalNanos = syncIntervalNanos;
+        this.maxBlockNanos = maxBlockNanos;
+        this.writer = new Thread(this::write, "scoring-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Добавление решения по запросу в виде объекта.
+     * @param interestRates ставки, по которым проверен запрос
+     * @return {@code false}, если запись отброшена
+     */
+    public boolean append(LoanRequest loanRequest, LoanResponse loanResponse, InterestRates interestRates) {
+        JournalRingBuffer.Slot slot = claim();
+        if (slot == null) {
+            return false;
+        }
+        slot.time = System.currentTimeMillis();
+        slot.nulls = JournalFormat.isNull(loanRequest.age, JournalFormat.AGE)
+                | JournalFormat.isNull(loanRequest.sex, JournalFormat.SEX)
+                | JournalFormat.isNull(loanRequest.sourceOfIncome, JournalFormat.SOURCE_OF_INCOME)
+                | JournalFormat.isNull(loanRequest.creditRating, JournalFormat.CREDIT_RATING)
+                | JournalFormat.isNull(loanRequest.repaymentPeriod, JournalFormat.REPAYMENT_PERIOD)
+                | JournalFormat.isNull(loanRequest.loanPurpose, JournalFormat.LOAN_PURPOSE)
+                | JournalFormat.isNull(loanRequest.requestedAmount, JournalFormat.REQUESTED_AMOUNT)
+                | JournalFormat.isNull(loanRequest.lastYearIncome, JournalFormat.LAST_YEAR_INCOME)
+                | JournalFormat.isNull(loanResponse.annualPayment, JournalFormat.ANNUAL_PAYMENT);
+        slot.age = loanRequest.age == null ? 0 : loanRequest.age;
+        slot.sex = loanRequest.sex == null ? 0 : loanRequest.sex.ordinal();
+        slot.sourceOfIncome = loanRequest.sourceOfIncome == null ? 0 : loanRequest.sourceOfIncome.ordinal();
+        slot.creditRating = loanRequest.creditRating == null ? 0 : loanRequest.creditRating;
+        slot.repaymentPeriod = loanRequest.repaymentPeriod == null ? 0 : loanRequest.repaymentPeriod;
+        slot.loanPurpose = loanRequest.loanPurpose == null ? 0 : loanRequest.loanPurpose.ordinal();
+        slot.requestedAmount = loanRequest.requestedAmount;
+        slot.lastYearIncome = loanRequest.lastYearIncome;
+        slot.approved = Boolean.TRUE.equals(loanResponse.approved);
+        slot.annualPayment = loanResponse.annualPayment;
+        slot.interestRates = interestRates;
+        slot.publish();
+        return true;
+    }
+
+    /**
+     * Добавление решения по запросу в примитивном представлении без создания объектов.
+     * @param decision решение в представлении {@link ScoringDecision}
+     * @param interestRates ставки, по которым проверен запрос
+     * @return {@code false}, если запись отброшена
+     */
+    public boolean append(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                          int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale,
+                          long decision, InterestRates interestRates) {
+        JournalRingBuffer.Slot slot = claim();
+        if (slot == null) {
+            return false;
+        }
+        slot.time = System.currentTimeMillis();
+        slot.nulls = JournalFormat.isNull(sex, JournalFormat.SEX)
+                | JournalFormat.isNull(sourceOfIncome, JournalFormat.SOURCE_OF_INCOME)
+                | JournalFormat.isNull(loanPurpose, JournalFormat.LOAN_PURPOSE);
+        slot.age = age;
+        slot.sex = sex == null ? 0 : sex.ordinal();
+        slot.sourceOfIncome = sourceOfIncome == null ? 0 : sourceOfIncome.ordinal();
+        slot.creditRating = creditRating;
+        slot.repaymentPeriod = repaymentPeriod;
+        slot.loanPurpose = loanPurpose == null ? 0 : loanPurpose.ordinal();
+        slot.requestedAmount = null;
+        slot.amountUnscaled = amountTenths;
+        slot.amountScale = 1;
+        slot.lastYearIncome = null;
+        slot.incomeUnscaled = incomeUnscaled;
+        slot.incomeScale = incomeScale;
+        slot.approved = decision != ScoringDecision.REJECTED;
+        // как в ScoringDecision.toResponse: у отказа платеж 0
+        slot.annualPayment = slot.approved ? null : BigDecimal.ZERO;
+        slot.paymentUnscaled = decision;
+        slot.paymentScale = 1;
+        slot.interestRates = interestRates;
+        slot.publish();
+        return true;
+    }
+
+    /**
+     * Количество записей, записанных в сегменты.
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Количество записей, отброшенных из-за заполненного буфера или после закрытия журнала.
+     * Каждая добавляемая запись либо записывается, либо не записывается ({@link #getFailed()}),
+     * либо отбрасывается.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Количество записей, которые не удалось записать в сегменты.
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Остановка потока записи: записи из буфера дописываются, сегменты сбрасываются на диск,
+     * если политика сброса не {@link SyncPolicy#NONE}. Если ожидание потока записи прервано, флаг прерывания
+     * восстанавливается, а поток записи дописывает буфер уже без ожидания.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private JournalRingBuffer.Slot claim() {
+        if (!running) {
+            dropped.increment();
+            return null;
+        }
+        JournalRingBuffer.Slot slot = ring.tryClaim();
+        if (slot == null && maxBlockNanos > 0) {
+            long deadline = System.nanoTime() + maxBlockNanos;
+            do {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                slot = ring.tryClaim();
+            } while (slot == null && running && System.nanoTime() - deadline < 0);
+        }
+        if (slot == null) {
+            dropped.increment();
+        }
+        return slot;
+    }
+
+    private void write() {
+        long nextSync = System.nanoTime() + syncIntervalNanos;
+        try {
+            while (true) {
+                int count = drain();
+                if (count > 0 && syncPolicy == SyncPolicy.BATCH) {
+                    sync();
+                }
+                if (syncPolicy == SyncPolicy.INTERVAL && System.nanoTime() - nextSync >= 0) {
+                    sync();
+                    nextSync = System.nanoTime() + syncIntervalNanos;
+                }
+                if (count == 0) {
+                    // поток запроса мог занять ячейку до остановки и еще не опубликовать ее:
+                    // поток записи останавливается, только когда таких ячеек нет
+                    if (!running && ring.seal()) {
+                        break;
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        } finally {
+            segments.close();
+        }
+    }
+
+    private void sync() {
+        try {
+            segments.sync();
+        } catch (RuntimeException e) {
+            LOG.warn("Не удалось сбросить журнал на диск", e);
+        }
+    }
+
+    /**
+     * Запись всех опубликованных ячеек, но не больше размера буфера за раз.
+     * @return количество обработанных ячеек
+     */
+    private int drain() {
+        int count = 0;
+        JournalRingBuffer.Slot slot;
+        while (count < ring.capacity() && (slot = ring.poll()) != null) {
+            boolean appended = false;
+            try {
+                appended = segments.append(encode(slot));
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Не удалось записать решение в журнал", e);
+            }
+            ring.release(slot);
+            count++;
+            if (appended) {
+                written++;
+            } else {
+                failed++;
+            }
+        }
+        return count;
+    }
+
+    private ByteBuffer encode(JournalRingBuffer.Slot slot) {
+        BigDecimal interestRate = interestRate(slot);
+        while (true) {
+            scratch.clear();
+            try {
+                JournalFormat.write(scratch, slot, interestRate);
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    private BigDecimal interestRate(JournalRingBuffer.Slot slot) {
+        if ((slot.nulls & RATE_FIELDS) != 0) {
+            return null;
+        }
+        BigDecimal requestedAmount = slot.requestedAmount != null
+                ? slot.requestedAmount : BigDecimal.valueOf(slot.amountUnscaled, slot.amountScale);
+        try {
+            return slot.interestRates.interestRate(PURPOSES[slot.loanPurpose], slot.creditRating, requestedAmount,
+                    SOURCES[slot.sourceOfIncome]);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
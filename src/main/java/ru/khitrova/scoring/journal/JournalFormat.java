@@ -0,0 +1,226 @@
+package ru.khitrova.scoring.journal;
+
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * Двоичный формат сегментов журнала решений. Сегмент начинается с заголовка ({@value #HEADER_SIZE} байт:
+ * {@link #MAGIC} и {@link #VERSION}), за ним записи подряд до записи с нулевой длиной или конца файла:
+ * <pre>
+ *  0 int    длина тела записи
+ *  4 int    CRC32C тела записи
+ *  8 тело записи
+ * </pre>
+ * Тело записи (big-endian):
+ * <pre>
+ *  0 long   время проверки, миллисекунды от начала эпохи
+ *  8 byte   результат: {@link #REJECTED} или {@link #APPROVED}
+ *  9 short  признаки null полей (бит = номер поля ниже, начиная с 0); null поля не записываются
+ * 11 varint возраст
+ *    byte   пол (порядковый номер {@link Sex})
+ *    byte   источник дохода (порядковый номер {@link SourceOfIncome})
+ *    varint кредитный рейтинг
+ *    varint срок погашения
+ *    byte   цель кредита (порядковый номер {@link LoanPurpose})
+ *    число  запрошенная сумма
+ *    число  доход
+ *    число  годовой платеж
+ *    число  общая процентная ставка
+ * </pre>
+ * {@code varint} - целое со знаком в зигзаг-кодировке по 7 бит в байте, младшие биты первыми.
+ * Число - масштаб ({@code varint}), количество байт значения без масштаба ({@code varint})
+ * и само значение в дополнительном коде, старшие байты первыми: от масштаба суммы и дохода зависит
+ * округление, поэтому масштаб сохраняется как есть.
+ */
+public final class JournalFormat {
+
+    public static final int MAGIC = 0x534A524E;
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+
+    /**
+     * Длина и CRC32C перед телом записи
+     */
+    public static final int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * В кредите отказано
+     */
+    public static final byte REJECTED = 0;
+
+    /**
+     * Кредит одобрен
+     */
+    public static final byte APPROVED = 1;
+
+    static final int AGE = 0;
+    static final int SEX = 1;
+    static final int SOURCE_OF_INCOME = 2;
+    static final int CREDIT_RATING = 3;
+    static final int REPAYMENT_PERIOD = 4;
+    static final int LOAN_PURPOSE = 5;
+    static final int REQUESTED_AMOUNT = 6;
+    static final int LAST_YEAR_INCOME = 7;
+    static final int ANNUAL_PAYMENT = 8;
+    static final int INTEREST_RATE = 9;
+
+    private static final Sex[] SEXES = Sex.values();
+    private static final SourceOfIncome[] SOURCES = SourceOfIncome.values();
+    private static final LoanPurpose[] PURPOSES = LoanPurpose.values();
+
+    private JournalFormat() {
+    }
+
+    /**
+     * Запись тела записи из ячейки буфера.
+     * @param interestRate ставка или {@code null}
+     * @throws java.nio.BufferOverflowException если запись не помещается в буфер
+     */
+    static void write(ByteBuffer buffer, JournalRingBuffer.Slot slot, BigDecimal interestRate) {
+        int nulls = slot.nulls | (interestRate == null ? 1 << INTEREST_RATE : 0);
+        buffer.putLong(slot.time);
+        buffer.put(slot.approved ? APPROVED : REJECTED);
+        buffer.putShort((short) nulls);
+        if (present(nulls, AGE)) {
+            putVarint(buffer, slot.age);
+        }
+        if (present(nulls, SEX)) {
+            buffer.put((byte) slot.sex);
+        }
+        if (present(nulls, SOURCE_OF_INCOME)) {
+            buffer.put((byte) slot.sourceOfIncome);
+        }
+        if (present(nulls, CREDIT_RATING)) {
+            putVarint(buffer, slot.creditRating);
+        }
+        if (present(nulls, REPAYMENT_PERIOD)) {
+            putVarint(buffer, slot.repaymentPeriod);
+        }
+        if (present(nulls, LOAN_PURPOSE)) {
+            buffer.put((byte) slot.loanPurpose);
+        }
+        if (present(nulls, REQUESTED_AMOUNT)) {
+            putDecimal(buffer, slot.requestedAmount, slot.amountUnscaled, slot.amountScale);
+        }
+        if (present(nulls, LAST_YEAR_INCOME)) {
+            putDecimal(buffer, slot.lastYearIncome, slot.incomeUnscaled, slot.incomeScale);
+        }
+        if (present(nulls, ANNUAL_PAYMENT)) {
+            putDecimal(buffer, slot.annualPayment, slot.paymentUnscaled, slot.paymentScale);
+        }
+        if (interestRate != null) {
+            putDecimal(buffer, interestRate, 0, 0);
+        }
+    }
+
+    /**
+     * Чтение тела записи.
+     * @throws IllegalArgumentException если в записи неизвестный порядковый номер перечисления
+     */
+    public static JournalRecord read(ByteBuffer buffer) {
+        long time = buffer.getLong();
+        boolean approved = buffer.get() == APPROVED;
+        int nulls = buffer.getShort();
+
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = present(nulls, AGE) ? getVarint(buffer) : null;
+        loanRequest.sex = present(nulls, SEX) ? ordinal(SEXES, buffer.get()) : null;
+        loanRequest.sourceOfIncome = present(nulls, SOURCE_OF_INCOME) ? ordinal(SOURCES, buffer.get()) : null;
+        loanRequest.creditRating = present(nulls, CREDIT_RATING) ? getVarint(buffer) : null;
+        loanRequest.repaymentPeriod = present(nulls, REPAYMENT_PERIOD) ? getVarint(buffer) : null;
+        loanRequest.loanPurpose = present(nulls, LOAN_PURPOSE) ? ordinal(PURPOSES, buffer.get()) : null;
+        loanRequest.requestedAmount = present(nulls, REQUESTED_AMOUNT) ? getDecimal(buffer) : null;
+        loanRequest.lastYearIncome = present(nulls, LAST_YEAR_INCOME) ? getDecimal(buffer) : null;
+
+        LoanResponse loanResponse = new LoanResponse();
+        loanResponse.approved = approved;
+        loanResponse.annualPayment = present(nulls, ANNUAL_PAYMENT) ? getDecimal(buffer) : null;
+        BigDecimal interestRate = present(nulls, INTEREST_RATE) ? getDecimal(buffer) : null;
+        return new JournalRecord(time, loanRequest, loanResponse, interestRate);
+    }
+
+    /**
+     * Признак null поля с номером {@code field} для {@link JournalRingBuffer.Slot#nulls}.
+     */
+    static int isNull(Object value, int field) {
+        return value == null ? 1 << field : 0;
+    }
+
+    private static boolean present(int nulls, int field) {
+        return (nulls & (1 << field)) == 0;
+    }
+
+    /**
+     * Число из {@link BigDecimal} или, если его нет, из значения без масштаба и масштаба.
+     */
+    private static void putDecimal(ByteBuffer buffer, BigDecimal decimal, long unscaled, int scale) {
+        if (decimal != null) {
+            BigInteger unscaledValue = decimal.unscaledValue();
+            if (unscaledValue.bitLength() >= Long.SIZE) {
+                byte[] bytes = unscaledValue.toByteArray();
+                putVarint(buffer, decimal.scale());
+                putVarint(buffer, bytes.length);
+                buffer.put(bytes);
+                return;
+            }
+            unscaled = unscaledValue.longValue();
+            scale = decimal.scale();
+        }
+        // наименьшее количество байт дополнительного кода, включая бит знака
+        int length = (Long.SIZE - Long.numberOfLeadingZeros(unscaled ^ (unscaled >> 63))) / Byte.SIZE + 1;
+        putVarint(buffer, scale);
+        putVarint(buffer, length);
+        for (int shift = (length - 1) * Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            buffer.put((byte) (unscaled >> shift));
+        }
+    }
+
+    private static BigDecimal getDecimal(ByteBuffer buffer) {
+        int scale = getVarint(buffer);
+        int length = getVarint(buffer);
+        if (length < 1 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Некорректная длина числа в журнале: " + length);
+        }
+        if (length > Long.BYTES) {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new BigDecimal(new BigInteger(bytes), scale);
+        }
+        long unscaled = buffer.get();
+        for (int i = 1; i < length; i++) {
+            unscaled = (unscaled << Byte.SIZE) | (buffer.get() & 0xFF);
+        }
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7F) != 0) {
+            buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        buffer.put((byte) zigzag);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int zigzag = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = buffer.get();
+            zigzag |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IllegalArgumentException("Некорректное целое в журнале");
+    }
+
+    private static <E> E ordinal(E[] values, int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("Неизвестный порядковый номер в журнале: " + ordinal);
+        }
+        return values[ordinal];
+    }
+}
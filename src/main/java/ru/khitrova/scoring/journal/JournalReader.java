@@ -0,0 +1,217 @@
+package ru.khitrova.scoring.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Чтение записей журнала решений по сегментам в порядке номеров. Каждый сегмент отображается в память
+ * только для чтения при переходе к нему. Чтение сегмента останавливается на записи с нулевой длиной
+ * или на первой записи, которая не помещается в сегмент или не совпадает с CRC: это недописанный хвост
+ * после аварийной остановки. Записи сегмента, в который еще пишет журнал, надежно видны только после сброса
+ * на диск или закрытия журнала.
+ */
+public class JournalReader implements Iterable<JournalRecord> {
+
+    private static final String SUFFIX = ".journal";
+
+    private final List<Path> segments;
+
+    public JournalReader(List<Path> segments) {
+        this.segments = segments;
+    }
+
+    /**
+     * Чтение всех сегментов каталога.
+     */
+    public static JournalReader open(Path directory) throws IOException {
+        return new JournalReader(segments(directory));
+    }
+
+    /**
+     * Сегменты журнала в каталоге в порядке номеров.
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public List<Path> getSegments() {
+        return segments;
+    }
+
+    @Override
+    public Iterator<JournalRecord> iterator() {
+        return new RecordIterator(chunks(Integer.MAX_VALUE));
+    }
+
+    /**
+     * Части сегментов по границам записей, не больше {@code maxRecords} записей в части.
+     * Границы находятся по длинам записей без разбора тела, поэтому части можно читать
+     * через {@link #records(ByteBuffer)} параллельно.
+     */
+    public Iterator<ByteBuffer> chunks(int maxRecords) {
+        if (maxRecords < 1) {
+            throw new IllegalArgumentException("Некорректное количество записей в части: " + maxRecords);
+        }
+        return new ChunkIterator(maxRecords);
+    }
+
+    /**
+     * Записи части, полученной из {@link #chunks(int)}.
+     */
+    public static Iterator<JournalRecord> records(ByteBuffer chunk) {
+        return new RecordIterator(List.of(chunk.duplicate()).iterator());
+    }
+
+    static String segmentName(long segment) {
+        return String.format("%020d%s", segment, SUFFIX);
+    }
+
+    static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private static ByteBuffer map(Path segment) {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < JournalFormat.HEADER_SIZE || buffer.getInt() != JournalFormat.MAGIC
+                    || buffer.getInt() != JournalFormat.VERSION) {
+                throw new IllegalArgumentException("Файл " + segment + " не является сегментом журнала");
+            }
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Длина тела следующей записи или 0, если записей больше нет.
+     */
+    private static int nextLength(ByteBuffer buffer) {
+        if (buffer.remaining() < JournalFormat.RECORD_HEADER_SIZE) {
+            return 0;
+        }
+        int length = buffer.getInt(buffer.position());
+        return length > 0 && length <= buffer.remaining() - JournalFormat.RECORD_HEADER_SIZE ? length : 0;
+    }
+
+    private class ChunkIterator implements Iterator<ByteBuffer> {
+
+        private final int maxRecords;
+        private int segment;
+        private ByteBuffer buffer;
+        private ByteBuffer next;
+
+        ChunkIterator(int maxRecords) {
+            this.maxRecords = maxRecords;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (buffer == null) {
+                    if (segment == segments.size()) {
+                        return false;
+                    }
+                    buffer = map(segments.get(segment++));
+                }
+                int start = buffer.position();
+                int length;
+                for (int records = 0; records < maxRecords && (length = nextLength(buffer)) > 0; records++) {
+                    buffer.position(buffer.position() + JournalFormat.RECORD_HEADER_SIZE + length);
+                }
+                if (buffer.position() > start) {
+                    next = buffer.slice(start, buffer.position() - start);
+                } else {
+                    buffer = null;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public ByteBuffer next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ByteBuffer chunk = next;
+            next = null;
+            return chunk;
+        }
+    }
+
+    private static class RecordIterator implements Iterator<JournalRecord> {
+
+        private final CRC32C crc = new CRC32C();
+        private final Iterator<ByteBuffer> chunks;
+        private ByteBuffer buffer;
+        private ByteBuffer next;
+
+        RecordIterator(Iterator<ByteBuffer> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (buffer == null) {
+                    if (!chunks.hasNext()) {
+                        return false;
+                    }
+                    buffer = chunks.next();
+                }
+                next = nextBody();
+                if (next == null) {
+                    buffer = null;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public JournalRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            JournalRecord record = JournalFormat.read(next);
+            next = null;
+            return record;
+        }
+
+        /**
+         * Тело следующей целой записи или {@code null} в конце записей.
+         */
+        private ByteBuffer nextBody() {
+            int length = nextLength(buffer);
+            if (length == 0) {
+                return null;
+            }
+            int checksum = buffer.getInt(buffer.position() + Integer.BYTES);
+            ByteBuffer body = buffer.slice(buffer.position() + JournalFormat.RECORD_HEADER_SIZE, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+            buffer.position(buffer.position() + JournalFormat.RECORD_HEADER_SIZE + length);
+            return body;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.khitrova.scoring.journal;
+
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+
+import java.math.BigDecimal;
+
+/**
+ * Запись журнала решений: запрос, ответ и общая процентная ставка по запросу.
+ */
+public class JournalRecord {
+
+    /**
+     * Время проверки, миллисекунды от начала эпохи
+     */
+    public final long time;
+
+    public final LoanRequest loanRequest;
+
+    public final LoanResponse loanResponse;
+
+    /**
+     * Ставка, по которой реализация рассчитывает годовой платеж, или {@code null}, если ее не удалось определить
+     */
+    public final BigDecimal interestRate;
+
+    public JournalRecord(long time, LoanRequest loanRequest, LoanResponse loanResponse, BigDecimal interestRate) {
+        this.time = time;
+        this.loanRequest = loanRequest;
+        this.loanResponse = loanResponse;
+        this.interestRate = interestRate;
+    }
+}
@@ -0,0 +1,145 @@
+package ru.khitrova.scoring.journal;
+
+import ru.khitrova.scoring.scoring.InterestRates;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кольцевой буфер записей журнала без блокировок: много потоков запросов пишут, один поток записи читает.
+ * Ячейки создаются заранее и переиспользуются. Номер ячейки ({@link Slot#sequence}) показывает ее состояние:
+ * равен номеру записи - ячейка свободна для этой записи, на единицу больше - запись опубликована.
+ * Поток запроса занимает номер через CAS, заполняет поля и публикует ячейку записью номера;
+ * поток записи освобождает ячейку для записи на круг дальше.
+ * При закрытии поток записи запечатывает буфер ({@link #seal()}), после чего ячейки больше не занимаются.
+ */
+final class JournalRingBuffer {
+
+    /**
+     * Номер следующей записи в запечатанном буфере
+     */
+    private static final long SEALED = -1;
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Номер следующей записи для чтения; меняется только потоком записи.
+     */
+    private long head;
+
+    /**
+     * @param capacity количество ячеек, степень двойки
+     */
+    JournalRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Размер буфера журнала должен быть степенью двойки: " + capacity);
+        }
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(i);
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Свободная ячейка для заполнения или {@code null}, если буфер заполнен.
+     * Заполненную ячейку нужно опубликовать через {@link Slot#publish()}.
+     */
+    Slot tryClaim() {
+        while (true) {
+            long sequence = tail.get();
+            if (sequence == SEALED) {
+                return null;
+            }
+            Slot slot = slots[(int) sequence & mask];
+            long available = slot.sequence;
+            if (available == sequence) {
+                if (tail.compareAndSet(sequence, sequence + 1)) {
+                    slot.claimed = sequence;
+                    return slot;
+                }
+            } else if (available < sequence) {
+                // ячейка еще занята записью на круг раньше
+                return null;
+            }
+            // номер уже заняли другие потоки, повтор с новым номером
+        }
+    }
+
+    /**
+     * Следующая опубликованная ячейка или {@code null}. Вызывается только потоком записи.
+     */
+    Slot poll() {
+        Slot slot = slots[(int) head & mask];
+        return slot.sequence == head + 1 ? slot : null;
+    }
+
+    /**
+     * Освобождение ячейки, полученной из {@link #poll()}. Вызывается только потоком записи.
+     */
+    void release(Slot slot) {
+        slot.requestedAmount = null;
+        slot.lastYearIncome = null;
+        slot.annualPayment = null;
+        slot.interestRates = null;
+        slot.sequence = head + slots.length;
+        head++;
+    }
+
+    /**
+     * Запечатывание буфера, если все занятые ячейки прочитаны; после этого {@link #tryClaim()} возвращает
+     * {@code null}. Вызывается только потоком записи.
+     * @return {@code false}, если есть занятые ячейки, которые еще не прочитаны
+     */
+    boolean seal() {
+        return tail.compareAndSet(head, SEALED);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Ячейка буфера: поля запроса и решения. Суммы хранятся как {@link BigDecimal}, если запрос проверялся
+     * в виде объекта, иначе как значение без масштаба и масштаб - так примитивный вход не создает объектов.
+     * Ставку поток записи рассчитывает по версии правил, действовавшей при проверке запроса ({@link #interestRates}).
+     */
+    static final class Slot {
+        volatile long sequence;
+        long claimed;
+
+        long time;
+        int nulls;
+        int age;
+        int sex;
+        int sourceOfIncome;
+        int creditRating;
+        int repaymentPeriod;
+        int loanPurpose;
+        boolean approved;
+
+        BigDecimal requestedAmount;
+        long amountUnscaled;
+        int amountScale;
+
+        BigDecimal lastYearIncome;
+        long incomeUnscaled;
+        int incomeScale;
+
+        BigDecimal annualPayment;
+        long paymentUnscaled;
+        int paymentScale;
+
+        InterestRates interestRates;
+
+        Slot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        void publish() {
+            sequence = claimed + 1;
+        }
+    }
+}
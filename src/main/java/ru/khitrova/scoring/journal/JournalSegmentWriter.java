@@ -0,0 +1,108 @@
+package ru.khitrova.scoring.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Запись в сегменты журнала, отображенные в память. Сегмент создается сразу нужного размера;
+ * когда запись не помещается в остаток сегмента, начинается следующий. Номер нового сегмента
+ * на единицу больше последнего в каталоге, поэтому после перезапуска существующие сегменты не дописываются.
+ * Используется только потоком записи журнала.
+ */
+final class JournalSegmentWriter implements Closeable {
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncOnRoll;
+    private final CRC32C crc = new CRC32C();
+
+    private long segment;
+    private MappedByteBuffer buffer;
+    private int synced;
+
+    /**
+     * @param segmentSize размер файла сегмента в байтах
+     * @param syncOnRoll сбрасывать ли сегмент на диск перед переходом к следующему
+     */
+    JournalSegmentWriter(Path directory, int segmentSize, boolean syncOnRoll) throws IOException {
+        if (segmentSize < JournalFormat.HEADER_SIZE + JournalFormat.RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Слишком маленький размер сегмента журнала: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncOnRoll = syncOnRoll;
+        Files.createDirectories(directory);
+        List<Path> segments = JournalReader.segments(directory);
+        segment = segments.isEmpty() ? 0 : JournalReader.segmentNumber(segments.get(segments.size() - 1));
+        open();
+    }
+
+    /**
+     * Добавление записи с телом от позиции до границы буфера.
+     * @return {@code false}, если запись больше сегмента
+     */
+    boolean append(ByteBuffer body) throws IOException {
+        int size = JournalFormat.RECORD_HEADER_SIZE + body.remaining();
+        if (size > segmentSize - JournalFormat.HEADER_SIZE) {
+            return false;
+        }
+        if (size > buffer.remaining()) {
+            roll();
+        }
+        int start = buffer.position();
+        crc.reset();
+        crc.update(body.duplicate());
+        buffer.position(start + JournalFormat.RECORD_HEADER_SIZE);
+        buffer.put(body);
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        // длина записывается последней: читатель в том же процессе не увидит запись без тела
+        buffer.putInt(start, size - JournalFormat.RECORD_HEADER_SIZE);
+        return true;
+    }
+
+    /**
+     * Сброс на диск записей, добавленных после предыдущего сброса.
+     */
+    void sync() {
+        int position = buffer.position();
+        if (position > synced) {
+            buffer.force(synced, position - synced);
+            synced = position;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (syncOnRoll) {
+            sync();
+        }
+        buffer = null;
+    }
+
+    private void roll() throws IOException {
+        if (syncOnRoll) {
+            sync();
+        }
+        open();
+    }
+
+    private void open() throws IOException {
+        Path path = directory.resolve(JournalReader.segmentName(segment + 1));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        segment++;
+        buffer.putInt(JournalFormat.MAGIC);
+        buffer.putInt(JournalFormat.VERSION);
+        synced = 0;
+    }
+}
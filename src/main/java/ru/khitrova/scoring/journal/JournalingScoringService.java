@@ -0,0 +1,133 @@
+package ru.khitrova.scoring.journal;
+
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.InterestRates;
+import ru.khitrova.scoring.scoring.LoanColumns;
+import ru.khitrova.scoring.scoring.ScoringService;
+import ru.khitrova.scoring.scoring.VersionedScoringService;
+
+/**
+ * Обертка над реализацией сервиса скоринга, которая добавляет каждое решение в {@link DecisionJournal}.
+ * Ответы с ошибками валидации не записываются.
+ * <p>
+ * Ставка записывается по правилам, которыми проверен запрос: у реализации с заменой правил
+ * ({@link VersionedScoringService}) обертка получает версию правил до проверки и передает ее и в проверку,
+ * и в журнал; у остальных реализаций ставки заданы при создании обертки. Поэтому обертка находится
+ * непосредственно над реализацией, под кэшем и сборкой пачек. Ответы из кэша записывает
+ * {@link CacheHitJournalingScoringService} над кэшем.
+ */
+public class JournalingScoringService implements ScoringService {
+
+    private final ScoringService delegate;
+    private final VersionedScoringService<?> versioned;
+    private final DecisionJournal journal;
+    private final InterestRates rates;
+
+    /**
+     * @param rates ставки, по которым реализация рассчитывает годовой платеж
+     */
+    public JournalingScoringService(ScoringService delegate, DecisionJournal journal, InterestRates rates) {
+        this.delegate = delegate;
+        this.versioned = null;
+        this.journal = journal;
+        this.rates = rates;
+    }
+
+    /**
+     * Ставка рассчитывается по версии правил, по которой проверен запрос.
+     */
+    public JournalingScoringService(VersionedScoringService<?> delegate, DecisionJournal journal) {
+        this.delegate = delegate;
+        this.versioned = delegate;
+        this.journal = journal;
+        this.rates = null;
+    }
+
+    @Override
+    public LoanResponse checkLoan(LoanRequest loanRequest) {
+        if (versioned != null) {
+            return checkLoan(versioned, loanRequest);
+        }
+        LoanResponse loanResponse = delegate.checkLoan(loanRequest);
+        append(loanRequest, loanResponse, rates);
+        return loanResponse;
+    }
+
+    @Override
+    public long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                          int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale) {
+        if (versioned != null) {
+            return checkLoan(versioned, age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod,
+                    loanPurpose, incomeUnscaled, incomeScale);
+        }
+        long decision = delegate.checkLoan(age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod,
+                loanPurpose, incomeUnscaled, incomeScale);
+        journal.append(age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod, loanPurpose,
+                incomeUnscaled, incomeScale, decision, rates);
+        return decision;
+    }
+
+    /**
+     * Пачка проверяется реализацией целиком, затем каждое решение добавляется в журнал.
+     * У реализации с заменой правил вся пачка проверяется по одной версии правил.
+     */
+    @Override
+    public void checkLoans(LoanColumns columns, long[] decisions) {
+        if (versioned != null) {
+            checkLoans(versioned, columns, decisions);
+            return;
+        }
+        delegate.checkLoans(columns, decisions);
+        append(columns, decisions, rates);
+    }
+
+    @Override
+    public boolean supportsPrimitiveCheck() {
+        return delegate.supportsPrimitiveCheck();
+    }
+
+    private <R extends InterestRates> LoanResponse checkLoan(VersionedScoringService<R> service,
+                                                             LoanRequest loanRequest) {
+        R rules = service.currentRules();
+        LoanResponse loanResponse = service.checkLoan(loanRequest, rules);
+        append(loanRequest, loanResponse, rules);
+        return loanResponse;
+    }
+
+    private <R extends InterestRates> long checkLoan(VersionedScoringService<R> service, int age, Sex sex,
+                                                     SourceOfIncome sourceOfIncome, int creditRating,
+                                                     int amountTenths, int repaymentPeriod, LoanPurpose loanPurpose,
+                                                     long incomeUnscaled, int incomeScale) {
+        R rules = service.currentRules();
+        long decision = service.checkLoan(age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod,
+                loanPurpose, incomeUnscaled, incomeScale, rules);
+        journal.append(age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod, loanPurpose,
+                incomeUnscaled, incomeScale, decision, rules);
+        return decision;
+    }
+
+    private <R extends InterestRates> void checkLoans(VersionedScoringService<R> service, LoanColumns columns,
+                                                      long[] decisions) {
+        R rules = service.currentRules();
+        for (int i = 0; i < columns.size; i++) {
+            decisions[i] = service.checkLoan(columns.age[i], columns.sexAt(i), columns.sourceOfIncomeAt(i),
+                    columns.creditRating[i], columns.amountTenths[i], columns.repaymentPeriod[i],
+                    columns.loanPurposeAt(i), columns.incomeUnscaled[i], columns.incomeScale[i], rules);
+        }
+        append(columns, decisions, rules);
+    }
+
+    private void append(LoanRequest loanRequest, LoanResponse loanResponse, InterestRates interestRates) {
+        if (loanResponse.errors == null) {
+            journal.append(loanRequest, loanResponse, interestRates);
+        }
+    }
+
+    private void append(LoanColumns columns, long[] decisions, InterestRates interestRates) {
+        for (int i = 0; i < columns.size; i++) {
+            journal.append(columns.age[i], columns.sexAt(i), columns.sourceOfIncomeAt(i), columns.creditRating[i],
+                    columns.amountTenths[i], columns.repaymentPeriod[i], columns.loanPurposeAt(i),
+                    columns.incomeUnscaled[i], columns.incomeScale[i], decisions[i], interestRates);
+        }
+    }
+}
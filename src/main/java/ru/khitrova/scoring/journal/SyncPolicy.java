@@ -0,0 +1,22 @@
+package ru.khitrova.scoring.journal;
+
+/**
+ * Когда поток записи журнала сбрасывает записанные сегменты на диск.
+ */
+public enum SyncPolicy {
+
+    /**
+     * Только операционной системой: при аварии системы теряются записи, не сброшенные ею
+     */
+    NONE,
+
+    /**
+     * После каждой пачки записей, взятых из буфера
+     */
+    BATCH,
+
+    /**
+     * Не чаще заданного интервала
+     */
+    INTERVAL
+}
@@ -0,0 +1,48 @@
+package ru.khitrova.scoring.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Обертка над сервисом скоринга, которая замеряет время проверки запроса.
+ */
+public class MeteredScoringService implements ScoringService {
+
+    private final ScoringService delegate;
+    private final Timer timer;
+
+    public MeteredScoringService(ScoringService delegate, Timer timer) {
+        this.delegate = delegate;
+        this.timer = timer;
+    }
+
+    @Override
+    public LoanResponse checkLoan(LoanRequest loanRequest) {
+        long start = System.nanoTime();
+        try {
+            return delegate.checkLoan(loanRequest);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                          int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale) {
+        long start = System.nanoTime();
+        try {
+            return delegate.checkLoan(age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod,
+                    loanPurpose, incomeUnscaled, incomeScale);
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean supportsPrimitiveCheck() {
+        return delegate.supportsPrimitiveCheck();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.khitrova.scoring.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.khitrova.scoring.scoring.RejectionReason;
+import ru.khitrova.scoring.scoring.ScoringListener;
+
+import java.math.BigDecimal;
+
+/**
+ * Метрики проверки запросов на кредит: время проверки, количество одобрений и отказов по причинам,
+ * распределение годового платежа.
+ * Все счетчики регистрируются заранее, поэтому на каждый запрос нет поиска в реестре,
+ * а сами счетчики Micrometer накапливают значения в {@link java.util.concurrent.atomic.DoubleAdder}
+ * и не становятся точкой конкуренции потоков.
+ */
+@Component
+public class ScoringMetrics implements ScoringListener {
+
+    private static final String DECISIONS = "scoring.decisions";
+
+    private final Timer checkTimer;
+    private final Counter approved;
+    private final Counter[] rejected;
+    private final DistributionSummary annualPayment;
+
+    public ScoringMetrics(MeterRegistry registry) {
+        this.checkTimer = Timer.builder("scoring.check")
+                .description("Время проверки запроса сервисом скоринга")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.approved = Counter.builder(DECISIONS)
+                .description("Решения по запросам на кредит")
+                .tag("decision", "approved")
+                .tag("reason", "none")
+                .register(registry);
+        this.rejected = new Counter[RejectionReason.values().length];
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejected[reason.ordinal()] = Counter.builder(DECISIONS)
+                    .description("Решения по запросам на кредит")
+                    .tag("decision", "rejected")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(registry);
+        }
+        this.annualPayment = DistributionSummary.builder("scoring.annual.payment")
+                .description("Годовой платеж по одобренным кредитам")
+                .baseUnit("millions")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(20.0)
+                .register(registry);
+    }
+
+    /**
+     * Таймер проверки запроса сервисом скоринга.
+     */
+    public Timer getCheckTimer() {
+        return checkTimer;
+    }
+
+    @Override
+    public void approved(BigDecimal annualPayment) {
+        approved.increment();
+        this.annualPayment.record(annualPayment.doubleValue());
+    }
+
+    @Override
+    public void approved(long annualPaymentTenths) {
+        approved.increment();
+        this.annualPayment.record(annualPaymentTenths / 10.0);
+    }
+
+    @Override
+    public void rejected(RejectionReason reason) {
+        rejected[reason.ordinal()].increment();
+    }
+}
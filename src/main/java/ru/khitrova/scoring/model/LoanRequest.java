@@ -1,6 +1,6 @@
 package ru.khitrova.scoring.model;
 
-import javax.validation.constraints.*;
+import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 
 /**
@@ -1,6 +1,9 @@
 package ru.khitrova.scoring.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * Ответ сервиса - одобрен ли кредит, годовой платеж
@@ -16,4 +19,10 @@ public class LoanResponse {
      * Годовой платёж по кредиту
      */
     public BigDecimal annualPayment;
+
+    /**
+     * Ошибки проверки запроса в пакетной обработке
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<String> errors;
 }
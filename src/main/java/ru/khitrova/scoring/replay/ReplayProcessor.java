@@ -0,0 +1,170 @@
+package ru.khitrova.scoring.replay;
+
+import ru.khitrova.scoring.journal.JournalReader;
+import ru.khitrova.scoring.journal.JournalRecord;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.scoring.ScoringDecision;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Повторная проверка запросов из журнала решений ({@link JournalReader}) другой конфигурацией сервиса скоринга
+ * и сравнение с записанными решениями. Журнал делится на части по {@code chunkRecords} записей,
+ * части проверяются параллельно в {@link ForkJoinPool} волнами по {@code parallelism * 4}, как в
+ * {@link ru.khitrova.scoring.bulk.BulkScoringProcessor}. Изменившиеся решения после каждой волны
+ * записываются в поток различий в порядке журнала, поэтому занятая память зависит от размера части,
+ * а не от размера журнала.
+ * <p>
+ * Строка различий (CSV): время, поля запроса, записанные одобрение и платеж, новые одобрение и платеж.
+ */
+public class ReplayProcessor {
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    static final String HEADER = "time,age,sex,sourceOfIncome,lastYearIncome,creditRating,requestedAmount,"
+            + "repaymentPeriod,loanPurpose,recordedApproved,recordedAnnualPayment,approved,annualPayment\n";
+
+    private final ScoringService candidate;
+    private final int chunkRecords;
+    private final int parallelism;
+
+    /**
+     * @param candidate конфигурация, решения которой сравниваются с журналом
+     * @param chunkRecords количество записей в части
+     */
+    public ReplayProcessor(ScoringService candidate, int chunkRecords, int parallelism) {
+        if (chunkRecords < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Некорректные параметры повторной проверки: записей в части "
+                    + chunkRecords + ", потоков " + parallelism);
+        }
+        this.candidate = candidate;
+        this.chunkRecords = chunkRecords;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Повторная проверка всех записей журнала.
+     * @param diff получает строки изменившихся решений
+     * @param progress получает отчет о ходе проверки после каждой волны
+     * @return итоговый отчет
+     */
+    public ReplayReport process(JournalReader journal, OutputStream diff, Consumer<ReplayReport> progress)
+            throws IOException {
+        long started = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ReplayReport report = new ReplayReport();
+            diff.write(HEADER.getBytes(StandardCharsets.UTF_8));
+            Iterator<ByteBuffer> chunks = journal.chunks(chunkRecords);
+            while (chunks.hasNext()) {
+                List<Chunk> wave = new ArrayList<>(parallelism * CHUNKS_PER_THREAD);
+                while (chunks.hasNext() && wave.size() < parallelism * CHUNKS_PER_THREAD) {
+                    wave.add(new Chunk(chunks.next()));
+                }
+                pool.invoke(new ReplayChunks(wave, 0, wave.size()));
+
+                for (Chunk chunk : wave) {
+                    diff.write(chunk.diff.toString().getBytes(StandardCharsets.UTF_8));
+                    report.merge(chunk.report);
+                }
+                report.setElapsedNanos(System.nanoTime() - started);
+                progress.accept(report);
+            }
+            diff.flush();
+            report.setElapsedNanos(System.nanoTime() - started);
+            return report;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void appendDiff(StringBuilder diff, JournalRecord record, LoanResponse loanResponse) {
+        LoanRequest loanRequest = record.loanRequest;
+        diff.append(record.time).append(',')
+                .append(loanRequest.age).append(',')
+                .append(loanRequest.sex).append(',')
+                .append(loanRequest.sourceOfIncome).append(',')
+                .append(plain(loanRequest.lastYearIncome)).append(',')
+                .append(loanRequest.creditRating).append(',')
+                .append(plain(loanRequest.requestedAmount)).append(',')
+                .append(loanRequest.repaymentPeriod).append(',')
+                .append(loanRequest.loanPurpose).append(',')
+                .append(record.loanResponse.approved).append(',')
+                .append(plain(record.loanResponse.annualPayment)).append(',')
+                .append(loanResponse.approved).append(',')
+                .append(plain(loanResponse.annualPayment)).append('\n');
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+
+    /**
+     * Часть журнала, ее отчет и строки различий.
+     */
+    private final class Chunk {
+        private final ByteBuffer input;
+        private final ReplayReport report = new ReplayReport();
+        private final StringBuilder diff = new StringBuilder();
+
+        Chunk(ByteBuffer input) {
+            this.input = input;
+        }
+
+        void replay() {
+            Iterator<JournalRecord> records = JournalReader.records(input);
+            while (records.hasNext()) {
+                JournalRecord record = records.next();
+                LoanResponse loanResponse;
+                try {
+                    loanResponse = ScoringDecision.checkLoan(candidate, record.loanRequest);
+                } catch (RuntimeException e) {
+                    report.error();
+                    continue;
+                }
+                if (report.add(record.loanRequest, record.loanResponse, loanResponse)) {
+                    appendDiff(diff, record, loanResponse);
+                }
+            }
+        }
+    }
+
+    /**
+     * Проверка частей волны: диапазон делится пополам, пока в нем больше одной части.
+     */
+    private static final class ReplayChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Chunk> chunks;
+        private final int from;
+        private final int to;
+
+        ReplayChunks(List<Chunk> chunks, int from, int to) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                chunks.get(from).replay();
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ReplayChunks(chunks, from, middle), new ReplayChunks(chunks, middle, to));
+        }
+    }
+}
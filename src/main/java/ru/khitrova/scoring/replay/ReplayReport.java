@@ -0,0 +1,345 @@
+package ru.khitrova.scoring.replay;
+
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Итог повторной проверки журнала: сколько решений изменилось, смена одобрения и отказа по сегментам
+ * заемщиков и распределение изменения годового платежа для запросов, одобренных обеими конфигурациями.
+ * Каждая часть журнала считает свой отчет, отчеты частей складываются через {@link #merge(ReplayReport)}.
+ */
+public class ReplayReport {
+
+    /**
+     * Границы модуля изменения годового платежа в миллионах для распределения.
+     */
+    private static final double[] DELTA_BOUNDS = {0.1, 0.5, 1, 5};
+
+    /**
+     * Границы возрастных групп: от возраста совершеннолетия до пенсионного возраста женщин и мужчин.
+     */
+    private static final int[] AGE_BOUNDS = {18, 25, 35, 45, 55, 60, 66};
+
+    private static final int MIN_RATING = -2;
+    private static final int MAX_RATING = 2;
+
+    /**
+     * Признак, по которому заемщики делятся на сегменты. Запросы без значения признака
+     * попадают в последний сегмент.
+     */
+    public enum Segment {
+        SEX("Пол", Sex.values().length),
+        SOURCE_OF_INCOME("Источник дохода", SourceOfIncome.values().length),
+        LOAN_PURPOSE("Цель кредита", LoanPurpose.values().length),
+        CREDIT_RATING("Кредитный рейтинг", MAX_RATING - MIN_RATING + 1),
+        AGE("Возраст", AGE_BOUNDS.length + 1);
+
+        private final String title;
+        private final int values;
+
+        Segment(String title, int values) {
+            this.title = title;
+            this.values = values;
+        }
+
+        /**
+         * Номер сегмента запроса.
+         */
+        int index(LoanRequest loanRequest) {
+            switch (this) {
+                case SEX:
+                    return loanRequest.sex == null ? values : loanRequest.sex.ordinal();
+                case SOURCE_OF_INCOME:
+                    return loanRequest.sourceOfIncome == null ? values : loanRequest.sourceOfIncome.ordinal();
+                case LOAN_PURPOSE:
+                    return loanRequest.loanPurpose == null ? values : loanRequest.loanPurpose.ordinal();
+                case CREDIT_RATING:
+                    return loanRequest.creditRating == null ? values
+                            : Math.max(MIN_RATING, Math.min(MAX_RATING, loanRequest.creditRating)) - MIN_RATING;
+                default:
+                    if (loanRequest.age == null) {
+                        return values;
+                    }
+                    int band = 0;
+                    while (band < AGE_BOUNDS.length && loanRequest.age >= AGE_BOUNDS[band]) {
+                        band++;
+                    }
+                    return band;
+            }
+        }
+
+        /**
+         * Название сегмента с номером {@code index}.
+         */
+        public String label(int index) {
+            if (index == values) {
+                return "не указан";
+            }
+            switch (this) {
+                case SEX:
+                    return Sex.values()[index].name();
+                case SOURCE_OF_INCOME:
+                    return SourceOfIncome.values()[index].name();
+                case LOAN_PURPOSE:
+                    return LoanPurpose.values()[index].name();
+                case CREDIT_RATING:
+                    int rating = MIN_RATING + index;
+                    return (rating == MIN_RATING ? "<=" : rating == MAX_RATING ? ">=" : "") + rating;
+                default:
+                    if (index == 0) {
+                        return "<" + AGE_BOUNDS[0];
+                    }
+                    if (index == AGE_BOUNDS.length) {
+                        return AGE_BOUNDS[index - 1] + "+";
+                    }
+                    return AGE_BOUNDS[index - 1] + "-" + (AGE_BOUNDS[index] - 1);
+            }
+        }
+
+        /**
+         * Количество сегментов, включая сегмент запросов без значения признака.
+         */
+        public int size() {
+            return values + 1;
+        }
+    }
+
+    private long records;
+    private long errors;
+    private long approvedToRejected;
+    private long rejectedToApproved;
+    private long paymentChanged;
+    private long elapsedNanos;
+
+    /**
+     * По признаку и сегменту: записи, одобрение сменилось отказом, отказ сменился одобрением.
+     */
+    private final long[][] segmentRecords = new long[Segment.values().length][];
+    private final long[][] segmentApprovedToRejected = new long[Segment.values().length][];
+    private final long[][] segmentRejectedToApproved = new long[Segment.values().length][];
+
+    /**
+     * Изменение платежа: по группам от самого большого уменьшения до самого большого увеличения,
+     * посередине группа без изменения.
+     */
+    private final long[] deltas = new long[2 * DELTA_BOUNDS.length + 3];
+    private double deltaSum;
+    private double deltaMin = Double.POSITIVE_INFINITY;
+    private double deltaMax = Double.NEGATIVE_INFINITY;
+
+    public ReplayReport() {
+        for (Segment segment : Segment.values()) {
+            segmentRecords[segment.ordinal()] = new long[segment.size()];
+            segmentApprovedToRejected[segment.ordinal()] = new long[segment.size()];
+            segmentRejectedToApproved[segment.ordinal()] = new long[segment.size()];
+        }
+    }
+
+    /**
+     * Учет решения по записи журнала.
+     * @return изменилось ли решение или годовой платеж
+     */
+    boolean add(LoanRequest loanRequest, LoanResponse recorded, LoanResponse candidate) {
+        records++;
+        boolean wasApproved = Boolean.TRUE.equals(recorded.approved);
+        boolean approved = Boolean.TRUE.equals(candidate.approved);
+        for (Segment segment : Segment.values()) {
+            int index = segment.index(loanRequest);
+            segmentRecords[segment.ordinal()][index]++;
+            if (wasApproved && !approved) {
+                segmentApprovedToRejected[segment.ordinal()][index]++;
+            } else if (!wasApproved && approved) {
+                segmentRejectedToApproved[segment.ordinal()][index]++;
+            }
+        }
+        if (wasApproved != approved) {
+            if (wasApproved) {
+                approvedToRejected++;
+            } else {
+                rejectedToApproved++;
+            }
+            return true;
+        }
+        if (!approved || recorded.annualPayment == null || candidate.annualPayment == null) {
+            return false;
+        }
+        BigDecimal delta = candidate.annualPayment.subtract(recorded.annualPayment);
+        addDelta(delta);
+        if (delta.signum() != 0) {
+            paymentChanged++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Учет записи, которую не удалось проверить.
+     */
+    void error() {
+        records++;
+        errors++;
+    }
+
+    void merge(ReplayReport other) {
+        records += other.records;
+        errors += other.errors;
+        approvedToRejected += other.approvedToRejected;
+        rejectedToApproved += other.rejectedToApproved;
+        paymentChanged += other.paymentChanged;
+        for (int i = 0; i < segmentRecords.length; i++) {
+            for (int j = 0; j < segmentRecords[i].length; j++) {
+                segmentRecords[i][j] += other.segmentRecords[i][j];
+                segmentApprovedToRejected[i][j] += other.segmentApprovedToRejected[i][j];
+                segmentRejectedToApproved[i][j] += other.segmentRejectedToApproved[i][j];
+            }
+        }
+        for (int i = 0; i < deltas.length; i++) {
+            deltas[i] += other.deltas[i];
+        }
+        deltaSum += other.deltaSum;
+        deltaMin = Math.min(deltaMin, other.deltaMin);
+        deltaMax = Math.max(deltaMax, other.deltaMax);
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getApprovedToRejected() {
+        return approvedToRejected;
+    }
+
+    public long getRejectedToApproved() {
+        return rejectedToApproved;
+    }
+
+    /**
+     * Количество запросов, одобренных обеими конфигурациями с разным годовым платежом.
+     */
+    public long getPaymentChanged() {
+        return paymentChanged;
+    }
+
+    public long getSegmentRecords(Segment segment, int index) {
+        return segmentRecords[segment.ordinal()][index];
+    }
+
+    public long getSegmentApprovedToRejected(Segment segment, int index) {
+        return segmentApprovedToRejected[segment.ordinal()][index];
+    }
+
+    public long getSegmentRejectedToApproved(Segment segment, int index) {
+        return segmentRejectedToApproved[segment.ordinal()][index];
+    }
+
+    /**
+     * Количество запросов, одобренных обеими конфигурациями, по группам изменения платежа
+     * (см. {@link #deltaLabel(int)}).
+     */
+    public long[] getDeltas() {
+        return deltas.clone();
+    }
+
+    /**
+     * Название группы изменения платежа с номером {@code index}.
+     */
+    public static String deltaLabel(int index) {
+        int zero = DELTA_BOUNDS.length + 1;
+        if (index == zero) {
+            return "0";
+        }
+        if (index == 0) {
+            return "< -" + bound(DELTA_BOUNDS.length - 1);
+        }
+        if (index == 2 * zero) {
+            return "> " + bound(DELTA_BOUNDS.length - 1);
+        }
+        if (index < zero) {
+            int upper = zero - index - 1;
+            return "[-" + bound(upper) + ", " + (upper == 0 ? "0" : "-" + bound(upper - 1)) + ")";
+        }
+        int upper = index - zero - 1;
+        return "(" + (upper == 0 ? "0" : bound(upper - 1)) + ", " + bound(upper) + "]";
+    }
+
+    /**
+     * Строка о ходе проверки.
+     */
+    public String progress() {
+        return String.format(Locale.ROOT, "%,d записей  %,d изменений  %,.0f записей/мин",
+                records, approvedToRejected + rejectedToApproved + paymentChanged, recordsPerMinute());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT,
+                "Проверено записей: %,d (ошибок %,d), время %.2f с, %,.0f записей/мин%n"
+                        + "Одобрение сменилось отказом: %,d, отказ сменился одобрением: %,d,"
+                        + " изменился годовой платеж: %,d%n",
+                records, errors, elapsedNanos / 1e9, recordsPerMinute(),
+                approvedToRejected, rejectedToApproved, paymentChanged));
+        for (Segment segment : Segment.values()) {
+            report.append(String.format(Locale.ROOT, "%n%s: записей / одобрение -> отказ / отказ -> одобрение%n",
+                    segment.title));
+            for (int index = 0; index < segment.size(); index++) {
+                long count = getSegmentRecords(segment, index);
+                if (count > 0) {
+                    report.append(String.format(Locale.ROOT, "  %-20s %,14d %,14d %,14d%n", segment.label(index),
+                            count, getSegmentApprovedToRejected(segment, index),
+                            getSegmentRejectedToApproved(segment, index)));
+                }
+            }
+        }
+        long approved = 0;
+        for (long count : deltas) {
+            approved += count;
+        }
+        report.append(String.format(Locale.ROOT, "%nИзменение годового платежа (одобрено обеими: %,d)%n",
+                approved));
+        if (approved > 0) {
+            report.append(String.format(Locale.ROOT, "  среднее %.4f, минимум %.4f, максимум %.4f%n",
+                    deltaSum / approved, deltaMin, deltaMax));
+            for (int i = 0; i < deltas.length; i++) {
+                report.append(String.format(Locale.ROOT, "  %-20s %,14d%n", deltaLabel(i), deltas[i]));
+            }
+        }
+        return report.toString();
+    }
+
+    private void addDelta(BigDecimal delta) {
+        double value = delta.doubleValue();
+        deltaSum += value;
+        deltaMin = Math.min(deltaMin, value);
+        deltaMax = Math.max(deltaMax, value);
+        int zero = DELTA_BOUNDS.length + 1;
+        if (delta.signum() == 0) {
+            deltas[zero]++;
+            return;
+        }
+        double magnitude = Math.abs(value);
+        int group = 0;
+        while (group < DELTA_BOUNDS.length && magnitude > DELTA_BOUNDS[group]) {
+            group++;
+        }
+        deltas[value < 0 ? zero - 1 - group : zero + 1 + group]++;
+    }
+
+    private double recordsPerMinute() {
+        return elapsedNanos == 0 ? 0 : records * 60e9 / elapsedNanos;
+    }
+
+    private static String bound(int index) {
+        return BigDecimal.valueOf(DELTA_BOUNDS[index]).stripTrailingZeros().toPlainString();
+    }
+}
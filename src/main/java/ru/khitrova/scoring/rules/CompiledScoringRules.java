@@ -0,0 +1,454 @@
+package ru.khitrova.scoring.rules;
+
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.InterestRates;
+import ru.khitrova.scoring.scoring.PrimitiveCheckUnsupportedException;
+import ru.khitrova.scoring.scoring.RejectionReason;
+import ru.khitrova.scoring.scoring.ScoringDecision;
+import ru.khitrova.scoring.scoring.ScoringListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Правила скоринга, скомпилированные в массивы.
+ * При компиляции интервалы рейтинга разворачиваются в плотный диапазон, а ставки и часть суммы на проценты
+ * рассчитываются для всех сумм с точностью до десятой и всех сроков от 1 до 20, поэтому при проверке запроса
+ * правила не разбираются: проверка сводится к чтениям из массивов и целочисленной арифметике,
+ * как в {@link ru.khitrova.scoring.scoring.FixedPointScoringService}.
+ * Запросы вне таблиц (незаполненные поля, сумма с точностью больше десятой, необычный масштаб дохода)
+ * проверяются по тем же правилам на {@link BigDecimal}. Таблицы строятся только для округления до десятых к нулю,
+ * как в {@link ru.khitrova.scoring.scoring.InMemoryScoringService}; при другом округлении все запросы
+ * проверяются на {@link BigDecimal}.
+ * <p>
+ * Объект неизменяем после создания, поэтому один экземпляр можно без блокировок читать из любых потоков,
+ * а замена правил сводится к публикации нового экземпляра.
+ */
+public final class CompiledScoringRules implements InterestRates {
+
+    private static final int MIN_PERIOD = 1;
+    private static final int MAX_PERIOD = 20;
+
+    /**
+     * Наибольшая сумма кредита в десятых долях, для которой строятся таблицы.
+     */
+    private static final int MAX_TABLE_AMOUNT_TENTHS = 1000;
+
+    private static final int MAX_INCOME_SCALE = 16;
+    private static final int MAX_INCOME_PRECISION = 17;
+    private static final long MAX_INCOME_UNSCALED = 100_000_000_000_000_000L;
+
+    private static final Sex[] SEXES = Sex.values();
+    private static final SourceOfIncome[] SOURCES = SourceOfIncome.values();
+    private static final LoanPurpose[] PURPOSES = LoanPurpose.values();
+    private static final long[] POWERS_OF_TEN = powersOfTen();
+    private static final RejectionReason[] REJECTION_REASONS = RejectionReason.values();
+
+    private final int scale;
+    private final RoundingMode roundingMode;
+    private final int[] minAge = new int[SEXES.length];
+    private final int[] maxAge = new int[SEXES.length];
+    private final int minCreditRating;
+    private final boolean[] allowedSource = new boolean[SOURCES.length];
+    private final int yearAmountDivisor;
+    private final int paymentDivisor;
+
+    /**
+     * Плотный диапазон рейтинга: рейтинги за его пределами ведут себя как его границы.
+     */
+    private final int minRating;
+    private final int ratings;
+
+    /**
+     * Максимальная сумма по источнику дохода и рейтингу и она же в десятых долях, округленная вниз.
+     */
+    private final BigDecimal[] maxAmount;
+    private final int[] maxAmountTenths;
+
+    /**
+     * Ставка без модификатора по сумме по цели, рейтингу и источнику дохода.
+     */
+    private final BigDecimal[] rateWithoutAmount;
+    private final UnaryOperator<BigDecimal> amountModifier;
+
+    /**
+     * Часть суммы на проценты за весь срок в десятых долях по цели, рейтингу, источнику дохода, сумме и сроку.
+     */
+    private final int amounts;
+    private final short[] partOfSum;
+
+    /**
+     * Компиляция правил.
+     * @throws IllegalArgumentException если в правилах не заполнены обязательные значения
+     */
+    public CompiledScoringRules(ScoringRules rules) {
+        require(rules.ageBySex != null, "ageBySex");
+        require(rules.maxRequestedAmount != null, "maxRequestedAmount");
+        require(rules.baseInterestRate != null, "baseInterestRate");
+        require(rules.interestRateByRequestedAmount != null, "interestRateByRequestedAmount");
+        require(rules.yearAmountIncomeDivisor > 0, "yearAmountIncomeDivisor");
+        require(rules.annualPaymentIncomeDivisor > 0, "annualPaymentIncomeDivisor");
+        require(rules.roundingMode != null, "roundingMode");
+
+        scale = rules.scale;
+        roundingMode = rules.roundingMode;
+
+        for (Sex sex : SEXES) {
+            ScoringRules.AgeLimits limits = rules.ageBySex.get(sex);
+            minAge[sex.ordinal()] = limits == null ? Integer.MAX_VALUE : limits.min;
+            maxAge[sex.ordinal()] = limits == null ? Integer.MIN_VALUE : limits.max;
+        }
+        minCreditRating = rules.minCreditRating;
+        for (SourceOfIncome source : SOURCES) {
+            allowedSource[source.ordinal()] = rules.rejectedSourcesOfIncome == null
+                    || !rules.rejectedSourcesOfIncome.contains(source);
+        }
+        yearAmountDivisor = rules.yearAmountIncomeDivisor;
+        paymentDivisor = rules.annualPaymentIncomeDivisor;
+
+        int lowestBound = Math.min(minCreditRating, bound(rules.maxRequestedAmountByCreditRating, rules.interestRateByCreditRating, true));
+        int highestBound = Math.max(minCreditRating, bound(rules.maxRequestedAmountByCreditRating, rules.interestRateByCreditRating, false));
+        minRating = lowestBound - 1;
+        ratings = highestBound - lowestBound + 3;
+
+        maxAmount = new BigDecimal[SOURCES.length * ratings];
+        maxAmountTenths = new int[maxAmount.length];
+        for (SourceOfIncome source : SOURCES) {
+            BigDecimal bySource = value(rules.maxRequestedAmountBySourceOfIncome, source);
+            for (int r = 0; r < ratings; r++) {
+                BigDecimal amount = bySource.min(value(rules.maxRequestedAmountByCreditRating, minRating + r))
+                        .min(rules.maxRequestedAmount);
+                maxAmount[source.ordinal() * ratings + r] = amount;
+                maxAmountTenths[source.ordinal() * ratings + r] =
+                        amount.movePointRight(1).setScale(0, RoundingMode.FLOOR).intValueExact();
+            }
+        }
+
+        rateWithoutAmount = new BigDecimal[PURPOSES.length * ratings * SOURCES.length];
+        for (LoanPurpose purpose : PURPOSES) {
+            for (int r = 0; r < ratings; r++) {
+                for (SourceOfIncome source : SOURCES) {
+                    rateWithoutAmount[rateIndex(purpose.ordinal(), r, source.ordinal())] = rules.baseInterestRate
+                            .add(value(rules.interestRateByLoanPurpose, purpose))
+                            .add(value(rules.interestRateByCreditRating, minRating + r))
+                            .add(value(rules.interestRateBySourceOfIncome, source));
+                }
+            }
+        }
+        amountModifier = amountModifier(rules.interestRateByRequestedAmount);
+
+        boolean tenthsDown = scale == 1 && roundingMode == RoundingMode.DOWN;
+        amounts = !tenthsDown ? 0 : Math.max(0, Math.min(MAX_TABLE_AMOUNT_TENTHS,
+                rules.maxRequestedAmount.movePointRight(1).setScale(0, RoundingMode.FLOOR).intValueExact()));
+        partOfSum = new short[rateWithoutAmount.length * amounts * (MAX_PERIOD - MIN_PERIOD + 1)];
+        for (LoanPurpose purpose : PURPOSES) {
+            for (int r = 0; r < ratings; r++) {
+                for (SourceOfIncome source : SOURCES) {
+                    int rate = rateIndex(purpose.ordinal(), r, source.ordinal());
+                    for (int tenths = 1; tenths <= amounts; tenths++) {
+                        BigDecimal interestRate = rateWithoutAmount[rate]
+                                .add(amountModifier.apply(BigDecimal.valueOf(tenths, 1)));
+                        for (int period = MIN_PERIOD; period <= MAX_PERIOD; period++) {
+                            BigDecimal part = partOfSum(period, interestRate);
+                            if (part.unscaledValue().bitLength() >= Short.SIZE) {
+                                throw new IllegalArgumentException("Некорректное правило скоринга: ставка "
+                                        + interestRate + " для цели " + purpose + ", рейтинга " + (minRating + r)
+                                        + ", источника дохода " + source + " и суммы " + BigDecimal.valueOf(tenths, 1)
+                                        + " дает часть суммы на проценты " + part + " за срок " + period
+                                        + ", больше " + BigDecimal.valueOf(Short.MAX_VALUE, 1));
+                            }
+                            partOfSum[partOfSumIndex(rate, tenths, period)] = part.unscaledValue().shortValue();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Проверка запроса на кредит.
+     * Решение передается в {@code listener}.
+     */
+    public LoanResponse checkLoan(LoanRequest loanRequest, ScoringListener listener) {
+        RejectionReason rejectionReason = null;
+        BigDecimal annualPayment = null;
+        boolean applicantKnown = loanRequest.age != null && loanRequest.sex != null
+                && loanRequest.creditRating != null && loanRequest.sourceOfIncome != null;
+        if (applicantKnown) {
+            rejectionReason = checkApplicant(loanRequest.age, loanRequest.sex.ordinal(), loanRequest.creditRating,
+                    loanRequest.sourceOfIncome.ordinal());
+        }
+
+        if (rejectionReason == null) {
+            int amountTenths = amountTenths(loanRequest.requestedAmount);
+            BigDecimal income = loanRequest.lastYearIncome;
+            if (applicantKnown && amountTenths > 0 && income != null && loanRequest.loanPurpose != null
+                    && loanRequest.repaymentPeriod != null
+                    && loanRequest.repaymentPeriod >= MIN_PERIOD && loanRequest.repaymentPeriod <= MAX_PERIOD
+                    && income.scale() >= 0 && income.scale() <= MAX_INCOME_SCALE
+                    && income.precision() <= MAX_INCOME_PRECISION) {
+                long result = checkAmount(loanRequest.sourceOfIncome.ordinal(), loanRequest.creditRating,
+                        amountTenths, loanRequest.repaymentPeriod, loanRequest.loanPurpose.ordinal(),
+                        income.unscaledValue().longValue(), income.scale());
+                if (result >= 0) {
+                    annualPayment = BigDecimal.valueOf(result, 1);
+                } else {
+                    rejectionReason = REJECTION_REASONS[(int) -result - 1];
+                }
+            } else {
+                rejectionReason = firstFailed(loanRequest);
+                if (rejectionReason == null) {
+                    annualPayment = annualPayment(loanRequest);
+                    if (annualPayment.compareTo(income.divide(BigDecimal.valueOf(paymentDivisor), roundingMode)) > 0) {
+                        rejectionReason = RejectionReason.ANNUAL_PAYMENT;
+                    }
+                }
+            }
+        }
+
+        if (rejectionReason != null) {
+            listener.rejected(rejectionReason);
+            return ScoringDecision.REJECTED_RESPONSE;
+        }
+        LoanResponse loanResponse = new LoanResponse();
+        loanResponse.approved = true;
+        loanResponse.annualPayment = annualPayment;
+        listener.approved(annualPayment);
+        return loanResponse;
+    }
+
+    /**
+     * Проверка запроса в примитивном представлении, см.
+     * {@link ru.khitrova.scoring.scoring.ScoringService#checkLoan(int, Sex, SourceOfIncome, int, int, int, LoanPurpose, long, int)}.
+     * Запросы вне таблиц проверяются через {@link #checkLoan(LoanRequest, ScoringListener)}.
+     * @throws PrimitiveCheckUnsupportedException если платеж по правилам не представим в десятых долях
+     */
+    public long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                          int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale,
+                          ScoringListener listener) {
+        if (!paymentInTenths()) {
+            throw new PrimitiveCheckUnsupportedException("Платеж по правилам не представим в десятых долях");
+        }
+        if (sex == null || sourceOfIncome == null || loanPurpose == null) {
+            return ScoringDecision.toDecision(checkLoan(ScoringDecision.toRequest(age, sex, sourceOfIncome,
+                    creditRating, amountTenths, repaymentPeriod, loanPurpose, incomeUnscaled, incomeScale), listener));
+        }
+        RejectionReason rejectionReason = checkApplicant(age, sex.ordinal(), creditRating, sourceOfIncome.ordinal());
+        if (rejectionReason != null) {
+            listener.rejected(rejectionReason);
+            return ScoringDecision.REJECTED;
+        }
+        if (amountTenths <= 0 || amountTenths > amounts
+                || repaymentPeriod < MIN_PERIOD || repaymentPeriod > MAX_PERIOD
+                || incomeScale < 0 || incomeScale > MAX_INCOME_SCALE
+                || incomeUnscaled <= -MAX_INCOME_UNSCALED || incomeUnscaled >= MAX_INCOME_UNSCALED) {
+            return ScoringDecision.toDecision(checkLoan(ScoringDecision.toRequest(age, sex, sourceOfIncome,
+                    creditRating, amountTenths, repaymentPeriod, loanPurpose, incomeUnscaled, incomeScale), listener));
+        }
+        long result = checkAmount(sourceOfIncome.ordinal(), creditRating, amountTenths, repaymentPeriod,
+                loanPurpose.ordinal(), incomeUnscaled, incomeScale);
+        if (result < 0) {
+            listener.rejected(REJECTION_REASONS[(int) -result - 1]);
+            return ScoringDecision.REJECTED;
+        }
+        listener.approved(result);
+        return result;
+    }
+
+    /**
+     * Представим ли годовой платеж в десятых долях, то есть в {@link ScoringDecision}.
+     */
+    public boolean paymentInTenths() {
+        return scale <= 1;
+    }
+
+    /**
+     * Общая процентная ставка по этим правилам: базовая ставка и модификаторы по цели, рейтингу,
+     * источнику дохода и сумме.
+     */
+    @Override
+    public BigDecimal interestRate(LoanPurpose loanPurpose, int creditRating, BigDecimal requestedAmount,
+                                   SourceOfIncome sourceOfIncome) {
+        return rateWithoutAmount[rateIndex(loanPurpose.ordinal(), ratingIndex(creditRating), sourceOfIncome.ordinal())]
+                .add(amountModifier.apply(requestedAmount));
+    }
+
+    /**
+     * Проверки заемщика: возраст, кредитный рейтинг и источник дохода.
+     * @return первая не пройденная проверка или {@code null}
+     */
+    private RejectionReason checkApplicant(int age, int sex, int creditRating, int source) {
+        if (age < minAge[sex] || age > maxAge[sex]) {
+            return RejectionReason.AGE;
+        }
+        if (creditRating < minCreditRating) {
+            return RejectionReason.CREDIT_RATING;
+        }
+        if (!allowedSource[source]) {
+            return RejectionReason.SOURCE_OF_INCOME;
+        }
+        return null;
+    }
+
+    /**
+     * Проверки суммы и годового платежа в целочисленном представлении.
+     * @return годовой платеж в десятых долях или {@code -(номер причины отказа + 1)}
+     */
+    private long checkAmount(int source, int creditRating, int amountTenths, int repaymentPeriod, int purpose,
+                             long incomeUnscaled, int incomeScale) {
+        int rating = ratingIndex(creditRating);
+        long incomeTenths = incomeScale == 0 ? incomeUnscaled * 10 : incomeUnscaled / POWERS_OF_TEN[incomeScale - 1];
+        if (amountTenths / repaymentPeriod > incomeTenths / yearAmountDivisor
+                || amountTenths > maxAmountTenths[source * ratings + rating]) {
+            return rejected(RejectionReason.REQUESTED_AMOUNT);
+        }
+
+        int part = partOfSum[partOfSumIndex(rateIndex(purpose, rating, source), amountTenths, repaymentPeriod)];
+        long annualPayment = (long) amountTenths * (10 + part) / (10L * repaymentPeriod);
+        long incomePart = incomeUnscaled / paymentDivisor;
+        boolean paymentAllowed = incomeScale == 0
+                ? annualPayment <= incomePart * 10
+                : annualPayment * POWERS_OF_TEN[incomeScale - 1] <= incomePart;
+        return paymentAllowed ? annualPayment : rejected(RejectionReason.ANNUAL_PAYMENT);
+    }
+
+    /**
+     * Проверки, не зависящие от годового платежа, на {@link BigDecimal}.
+     * @return первая не пройденная проверка или {@code null}
+     */
+    private RejectionReason firstFailed(LoanRequest loanRequest) {
+        int sex = loanRequest.sex.ordinal();
+        if (loanRequest.age < minAge[sex] || loanRequest.age > maxAge[sex]) {
+            return RejectionReason.AGE;
+        }
+        if (loanRequest.creditRating < minCreditRating) {
+            return RejectionReason.CREDIT_RATING;
+        }
+        int source = loanRequest.sourceOfIncome.ordinal();
+        if (!allowedSource[source]) {
+            return RejectionReason.SOURCE_OF_INCOME;
+        }
+
+        BigDecimal yearAmount = loanRequest.requestedAmount
+                .divide(BigDecimal.valueOf(loanRequest.repaymentPeriod), scale, roundingMode);
+        BigDecimal incomePart = loanRequest.lastYearIncome
+                .divide(BigDecimal.valueOf(yearAmountDivisor), scale, roundingMode);
+        BigDecimal max = maxAmount[source * ratings + ratingIndex(loanRequest.creditRating)];
+        if (yearAmount.compareTo(incomePart) > 0 || loanRequest.requestedAmount.compareTo(max) > 0
+                || max.signum() == 0) {
+            return RejectionReason.REQUESTED_AMOUNT;
+        }
+        return null;
+    }
+
+    /**
+     * Годовой платеж на {@link BigDecimal}: сумма * (1 + срок * ставка / 100) / срок.
+     */
+    private BigDecimal annualPayment(LoanRequest loanRequest) {
+        BigDecimal interestRate = interestRate(loanRequest.loanPurpose, loanRequest.creditRating,
+                loanRequest.requestedAmount, loanRequest.sourceOfIncome);
+        BigDecimal sum = BigDecimal.ONE.add(partOfSum(loanRequest.repaymentPeriod, interestRate));
+        return loanRequest.requestedAmount.multiply(sum)
+                .divide(BigDecimal.valueOf(loanRequest.repaymentPeriod), scale, roundingMode);
+    }
+
+    private BigDecimal partOfSum(int repaymentPeriod, BigDecimal interestRate) {
+        return BigDecimal.valueOf(repaymentPeriod)
+                .multiply(interestRate)
+                .divide(BigDecimal.valueOf(100), scale, roundingMode);
+    }
+
+    /**
+     * Запрошенная сумма в десятых долях или -1, если сумму нельзя точно представить в десятых долях
+     * или она больше таблиц.
+     */
+    private int amountTenths(BigDecimal requestedAmount) {
+        if (requestedAmount == null || requestedAmount.scale() < 0 || requestedAmount.scale() > 1
+                || requestedAmount.precision() > 9) {
+            return -1;
+        }
+        long tenths = requestedAmount.unscaledValue().longValue() * (requestedAmount.scale() == 0 ? 10 : 1);
+        return tenths <= amounts ? (int) tenths : -1;
+    }
+
+    private int ratingIndex(int creditRating) {
+        return Math.max(0, Math.min(ratings - 1, creditRating - minRating));
+    }
+
+    private int rateIndex(int purpose, int rating, int source) {
+        return (purpose * ratings + rating) * SOURCES.length + source;
+    }
+
+    private int partOfSumIndex(int rateIndex, int amountTenths, int repaymentPeriod) {
+        return (rateIndex * amounts + amountTenths - 1) * (MAX_PERIOD - MIN_PERIOD + 1) + repaymentPeriod - MIN_PERIOD;
+    }
+
+    private static long rejected(RejectionReason rejectionReason) {
+        return -(rejectionReason.ordinal() + 1);
+    }
+
+    private static <K> BigDecimal value(Map<K, BigDecimal> values, K key) {
+        BigDecimal value = values == null ? null : values.get(key);
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private static BigDecimal value(List<ScoringRules.RatingInterval> intervals, int creditRating) {
+        if (intervals != null) {
+            for (ScoringRules.RatingInterval interval : intervals) {
+                if (interval.contains(creditRating)) {
+                    return interval.value;
+                }
+            }
+        }
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Крайняя граница интервалов рейтинга из двух таблиц.
+     */
+    private static int bound(List<ScoringRules.RatingInterval> first, List<ScoringRules.RatingInterval> second,
+                             boolean lowest) {
+        int bound = lowest ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+        for (List<ScoringRules.RatingInterval> intervals : List.of(
+                first == null ? List.<ScoringRules.RatingInterval>of() : first,
+                second == null ? List.<ScoringRules.RatingInterval>of() : second)) {
+            for (ScoringRules.RatingInterval interval : intervals) {
+                require(interval.value != null, "value");
+                for (Integer value : new Integer[]{interval.from, interval.to}) {
+                    if (value != null) {
+                        bound = lowest ? Math.min(bound, value) : Math.max(bound, value);
+                    }
+                }
+            }
+        }
+        return bound;
+    }
+
+    private static UnaryOperator<BigDecimal> amountModifier(ScoringRules.AmountModifier modifier) {
+        switch (modifier) {
+            case LOG:
+                return amount -> BigDecimal.valueOf(Math.log(amount.doubleValue()));
+            default:
+                return amount -> BigDecimal.ZERO;
+        }
+    }
+
+    private static void require(boolean condition, String field) {
+        if (!condition) {
+            throw new IllegalArgumentException("Некорректное правило скоринга: " + field);
+        }
+    }
+
+    private static long[] powersOfTen() {
+        long[] powers = new long[MAX_INCOME_SCALE];
+        long power = 1;
+        for (int i = 0; i < powers.length; i++) {
+            powers[i] = power;
+            power *= 10;
+        }
+        return powers;
+    }
+}
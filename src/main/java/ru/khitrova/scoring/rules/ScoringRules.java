@@ -0,0 +1,160 @@
+package ru.khitrova.scoring.rules;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.khitrova.scoring.model.LoanPurpose;
+import ru.khitrova.scoring.model.Sex;
+import ru.khitrova.scoring.model.SourceOfIncome;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Правила скоринга в том виде, в котором они описаны в файле правил (JSON).
+ * Правила не проверяют запросы сами: перед использованием они компилируются в {@link CompiledScoringRules}.
+ * Значения, не указанные в таблицах по перечислениям и интервалам рейтинга, считаются равными нулю.
+ */
+public class ScoringRules {
+
+    /**
+     * Файл правил по умолчанию, совпадающих с {@link ru.khitrova.scoring.scoring.InMemoryScoringService}.
+     */
+    public static final String DEFAULT_LOCATION = "scoring-rules.json";
+
+    /**
+     * Допустимый возраст по полу
+     */
+    public Map<Sex, AgeLimits> ageBySex;
+
+    /**
+     * Минимальный допустимый кредитный рейтинг
+     */
+    public int minCreditRating;
+
+    /**
+     * Источники дохода, при которых кредит не выдается
+     */
+    public Set<SourceOfIncome> rejectedSourcesOfIncome;
+
+    /**
+     * Максимальная сумма кредита (млн.)
+     */
+    public BigDecimal maxRequestedAmount;
+
+    /**
+     * Максимальная сумма кредита по источнику дохода
+     */
+    public Map<SourceOfIncome, BigDecimal> maxRequestedAmountBySourceOfIncome;
+
+    /**
+     * Максимальная сумма кредита по кредитному рейтингу
+     */
+    public List<RatingInterval> maxRequestedAmountByCreditRating;
+
+    /**
+     * Сумма кредита в год должна быть не больше дохода, деленного на это число
+     */
+    public int yearAmountIncomeDivisor;
+
+    /**
+     * Годовой платеж должен быть не больше дохода, деленного на это число
+     */
+    public int annualPaymentIncomeDivisor;
+
+    /**
+     * Базовая процентная ставка
+     */
+    public BigDecimal baseInterestRate;
+
+    /**
+     * Модификатор ставки по цели кредита
+     */
+    public Map<LoanPurpose, BigDecimal> interestRateByLoanPurpose;
+
+    /**
+     * Модификатор ставки по кредитному рейтингу
+     */
+    public List<RatingInterval> interestRateByCreditRating;
+
+    /**
+     * Модификатор ставки по источнику дохода
+     */
+    public Map<SourceOfIncome, BigDecimal> interestRateBySourceOfIncome;
+
+    /**
+     * Модификатор ставки по запрошенной сумме
+     */
+    public AmountModifier interestRateByRequestedAmount;
+
+    /**
+     * Масштаб и округление при делении
+     */
+    public int scale = 1;
+    public RoundingMode roundingMode = RoundingMode.DOWN;
+
+    /**
+     * Чтение правил из JSON. Неизвестные поля считаются ошибкой, чтобы опечатка в файле не меняла правила молча.
+     */
+    public static ScoringRules read(InputStream inputStream) throws IOException {
+        return new ObjectMapper()
+                .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValue(inputStream, ScoringRules.class);
+    }
+
+    /**
+     * Правила из файла по умолчанию.
+     */
+    public static ScoringRules defaults() {
+        try (InputStream inputStream = ScoringRules.class.getClassLoader().getResourceAsStream(DEFAULT_LOCATION)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Не найден файл правил " + DEFAULT_LOCATION);
+            }
+            return read(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Границы допустимого возраста включительно
+     */
+    public static class AgeLimits {
+        public int min;
+        public int max;
+    }
+
+    /**
+     * Значение для интервала кредитного рейтинга. Границы включаются, отсутствующая граница означает
+     * отсутствие ограничения с этой стороны.
+     */
+    public static class RatingInterval {
+        public Integer from;
+        public Integer to;
+        public BigDecimal value;
+
+        boolean contains(int creditRating) {
+            return (from == null || creditRating >= from) && (to == null || creditRating <= to);
+        }
+    }
+
+    /**
+     * Модификатор ставки по запрошенной сумме
+     */
+    public enum AmountModifier {
+        /**
+         * Без модификатора
+         */
+        NONE,
+
+        /**
+         * Натуральный логарифм суммы
+         */
+        LOG
+    }
+}
@@ -0,0 +1,100 @@
+package ru.khitrova.scoring.scoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+
+import jakarta.validation.Validator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Пакетная проверка запросов на кредит.
+ * Каждый запрос проверяется отдельно: ошибки валидации или расчета попадают в ответ по этому запросу
+ * и не прерывают обработку остальных. Большие пакеты делятся между ядрами процессора.
+ */
+@Service
+public class BatchScoringService {
+
+    private static final String NULL_REQUEST_ERROR = "Запрос не может быть null";
+    private static final String SCORING_ERROR = "Не удалось проверить запрос";
+
+    private final ScoringService scoringService;
+    private final LoanRequestValidator validator;
+    private final int maxBatchSize;
+    private final int parallelThreshold;
+
+    public BatchScoringService(ScoringService scoringService, Validator validator, int maxBatchSize,
+                               int parallelThreshold) {
+        this(scoringService, new LoanRequestValidator(validator), maxBatchSize, parallelThreshold);
+    }
+
+    @Autowired
+    public BatchScoringService(ScoringService scoringService,
+                               LoanRequestValidator validator,
+                               @Value("${scoring.batch.max-size:1000}") int maxBatchSize,
+                               @Value("${scoring.batch.parallel-threshold:256}") int parallelThreshold) {
+        this.scoringService = scoringService;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Максимальное количество запросов в пакете ({@code scoring.batch.max-size}).
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Проверка пакета запросов.
+     * @return ответы в порядке запросов
+     * @throws BatchSizeExceededException если запросов больше {@code scoring.batch.max-size}
+     */
+    public List<LoanResponse> checkLoans(List<LoanRequest> loanRequests) {
+        if (loanRequests.size() > maxBatchSize) {
+            throw new BatchSizeExceededException(maxBatchSize);
+        }
+
+        LoanResponse[] loanResponses = new LoanResponse[loanRequests.size()];
+        IntStream indexes = IntStream.range(0, loanResponses.length);
+        if (loanResponses.length >= parallelThreshold) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> loanResponses[i] = checkLoan(loanRequests.get(i)));
+
+        return Arrays.asList(loanResponses);
+    }
+
+    /**
+     * Проверка одного запроса из пакета или потока запросов.
+     * @return ответ сервиса или ответ с ошибками проверки запроса
+     */
+    public LoanResponse checkLoan(LoanRequest loanRequest) {
+        if (loanRequest == null) {
+            return errorResponse(Collections.singletonList(NULL_REQUEST_ERROR));
+        }
+
+        List<String> errors = validator.validate(loanRequest);
+        if (!errors.isEmpty()) {
+            return errorResponse(errors);
+        }
+
+        try {
+            return scoringService.checkLoan(loanRequest);
+        } catch (RuntimeException e) {
+            return errorResponse(Collections.singletonList(SCORING_ERROR));
+        }
+    }
+
+    private LoanResponse errorResponse(List<String> errors) {
+        LoanResponse loanResponse = new LoanResponse();
+        loanResponse.errors = errors;
+        return loanResponse;
+    }
+}
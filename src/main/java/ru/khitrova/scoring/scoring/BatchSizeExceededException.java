@@ -0,0 +1,17 @@
+package ru.khitrova.scoring.scoring;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Размер пакета запросов превышает допустимый.
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class BatchSizeExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BatchSizeExceededException(int maxBatchSize) {
+        super("Размер пакета не может быть больше " + maxBatchSize);
+    }
+}
@@ -0,0 +1,196 @@
+package ru.khitrova.scoring.scoring;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Обертка над сервисом скоринга, которая кэширует результаты проверки одинаковых запросов.
+ * Результат проверки зависит только от полей запроса, поэтому повторные запросы (повторы клиентов,
+ * опрос статуса, агрегаторы) обслуживаются из кэша без расчета.
+ * <p>
+ * Кэш Caffeine ограничен по размеру и использует политику W-TinyLFU: новый запрос вытесняет
+ * старый, только если встречается чаще, поэтому разовые запросы не вымывают часто повторяемые.
+ * Кэш разбит на сегменты и не использует общую блокировку.
+ * <p>
+ * Из кэша возвращается копия ответа, так как поля ответа изменяемые.
+ * Получатель результатов проверки ({@link ScoringListener}) вызывается только при расчете,
+ * попадания в кэш учитываются в статистике кэша.
+ * <p>
+ * Вместе с ответом запоминаются ставки, по которым он рассчитан, чтобы попадание в кэш можно было записать
+ * в журнал решений ({@link #checkCached(LoanRequest)}). Ставки читаются до и после расчета: если правила
+ * заменены во время расчета, неизвестно, по какой версии проверен запрос, и ответ не кэшируется.
+ */
+public class CachingScoringService implements ScoringService {
+
+    private final ScoringService delegate;
+    private final Supplier<? extends InterestRates> rates;
+    private final Cache<Key, Entry> cache;
+
+    public CachingScoringService(ScoringService delegate, long maximumSize) {
+        this(delegate, maximumSize, () -> null);
+    }
+
+    /**
+     * @param rates действующие ставки реализации, например {@link VersionedScoringService#currentRules()}
+     */
+    public CachingScoringService(ScoringService delegate, long maximumSize, Supplier<? extends InterestRates> rates) {
+        this.delegate = delegate;
+        this.rates = rates;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public Cache<?, ?> getCache() {
+        return cache;
+    }
+
+    @Override
+    public LoanResponse checkLoan(LoanRequest loanRequest) {
+        return checkCached(loanRequest).loanResponse;
+    }
+
+    /**
+     * Проверка запроса с признаком попадания в кэш и ставками, по которым рассчитан ответ.
+     */
+    public CachedResponse checkCached(LoanRequest loanRequest) {
+        Load load = new Load(loanRequest);
+        Entry entry = cache.get(new Key(loanRequest), load);
+        if (entry == null) {
+            return new CachedResponse(load.loanResponse, null, false);
+        }
+        return new CachedResponse(copy(entry.loanResponse), entry.rates, load.loanResponse == null);
+    }
+
+    private static LoanResponse copy(LoanResponse loanResponse) {
+        LoanResponse copy = new LoanResponse();
+        copy.approved = loanResponse.approved;
+        copy.annualPayment = loanResponse.annualPayment;
+        copy.errors = loanResponse.errors;
+        return copy;
+    }
+
+    /**
+     * Ответ на запрос из {@link #checkCached(LoanRequest)}.
+     */
+    public static final class CachedResponse {
+        public final LoanResponse loanResponse;
+        /**
+         * Ставки, по которым рассчитан ответ из кэша
+         */
+        public final InterestRates rates;
+        /**
+         * Ответ взят из кэша без расчета
+         */
+        public final boolean hit;
+
+        private CachedResponse(LoanResponse loanResponse, InterestRates rates, boolean hit) {
+            this.loanResponse = loanResponse;
+            this.rates = rates;
+            this.hit = hit;
+        }
+    }
+
+    private static final class Entry {
+        private final LoanResponse loanResponse;
+        private final InterestRates rates;
+
+        private Entry(LoanResponse loanResponse, InterestRates rates) {
+            this.loanResponse = loanResponse;
+            this.rates = rates;
+        }
+    }
+
+    /**
+     * Расчет ответа при промахе. Ответ остается в загрузке, чтобы вернуть его, даже если он не закэширован.
+     */
+    private final class Load implements Function<Key, Entry> {
+        private final LoanRequest loanRequest;
+        private LoanResponse loanResponse;
+
+        private Load(LoanRequest loanRequest) {
+            this.loanRequest = loanRequest;
+        }
+
+        @Override
+        public Entry apply(Key key) {
+            InterestRates before = rates.get();
+            loanResponse = delegate.checkLoan(loanRequest);
+            return before == rates.get() ? new Entry(loanResponse, before) : null;
+        }
+    }
+
+    /**
+     * Ключ кэша - все поля запроса в каноническом виде.
+     * Масштаб запрошенной суммы на результат не влияет, поэтому незначащие нули отбрасываются.
+     * Масштаб дохода влияет на округление половины дохода: для неотрицательного дохода с масштабом 1 и больше
+     * результат от масштаба не зависит и доход приводится к минимальному масштабу не меньше 1.
+     * Доход с масштабом 0 и меньше и отрицательный доход (ограничений на доход нет, а половина отрицательного
+     * дохода округляется по-разному при разном масштабе) остаются как есть.
+     */
+    static final class Key {
+        private final Integer age;
+        private final Sex sex;
+        private final SourceOfIncome sourceOfIncome;
+        private final BigDecimal lastYearIncome;
+        private final Integer creditRating;
+        private final BigDecimal requestedAmount;
+        private final Integer repaymentPeriod;
+        private final LoanPurpose loanPurpose;
+        private final int hash;
+
+        Key(LoanRequest loanRequest) {
+            this.age = loanRequest.age;
+            this.sex = loanRequest.sex;
+            this.sourceOfIncome = loanRequest.sourceOfIncome;
+            this.lastYearIncome = canonicalIncome(loanRequest.lastYearIncome);
+            this.creditRating = loanRequest.creditRating;
+            this.requestedAmount = loanRequest.requestedAmount == null
+                    ? null : loanRequest.requestedAmount.stripTrailingZeros();
+            this.repaymentPeriod = loanRequest.repaymentPeriod;
+            this.loanPurpose = loanRequest.loanPurpose;
+            this.hash = Objects.hash(age, sex, sourceOfIncome, lastYearIncome, creditRating, requestedAmount,
+                    repaymentPeriod, loanPurpose);
+        }
+
+        private static BigDecimal canonicalIncome(BigDecimal income) {
+            if (income == null || income.scale() <= 0 || income.signum() < 0) {
+                return income;
+            }
+            BigDecimal stripped = income.stripTrailingZeros();
+            return stripped.scale() < 1 ? stripped.setScale(1) : stripped;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash
+                    && sex == key.sex
+                    && sourceOfIncome == key.sourceOfIncome
+                    && loanPurpose == key.loanPurpose
+                    && Objects.equals(age, key.age)
+                    && Objects.equals(creditRating, key.creditRating)
+                    && Objects.equals(repaymentPeriod, key.repaymentPeriod)
+                    && Objects.equals(requestedAmount, key.requestedAmount)
+                    && Objects.equals(lastYearIncome, key.lastYearIncome);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package ru.khitrova.scoring.scoring;
+
+import ru.khitrova.scoring.model.LoanPurpose;
+import ru.khitrova.scoring.model.Sex;
+import ru.khitrova.scoring.model.SourceOfIncome;
+
+/**
+ * Проверка пачки запросов в столбцах {@link LoanColumns} по таблице минимального дохода {@link MinimalIncomeTable}.
+ * Пачка обрабатывается блоками по {@link #BLOCK} записей в несколько проходов по массивам:
+ * <ol>
+ *     <li>индекс в таблице, попадание полей в таблицу и допустимость возраста - целочисленная арифметика
+ *     без ветвлений, которую JIT может векторизовать;</li>
+ *     <li>доход в десятых долях, минимальный доход и платеж из таблицы - чтения по индексу и деление
+ *     на степень десяти, поэтому проход скалярный;</li>
+ *     <li>решение - сравнение дохода с минимумом и выбор платежа или отказа без ветвлений.</li>
+ * </ol>
+ * Записи вне таблицы (значения вне границ, отрицательный или слишком большой доход, неизвестные порядковые номера)
+ * проверяются по одной сервисом, переданным в {@link #checkLoans(LoanColumns, long[], ScoringService)}, поэтому
+ * при {@link FixedPointScoringService} решения совпадают с ним.
+ * Слушатель получает решения по записям из таблицы после прохода по блоку; причина отказа определяется заново,
+ * как в {@link DecisionTableScoringService}, и только если слушатель задан. О записях вне таблицы слушателю
+ * сообщает этот сервис. Экземпляр потокобезопасен: промежуточные массивы создаются на каждую пачку.
+ */
+public final class ColumnarScoringEngine {
+
+    static final int BLOCK = 1024;
+
+    private static final Sex[] SEXES = Sex.values();
+    private static final SourceOfIncome[] SOURCES = SourceOfIncome.values();
+    private static final LoanPurpose[] PURPOSES = LoanPurpose.values();
+
+    private static final int MIN_ADULT_AGE = 18;
+    private static final int MAX_MALE_AGE = 65;
+    private static final int MAX_FEMALE_AGE = 60;
+
+    private final ScoringListener listener;
+
+    public ColumnarScoringEngine() {
+        this(ScoringListener.NOOP);
+    }
+
+    /**
+     * Сервис для записей вне таблицы передается в каждую пачку, поэтому реализация может создать движок
+     * в конструкторе, не передавая ему себя.
+     * @param listener получатель решений по записям из таблицы
+     */
+    public ColumnarScoringEngine(ScoringListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Проверка всех записей пачки.
+     * @param decisions решения в представлении {@link ScoringDecision}, не короче пачки
+     * @param fallback сервис, который проверяет записи вне таблицы через примитивный вход
+     */
+    public void checkLoans(LoanColumns columns, long[] decisions, ScoringService fallback) {
+        if (decisions.length < columns.size) {
+            throw new IllegalArgumentException("Массив решений короче пачки: " + decisions.length + " < " + columns.size);
+        }
+        int length = Math.min(columns.size, BLOCK);
+        int[] index = new int[length];
+        int[] valid = new int[length];
+        int[] eligible = new int[length];
+        long[] incomeTenths = new long[length];
+        long[] minIncome = new long[length];
+        long[] payment = new long[length];
+        for (int from = 0; from < columns.size; from += BLOCK) {
+            int to = Math.min(from + BLOCK, columns.size);
+            indexes(columns, from, to, index, valid, eligible);
+            lookup(columns, from, to, index, valid, incomeTenths, minIncome, payment);
+            decide(from, to, valid, eligible, incomeTenths, minIncome, payment, decisions);
+            if (listener != ScoringListener.NOOP) {
+                notifyListener(columns, from, to, index, valid, incomeTenths, decisions);
+            }
+            checkInvalid(columns, from, to, valid, decisions, fallback);
+        }
+    }
+
+    /**
+     * Индекс в таблице (0 для записей вне таблицы), признак попадания в таблицу и допустимость возраста.
+     */
+    private static void indexes(LoanColumns columns, int from, int to, int[] index, int[] valid, int[] eligible) {
+        int[] age = columns.age;
+        int[] sex = columns.sex;
+        int[] source = columns.sourceOfIncome;
+        int[] rating = columns.creditRating;
+        int[] amount = columns.amountTenths;
+        int[] period = columns.repaymentPeriod;
+        int[] purpose = columns.loanPurpose;
+        int[] scale = columns.incomeScale;
+        for (int i = from, j = 0; i < to; i++, j++) {
+            int outside = outside(sex[i], 0, SEXES.length - 1)
+                    | outside(source[i], 0, SOURCES.length - 1)
+                    | outside(rating[i], InterestRateTable.MIN_RATING, InterestRateTable.MAX_RATING)
+                    | outside(amount[i], InterestRateTable.MIN_AMOUNT_TENTHS, InterestRateTable.MAX_AMOUNT_TENTHS)
+                    | outside(period[i], FixedPointScoringService.MIN_PERIOD, FixedPointScoringService.MAX_PERIOD)
+                    | outside(purpose[i], 0, PURPOSES.length - 1)
+                    | outside(scale[i], 0, FixedPointScoringService.MAX_INCOME_SCALE);
+            // Sex.M = 0, Sex.F = 1
+            int maxAge = MAX_MALE_AGE - (MAX_MALE_AGE - MAX_FEMALE_AGE) * sex[i];
+            index[j] = MinimalIncomeTable.index(source[i], rating[i], amount[i], period[i], purpose[i]) & (outside - 1);
+            valid[j] = outside ^ 1;
+            eligible[j] = outside(age[i], MIN_ADULT_AGE, maxAge) ^ 1;
+        }
+    }
+
+    /**
+     * Доход в десятых долях, минимальный доход и годовой платеж из таблицы.
+     * Отрицательный и слишком большой доход снимает признак попадания в таблицу.
+     */
+    private static void lookup(LoanColumns columns, int from, int to, int[] index, int[] valid,
+                               long[] incomeTenths, long[] minIncome, long[] payment) {
+        long[] incomeUnscaled = columns.incomeUnscaled;
+        int[] incomeScale = columns.incomeScale;
+        for (int i = from, j = 0; i < to; i++, j++) {
+            long unscaled = incomeUnscaled[i];
+            int scale = incomeScale[i];
+            if (unscaled < 0 || unscaled >= FixedPointScoringService.MAX_INCOME_UNSCALED || valid[j] == 0) {
+                valid[j] = 0;
+                continue;
+            }
+            incomeTenths[j] = FixedPointScoringService.incomeTenths(unscaled, scale);
+            minIncome[j] = MinimalIncomeTable.minIncomeTenths(index[j], scale == 0);
+            payment[j] = MinimalIncomeTable.annualPaymentTenths(index[j]);
+        }
+    }
+
+    /**
+     * Решение: платеж, если возраст допустим и доход не меньше минимального, иначе {@link ScoringDecision#REJECTED}.
+     * Доход и минимальный доход неотрицательны, поэтому знак разности не переполняется.
+     */
+    private static void decide(int from, int to, int[] valid, int[] eligible, long[] incomeTenths, long[] minIncome,
+                               long[] payment, long[] decisions) {
+        for (int i = from, j = 0; i < to; i++, j++) {
+            long enough = ((incomeTenths[j] - minIncome[j]) >>> 63) ^ 1;
+            long approved = enough & eligible[j] & valid[j];
+            decisions[i] = payment[j] | (approved - 1);
+        }
+    }
+
+    private void notifyListener(LoanColumns columns, int from, int to, int[] index, int[] valid, long[] incomeTenths,
+                                long[] decisions) {
+        for (int i = from, j = 0; i < to; i++, j++) {
+            if (valid[j] == 0) {
+                continue;
+            }
+            if (decisions[i] != ScoringDecision.REJECTED) {
+                listener.approved(decisions[i]);
+            } else {
+                listener.rejected(DecisionTableScoringService.rejectionReason(columns.age[i], columns.sexAt(i),
+                        columns.sourceOfIncomeAt(i), columns.creditRating[i], columns.amountTenths[i],
+                        columns.repaymentPeriod[i], incomeTenths[j], index[j]));
+            }
+        }
+    }
+
+    private static void checkInvalid(LoanColumns columns, int from, int to, int[] valid, long[] decisions,
+                                     ScoringService fallback) {
+        for (int i = from, j = 0; i < to; i++, j++) {
+            if (valid[j] == 0) {
+                decisions[i] = fallback.checkLoan(columns.age[i], columns.sexAt(i), columns.sourceOfIncomeAt(i),
+                        columns.creditRating[i], columns.amountTenths[i], columns.repaymentPeriod[i],
+                        columns.loanPurposeAt(i), columns.incomeUnscaled[i], columns.incomeScale[i]);
+            }
+        }
+    }
+
+    /**
+     * 1, если значение вне отрезка {@code [min, max]}, иначе 0. Для небольших границ хотя бы одна из разностей
+     * отрицательна при любом значении вне отрезка, в том числе при переполнении другой.
+     */
+    private static int outside(int value, int min, int max) {
+        return ((value - min) | (max - value)) >>> 31;
+    }
+}
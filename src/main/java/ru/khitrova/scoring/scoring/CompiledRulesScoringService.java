@@ -0,0 +1,133 @@
+package ru.khitrova.scoring.scoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.rules.CompiledScoringRules;
+import ru.khitrova.scoring.rules.ScoringRules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Сервис проверки возможности выдачи кредита по правилам из файла ({@code scoring.rules.location}).
+ * Правила компилируются в неизменяемый {@link CompiledScoringRules} и публикуются через {@link AtomicReference}.
+ * Запрос читает ссылку один раз и проверяется целиком по одной версии правил, без блокировок;
+ * {@link #reload()} подменяет правила, не останавливая проверку запросов.
+ * С файлом правил по умолчанию результаты совпадают с {@link InMemoryScoringService}.
+ */
+@Service
+@Qualifier(ScoringService.ENGINE)
+@ConditionalOnProperty(name = "scoring.engine", havingValue = "compiled-rules")
+public class CompiledRulesScoringService implements VersionedScoringService<CompiledScoringRules> {
+
+    private final ScoringListener listener;
+    private final Resource location;
+    private final AtomicReference<CompiledScoringRules> rules = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+
+    public CompiledRulesScoringService() {
+        this(ScoringListener.NOOP, ScoringRules.defaults());
+    }
+
+    public CompiledRulesScoringService(ScoringListener listener, ScoringRules rules) {
+        this.listener = listener;
+        this.location = null;
+        reload(rules);
+    }
+
+    @Autowired
+    public CompiledRulesScoringService(ScoringListener listener,
+                                       @Value("${scoring.rules.location:classpath:scoring-rules.json}") Resource location)
+            throws IOException {
+        this.listener = listener;
+        this.location = location;
+        reload();
+    }
+
+    @Override
+    public LoanResponse checkLoan(LoanRequest loanRequest) {
+        return checkLoan(loanRequest, rules.get());
+    }
+
+    @Override
+    public long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                          int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale) {
+        return checkLoan(age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod, loanPurpose,
+                incomeUnscaled, incomeScale, rules.get());
+    }
+
+    @Override
+    public CompiledScoringRules currentRules() {
+        return rules.get();
+    }
+
+    @Override
+    public LoanResponse checkLoan(LoanRequest loanRequest, CompiledScoringRules rules) {
+        return rules.checkLoan(loanRequest, listener);
+    }
+
+    @Override
+    public long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                          int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale,
+                          CompiledScoringRules rules) {
+        return rules.checkLoan(age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod,
+                loanPurpose, incomeUnscaled, incomeScale, listener);
+    }
+
+    /**
+     * Поддержка по действующим правилам; если правила заменены до проверки на правила с платежом точнее
+     * десятых долей, примитивный вход бросает {@link PrimitiveCheckUnsupportedException}.
+     */
+    @Override
+    public boolean supportsPrimitiveCheck() {
+        return rules.get().paymentInTenths();
+    }
+
+    /**
+     * Повторное чтение правил из {@code scoring.rules.location}.
+     * Если файл не удалось прочитать или скомпилировать, продолжают действовать прежние правила.
+     * @return номер загруженной версии правил
+     */
+    public final long reload() throws IOException {
+        if (location == null) {
+            throw new IllegalStateException("Не задан файл правил");
+        }
+        try (InputStream inputStream = location.getInputStream()) {
+            return reload(ScoringRules.read(inputStream));
+        }
+    }
+
+    /**
+     * Замена правил.
+     * @return номер загруженной версии правил
+     * @throws IllegalArgumentException если правила не удалось скомпилировать
+     */
+    public final long reload(ScoringRules scoringRules) {
+        CompiledScoringRules compiled = new CompiledScoringRules(scoringRules);
+        synchronized (version) {
+            rules.set(compiled);
+            return version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Номер действующей версии правил: 1 после создания сервиса, увеличивается при каждой замене.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Файл правил или {@code null}, если правила переданы напрямую.
+     */
+    public Resource getLocation() {
+        return location;
+    }
+}
@@ -0,0 +1,134 @@
+package ru.khitrova.scoring.scoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Сервис проверки возможности выдачи кредита по таблице минимального дохода.
+ * Решение принимается одним чтением из {@link MinimalIncomeTable} и одним сравнением с доходом.
+ * Запросы вне таблицы (незаполненные поля, значения вне допустимых границ, отрицательный доход,
+ * доход с необычным масштабом) передаются в {@link InMemoryScoringService}.
+ */
+@Service
+@Qualifier(ScoringService.ENGINE)
+@ConditionalOnProperty(name = "scoring.engine", havingValue = "decision-table")
+public class DecisionTableScoringService implements ScoringService {
+
+    private static final int MAX_INCOME_PRECISION = 17;
+
+    private final ScoringListener listener;
+    private final ScoringService fallback;
+    private final ColumnarScoringEngine columnar;
+
+    public DecisionTableScoringService() {
+        this(ScoringListener.NOOP);
+    }
+
+    @Autowired
+    public DecisionTableScoringService(ScoringListener listener) {
+        this.listener = listener;
+        this.fallback = new InMemoryScoringService(listener);
+        this.columnar = new ColumnarScoringEngine(listener);
+    }
+
+    @Override
+    public LoanResponse checkLoan(LoanRequest loanRequest) {
+        int amountTenths = InterestRateTable.amountInTenths(loanRequest.requestedAmount);
+        BigDecimal income = loanRequest.lastYearIncome;
+        if (amountTenths < 0 || income == null || loanRequest.age == null || loanRequest.sex == null
+                || loanRequest.sourceOfIncome == null || loanRequest.loanPurpose == null
+                || loanRequest.creditRating == null || loanRequest.repaymentPeriod == null
+                || loanRequest.creditRating < InterestRateTable.MIN_RATING
+                || loanRequest.creditRating > InterestRateTable.MAX_RATING
+                || loanRequest.repaymentPeriod < FixedPointScoringService.MIN_PERIOD
+                || loanRequest.repaymentPeriod > FixedPointScoringService.MAX_PERIOD
+                || income.signum() < 0 || income.scale() < 0
+                || income.scale() > FixedPointScoringService.MAX_INCOME_SCALE
+                || income.precision() > MAX_INCOME_PRECISION) {
+            return fallback.checkLoan(loanRequest);
+        }
+
+        return ScoringDecision.toResponse(decide(loanRequest.age, loanRequest.sex, loanRequest.sourceOfIncome,
+                loanRequest.creditRating, amountTenths, loanRequest.repaymentPeriod, loanRequest.loanPurpose,
+                income.unscaledValue().longValue(), income.scale()));
+    }
+
+    @Override
+    public boolean supportsPrimitiveCheck() {
+        return true;
+    }
+
+    /**
+     * Пачка проверяется {@link ColumnarScoringEngine} с теми же решениями, что и при проверке по одной записи.
+     */
+    @Override
+    public void checkLoans(LoanColumns columns, long[] decisions) {
+        columnar.checkLoans(columns, decisions, this);
+    }
+
+    @Override
+    public long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                          int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale) {
+        if (sex == null || sourceOfIncome == null || loanPurpose == null
+                || creditRating < InterestRateTable.MIN_RATING || creditRating > InterestRateTable.MAX_RATING
+                || amountTenths < InterestRateTable.MIN_AMOUNT_TENTHS
+                || amountTenths > InterestRateTable.MAX_AMOUNT_TENTHS
+                || repaymentPeriod < FixedPointScoringService.MIN_PERIOD
+                || repaymentPeriod > FixedPointScoringService.MAX_PERIOD
+                || incomeUnscaled < 0 || incomeScale < 0 || incomeScale > FixedPointScoringService.MAX_INCOME_SCALE
+                || incomeUnscaled >= FixedPointScoringService.MAX_INCOME_UNSCALED) {
+            return ScoringDecision.toDecision(fallback.checkLoan(ScoringDecision.toRequest(age, sex, sourceOfIncome,
+                    creditRating, amountTenths, repaymentPeriod, loanPurpose, incomeUnscaled, incomeScale)));
+        }
+        return decide(age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod, loanPurpose,
+                incomeUnscaled, incomeScale);
+    }
+
+    /**
+     * Проверка запроса по таблице.
+     * @return решение в представлении {@link ScoringDecision}
+     */
+    private long decide(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                        int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale) {
+        int index = MinimalIncomeTable.index(sourceOfIncome.ordinal(), creditRating, amountTenths, repaymentPeriod,
+                loanPurpose.ordinal());
+        long incomeTenths = FixedPointScoringService.incomeTenths(incomeUnscaled, incomeScale);
+
+        if (MinimalIncomeTable.eligibleAge(age, sex.ordinal())
+                && incomeTenths >= MinimalIncomeTable.minIncomeTenths(index, incomeScale == 0)) {
+            long annualPayment = MinimalIncomeTable.annualPaymentTenths(index);
+            listener.approved(annualPayment);
+            return annualPayment;
+        }
+        listener.rejected(rejectionReason(age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod,
+                incomeTenths, index));
+        return ScoringDecision.REJECTED;
+    }
+
+    /**
+     * Причина отказа. Таблица хранит только минимальный доход, поэтому причина определяется заново,
+     * но только для отклоненных запросов.
+     */
+    static RejectionReason rejectionReason(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating,
+                                           int amountTenths, int repaymentPeriod, long incomeTenths, int index) {
+        if (!MinimalIncomeTable.eligibleAge(age, sex.ordinal())) {
+            return RejectionReason.AGE;
+        }
+        if (creditRating <= -2) {
+            return RejectionReason.CREDIT_RATING;
+        }
+        if (sourceOfIncome == SourceOfIncome.UNEMPLOYED) {
+            return RejectionReason.SOURCE_OF_INCOME;
+        }
+        if (MinimalIncomeTable.minIncomeTenths(index, false) == MinimalIncomeTable.NEVER
+                || incomeTenths / 3 < amountTenths / repaymentPeriod) {
+            return RejectionReason.REQUESTED_AMOUNT;
+        }
+        return RejectionReason.ANNUAL_PAYMENT;
+    }
+}
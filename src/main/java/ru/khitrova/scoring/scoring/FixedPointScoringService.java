@@ -0,0 +1,300 @@
+package ru.khitrova.scoring.scoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Сервис проверки возможности выдачи кредита на целочисленной арифметике.
+ * Суммы хранятся в десятых долях миллиона в {@code long}, деление выполняется с округлением к нулю
+ * (ROUND_DOWN), поэтому результаты совпадают с {@link InMemoryScoringService} до масштаба {@link BigDecimal}.
+ * Запросы, которые не укладываются в целочисленное представление, передаются в {@link InMemoryScoringService}.
+ */
+@Service
+@Qualifier(ScoringService.ENGINE)
+@ConditionalOnProperty(name = "scoring.engine", havingValue = "fixed-point")
+public class FixedPointScoringService implements ScoringService {
+
+    public static final int MIN_PERIOD = 1;
+    public static final int MAX_PERIOD = 20;
+
+    /**
+     * Максимальный масштаб дохода, который обрабатывается без {@link BigDecimal}.
+     */
+    public static final int MAX_INCOME_SCALE = 16;
+
+    private static final int MAX_INCOME_PRECISION = 17;
+
+    /**
+     * Граница немасштабированного дохода: значения по модулю меньше нее имеют не больше
+     * {@link #MAX_INCOME_PRECISION} цифр.
+     */
+    static final long MAX_INCOME_UNSCALED = 100_000_000_000_000_000L;
+    private static final int PERIODS = MAX_PERIOD - MIN_PERIOD + 1;
+    private static final int AMOUNTS = InterestRateTable.MAX_AMOUNT_TENTHS - InterestRateTable.MIN_AMOUNT_TENTHS + 1;
+    private static final int RATINGS = InterestRateTable.MAX_RATING - InterestRateTable.MIN_RATING + 1;
+
+    private static final long[] POWERS_OF_TEN = powersOfTen();
+
+    /**
+     * Часть суммы, приходящаяся на проценты за весь срок (срок * ставка / 100), в десятых долях.
+     */
+    private static final short[] PART_OF_SUM = buildPartOfSum();
+
+    private final ScoringListener listener;
+    private final ScoringService fallback;
+    private final ColumnarScoringEngine columnar;
+
+    public FixedPointScoringService() {
+        this(ScoringListener.NOOP);
+    }
+
+    @Autowired
+    public FixedPointScoringService(ScoringListener listener) {
+        this.listener = listener;
+        this.fallback = new InMemoryScoringService(listener);
+        this.columnar = new ColumnarScoringEngine(listener);
+    }
+
+    @Override
+    public LoanResponse checkLoan(LoanRequest loanRequest) {
+        int amountTenths = InterestRateTable.amountInTenths(loanRequest.requestedAmount);
+        BigDecimal income = loanRequest.lastYearIncome;
+        if (amountTenths < 0 || income == null || loanRequest.age == null || loanRequest.sex == null
+                || loanRequest.sourceOfIncome == null || loanRequest.loanPurpose == null
+                || loanRequest.creditRating == null || loanRequest.repaymentPeriod == null
+                || loanRequest.creditRating < InterestRateTable.MIN_RATING
+                || loanRequest.creditRating > InterestRateTable.MAX_RATING
+                || loanRequest.repaymentPeriod < MIN_PERIOD || loanRequest.repaymentPeriod > MAX_PERIOD
+                || income.scale() < 0 || income.scale() > MAX_INCOME_SCALE
+                || income.precision() > MAX_INCOME_PRECISION) {
+            return fallback.checkLoan(loanRequest);
+        }
+
+        return ScoringDecision.toResponse(decide(loanRequest.age, loanRequest.sex, loanRequest.sourceOfIncome,
+                loanRequest.creditRating, amountTenths, loanRequest.repaymentPeriod, loanRequest.loanPurpose,
+                income.unscaledValue().longValue(), income.scale()));
+    }
+
+    @Override
+    public boolean supportsPrimitiveCheck() {
+        return true;
+    }
+
+    /**
+     * Пачка проверяется {@link ColumnarScoringEngine} с теми же решениями, что и при проверке по одной записи.
+     */
+    @Override
+    public void checkLoans(LoanColumns columns, long[] decisions) {
+        columnar.checkLoans(columns, decisions, this);
+    }
+
+    @Override
+    public long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                          int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale) {
+        if (sex == null || sourceOfIncome == null || loanPurpose == null
+                || creditRating < InterestRateTable.MIN_RATING || creditRating > InterestRateTable.MAX_RATING
+                || amountTenths < InterestRateTable.MIN_AMOUNT_TENTHS
+                || amountTenths > InterestRateTable.MAX_AMOUNT_TENTHS
+                || repaymentPeriod < MIN_PERIOD || repaymentPeriod > MAX_PERIOD
+                || incomeScale < 0 || incomeScale > MAX_INCOME_SCALE
+                || incomeUnscaled <= -MAX_INCOME_UNSCALED || incomeUnscaled >= MAX_INCOME_UNSCALED) {
+            return ScoringDecision.toDecision(fallback.checkLoan(ScoringDecision.toRequest(age, sex, sourceOfIncome,
+                    creditRating, amountTenths, repaymentPeriod, loanPurpose, incomeUnscaled, incomeScale)));
+        }
+        return decide(age, sex, sourceOfIncome, creditRating, amountTenths, repaymentPeriod, loanPurpose,
+                incomeUnscaled, incomeScale);
+    }
+
+    /**
+     * Проверка запроса на кредит в целочисленном представлении.
+     * Доход передается как немасштабированное значение и масштаб {@link BigDecimal}:
+     * от масштаба зависит округление половины дохода.
+     * @return решение в представлении {@link ScoringDecision}
+     */
+    private long decide(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating,
+                        int amountTenths, int repaymentPeriod, LoanPurpose loanPurpose,
+                        long incomeUnscaled, int incomeScale) {
+        long annualPayment = annualPaymentTenths(loanPurpose.ordinal(), creditRating, sourceOfIncome.ordinal(),
+                amountTenths, repaymentPeriod);
+
+        RejectionReason rejectionReason = checkLoanRequest(age, sex, sourceOfIncome, creditRating, amountTenths,
+                repaymentPeriod, annualPayment, incomeUnscaled, incomeScale);
+        if (rejectionReason == null) {
+            listener.approved(annualPayment);
+            return annualPayment;
+        }
+        listener.rejected(rejectionReason);
+        return ScoringDecision.REJECTED;
+    }
+
+    /**
+     * Проверка запроса на кредит.
+     * @return первая не пройденная проверка или {@code null}, если кредит можно выдать
+     */
+    private RejectionReason checkLoanRequest(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating,
+                                             int amountTenths, int repaymentPeriod, long annualPayment,
+                                             long incomeUnscaled, int incomeScale) {
+        if (!checkAge(age, sex)) {
+            return RejectionReason.AGE;
+        }
+        if (!checkLoanRating(creditRating)) {
+            return RejectionReason.CREDIT_RATING;
+        }
+        if (!checkSourceOfIncome(sourceOfIncome)) {
+            return RejectionReason.SOURCE_OF_INCOME;
+        }
+        if (!checkRequestedAmount(sourceOfIncome, creditRating, amountTenths, repaymentPeriod,
+                incomeUnscaled, incomeScale)) {
+            return RejectionReason.REQUESTED_AMOUNT;
+        }
+        if (!checkAnnualPayment(annualPayment, incomeUnscaled, incomeScale)) {
+            return RejectionReason.ANNUAL_PAYMENT;
+        }
+        return null;
+    }
+
+    /**
+     * Годовой платеж в десятых долях: сумма * (1 + часть на проценты) / срок.
+     */
+    public static long annualPaymentTenths(int purposeOrdinal, int creditRating, int sourceOrdinal,
+                                           int amountTenths, int repaymentPeriod) {
+        int partOfSum = PART_OF_SUM[partOfSumIndex(purposeOrdinal, creditRating, sourceOrdinal,
+                amountTenths, repaymentPeriod)];
+        return (long) amountTenths * (10 + partOfSum) / (10L * repaymentPeriod);
+    }
+
+    /**
+     * Доход, усеченный до десятых долей.
+     */
+    public static long incomeTenths(long incomeUnscaled, int incomeScale) {
+        if (incomeScale == 0) {
+            return incomeUnscaled * 10;
+        }
+        return incomeUnscaled / POWERS_OF_TEN[incomeScale - 1];
+    }
+
+    /**
+     * Максимально возможная сумма кредита в десятых долях
+     */
+    public static int maxAmountTenths(SourceOfIncome sourceOfIncome, int creditRating) {
+        int maxAmountBySource;
+        if (sourceOfIncome == SourceOfIncome.PASSIVE) {
+            maxAmountBySource = 10;
+        } else if (sourceOfIncome == SourceOfIncome.EMPLOYEE) {
+            maxAmountBySource = 50;
+        } else if (sourceOfIncome == SourceOfIncome.OWN_BUSINESS) {
+            maxAmountBySource = 100;
+        } else {
+            maxAmountBySource = 0;
+        }
+
+        int maxAmountByRating;
+        if (creditRating < 0) {
+            maxAmountByRating = 10;
+        } else if (creditRating == 0) {
+            maxAmountByRating = 50;
+        } else {
+            maxAmountByRating = 100;
+        }
+        return Math.min(maxAmountBySource, maxAmountByRating);
+    }
+
+    /**
+     * Проверка возраста
+     */
+    private boolean checkAge(int age, Sex sex) {
+        if (age < 18) {
+            return false;
+        }
+        if ((age > 60) && (sex == Sex.F)) {
+            return false;
+        }
+        return (age <= 65) || (sex != Sex.M);
+    }
+
+    /**
+     * Проверка кредитного рейтинга
+     */
+    private boolean checkLoanRating(int creditRating) {
+        return creditRating > -2;
+    }
+
+    /**
+     * Проверка источника дохода
+     */
+    private boolean checkSourceOfIncome(SourceOfIncome sourceOfIncome) {
+        return sourceOfIncome != SourceOfIncome.UNEMPLOYED;
+    }
+
+    /**
+     * Проверка запрошенной суммы
+     */
+    private boolean checkRequestedAmount(SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                                         int repaymentPeriod, long incomeUnscaled, int incomeScale) {
+        long yearAmount = amountTenths / repaymentPeriod;
+        long thirdPartOfIncome = incomeTenths(incomeUnscaled, incomeScale) / 3;
+        if (yearAmount > thirdPartOfIncome) {
+            return false;
+        }
+
+        int maxAmount = maxAmountTenths(sourceOfIncome, creditRating);
+        return amountTenths <= maxAmount && maxAmount != 0;
+    }
+
+    /**
+     * Проверка годового платежа.
+     * Половина дохода округляется к нулю с масштабом самого дохода.
+     */
+    private boolean checkAnnualPayment(long annualPaymentTenths, long incomeUnscaled, int incomeScale) {
+        long halfOfIncome = incomeUnscaled / 2;
+        if (incomeScale == 0) {
+            return annualPaymentTenths <= halfOfIncome * 10;
+        }
+        return annualPaymentTenths * POWERS_OF_TEN[incomeScale - 1] <= halfOfIncome;
+    }
+
+    private static int partOfSumIndex(int purposeOrdinal, int creditRating, int sourceOrdinal,
+                                      int amountTenths, int repaymentPeriod) {
+        return (((purposeOrdinal * RATINGS + creditRating - InterestRateTable.MIN_RATING)
+                * SourceOfIncome.values().length + sourceOrdinal) * AMOUNTS
+                + amountTenths - InterestRateTable.MIN_AMOUNT_TENTHS) * PERIODS + repaymentPeriod - MIN_PERIOD;
+    }
+
+    private static short[] buildPartOfSum() {
+        short[] table = new short[LoanPurpose.values().length * RATINGS * SourceOfIncome.values().length
+                * AMOUNTS * PERIODS];
+        for (LoanPurpose purpose : LoanPurpose.values()) {
+            for (int rating = InterestRateTable.MIN_RATING; rating <= InterestRateTable.MAX_RATING; rating++) {
+                for (SourceOfIncome source : SourceOfIncome.values()) {
+                    for (int tenths = InterestRateTable.MIN_AMOUNT_TENTHS; tenths <= InterestRateTable.MAX_AMOUNT_TENTHS; tenths++) {
+                        BigDecimal rate = InterestRateTable.lookup(purpose.ordinal(), rating, source.ordinal(), tenths);
+                        for (int period = MIN_PERIOD; period <= MAX_PERIOD; period++) {
+                            BigDecimal partOfSum = BigDecimal.valueOf(period)
+                                    .multiply(rate)
+                                    .divide(BigDecimal.valueOf(100), 1, RoundingMode.DOWN);
+                            table[partOfSumIndex(purpose.ordinal(), rating, source.ordinal(), tenths, period)] =
+                                    partOfSum.unscaledValue().shortValueExact();
+                        }
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    private static long[] powersOfTen() {
+        long[] powers = new long[MAX_INCOME_SCALE];
+        long power = 1;
+        for (int i = 0; i < powers.length; i++) {
+            powers[i] = power;
+            power *= 10;
+        }
+        return powers;
+    }
+}
@@ -1,54 +1,118 @@
 package ru.khitrova.scoring.scoring;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import ru.khitrova.scoring.model.*;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+
 /**
  * Сервис проверки возможности выдачи кредита и расчета годового платежа.
+ * Проверки, не зависящие от годового платежа, выполняются в {@link RulePipeline} до расчета ставки и платежа,
+ * поэтому для отклоненных ими запросов платеж не рассчитывается.
  */
 @Service
+@Qualifier(ScoringService.ENGINE)
+@ConditionalOnProperty(name = "scoring.engine", havingValue = "big-decimal", matchIfMissing = true)
 public class InMemoryScoringService implements ScoringService {
     /**
      * Допущение по округлению, так как в требованиях это не описано.
      */
-    private int roundingMode = 1;
-    private int scale = 1;
+    private static final int SCALE = 1;
+    private static final RoundingMode ROUNDING_MODE = RoundingMode.DOWN;
+
+    /**
+     * Проверки, не зависящие от годового платежа, в исходном порядке, и их относительная стоимость.
+     */
+    private static final RejectionReason[] RULE_REASONS = {
+            RejectionReason.AGE,
+            RejectionReason.CREDIT_RATING,
+            RejectionReason.SOURCE_OF_INCOME,
+            RejectionReason.REQUESTED_AMOUNT
+    };
+    private static final int[] RULE_COSTS = {1, 1, 1, 8};
+
+    /**
+     * Проверка запрошенной суммы делит доход, который не обязателен в запросе, поэтому выполняется
+     * только после проверок заемщика, как в исходном порядке: иначе запрос без дохода, которому
+     * отказано по возрасту, завершался бы ошибкой.
+     */
+    private static final int REORDERABLE_RULES = 3;
+
+    private final ScoringListener listener;
+    private final RulePipeline rules;
+
+    public InMemoryScoringService() {
+        this(ScoringListener.NOOP);
+    }
+
+    public InMemoryScoringService(ScoringListener listener) {
+        this(listener, false);
+    }
+
+    /**
+     * @param adaptiveOrder подбирать порядок проверок по доле отказов
+     */
+    @Autowired
+    public InMemoryScoringService(ScoringListener listener,
+                                  @Value("${scoring.rules.adaptive-order:false}") boolean adaptiveOrder) {
+        this.listener = listener;
+        this.rules = new RulePipeline(this::passes, RULE_REASONS, RULE_COSTS, REORDERABLE_RULES, adaptiveOrder);
+    }
+
+    /**
+     * Проверки, которые выполняются до расчета годового платежа.
+     */
+    public RulePipeline getRules() {
+        return rules;
+    }
 
     @Override
     public LoanResponse checkLoan(LoanRequest loanRequest) {
         LoanResponse loanResponse = new LoanResponse();
 
-        BigDecimal interestRate = сommonInterestRate(loanRequest.loanPurpose, loanRequest.creditRating,
-                loanRequest.requestedAmount, loanRequest.sourceOfIncome);
-        BigDecimal annualPayment = annualPayment(loanRequest.requestedAmount, loanRequest.repaymentPeriod, interestRate);
-
-        loanResponse.approved = checkLoanRequest(loanRequest, annualPayment);
+        RejectionReason rejectionReason = rules.firstFailed(loanRequest);
+        BigDecimal annualPayment = null;
+        if (rejectionReason == null) {
+            BigDecimal interestRate = сommonInterestRate(loanRequest.loanPurpose, loanRequest.creditRating,
+                    loanRequest.requestedAmount, loanRequest.sourceOfIncome);
+            annualPayment = annualPayment(loanRequest.requestedAmount, loanRequest.repaymentPeriod, interestRate);
+            if (!checkAnnualPayment(annualPayment, loanRequest.lastYearIncome)) {
+                rejectionReason = RejectionReason.ANNUAL_PAYMENT;
+            }
+        }
+        loanResponse.approved = rejectionReason == null;
 
         if (Boolean.TRUE.equals(loanResponse.approved)) {
             loanResponse.annualPayment = annualPayment;
+            listener.approved(annualPayment);
         } else {
             loanResponse.annualPayment = BigDecimal.ZERO;
+            listener.rejected(rejectionReason);
         }
 
         return loanResponse;
     }
 
-
     /**
-     * Проверка запроса на кредит.
+     * Проверка с номером из {@link #RULE_REASONS}
      */
-    private boolean checkLoanRequest(LoanRequest loanRequest, BigDecimal annualPayment) {
-        if (!((checkAge(loanRequest.age, loanRequest.sex))
-                && (checkLoanRating(loanRequest.creditRating))
-                && (checkSourceOfIncome(loanRequest.sourceOfIncome))
-                && (checkRequestedAmount(loanRequest.sourceOfIncome, loanRequest.creditRating,
-                loanRequest.requestedAmount, loanRequest.lastYearIncome, loanRequest.repaymentPeriod))
-        )) {
-            return false;
+    private boolean passes(int rule, LoanRequest loanRequest) {
+        switch (rule) {
+            case 0:
+                return checkAge(loanRequest.age, loanRequest.sex);
+            case 1:
+                return checkLoanRating(loanRequest.creditRating);
+            case 2:
+                return checkSourceOfIncome(loanRequest.sourceOfIncome);
+            default:
+                return checkRequestedAmount(loanRequest.sourceOfIncome, loanRequest.creditRating,
+                        loanRequest.requestedAmount, loanRequest.lastYearIncome, loanRequest.repaymentPeriod);
         }
-
-        return checkAnnualPayment(annualPayment, loanRequest.lastYearIncome);
     }
 
     /**
@@ -77,8 +141,8 @@ public class InMemoryScoringService implements ScoringService {
             BigDecimal lastYearIncome,
             Integer repaymentPeriod
     ) {
-        BigDecimal yearAmount = requestedAmount.divide(BigDecimal.valueOf(repaymentPeriod), scale, roundingMode);
-        BigDecimal thirdPartOfIncome = lastYearIncome.divide(BigDecimal.valueOf(3), scale, roundingMode);
+        BigDecimal yearAmount = requestedAmount.divide(BigDecimal.valueOf(repaymentPeriod), SCALE, ROUNDING_MODE);
+        BigDecimal thirdPartOfIncome = lastYearIncome.divide(BigDecimal.valueOf(3), SCALE, ROUNDING_MODE);
 
         if (yearAmount.compareTo(thirdPartOfIncome) > 0) {
             return false;
@@ -164,7 +228,7 @@ public class InMemoryScoringService implements ScoringService {
     private boolean checkAnnualPayment(BigDecimal annualPayment,
                                        BigDecimal lastYearIncome) {
 
-        if (annualPayment.compareTo(lastYearIncome.divide(BigDecimal.valueOf(2), roundingMode)) > 0) {
+        if (annualPayment.compareTo(lastYearIncome.divide(BigDecimal.valueOf(2), ROUNDING_MODE)) > 0) {
             return false;
         }
         return true;
@@ -176,12 +240,12 @@ public class InMemoryScoringService implements ScoringService {
     private BigDecimal annualPayment(BigDecimal requestedAmount, int repaymentPeriod, BigDecimal interestRate) {
         BigDecimal partOfSum = BigDecimal.valueOf(repaymentPeriod).
                 multiply(interestRate)
-                .divide(BigDecimal.valueOf(100), scale, roundingMode);
+                .divide(BigDecimal.valueOf(100), SCALE, ROUNDING_MODE);
         BigDecimal sum = BigDecimal.ONE.add(partOfSum);
         BigDecimal dividend = requestedAmount.multiply(sum);
         BigDecimal divider = BigDecimal.valueOf(repaymentPeriod);
 
-        return dividend.divide(divider, scale, roundingMode);
+        return dividend.divide(divider, SCALE, ROUNDING_MODE);
     }
 
     /**
@@ -189,67 +253,7 @@ public class InMemoryScoringService implements ScoringService {
      */
     private BigDecimal сommonInterestRate(LoanPurpose loanPurpose, int creditRating, BigDecimal requestedAmount,
                                           SourceOfIncome sourceOfIncome) {
-        BigDecimal interestRate = BigDecimal.TEN;
-        return interestRate.add(modifierByPurpose(loanPurpose))
-                .add(modifierByRating(creditRating))
-                .add(modifierBySourceOfIncome(sourceOfIncome))
-                .add(modifierByRequestedAmount(requestedAmount));
-    }
-
-    /**
-     * Модификатор процентной ставки в зависимости от цели кредита
-     */
-    private BigDecimal modifierByPurpose(LoanPurpose loanPurpose) {
-        if (loanPurpose == LoanPurpose.MORTGAGE) {
-            return BigDecimal.valueOf(-2);
-        }
-        if (loanPurpose == LoanPurpose.BUSINESS) {
-            return BigDecimal.valueOf(-0.5);
-        }
-        if (loanPurpose == LoanPurpose.CONSUMER) {
-            return BigDecimal.valueOf(1.5);
-        }
-        return BigDecimal.ZERO;
-    }
-
-    /**
-     * Модификатор процентной ставки в зависимости от кредитного рейтинга
-     */
-    private BigDecimal modifierByRating(int creditRating) {
-        if (creditRating == -1) {
-            return BigDecimal.valueOf(1.5);
-        }
-        if (creditRating == 1) {
-            return BigDecimal.valueOf(-0.25);
-        }
-        if (creditRating == 2) {
-            return BigDecimal.valueOf(-0.75);
-        }
-        return BigDecimal.ZERO;
-    }
-
-    /**
-     * Модификатор процентной ставки в зависимости от запрашиваемой суммы
-     */
-    private BigDecimal modifierByRequestedAmount(BigDecimal requestedAmount) {
-        double amount = requestedAmount.doubleValue();
-        return BigDecimal.valueOf(Math.log(amount));
-    }
-
-    /**
-     * Модификатор процентной ставки в зависимости от источника дохода
-     */
-    private BigDecimal modifierBySourceOfIncome(SourceOfIncome sourceOfIncome) {
-        if (sourceOfIncome == SourceOfIncome.PASSIVE) {
-            return BigDecimal.valueOf(0.5);
-        }
-        if (sourceOfIncome == SourceOfIncome.EMPLOYEE) {
-            return BigDecimal.valueOf(-0.25);
-        }
-        if (sourceOfIncome == SourceOfIncome.OWN_BUSINESS) {
-            return BigDecimal.valueOf(0.25);
-        }
-        return BigDecimal.ZERO;
+        return InterestRateTable.rate(loanPurpose, creditRating, requestedAmount, sourceOfIncome);
     }
 
 }
@@ -0,0 +1,163 @@
+package ru.khitrova.scoring.scoring;
+
+import ru.khitrova.scoring.model.LoanPurpose;
+import ru.khitrova.scoring.model.SourceOfIncome;
+
+import java.math.BigDecimal;
+
+/**
+ * Таблица процентных ставок.
+ * Все допустимые комбинации цели кредита, кредитного рейтинга, источника дохода и запрошенной суммы
+ * рассчитываются один раз при загрузке класса, после чего ставка определяется одним чтением из массива.
+ */
+public final class InterestRateTable {
+
+    public static final int MIN_RATING = -2;
+    public static final int MAX_RATING = 2;
+
+    /**
+     * Границы запрошенной суммы в десятых долях миллиона (0.1 - 10.0).
+     */
+    public static final int MIN_AMOUNT_TENTHS = 1;
+    public static final int MAX_AMOUNT_TENTHS = 100;
+
+    /**
+     * Ставки таблицы, по которым рассчитывают платеж реализации с неизменными правилами
+     * (big-decimal, fixed-point, decision-table).
+     */
+    public static final InterestRates INTEREST_RATES = InterestRateTable::rate;
+
+    private static final LoanPurpose[] PURPOSES = LoanPurpose.values();
+    private static final SourceOfIncome[] SOURCES = SourceOfIncome.values();
+    private static final int RATINGS = MAX_RATING - MIN_RATING + 1;
+    private static final int AMOUNTS = MAX_AMOUNT_TENTHS - MIN_AMOUNT_TENTHS + 1;
+
+    private static final BigDecimal[] RATES = build();
+
+    private InterestRateTable() {
+    }
+
+    /**
+     * Общая процентная ставка.
+     * Для значений вне таблицы (например, суммы с точностью больше десятой) ставка рассчитывается заново.
+     */
+    public static BigDecimal rate(LoanPurpose loanPurpose, int creditRating, BigDecimal requestedAmount,
+                                  SourceOfIncome sourceOfIncome) {
+        int amountTenths = amountInTenths(requestedAmount);
+        if (loanPurpose == null || sourceOfIncome == null || amountTenths < 0
+                || creditRating < MIN_RATING || creditRating > MAX_RATING) {
+            return calculate(loanPurpose, creditRating, requestedAmount, sourceOfIncome);
+        }
+        return RATES[index(loanPurpose.ordinal(), creditRating, sourceOfIncome.ordinal(), amountTenths)];
+    }
+
+    /**
+     * Ставка из таблицы по порядковым номерам перечислений, рейтингу и сумме в десятых долях.
+     */
+    public static BigDecimal lookup(int purposeOrdinal, int creditRating, int sourceOrdinal, int amountTenths) {
+        return RATES[index(purposeOrdinal, creditRating, sourceOrdinal, amountTenths)];
+    }
+
+    /**
+     * Запрошенная сумма в десятых долях миллиона или -1, если сумма не попадает в таблицу.
+     */
+    public static int amountInTenths(BigDecimal requestedAmount) {
+        if (requestedAmount == null || requestedAmount.scale() > 1 || requestedAmount.scale() < -1) {
+            return -1;
+        }
+        // При масштабе не больше 1 значение кратно 0.1, поэтому округление восстанавливает его точно.
+        long tenths = Math.round(requestedAmount.doubleValue() * 10);
+        if (tenths < MIN_AMOUNT_TENTHS || tenths > MAX_AMOUNT_TENTHS) {
+            return -1;
+        }
+        return (int) tenths;
+    }
+
+    /**
+     * Расчет общей процентной ставки без использования таблицы.
+     */
+    public static BigDecimal calculate(LoanPurpose loanPurpose, int creditRating, BigDecimal requestedAmount,
+                                       SourceOfIncome sourceOfIncome) {
+        BigDecimal interestRate = BigDecimal.TEN;
+        return interestRate.add(modifierByPurpose(loanPurpose))
+                .add(modifierByRating(creditRating))
+                .add(modifierBySourceOfIncome(sourceOfIncome))
+                .add(modifierByRequestedAmount(requestedAmount));
+    }
+
+    private static int index(int purposeOrdinal, int creditRating, int sourceOrdinal, int amountTenths) {
+        return ((purposeOrdinal * RATINGS + creditRating - MIN_RATING) * SOURCES.length + sourceOrdinal) * AMOUNTS
+                + amountTenths - MIN_AMOUNT_TENTHS;
+    }
+
+    private static BigDecimal[] build() {
+        BigDecimal[] rates = new BigDecimal[PURPOSES.length * RATINGS * SOURCES.length * AMOUNTS];
+        for (LoanPurpose purpose : PURPOSES) {
+            for (int rating = MIN_RATING; rating <= MAX_RATING; rating++) {
+                for (SourceOfIncome source : SOURCES) {
+                    for (int tenths = MIN_AMOUNT_TENTHS; tenths <= MAX_AMOUNT_TENTHS; tenths++) {
+                        rates[index(purpose.ordinal(), rating, source.ordinal(), tenths)] =
+                                calculate(purpose, rating, BigDecimal.valueOf(tenths, 1), source);
+                    }
+                }
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Модификатор процентной ставки в зависимости от цели кредита
+     */
+    private static BigDecimal modifierByPurpose(LoanPurpose loanPurpose) {
+        if (loanPurpose == LoanPurpose.MORTGAGE) {
+            return BigDecimal.valueOf(-2);
+        }
+        if (loanPurpose == LoanPurpose.BUSINESS) {
+            return BigDecimal.valueOf(-0.5);
+        }
+        if (loanPurpose == LoanPurpose.CONSUMER) {
+            return BigDecimal.valueOf(1.5);
+        }
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Модификатор процентной ставки в зависимости от кредитного рейтинга
+     */
+    private static BigDecimal modifierByRating(int creditRating) {
+        if (creditRating == -1) {
+            return BigDecimal.valueOf(1.5);
+        }
+        if (creditRating == 1) {
+            return BigDecimal.valueOf(-0.25);
+        }
+        if (creditRating == 2) {
+            return BigDecimal.valueOf(-0.75);
+        }
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Модификатор процентной ставки в зависимости от запрашиваемой суммы
+     */
+    private static BigDecimal modifierByRequestedAmount(BigDecimal requestedAmount) {
+        double amount = requestedAmount.doubleValue();
+        return BigDecimal.valueOf(Math.log(amount));
+    }
+
+    /**
+     * Модификатор процентной ставки в зависимости от источника дохода
+     */
+    private static BigDecimal modifierBySourceOfIncome(SourceOfIncome sourceOfIncome) {
+        if (sourceOfIncome == SourceOfIncome.PASSIVE) {
+            return BigDecimal.valueOf(0.5);
+        }
+        if (sourceOfIncome == SourceOfIncome.EMPLOYEE) {
+            return BigDecimal.valueOf(-0.25);
+        }
+        if (sourceOfIncome == SourceOfIncome.OWN_BUSINESS) {
+            return BigDecimal.valueOf(0.25);
+        }
+        return BigDecimal.ZERO;
+    }
+}
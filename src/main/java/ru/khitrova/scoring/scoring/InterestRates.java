@@ -0,0 +1,18 @@
+package ru.khitrova.scoring.scoring;
+
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Расчет общей процентной ставки по одной версии правил.
+ * Результат не зависит от момента вызова, поэтому ставку по решению можно рассчитать позже и в другом потоке.
+ */
+public interface InterestRates {
+
+    /**
+     * Общая процентная ставка, по которой рассчитывается годовой платеж.
+     */
+    BigDecimal interestRate(LoanPurpose loanPurpose, int creditRating, BigDecimal requestedAmount,
+                            SourceOfIncome sourceOfIncome);
+}
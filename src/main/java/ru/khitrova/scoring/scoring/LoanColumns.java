@@ -0,0 +1,103 @@
+package ru.khitrova.scoring.scoring;
+
+import ru.khitrova.scoring.model.LoanPurpose;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.Sex;
+import ru.khitrova.scoring.model.SourceOfIncome;
+
+import java.math.BigDecimal;
+
+/**
+ * Пачка запросов на кредит, разложенная по столбцам примитивных массивов.
+ * Перечисления хранятся порядковыми номерами, сумма - в десятых долях миллиона, доход - немасштабированным
+ * значением и масштабом {@link java.math.BigDecimal}, как в примитивном входе {@link ScoringService}.
+ * Все столбцы имеют длину {@link #size} и заполняются вызывающим кодом, например через {@link #set(int, LoanRequest)}.
+ */
+public final class LoanColumns {
+
+    private static final Sex[] SEXES = Sex.values();
+    private static final SourceOfIncome[] SOURCES = SourceOfIncome.values();
+    private static final LoanPurpose[] PURPOSES = LoanPurpose.values();
+    private static final int MAX_INCOME_PRECISION = 18;
+
+    public final int size;
+    public final int[] age;
+    public final int[] sex;
+    public final int[] sourceOfIncome;
+    public final int[] creditRating;
+    public final int[] amountTenths;
+    public final int[] repaymentPeriod;
+    public final int[] loanPurpose;
+    public final long[] incomeUnscaled;
+    public final int[] incomeScale;
+
+    public LoanColumns(int size) {
+        this.size = size;
+        this.age = new int[size];
+        this.sex = new int[size];
+        this.sourceOfIncome = new int[size];
+        this.creditRating = new int[size];
+        this.amountTenths = new int[size];
+        this.repaymentPeriod = new int[size];
+        this.loanPurpose = new int[size];
+        this.incomeUnscaled = new long[size];
+        this.incomeScale = new int[size];
+    }
+
+    /**
+     * Представим ли запрос в столбцах: все поля заполнены, сумма кратна десятой в границах таблицы,
+     * немасштабированный доход помещается в {@code long}.
+     */
+    public static boolean fits(LoanRequest loanRequest) {
+        return loanRequest.age != null && loanRequest.sex != null && loanRequest.sourceOfIncome != null
+                && loanRequest.creditRating != null && loanRequest.repaymentPeriod != null
+                && loanRequest.loanPurpose != null && loanRequest.lastYearIncome != null
+                && loanRequest.lastYearIncome.precision() <= MAX_INCOME_PRECISION
+                && InterestRateTable.amountInTenths(loanRequest.requestedAmount) >= 0;
+    }
+
+    /**
+     * Запись запроса в строку {@code i}.
+     * @throws IllegalArgumentException если запрос не представим в столбцах ({@link #fits(LoanRequest)})
+     */
+    public void set(int i, LoanRequest loanRequest) {
+        if (!fits(loanRequest)) {
+            throw new IllegalArgumentException("Запрос не представим в столбцах");
+        }
+        BigDecimal income = loanRequest.lastYearIncome;
+        age[i] = loanRequest.age;
+        sex[i] = loanRequest.sex.ordinal();
+        sourceOfIncome[i] = loanRequest.sourceOfIncome.ordinal();
+        creditRating[i] = loanRequest.creditRating;
+        amountTenths[i] = InterestRateTable.amountInTenths(loanRequest.requestedAmount);
+        repaymentPeriod[i] = loanRequest.repaymentPeriod;
+        loanPurpose[i] = loanRequest.loanPurpose.ordinal();
+        incomeUnscaled[i] = income.unscaledValue().longValue();
+        incomeScale[i] = income.scale();
+    }
+
+    /**
+     * Пол в строке {@code i} или {@code null} для неизвестного порядкового номера.
+     */
+    public Sex sexAt(int i) {
+        return constant(SEXES, sex[i]);
+    }
+
+    /**
+     * Источник дохода в строке {@code i} или {@code null} для неизвестного порядкового номера.
+     */
+    public SourceOfIncome sourceOfIncomeAt(int i) {
+        return constant(SOURCES, sourceOfIncome[i]);
+    }
+
+    /**
+     * Цель кредита в строке {@code i} или {@code null} для неизвестного порядкового номера.
+     */
+    public LoanPurpose loanPurposeAt(int i) {
+        return constant(PURPOSES, loanPurpose[i]);
+    }
+
+    private static <E> E constant(E[] constants, int ordinal) {
+        return ordinal >= 0 && ordinal < constants.length ? constants[ordinal] : null;
+    }
+}
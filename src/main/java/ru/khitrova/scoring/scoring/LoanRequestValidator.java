@@ -0,0 +1,300 @@
+package ru.khitrova.scoring.scoring;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.metadata.BeanDescriptor;
+import jakarta.validation.metadata.ConstraintDescriptor;
+import jakarta.validation.metadata.PropertyDescriptor;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import ru.khitrova.scoring.model.LoanRequest;
+
+import java.lang.annotation.Annotation;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Валидация {@link LoanRequest} без Bean Validation на каждый запрос.
+ * Ограничения из аннотаций {@link LoanRequest} проверяются прямым чтением полей, поэтому запрос не обходится
+ * через рефлексию и сообщения не интерполируются заново. Границы один раз читаются из описаний ограничений
+ * Bean Validation, а сообщения, коды и аргументы ошибок получаются от нее на пробных запросах при создании
+ * валидатора, поэтому ошибки совпадают с {@code @Valid}, а ограничение, которого нет в аннотациях,
+ * обнаруживается при старте.
+ */
+@Component
+public class LoanRequestValidator implements Validator {
+
+    private static final String OBJECT_NAME = "loanRequest";
+
+    private final long minAge;
+    private final long maxAge;
+    private final long minRating;
+    private final long maxRating;
+    private final long minPeriod;
+    private final long maxPeriod;
+    private final BigDecimal minAmount;
+    private final boolean minAmountInclusive;
+    private final BigDecimal maxAmount;
+    private final boolean maxAmountInclusive;
+    private final int amountIntegerDigits;
+    private final int amountFractionDigits;
+
+    private final Violation ageNull;
+    private final Violation ageMin;
+    private final Violation ageMax;
+    private final Violation sexNull;
+    private final Violation sourceOfIncomeNull;
+    private final Violation creditRatingNull;
+    private final Violation creditRatingMin;
+    private final Violation creditRatingMax;
+    private final Violation requestedAmountNull;
+    private final Violation requestedAmountMin;
+    private final Violation requestedAmountMax;
+    private final Violation requestedAmountDigits;
+    private final Violation repaymentPeriodNull;
+    private final Violation repaymentPeriodMin;
+    private final Violation repaymentPeriodMax;
+    private final Violation loanPurposeNull;
+
+    /**
+     * @param validator Bean Validation, от которой берутся границы и сообщения об ошибках
+     * @throws IllegalStateException если ограничения в аннотациях {@link LoanRequest} не совпадают с проверками
+     */
+    public LoanRequestValidator(jakarta.validation.Validator validator) {
+        BeanDescriptor bean = validator.getConstraintsForClass(LoanRequest.class);
+        minAge = constraint(bean, "age", Min.class).value();
+        maxAge = constraint(bean, "age", Max.class).value();
+        minRating = constraint(bean, "creditRating", Min.class).value();
+        maxRating = constraint(bean, "creditRating", Max.class).value();
+        minPeriod = constraint(bean, "repaymentPeriod", Min.class).value();
+        maxPeriod = constraint(bean, "repaymentPeriod", Max.class).value();
+        DecimalMin decimalMin = constraint(bean, "requestedAmount", DecimalMin.class);
+        minAmount = new BigDecimal(decimalMin.value());
+        minAmountInclusive = decimalMin.inclusive();
+        DecimalMax decimalMax = constraint(bean, "requestedAmount", DecimalMax.class);
+        maxAmount = new BigDecimal(decimalMax.value());
+        maxAmountInclusive = decimalMax.inclusive();
+        Digits digits = constraint(bean, "requestedAmount", Digits.class);
+        amountIntegerDigits = digits.integer();
+        amountFractionDigits = digits.fraction();
+
+        Map<String, Violation> violations = probe(validator);
+        ageNull = violation(violations, "age", "NotNull");
+        ageMin = violation(violations, "age", "Min");
+        ageMax = violation(violations, "age", "Max");
+        sexNull = violation(violations, "sex", "NotNull");
+        sourceOfIncomeNull = violation(violations, "sourceOfIncome", "NotNull");
+        creditRatingNull = violation(violations, "creditRating", "NotNull");
+        creditRatingMin = violation(violations, "creditRating", "Min");
+        creditRatingMax = violation(violations, "creditRating", "Max");
+        requestedAmountNull = violation(violations, "requestedAmount", "NotNull");
+        requestedAmountMin = violation(violations, "requestedAmount", "DecimalMin");
+        requestedAmountMax = violation(violations, "requestedAmount", "DecimalMax");
+        requestedAmountDigits = violation(violations, "requestedAmount", "Digits");
+        repaymentPeriodNull = violation(violations, "repaymentPeriod", "NotNull");
+        repaymentPeriodMin = violation(violations, "repaymentPeriod", "Min");
+        repaymentPeriodMax = violation(violations, "repaymentPeriod", "Max");
+        loanPurposeNull = violation(violations, "loanPurpose", "NotNull");
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("Ограничения LoanRequest не проверяются: " + violations.keySet());
+        }
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return LoanRequest.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        LoanRequest loanRequest = (LoanRequest) target;
+        for (Violation violation : violations(loanRequest)) {
+            Object rejectedValue = violation.value(loanRequest);
+            if (errors instanceof BindingResult bindingResult) {
+                bindingResult.addError(new FieldError(errors.getObjectName(), violation.field, rejectedValue, false,
+                        bindingResult.resolveMessageCodes(violation.code, violation.field),
+                        violation.arguments, violation.message));
+            } else {
+                errors.rejectValue(violation.field, violation.code, violation.arguments, violation.message);
+            }
+        }
+    }
+
+    /**
+     * Сообщения об ошибках запроса, отсортированные по алфавиту.
+     * @return пустой неизменяемый список, если запрос корректен
+     */
+    public List<String> validate(LoanRequest loanRequest) {
+        List<Violation> violations = violations(loanRequest);
+        if (violations.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> messages = new ArrayList<>(violations.size());
+        for (Violation violation : violations) {
+            messages.add(violation.message);
+        }
+        Collections.sort(messages);
+        return messages;
+    }
+
+    private List<Violation> violations(LoanRequest loanRequest) {
+        List<Violation> violations = null;
+        if (loanRequest.age == null) {
+            violations = add(violations, ageNull);
+        } else if (loanRequest.age < minAge) {
+            violations = add(violations, ageMin);
+        } else if (loanRequest.age > maxAge) {
+            violations = add(violations, ageMax);
+        }
+        if (loanRequest.sex == null) {
+            violations = add(violations, sexNull);
+        }
+        if (loanRequest.sourceOfIncome == null) {
+            violations = add(violations, sourceOfIncomeNull);
+        }
+        if (loanRequest.creditRating == null) {
+            violations = add(violations, creditRatingNull);
+        } else if (loanRequest.creditRating < minRating) {
+            violations = add(violations, creditRatingMin);
+        } else if (loanRequest.creditRating > maxRating) {
+            violations = add(violations, creditRatingMax);
+        }
+        BigDecimal amount = loanRequest.requestedAmount;
+        if (amount == null) {
+            violations = add(violations, requestedAmountNull);
+        } else {
+            int toMin = amount.compareTo(minAmount);
+            int toMax = amount.compareTo(maxAmount);
+            if (toMin < 0 || toMin == 0 && !minAmountInclusive) {
+                violations = add(violations, requestedAmountMin);
+            } else if (toMax > 0 || toMax == 0 && !maxAmountInclusive) {
+                violations = add(violations, requestedAmountMax);
+            }
+            if (!checkDigits(amount)) {
+                violations = add(violations, requestedAmountDigits);
+            }
+        }
+        if (loanRequest.repaymentPeriod == null) {
+            violations = add(violations, repaymentPeriodNull);
+        } else if (loanRequest.repaymentPeriod < minPeriod) {
+            violations = add(violations, repaymentPeriodMin);
+        } else if (loanRequest.repaymentPeriod > maxPeriod) {
+            violations = add(violations, repaymentPeriodMax);
+        }
+        if (loanRequest.loanPurpose == null) {
+            violations = add(violations, loanPurposeNull);
+        }
+        return violations == null ? Collections.emptyList() : violations;
+    }
+
+    /**
+     * Проверка {@code @Digits}: количество цифр до и после запятой с учетом масштаба,
+     * как в Hibernate Validator для {@link BigDecimal} (незначащие нули после запятой тоже считаются).
+     */
+    private boolean checkDigits(BigDecimal amount) {
+        int integerDigits = amount.precision() - amount.scale();
+        int fractionDigits = Math.max(amount.scale(), 0);
+        return integerDigits <= amountIntegerDigits && fractionDigits <= amountFractionDigits;
+    }
+
+    private static List<Violation> add(List<Violation> violations, Violation violation) {
+        List<Violation> list = violations == null ? new ArrayList<>(2) : violations;
+        list.add(violation);
+        return list;
+    }
+
+    /**
+     * Ошибки Bean Validation на пробных запросах, которые нарушают каждое ограничение хотя бы один раз.
+     * Сумма выше границы получает лишнюю цифру до запятой, чтобы нарушить и {@code @Digits}.
+     */
+    private Map<String, Violation> probe(jakarta.validation.Validator validator) {
+        LoanRequest low = new LoanRequest();
+        low.age = Math.toIntExact(minAge - 1);
+        low.creditRating = Math.toIntExact(minRating - 1);
+        low.requestedAmount = minAmount.subtract(BigDecimal.ONE);
+        low.repaymentPeriod = Math.toIntExact(minPeriod - 1);
+
+        LoanRequest high = new LoanRequest();
+        high.age = Math.toIntExact(maxAge + 1);
+        high.creditRating = Math.toIntExact(maxRating + 1);
+        high.requestedAmount = maxAmount.abs().add(BigDecimal.TEN.pow(amountIntegerDigits));
+        high.repaymentPeriod = Math.toIntExact(maxPeriod + 1);
+
+        SpringValidatorAdapter adapter = new SpringValidatorAdapter(validator);
+        Map<String, Violation> violations = new HashMap<>();
+        for (LoanRequest probe : new LoanRequest[]{new LoanRequest(), low, high}) {
+            BindingResult bindingResult = new BeanPropertyBindingResult(probe, OBJECT_NAME);
+            adapter.validate(probe, bindingResult);
+            for (FieldError fieldError : bindingResult.getFieldErrors()) {
+                violations.put(fieldError.getField() + "." + fieldError.getCode(), new Violation(fieldError.getField(),
+                        fieldError.getCode(), fieldError.getArguments(), fieldError.getDefaultMessage()));
+            }
+        }
+        return violations;
+    }
+
+    private static <A extends Annotation> A constraint(BeanDescriptor bean, String field, Class<A> type) {
+        PropertyDescriptor property = bean.getConstraintsForProperty(field);
+        if (property != null) {
+            for (ConstraintDescriptor<?> descriptor : property.getConstraintDescriptors()) {
+                if (type.isInstance(descriptor.getAnnotation())) {
+                    return type.cast(descriptor.getAnnotation());
+                }
+            }
+        }
+        throw new IllegalStateException("Нет ограничения " + type.getSimpleName() + " для поля " + field);
+    }
+
+    private static Violation violation(Map<String, Violation> violations, String field, String code) {
+        Violation violation = violations.remove(field + "." + code);
+        if (violation == null) {
+            throw new IllegalStateException("Нет ограничения " + code + " для поля " + field);
+        }
+        return violation;
+    }
+
+    /**
+     * Нарушение ограничения: поле, код ограничения, аргументы и сообщение в том виде, в котором их
+     * формирует {@link SpringValidatorAdapter}.
+     */
+    private static final class Violation {
+        final String field;
+        final String code;
+        final Object[] arguments;
+        final String message;
+
+        Violation(String field, String code, Object[] arguments, String message) {
+            this.field = field;
+            this.code = code;
+            this.arguments = arguments;
+            this.message = message;
+        }
+
+        Object value(LoanRequest loanRequest) {
+            switch (field) {
+                case "age":
+                    return loanRequest.age;
+                case "creditRating":
+                    return loanRequest.creditRating;
+                case "requestedAmount":
+                    return loanRequest.requestedAmount;
+                case "repaymentPeriod":
+                    return loanRequest.repaymentPeriod;
+                default:
+                    return null;
+            }
+        }
+    }
+}
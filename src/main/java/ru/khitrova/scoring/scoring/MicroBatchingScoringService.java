@@ -0,0 +1,187 @@
+package ru.khitrova.scoring.scoring;
+
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Обертка, которая собирает одновременные запросы в небольшие пачки и проверяет каждую пачку одним вызовом
+ * {@link ScoringService#checkLoans(LoanColumns, long[])} в отдельном потоке. Вызывающий поток ждет свое решение.
+ * Пачка закрывается, когда в ней {@code maxBatchSize} запросов или с прихода первого запроса прошло {@code maxWait}.
+ * <p>
+ * Пока одновременно проверяется не больше {@code bypassConcurrency} запросов, запрос проверяется сразу
+ * в вызывающем потоке: при низкой нагрузке ожидание пачки только добавило бы задержку. Сразу проверяются
+ * и запросы, которые не представимы в {@link LoanColumns}, а если у сервиса нет примитивного входа
+ * ({@link ScoringService#supportsPrimitiveCheck()}), пачки не собираются совсем. Если примитивный вход
+ * перестал поддерживаться после создания обертки (замена правил, {@link PrimitiveCheckUnsupportedException}),
+ * запросы пачки проверяются по одному через {@link ScoringService#checkLoan(LoanRequest)}.
+ */
+public class MicroBatchingScoringService implements ScoringService, AutoCloseable {
+
+    private final ScoringService delegate;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final int bypassConcurrency;
+    private final boolean batching;
+
+    private final BlockingQueue<PendingCheck> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger concurrency = new AtomicInteger();
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    /**
+     * @param maxBatchSize максимальный размер пачки
+     * @param maxWaitNanos максимальное ожидание пачки с прихода первого запроса в наносекундах
+     * @param bypassConcurrency количество одновременных запросов, до которого пачки не собираются
+     */
+    public MicroBatchingScoringService(ScoringService delegate, int maxBatchSize, long maxWaitNanos,
+                                       int bypassConcurrency) {
+        if (maxBatchSize < 1 || maxWaitNanos < 0 || bypassConcurrency < 0) {
+            throw new IllegalArgumentException("Некорректные параметры пачек: размер " + maxBatchSize
+                    + ", ожидание " + maxWaitNanos + " нс, порог " + bypassConcurrency);
+        }
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWaitNanos;
+        this.bypassConcurrency = bypassConcurrency;
+        this.batching = delegate.supportsPrimitiveCheck();
+        this.dispatcher = new Thread(this::dispatch, "scoring-micro-batch");
+        this.dispatcher.setDaemon(true);
+        if (batching) {
+            this.dispatcher.start();
+        }
+    }
+
+    @Override
+    public LoanResponse checkLoan(LoanRequest loanRequest) {
+        int current = concurrency.incrementAndGet();
+        try {
+            if (!batching || !running || current <= bypassConcurrency || !LoanColumns.fits(loanRequest)) {
+                return delegate.checkLoan(loanRequest);
+            }
+            PendingCheck pendingCheck = new PendingCheck(loanRequest);
+            queue.add(pendingCheck);
+            // пачки больше не собираются: запрос, который не успел попасть в пачку, проверяется здесь
+            if (!running && queue.remove(pendingCheck)) {
+                return delegate.checkLoan(loanRequest);
+            }
+            return await(pendingCheck);
+        } finally {
+            concurrency.decrementAndGet();
+        }
+    }
+
+    /**
+     * Остановка потока, который собирает пачки. Запросы из очереди проверяются в вызывающем потоке.
+     * Если ожидание потока прервано, флаг прерывания восстанавливается.
+     */
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        if (batching) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<PendingCheck> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        checkBatch(rest);
+    }
+
+    private void dispatch() {
+        List<PendingCheck> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingCheck next = queue.poll();
+                    if (next == null) {
+                        long remaining = deadline - System.nanoTime();
+                        next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                    }
+                    batch.add(next);
+                }
+                checkBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // пачка, собранная до остановки, проверяется сразу
+            checkBatch(batch);
+        }
+    }
+
+    private void checkBatch(List<PendingCheck> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            LoanColumns columns = new LoanColumns(batch.size());
+            for (int i = 0; i < columns.size; i++) {
+                columns.set(i, batch.get(i).loanRequest);
+            }
+            long[] decisions = new long[columns.size];
+            delegate.checkLoans(columns, decisions);
+            for (int i = 0; i < columns.size; i++) {
+                batch.get(i).result.complete(ScoringDecision.toResponse(decisions[i]));
+            }
+        } catch (PrimitiveCheckUnsupportedException e) {
+            // правила заменены после создания обертки: пачка проверяется по одному запросу через объектный вход
+            for (PendingCheck pendingCheck : batch) {
+                checkLoan(pendingCheck);
+            }
+        } catch (RuntimeException | Error e) {
+            for (PendingCheck pendingCheck : batch) {
+                pendingCheck.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void checkLoan(PendingCheck pendingCheck) {
+        try {
+            pendingCheck.result.complete(delegate.checkLoan(pendingCheck.loanRequest));
+        } catch (RuntimeException | Error e) {
+            pendingCheck.result.completeExceptionally(e);
+        }
+    }
+
+    private static LoanResponse await(PendingCheck pendingCheck) {
+        try {
+            return pendingCheck.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Запрос, ожидающий проверки в пачке.
+     */
+    private static final class PendingCheck {
+        final LoanRequest loanRequest;
+        final CompletableFuture<LoanResponse> result = new CompletableFuture<>();
+
+        PendingCheck(LoanRequest loanRequest) {
+            this.loanRequest = loanRequest;
+        }
+    }
+}
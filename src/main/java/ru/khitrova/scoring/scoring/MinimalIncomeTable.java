@@ -0,0 +1,123 @@
+package ru.khitrova.scoring.scoring;
+
+import ru.khitrova.scoring.model.LoanPurpose;
+import ru.khitrova.scoring.model.Sex;
+import ru.khitrova.scoring.model.SourceOfIncome;
+
+/**
+ * Таблица минимального дохода, при котором кредит одобряется.
+ * Кроме дохода, все поля запроса принимают конечное число значений, а доход участвует только
+ * в двух монотонных проверках: сумма в год не больше трети дохода и платеж не больше половины дохода.
+ * Поэтому для каждой комбинации источника дохода, рейтинга, суммы, срока и цели решение сводится
+ * к сравнению дохода (в десятых долях, усеченного к нулю) с заранее рассчитанным минимумом.
+ * Возраст сводится к признаку допустимости для каждого пола.
+ */
+public final class MinimalIncomeTable {
+
+    public static final int MIN_AGE = 0;
+    public static final int MAX_AGE = 200;
+
+    /**
+     * Минимальный доход для комбинаций, которые не одобряются ни при каком доходе.
+     */
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private static final int SOURCES = SourceOfIncome.values().length;
+    private static final int RATINGS = InterestRateTable.MAX_RATING - InterestRateTable.MIN_RATING + 1;
+    private static final int AMOUNTS = InterestRateTable.MAX_AMOUNT_TENTHS - InterestRateTable.MIN_AMOUNT_TENTHS + 1;
+    private static final int PERIODS = FixedPointScoringService.MAX_PERIOD - FixedPointScoringService.MIN_PERIOD + 1;
+    private static final int PURPOSES = LoanPurpose.values().length;
+
+    private static final boolean[][] ELIGIBLE_AGE = buildEligibleAge();
+
+    /**
+     * Минимальный доход в десятых долях для дохода с дробной частью (масштаб 1 и больше)
+     * и для целого дохода (масштаб 0): половина целого дохода округляется до целого.
+     */
+    private static final long[] MIN_INCOME = new long[SOURCES * RATINGS * AMOUNTS * PERIODS * PURPOSES];
+    private static final long[] MIN_WHOLE_INCOME = new long[MIN_INCOME.length];
+
+    /**
+     * Годовой платеж в десятых долях.
+     */
+    private static final short[] ANNUAL_PAYMENT = new short[MIN_INCOME.length];
+
+    static {
+        build();
+    }
+
+    private MinimalIncomeTable() {
+    }
+
+    /**
+     * Индекс комбинации в таблице.
+     */
+    public static int index(int sourceOrdinal, int creditRating, int amountTenths, int repaymentPeriod,
+                            int purposeOrdinal) {
+        return (((sourceOrdinal * RATINGS + creditRating - InterestRateTable.MIN_RATING) * AMOUNTS
+                + amountTenths - InterestRateTable.MIN_AMOUNT_TENTHS) * PERIODS
+                + repaymentPeriod - FixedPointScoringService.MIN_PERIOD) * PURPOSES + purposeOrdinal;
+    }
+
+    /**
+     * Допустим ли возраст для пола.
+     */
+    public static boolean eligibleAge(int age, int sexOrdinal) {
+        return age >= MIN_AGE && age <= MAX_AGE && ELIGIBLE_AGE[sexOrdinal][age];
+    }
+
+    /**
+     * Минимальный доход в десятых долях.
+     * @param wholeIncome {@code true}, если доход передан с масштабом 0
+     */
+    public static long minIncomeTenths(int index, boolean wholeIncome) {
+        return wholeIncome ? MIN_WHOLE_INCOME[index] : MIN_INCOME[index];
+    }
+
+    /**
+     * Годовой платеж в десятых долях.
+     */
+    public static int annualPaymentTenths(int index) {
+        return ANNUAL_PAYMENT[index];
+    }
+
+    private static boolean[][] buildEligibleAge() {
+        boolean[][] eligible = new boolean[Sex.values().length][MAX_AGE + 1];
+        for (int age = MIN_AGE; age <= MAX_AGE; age++) {
+            eligible[Sex.F.ordinal()][age] = age >= 18 && age <= 60;
+            eligible[Sex.M.ordinal()][age] = age >= 18 && age <= 65;
+        }
+        return eligible;
+    }
+
+    private static void build() {
+        for (SourceOfIncome source : SourceOfIncome.values()) {
+            for (int rating = InterestRateTable.MIN_RATING; rating <= InterestRateTable.MAX_RATING; rating++) {
+                int maxAmount = FixedPointScoringService.maxAmountTenths(source, rating);
+                boolean eligible = rating > -2 && source != SourceOfIncome.UNEMPLOYED && maxAmount != 0;
+                for (int amount = InterestRateTable.MIN_AMOUNT_TENTHS; amount <= InterestRateTable.MAX_AMOUNT_TENTHS; amount++) {
+                    for (int period = FixedPointScoringService.MIN_PERIOD; period <= FixedPointScoringService.MAX_PERIOD; period++) {
+                        for (LoanPurpose purpose : LoanPurpose.values()) {
+                            int index = index(source.ordinal(), rating, amount, period, purpose.ordinal());
+                            long payment = FixedPointScoringService.annualPaymentTenths(purpose.ordinal(), rating,
+                                    source.ordinal(), amount, period);
+                            ANNUAL_PAYMENT[index] = (short) payment;
+                            if (!eligible || amount > maxAmount) {
+                                MIN_INCOME[index] = NEVER;
+                                MIN_WHOLE_INCOME[index] = NEVER;
+                                continue;
+                            }
+                            // trunc(доход / 3) >= сумма в год  <=>  доход >= 3 * сумма в год
+                            long byYearAmount = 3L * (amount / period);
+                            // платеж <= trunc(доход / 2) с масштабом дохода
+                            long byPayment = 2 * payment;
+                            long byWholePayment = 20 * ((payment + 9) / 10);
+                            MIN_INCOME[index] = Math.max(byYearAmount, byPayment);
+                            MIN_WHOLE_INCOME[index] = Math.max(byYearAmount, byWholePayment);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
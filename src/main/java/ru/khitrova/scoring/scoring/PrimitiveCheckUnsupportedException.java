@@ -0,0 +1,15 @@
+package ru.khitrova.scoring.scoring;
+
+/**
+ * Сервис не может ответить решением {@link ScoringDecision} по действующему состоянию, например после замены
+ * правил на правила с платежом точнее десятых долей. {@link ScoringDecision#checkLoan(ScoringService, ru.khitrova.scoring.model.LoanRequest)}
+ * в этом случае проверяет запрос через {@link ScoringService#checkLoan(ru.khitrova.scoring.model.LoanRequest)}.
+ */
+public class PrimitiveCheckUnsupportedException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PrimitiveCheckUnsupportedException(String message) {
+        super(message);
+    }
+}
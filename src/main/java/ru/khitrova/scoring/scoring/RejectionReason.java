@@ -0,0 +1,31 @@
+package ru.khitrova.scoring.scoring;
+
+/**
+ * Причина отказа в выдаче кредита - первая не пройденная проверка запроса
+ */
+public enum RejectionReason {
+    /**
+     * Возраст не подходит для пола заемщика
+     */
+    AGE,
+
+    /**
+     * Кредитный рейтинг ниже допустимого
+     */
+    CREDIT_RATING,
+
+    /**
+     * Нет источника дохода
+     */
+    SOURCE_OF_INCOME,
+
+    /**
+     * Запрошенная сумма больше допустимой или сумма в год больше трети дохода
+     */
+    REQUESTED_AMOUNT,
+
+    /**
+     * Годовой платеж больше половины дохода
+     */
+    ANNUAL_PAYMENT
+}
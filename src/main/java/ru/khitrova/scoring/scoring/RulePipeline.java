@@ -0,0 +1,174 @@
+package ru.khitrova.scoring.scoring;
+
+import ru.khitrova.scoring.model.LoanRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Последовательность независимых проверок с остановкой на первой не пройденной.
+ * Переставляемые проверки не зависят друг от друга, поэтому их можно выполнять в любом порядке.
+ * <p>
+ * В адаптивном режиме порядок проверок подбирается по наблюдаемой доле отказов: первой выполняется
+ * проверка с наибольшим отношением доли отказов к стоимости. Доля отказов оценивается по выборке
+ * запросов (примерно каждый {@value #SAMPLE_INTERVAL}-й), для которых выполняются все проверки,
+ * поэтому оценка не зависит от текущего порядка. Порядок пересчитывается каждые
+ * {@value #REORDER_SAMPLES} запросов выборки, после чего накопленная статистика уменьшается вдвое,
+ * чтобы порядок следовал за изменением потока запросов.
+ * <p>
+ * Проверки начиная с номера {@code reorderable} всегда выполняются после остальных в исходном порядке,
+ * и в выборке тоже только после того, как остальные пройдены: такие проверки могут рассчитывать на поля,
+ * которые предыдущие проверки не проверяют (например, необязательный доход), и выполнять их раньше
+ * нельзя без изменения решения.
+ * <p>
+ * Решение от порядка не зависит. Причиной отказа считается проверка, на которой выполнение остановилось:
+ * для запроса, не прошедшего несколько проверок, в адаптивном режиме это может быть не первая проверка
+ * в исходном порядке. Найти первую в исходном порядке можно только выполнив все предшествующие ей проверки,
+ * то есть без выигрыша от нового порядка.
+ */
+public final class RulePipeline {
+
+    public static final int SAMPLE_INTERVAL = 1024;
+    public static final int REORDER_SAMPLES = 64;
+
+    /**
+     * Проверки по номерам. Номер проверки - ее место в исходном порядке.
+     * Проверки выбираются по номеру в одном методе, а не отдельными объектами,
+     * чтобы вызов оставался мономорфным и встраивался компилятором.
+     */
+    public interface Rules {
+
+        /**
+         * @return {@code true}, если запрос проходит проверку с номером {@code rule}
+         */
+        boolean passes(int rule, LoanRequest loanRequest);
+    }
+
+    private final Rules rules;
+    private final RejectionReason[] reasons;
+    private final int[] costs;
+    private final int reorderable;
+    private final boolean adaptive;
+
+    /**
+     * Номера проверок в текущем порядке. Массив не изменяется после публикации.
+     */
+    private volatile int[] order;
+
+    private final long[] rejections;
+    private long samples;
+
+    /**
+     * @param reasons  причины отказа проверок в исходном порядке
+     * @param costs    относительная стоимость проверок (1 - сравнение полей запроса)
+     * @param adaptive подбирать порядок по доле отказов
+     */
+    public RulePipeline(Rules rules, RejectionReason[] reasons, int[] costs, boolean adaptive) {
+        this(rules, reasons, costs, reasons.length, adaptive);
+    }
+
+    /**
+     * @param reorderable количество первых проверок, порядок которых подбирается; остальные выполняются
+     *                    после них в исходном порядке
+     */
+    public RulePipeline(Rules rules, RejectionReason[] reasons, int[] costs, int reorderable, boolean adaptive) {
+        if (reorderable < 0 || reorderable > reasons.length) {
+            throw new IllegalArgumentException("Некорректное количество переставляемых проверок: " + reorderable);
+        }
+        this.rules = rules;
+        this.reasons = reasons.clone();
+        this.costs = costs.clone();
+        this.reorderable = reorderable;
+        this.adaptive = adaptive;
+        this.rejections = new long[reorderable];
+        this.order = new int[reasons.length];
+        Arrays.setAll(order, i -> i);
+    }
+
+    /**
+     * Проверка запроса до первой не пройденной проверки.
+     * @return причина отказа или {@code null}, если все проверки пройдены
+     */
+    public RejectionReason firstFailed(LoanRequest loanRequest) {
+        if (adaptive && ThreadLocalRandom.current().nextInt(SAMPLE_INTERVAL) == 0) {
+            return sample(loanRequest);
+        }
+        for (int rule : order) {
+            if (!rules.passes(rule, loanRequest)) {
+                return reasons[rule];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Причины отказа в текущем порядке выполнения проверок.
+     */
+    public List<RejectionReason> order() {
+        List<RejectionReason> order = new ArrayList<>(reasons.length);
+        for (int rule : this.order) {
+            order.add(reasons[rule]);
+        }
+        return order;
+    }
+
+    /**
+     * Выполнение всех переставляемых проверок с учетом результатов в статистике, затем остальных проверок,
+     * если переставляемые пройдены.
+     */
+    private RejectionReason sample(LoanRequest loanRequest) {
+        RejectionReason reason = null;
+        boolean[] failed = new boolean[reorderable];
+        for (int rule = 0; rule < reorderable; rule++) {
+            failed[rule] = !rules.passes(rule, loanRequest);
+            if (failed[rule] && reason == null) {
+                reason = reasons[rule];
+            }
+        }
+        record(failed);
+        for (int rule = reorderable; reason == null && rule < reasons.length; rule++) {
+            if (!rules.passes(rule, loanRequest)) {
+                reason = reasons[rule];
+            }
+        }
+        return reason;
+    }
+
+    private synchronized void record(boolean[] failed) {
+        for (int rule = 0; rule < failed.length; rule++) {
+            if (failed[rule]) {
+                rejections[rule]++;
+            }
+        }
+        if (++samples < REORDER_SAMPLES) {
+            return;
+        }
+        reorder();
+        samples /= 2;
+        for (int rule = 0; rule < rejections.length; rule++) {
+            rejections[rule] /= 2;
+        }
+    }
+
+    /**
+     * Сортировка переставляемых проверок по убыванию доли отказов на единицу стоимости. Доли отказов
+     * считаются по одной выборке, поэтому сравниваются количества отказов. При равенстве сохраняется
+     * исходный порядок.
+     */
+    private void reorder() {
+        Integer[] rules = new Integer[reorderable];
+        for (int rule = 0; rule < rules.length; rule++) {
+            rules[rule] = rule;
+        }
+        Arrays.sort(rules, Comparator.comparingDouble(rule -> -(double) rejections[rule] / costs[rule]));
+        int[] order = new int[reasons.length];
+        Arrays.setAll(order, i -> i);
+        for (int i = 0; i < rules.length; i++) {
+            order[i] = rules[i];
+        }
+        this.order = order;
+    }
+}
@@ -0,0 +1,126 @@
+package ru.khitrova.scoring.scoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import ru.khitrova.scoring.journal.CacheHitJournalingScoringService;
+import ru.khitrova.scoring.journal.DecisionJournal;
+import ru.khitrova.scoring.journal.JournalingScoringService;
+import ru.khitrova.scoring.journal.SyncPolicy;
+import ru.khitrova.scoring.metrics.MeteredScoringService;
+import ru.khitrova.scoring.metrics.ScoringMetrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Сборка сервиса скоринга: реализация, выбранная свойством {@code scoring.engine}, и обертки над ней.
+ */
+@Configuration
+public class ScoringConfiguration {
+
+    @Bean
+    @Primary
+    public ScoringService scoringService(@Qualifier(ScoringService.ENGINE) ScoringService engine,
+                                         ObjectProvider<MicroBatchingScoringService> microBatching,
+                                         ObjectProvider<DecisionJournal> journal,
+                                         ScoringMetrics scoringMetrics,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${scoring.cache.enabled:false}") boolean cacheEnabled,
+                                         @Value("${scoring.cache.maximum-size:10000}") long cacheMaximumSize) {
+        MicroBatchingScoringService microBatchingScoringService = microBatching.getIfAvailable();
+        DecisionJournal decisionJournal = journal.getIfAvailable();
+        ScoringService scoringService = microBatchingScoringService != null
+                ? microBatchingScoringService : journaled(engine, decisionJournal);
+        if (cacheEnabled) {
+            CachingScoringService cachingScoringService = new CachingScoringService(scoringService, cacheMaximumSize,
+                    rates(engine));
+            CaffeineCacheMetrics.monitor(meterRegistry, cachingScoringService.getCache(), "scoring");
+            scoringService = decisionJournal != null
+                    ? new CacheHitJournalingScoringService(cachingScoringService, decisionJournal)
+                    : cachingScoringService;
+        }
+        return new MeteredScoringService(scoringService, scoringMetrics.getCheckTimer());
+    }
+
+    /**
+     * Сборка одновременных запросов в пачки перед реализацией. Отдельный бин, чтобы поток,
+     * который собирает пачки, останавливался вместе с контекстом. Только в режиме servlet: запрос ждет
+     * свою пачку, а в реактивном режиме сервис вызывается в потоке цикла событий, который ждать не должен.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "scoring.micro-batch.enabled", havingValue = "true")
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MicroBatchingScoringService microBatchingScoringService(
+            @Qualifier(ScoringService.ENGINE) ScoringService engine,
+            ObjectProvider<DecisionJournal> journal,
+            @Value("${scoring.micro-batch.max-size:64}") int maxBatchSize,
+            @Value("${scoring.micro-batch.max-wait-micros:100}") long maxWaitMicros,
+            @Value("${scoring.micro-batch.bypass-concurrency:4}") int bypassConcurrency) {
+        return new MicroBatchingScoringService(journaled(engine, journal.getIfAvailable()), maxBatchSize,
+                TimeUnit.MICROSECONDS.toNanos(maxWaitMicros), bypassConcurrency);
+    }
+
+    /**
+     * Журнал решений находится непосредственно над реализацией, чтобы ставка записывалась по правилам,
+     * которыми проверен запрос. Ответы из кэша записываются над кэшем по ставкам, запомненным с ответом.
+     */
+    private static ScoringService journaled(ScoringService engine, DecisionJournal journal) {
+        if (journal == null) {
+            return engine;
+        }
+        if (engine instanceof VersionedScoringService<?> versioned) {
+            return new JournalingScoringService(versioned, journal);
+        }
+        return new JournalingScoringService(engine, journal, InterestRateTable.INTEREST_RATES);
+    }
+
+    private static Supplier<? extends InterestRates> rates(ScoringService engine) {
+        if (engine instanceof VersionedScoringService<?> versioned) {
+            return versioned::currentRules;
+        }
+        return () -> InterestRateTable.INTEREST_RATES;
+    }
+
+    /**
+     * Журнал решений. Отдельный бин, чтобы записи из буфера дописывались при остановке контекста.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "scoring.journal.enabled", havingValue = "true")
+    public DecisionJournal decisionJournal(MeterRegistry meterRegistry,
+                                           @Value("${scoring.journal.directory:journal}") Path directory,
+                                           @Value("${scoring.journal.segment-size-mb:64}") int segmentSizeMb,
+                                           @Value("${scoring.journal.buffer-size:65536}") int bufferSize,
+                                           @Value("${scoring.journal.sync:batch}") String sync,
+                                           @Value("${scoring.journal.sync-interval-millis:100}") long syncIntervalMillis,
+                                           @Value("${scoring.journal.max-block-micros:0}") long maxBlockMicros)
+            throws IOException {
+        DecisionJournal journal = new DecisionJournal(directory, Math.multiplyExact(segmentSizeMb, 1024 * 1024),
+                bufferSize, SyncPolicy.valueOf(sync.toUpperCase(Locale.ROOT)),
+                TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis), TimeUnit.MICROSECONDS.toNanos(maxBlockMicros));
+        journalCounter(meterRegistry, journal, "written", DecisionJournal::getWritten);
+        journalCounter(meterRegistry, journal, "dropped", DecisionJournal::getDropped);
+        journalCounter(meterRegistry, journal, "failed", DecisionJournal::getFailed);
+        return journal;
+    }
+
+    private static void journalCounter(MeterRegistry meterRegistry, DecisionJournal journal, String result,
+                                       ToDoubleFunction<DecisionJournal> count) {
+        FunctionCounter.builder("scoring.journal.records", journal, count)
+                .description("Записи журнала решений")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
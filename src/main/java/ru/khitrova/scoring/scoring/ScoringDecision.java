@@ -0,0 +1,117 @@
+package ru.khitrova.scoring.scoring;
+
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Решение по запросу в примитивном представлении, которое возвращает
+ * {@link ScoringService#checkLoan(int, Sex, SourceOfIncome, int, int, int, LoanPurpose, long, int)}:
+ * годовой платеж в десятых долях для одобренного запроса или {@link #REJECTED} для отказа.
+ * Решение не требует создания объектов; ответ для JSON создается только для одобренных запросов,
+ * для всех отказов используется общий {@link #REJECTED_RESPONSE}.
+ */
+public final class ScoringDecision {
+
+    /**
+     * В кредите отказано
+     */
+    public static final long REJECTED = -1;
+
+    /**
+     * Ответ для всех отказов: {@code approved=false}, {@code annualPayment=0}.
+     * Один объект на все запросы, поэтому его поля нельзя изменять: обертки сервиса и пакетная проверка
+     * передают его дальше без изменений (проверяется в {@code PrimitiveScoringTest}), а {@link CachingScoringService}
+     * возвращает копию.
+     */
+    public static final LoanResponse REJECTED_RESPONSE = rejectedResponse();
+
+    /**
+     * Наибольшее количество цифр дохода, при котором немасштабированное значение помещается в {@code long}.
+     */
+    private static final int MAX_INCOME_PRECISION = 18;
+
+    private ScoringDecision() {
+    }
+
+    /**
+     * Ответ по решению.
+     */
+    public static LoanResponse toResponse(long decision) {
+        if (decision == REJECTED) {
+            return REJECTED_RESPONSE;
+        }
+        LoanResponse loanResponse = new LoanResponse();
+        loanResponse.approved = true;
+        loanResponse.annualPayment = BigDecimal.valueOf(decision, 1);
+        return loanResponse;
+    }
+
+    /**
+     * Решение по ответу.
+     */
+    public static long toDecision(LoanResponse loanResponse) {
+        if (!Boolean.TRUE.equals(loanResponse.approved)) {
+            return REJECTED;
+        }
+        return loanResponse.annualPayment.setScale(1).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Проверка запроса через примитивный вход сервиса, если запрос в нем представим:
+     * сумма кратна десятой доле и не больше 10, доход заполнен и его немасштабированное значение
+     * помещается в {@code long}, а сервис поддерживает примитивный вход
+     * ({@link ScoringService#supportsPrimitiveCheck()}).
+     * Остальные запросы проверяются через {@link ScoringService#checkLoan(LoanRequest)}.
+     * <p>
+     * {@link ScoringService#supportsPrimitiveCheck()} только подсказка: состояние сервиса может измениться
+     * до проверки (замена правил). Если примитивный вход по действующему состоянию ответить не может
+     * ({@link PrimitiveCheckUnsupportedException}), запрос проверяется через объектный вход, и решение
+     * в любом случае принимается по одной версии правил.
+     */
+    public static LoanResponse checkLoan(ScoringService scoringService, LoanRequest loanRequest) {
+        int amountTenths = InterestRateTable.amountInTenths(loanRequest.requestedAmount);
+        BigDecimal income = loanRequest.lastYearIncome;
+        if (!scoringService.supportsPrimitiveCheck() || amountTenths < 0 || income == null
+                || income.precision() > MAX_INCOME_PRECISION
+                || loanRequest.age == null || loanRequest.sex == null || loanRequest.sourceOfIncome == null
+                || loanRequest.creditRating == null || loanRequest.repaymentPeriod == null
+                || loanRequest.loanPurpose == null) {
+            return scoringService.checkLoan(loanRequest);
+        }
+        long decision;
+        try {
+            decision = scoringService.checkLoan(loanRequest.age, loanRequest.sex, loanRequest.sourceOfIncome,
+                    loanRequest.creditRating, amountTenths, loanRequest.repaymentPeriod, loanRequest.loanPurpose,
+                    income.unscaledValue().longValue(), income.scale());
+        } catch (PrimitiveCheckUnsupportedException e) {
+            return scoringService.checkLoan(loanRequest);
+        }
+        return toResponse(decision);
+    }
+
+    /**
+     * Запрос из примитивного представления.
+     */
+    public static LoanRequest toRequest(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating,
+                                        int amountTenths, int repaymentPeriod, LoanPurpose loanPurpose,
+                                        long incomeUnscaled, int incomeScale) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = age;
+        loanRequest.sex = sex;
+        loanRequest.sourceOfIncome = sourceOfIncome;
+        loanRequest.creditRating = creditRating;
+        loanRequest.requestedAmount = BigDecimal.valueOf(amountTenths, 1);
+        loanRequest.repaymentPeriod = repaymentPeriod;
+        loanRequest.loanPurpose = loanPurpose;
+        loanRequest.lastYearIncome = BigDecimal.valueOf(incomeUnscaled, incomeScale);
+        return loanRequest;
+    }
+
+    private static LoanResponse rejectedResponse() {
+        LoanResponse loanResponse = new LoanResponse();
+        loanResponse.approved = false;
+        loanResponse.annualPayment = BigDecimal.ZERO;
+        return loanResponse;
+    }
+}
@@ -0,0 +1,48 @@
+package ru.khitrova.scoring.scoring;
+
+import java.math.BigDecimal;
+
+/**
+ * Получатель результатов проверки запросов на кредит.
+ * Вызывается в потоке запроса, поэтому реализация не должна блокироваться.
+ */
+public interface ScoringListener {
+
+    /**
+     * Получатель, который ничего не делает.
+     */
+    ScoringListener NOOP = new ScoringListener() {
+        @Override
+        public void approved(BigDecimal annualPayment) {
+        }
+
+        @Override
+        public void approved(long annualPaymentTenths) {
+        }
+
+        @Override
+        public void rejected(RejectionReason reason) {
+        }
+    };
+
+    /**
+     * Кредит одобрен
+     * @param annualPayment годовой платеж
+     */
+    void approved(BigDecimal annualPayment);
+
+    /**
+     * Кредит одобрен, платеж известен в десятых долях.
+     * Реализации на целочисленной арифметике вызывают этот метод, чтобы не создавать {@link BigDecimal}.
+     * @param annualPaymentTenths годовой платеж в десятых долях
+     */
+    default void approved(long annualPaymentTenths) {
+        approved(BigDecimal.valueOf(annualPaymentTenths, 1));
+    }
+
+    /**
+     * В кредите отказано
+     * @param reason первая не пройденная проверка
+     */
+    void rejected(RejectionReason reason);
+}
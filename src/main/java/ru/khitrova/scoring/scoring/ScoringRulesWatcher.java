@@ -0,0 +1,100 @@
+package ru.khitrova.scoring.scoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Повторная загрузка правил {@link CompiledRulesScoringService} при изменении файла правил
+ * ({@code scoring.rules.watch=true}, только для файла на диске).
+ * Если измененный файл не удалось скомпилировать, продолжают действовать прежние правила.
+ */
+@Component
+@ConditionalOnExpression("'${scoring.engine:}' == 'compiled-rules' and ${scoring.rules.watch:false}")
+public class ScoringRulesWatcher implements SmartLifecycle {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScoringRulesWatcher.class);
+
+    private final CompiledRulesScoringService scoringService;
+    private final Path file;
+
+    private volatile WatchService watchService;
+    private volatile Thread thread;
+
+    public ScoringRulesWatcher(CompiledRulesScoringService scoringService) throws IOException {
+        this.scoringService = scoringService;
+        this.file = scoringService.getLocation().getFile().toPath().toAbsolutePath();
+    }
+
+    @Override
+    public void start() {
+        try {
+            watchService = file.getFileSystem().newWatchService();
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось отслеживать файл правил " + file, e);
+        }
+        thread = new Thread(this::watch, "scoring-rules-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        try {
+            watchService.close();
+            thread.join();
+        } catch (IOException e) {
+            LOG.debug("Не удалось закрыть отслеживание файла правил", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        watchService = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return watchService != null;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= file.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // остановка
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reload() {
+        try {
+            long version = scoringService.reload();
+            LOG.info("Загружены правила скоринга из {}, версия {}", file, version);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Не удалось загрузить правила скоринга из {}, действуют прежние правила", file, e);
+        }
+    }
+}
@@ -1,17 +1,58 @@
 package ru.khitrova.scoring.scoring;
 
-import ru.khitrova.scoring.model.LoanRequest;
-import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.model.*;
 
 /**
  *
  */
 public interface ScoringService {
 
+    /**
+     * Квалификатор реализации, которая выполняет расчет, в отличие от оберток над ней.
+     */
+    String ENGINE = "scoringEngine";
+
     /**
      * Интерфейс проверки возможности выдачи кредита и расчета годового платежа
      * @param loanRequest Запрос на возможность выдачи кредита
      * @return LoanResponse - ответ сервиса - возможность выдачи кредита и расчет годового платежа
      */
     LoanResponse checkLoan(LoanRequest loanRequest);
+
+    /**
+     * Проверка запроса в примитивном представлении, без упаковки полей и без создания ответа.
+     * Реализации на целочисленной арифметике проверяют такой запрос без выделения памяти;
+     * реализация по умолчанию собирает {@link LoanRequest} и вызывает {@link #checkLoan(LoanRequest)}.
+     * @param amountTenths запрошенная сумма в десятых долях миллиона
+     * @param incomeUnscaled доход без масштаба: от масштаба дохода зависит округление, поэтому он передается отдельно
+     * @return решение в представлении {@link ScoringDecision}
+     */
+    default long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                           int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale) {
+        return ScoringDecision.toDecision(checkLoan(ScoringDecision.toRequest(age, sex, sourceOfIncome, creditRating,
+                amountTenths, repaymentPeriod, loanPurpose, incomeUnscaled, incomeScale)));
+    }
+
+    /**
+     * Проверяет ли сервис запрос в примитивном представлении сам, а не через {@link #checkLoan(LoanRequest)},
+     * и представим ли любой его ответ решением {@link ScoringDecision}. Если нет, контроллер вызывает
+     * {@link #checkLoan(LoanRequest)} напрямую.
+     */
+    default boolean supportsPrimitiveCheck() {
+        return false;
+    }
+
+    /**
+     * Проверка пачки запросов в столбцах {@link LoanColumns}.
+     * Реализация по умолчанию проверяет строки по одной через примитивный вход; неизвестные порядковые
+     * номера перечислений передаются как {@code null}.
+     * @param decisions решения в представлении {@link ScoringDecision}, не короче пачки
+     */
+    default void checkLoans(LoanColumns columns, long[] decisions) {
+        for (int i = 0; i < columns.size; i++) {
+            decisions[i] = checkLoan(columns.age[i], columns.sexAt(i), columns.sourceOfIncomeAt(i),
+                    columns.creditRating[i], columns.amountTenths[i], columns.repaymentPeriod[i],
+                    columns.loanPurposeAt(i), columns.incomeUnscaled[i], columns.incomeScale[i]);
+        }
+    }
 }
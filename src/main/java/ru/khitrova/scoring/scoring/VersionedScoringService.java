@@ -0,0 +1,29 @@
+package ru.khitrova.scoring.scoring;
+
+import ru.khitrova.scoring.model.*;
+
+/**
+ * Сервис скоринга, правила которого заменяются во время работы.
+ * Вызывающий получает действующую версию правил и передает ее в проверку, поэтому знает, по какой версии
+ * проверен запрос, даже если правила заменены сразу после проверки. По этой же версии рассчитывается ставка.
+ * @param <R> неизменяемая версия правил
+ */
+public interface VersionedScoringService<R extends InterestRates> extends ScoringService {
+
+    /**
+     * Действующая версия правил.
+     */
+    R currentRules();
+
+    /**
+     * Проверка запроса по переданной версии правил.
+     */
+    LoanResponse checkLoan(LoanRequest loanRequest, R rules);
+
+    /**
+     * Проверка запроса в примитивном представлении по переданной версии правил,
+     * см. {@link #checkLoan(int, Sex, SourceOfIncome, int, int, int, LoanPurpose, long, int)}.
+     */
+    long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating, int amountTenths,
+                   int repaymentPeriod, LoanPurpose loanPurpose, long incomeUnscaled, int incomeScale, R rules);
+}
@@ -0,0 +1,109 @@
+package ru.khitrova.scoring.web;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение одновременных запросов {@code POST /scoring/check} по {@link ConcurrencyLimiter}.
+ * Запрос сверх ограничения сразу получает 503 с заголовком {@code Retry-After}, не читая тело и не ожидая
+ * в очереди, поэтому при перегрузке время ответа принятых запросов остается близким к обычному.
+ * Время ответа принятого запроса считается от входа в фильтр до конца обработки; время ответов
+ * с ошибкой сервера в ограничение не попадает. Потоковая проверка (NDJSON) не ограничивается:
+ * время ее ответа зависит от количества строк, а не от загрузки.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "scoring.limit.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String PATH = "/scoring/check";
+
+    private final ConcurrencyLimiter limiter;
+    private final String retryAfter;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  @Value("${scoring.limit.initial-limit:20}") int initialLimit,
+                                  @Value("${scoring.limit.min-limit:4}") int minLimit,
+                                  @Value("${scoring.limit.max-limit:200}") int maxLimit,
+                                  @Value("${scoring.limit.window-size:100}") int windowSize,
+                                  @Value("${scoring.limit.tolerance:1.5}") double tolerance,
+                                  @Value("${scoring.limit.smoothing:0.2}") double smoothing,
+                                  @Value("${scoring.limit.long-window:600}") int longWindow,
+                                  @Value("${scoring.limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.limiter = new ConcurrencyLimiter(initialLimit, minLimit, maxLimit, windowSize, tolerance, smoothing,
+                longWindow);
+        this.retryAfter = Integer.toString(retryAfterSeconds);
+
+        Gauge.builder("scoring.limit.limit", limiter, ConcurrencyLimiter::getLimit)
+                .description("Ограничение одновременных запросов /scoring/check")
+                .register(meterRegistry);
+        Gauge.builder("scoring.limit.in.flight", limiter, ConcurrencyLimiter::getInFlight)
+                .description("Одновременные запросы /scoring/check")
+                .register(meterRegistry);
+        FunctionCounter.builder("scoring.limit.rejected", limiter, ConcurrencyLimiter::getRejected)
+                .description("Запросы /scoring/check, отклоненные с 503 из-за ограничения")
+                .register(meterRegistry);
+        TimeGauge.builder("scoring.limit.rtt", limiter, TimeUnit.NANOSECONDS, ConcurrencyLimiter::getShortRttNanos)
+                .description("Среднее время ответа в последнем окне ограничения")
+                .tag("window", "short")
+                .register(meterRegistry);
+        TimeGauge.builder("scoring.limit.rtt", limiter, TimeUnit.NANOSECONDS, ConcurrencyLimiter::getLongRttNanos)
+                .description("Сглаженное время ответа, с которым сравнивается последнее окно")
+                .tag("window", "long")
+                .register(meterRegistry);
+    }
+
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return !"POST".equals(request.getMethod())
+                || !request.getRequestURI().equals(request.getContextPath() + PATH)
+                || contentType != null && contentType.startsWith(ScoringStreamController.APPLICATION_NDJSON_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            response.setContentLength(0);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            if (failed) {
+                limiter.release();
+            } else {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+}
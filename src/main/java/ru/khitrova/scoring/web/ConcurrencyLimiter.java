@@ -0,0 +1,193 @@
+package ru.khitrova.scoring.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Адаптивное ограничение количества одновременно обрабатываемых запросов по градиенту времени ответа
+ * (алгоритм Gradient2 из Netflix concurrency-limits).
+ * <p>
+ * Время ответа усредняется по окнам из {@code windowSize} запросов (короткое среднее) и сглаживается
+ * экспоненциально по {@code longWindow} окнам (длинное среднее). После каждого окна
+ * {@code градиент = tolerance * длинное / короткое} в пределах [0.5, 1]: пока время ответа не выросло больше
+ * чем в {@code tolerance} раз, градиент равен 1 и ограничение растет на корень из себя (допустимая очередь),
+ * при росте времени ответа ограничение уменьшается пропорционально. Новое ограничение сглаживается
+ * с коэффициентом {@code smoothing} и остается в пределах [{@code minLimit}, {@code maxLimit}].
+ * Если в окне не было и половины ограничения одновременных запросов, нагрузка не показывает предел
+ * и ограничение не меняется.
+ * <p>
+ * Захват и освобождение - CAS счетчика. Время ответа накапливается без блокировок в текущем окне
+ * ({@link Window}), которое публикуется через {@link AtomicReference}: запрос получает в окне номер места,
+ * запрос с последним номером подменяет окно новым, а запросы без места переходят в новое окно, поэтому
+ * каждое время ответа попадает ровно в одно окно. Синхронизирован только пересчет ограничения, который
+ * выполняет запрос, последним добавивший время ответа в окно.
+ */
+public class ConcurrencyLimiter {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double MAX_GRADIENT = 1.0;
+
+    /**
+     * Если длинное среднее превышает короткое больше чем вдвое, оно уменьшается быстрее сглаживания,
+     * чтобы после перегрузки не держать завышенное время ответа как норму.
+     */
+    private static final double DRIFT_RATIO = 2.0;
+    private static final double DRIFT_DECAY = 0.95;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int windowSize;
+    private final double tolerance;
+    private final double smoothing;
+    private final double longWeight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    private final AtomicReference<Window> window = new AtomicReference<>(new Window());
+
+    private double estimatedLimit;
+    private volatile double shortRttNanos;
+    private volatile double longRttNanos;
+
+    /**
+     * @param windowSize количество запросов в окне, по которому считается короткое среднее
+     * @param tolerance допустимый рост времени ответа относительно длинного среднего
+     * @param smoothing вес нового значения ограничения, от 0 до 1
+     * @param longWindow количество окон, по которым сглаживается длинное среднее
+     */
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, int windowSize, double tolerance,
+                              double smoothing, int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit
+                || windowSize < 1 || tolerance < 1 || smoothing <= 0 || smoothing > 1 || longWindow < 1) {
+            throw new IllegalArgumentException("Некорректные параметры ограничения: начальное " + initialLimit
+                    + ", минимум " + minLimit + ", максимум " + maxLimit + ", окно " + windowSize
+                    + ", допуск " + tolerance + ", сглаживание " + smoothing + ", длинное окно " + longWindow);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowSize = windowSize;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longWeight = 2.0 / (longWindow + 1);
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * Захват места для запроса.
+     * @return {@code false}, если одновременных запросов уже столько, сколько позволяет ограничение
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Освобождение места после ответа с учетом времени ответа.
+     */
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        sample(rttNanos, current);
+    }
+
+    /**
+     * Освобождение места без учета времени ответа: для запросов, завершившихся ошибкой,
+     * время ответа которых ничего не говорит о загрузке.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Количество запросов, не получивших места.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Среднее время ответа в последнем окне.
+     */
+    public double getShortRttNanos() {
+        return shortRttNanos;
+    }
+
+    /**
+     * Сглаженное время ответа, с которым сравнивается последнее окно.
+     */
+    public double getLongRttNanos() {
+        return longRttNanos;
+    }
+
+    private void sample(long rttNanos, int inFlight) {
+        Window current;
+        int slot;
+        while ((slot = (current = window.get()).slots.incrementAndGet()) > windowSize) {
+            // окно заполнено, запрос с последним местом сейчас его подменяет
+            Thread.onSpinWait();
+        }
+        if (slot == windowSize) {
+            window.compareAndSet(current, new Window());
+        }
+        current.nanos.add(rttNanos);
+        current.maxInFlight.accumulate(inFlight);
+        if (current.samples.incrementAndGet() == windowSize) {
+            rollover(current);
+        }
+    }
+
+    /**
+     * Пересчет ограничения по завершенному окну: все места окна заняты и время ответа по ним добавлено.
+     */
+    private synchronized void rollover(Window completed) {
+        update((double) completed.nanos.sum() / windowSize, (int) completed.maxInFlight.get());
+    }
+
+    private void update(double rtt, int maxInFlight) {
+        double longRtt = longRttNanos == 0 ? rtt : longRttNanos + (rtt - longRttNanos) * longWeight;
+        if (longRtt / rtt > DRIFT_RATIO) {
+            longRtt *= DRIFT_DECAY;
+        }
+        shortRttNanos = rtt;
+        longRttNanos = longRtt;
+        if (maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(MAX_GRADIENT, tolerance * longRtt / rtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Время ответа одного окна: занятые места, сумма времени ответа, добавленные запросы
+     * и наибольшее количество одновременных запросов.
+     */
+    private static final class Window {
+        private final AtomicInteger slots = new AtomicInteger();
+        private final LongAdder nanos = new LongAdder();
+        private final AtomicInteger samples = new AtomicInteger();
+        private final LongAccumulator maxInFlight = new LongAccumulator(Math::max, 0);
+    }
+}
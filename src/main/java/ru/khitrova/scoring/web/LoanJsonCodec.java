@@ -0,0 +1,406 @@
+package ru.khitrova.scoring.web;
+
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Разбор {@link LoanRequest} и запись {@link LoanResponse} в JSON напрямую по байтам UTF-8, без Jackson databind.
+ * Разбирается только обычный вид запроса: объект из известных полей с числами без экспоненты
+ * и строками без escape-последовательностей. Значения перечислений ищутся сравнением байтов с именами
+ * констант, без создания строк; целые и суммы до 10 берутся из кэшей {@link Integer} и {@link BigDecimal}.
+ * На все остальное, включая некорректный JSON, разбор возвращает {@code null}, и запрос разбирается Jackson,
+ * поэтому результат и ошибки совпадают с Jackson.
+ */
+public final class LoanJsonCodec {
+
+    private static final byte[][] FIELDS = bytes("age", "sex", "sourceOfIncome", "lastYearIncome", "creditRating",
+            "requestedAmount", "repaymentPeriod", "loanPurpose");
+    private static final int AGE = 0;
+    private static final int SEX = 1;
+    private static final int SOURCE_OF_INCOME = 2;
+    private static final int LAST_YEAR_INCOME = 3;
+    private static final int CREDIT_RATING = 4;
+    private static final int REQUESTED_AMOUNT = 5;
+    private static final int REPAYMENT_PERIOD = 6;
+    private static final int LOAN_PURPOSE = 7;
+    private static final int UNKNOWN = -1;
+
+    private static final Sex[] SEXES = Sex.values();
+    private static final SourceOfIncome[] SOURCES = SourceOfIncome.values();
+    private static final LoanPurpose[] PURPOSES = LoanPurpose.values();
+    private static final byte[][] SEX_NAMES = names(SEXES);
+    private static final byte[][] SOURCE_NAMES = names(SOURCES);
+    private static final byte[][] PURPOSE_NAMES = names(PURPOSES);
+
+    private static final byte[] NULL = bytes("null")[0];
+    private static final byte[] TRUE = bytes("true")[0];
+    private static final byte[] FALSE = bytes("false")[0];
+
+    /**
+     * Наибольшее немасштабированное значение в кэше {@link BigDecimal} для масштабов 0 и 1.
+     */
+    private static final int CACHED_DECIMALS = 100;
+    private static final BigDecimal[][] DECIMALS = decimals();
+
+    private static final int MAX_INT_DIGITS = 9;
+    private static final int MAX_DECIMAL_DIGITS = 18;
+
+    private static final byte[] APPROVED = bytes("{\"approved\":")[0];
+    private static final byte[] ANNUAL_PAYMENT = bytes(",\"annualPayment\":")[0];
+
+    private final byte[] json;
+    private final int end;
+    private int position;
+
+    private LoanJsonCodec(byte[] json, int from, int to) {
+        this.json = json;
+        this.position = from;
+        this.end = to;
+    }
+
+    /**
+     * Разбор запроса из байтов {@code json[from, to)} в UTF-8.
+     * @return запрос или {@code null}, если запрос нужно разобрать Jackson
+     */
+    public static LoanRequest readRequest(byte[] json, int from, int to) {
+        return new LoanJsonCodec(json, from, to).readRequest();
+    }
+
+    /**
+     * Ответ в JSON в том же виде, что и у Jackson: {@code approved} и {@code annualPayment} записываются всегда.
+     * @return байты UTF-8 или {@code null} для ответа с ошибками, который нужно записать Jackson
+     */
+    public static byte[] writeResponse(LoanResponse loanResponse) {
+        if (loanResponse.errors != null) {
+            return null;
+        }
+        byte[] approved = loanResponse.approved == null ? NULL : loanResponse.approved ? TRUE : FALSE;
+        BigDecimal payment = loanResponse.annualPayment;
+        byte[] paymentText = payment == null ? NULL : null;
+        int paymentLength = paymentText != null ? paymentText.length : tenthsLength(payment);
+        if (paymentLength < 0) {
+            paymentText = payment.toString().getBytes(StandardCharsets.US_ASCII);
+            paymentLength = paymentText.length;
+        }
+
+        byte[] out = new byte[APPROVED.length + approved.length + ANNUAL_PAYMENT.length + paymentLength + 1];
+        int position = put(out, 0, APPROVED);
+        position = put(out, position, approved);
+        position = put(out, position, ANNUAL_PAYMENT);
+        if (paymentText != null) {
+            position = put(out, position, paymentText);
+        } else {
+            position = putTenths(out, position, paymentLength, payment.unscaledValue().longValue());
+        }
+        out[position] = '}';
+        return out;
+    }
+
+    private LoanRequest readRequest() {
+        LoanRequest loanRequest = new LoanRequest();
+        skipWhitespace();
+        if (!consume('{')) {
+            return null;
+        }
+        skipWhitespace();
+        if (!consume('}')) {
+            do {
+                skipWhitespace();
+                if (!readField(loanRequest)) {
+                    return null;
+                }
+                skipWhitespace();
+            } while (consume(','));
+            if (!consume('}')) {
+                return null;
+            }
+        }
+        skipWhitespace();
+        return position == end ? loanRequest : null;
+    }
+
+    /**
+     * Чтение одного поля с двоеточием и значением.
+     * @return {@code false}, если поле нужно разобрать Jackson
+     */
+    private boolean readField(LoanRequest loanRequest) {
+        int nameStart = position + 1;
+        int nameEnd = readString();
+        if (nameEnd < 0) {
+            return false;
+        }
+        int field = find(FIELDS, nameStart, nameEnd);
+        skipWhitespace();
+        if (!consume(':')) {
+            return false;
+        }
+        skipWhitespace();
+        switch (field) {
+            case AGE:
+                if (!isNull()) {
+                    loanRequest.age = readInteger();
+                    return loanRequest.age != null;
+                }
+                loanRequest.age = null;
+                return true;
+            case CREDIT_RATING:
+                if (!isNull()) {
+                    loanRequest.creditRating = readInteger();
+                    return loanRequest.creditRating != null;
+                }
+                loanRequest.creditRating = null;
+                return true;
+            case REPAYMENT_PERIOD:
+                if (!isNull()) {
+                    loanRequest.repaymentPeriod = readInteger();
+                    return loanRequest.repaymentPeriod != null;
+                }
+                loanRequest.repaymentPeriod = null;
+                return true;
+            case REQUESTED_AMOUNT:
+                if (!isNull()) {
+                    loanRequest.requestedAmount = readDecimal();
+                    return loanRequest.requestedAmount != null;
+                }
+                loanRequest.requestedAmount = null;
+                return true;
+            case LAST_YEAR_INCOME:
+                if (!isNull()) {
+                    loanRequest.lastYearIncome = readDecimal();
+                    return loanRequest.lastYearIncome != null;
+                }
+                loanRequest.lastYearIncome = null;
+                return true;
+            case SEX:
+                if (!isNull()) {
+                    loanRequest.sex = readEnum(SEXES, SEX_NAMES);
+                    return loanRequest.sex != null;
+                }
+                loanRequest.sex = null;
+                return true;
+            case SOURCE_OF_INCOME:
+                if (!isNull()) {
+                    loanRequest.sourceOfIncome = readEnum(SOURCES, SOURCE_NAMES);
+                    return loanRequest.sourceOfIncome != null;
+                }
+                loanRequest.sourceOfIncome = null;
+                return true;
+            case LOAN_PURPOSE:
+                if (!isNull()) {
+                    loanRequest.loanPurpose = readEnum(PURPOSES, PURPOSE_NAMES);
+                    return loanRequest.loanPurpose != null;
+                }
+                loanRequest.loanPurpose = null;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Чтение строки без escape-последовательностей и управляющих символов.
+     * @return позиция закрывающей кавычки или -1
+     */
+    private int readString() {
+        if (!consume('"')) {
+            return -1;
+        }
+        for (int i = position; i < end; i++) {
+            byte b = json[i];
+            if (b == '"') {
+                position = i + 1;
+                return i;
+            }
+            if (b == '\\' || (b >= 0 && b < ' ')) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private <E> E readEnum(E[] constants, byte[][] names) {
+        int start = position + 1;
+        int stringEnd = readString();
+        if (stringEnd < 0) {
+            return null;
+        }
+        int index = find(names, start, stringEnd);
+        return index < 0 ? null : constants[index];
+    }
+
+    /**
+     * Чтение целого числа, которое помещается в {@code int} и не имеет дробной части и экспоненты.
+     */
+    private Integer readInteger() {
+        boolean negative = consume('-');
+        int start = position;
+        int i = start;
+        long value = 0;
+        while (i < end && isDigit(json[i])) {
+            value = value * 10 + (json[i++] - '0');
+        }
+        position = i;
+        int digits = i - start;
+        if (digits == 0 || digits > MAX_INT_DIGITS || (digits > 1 && json[start] == '0') || !atValueEnd()) {
+            return null;
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Чтение десятичного числа без экспоненты с не более чем {@link #MAX_DECIMAL_DIGITS} цифрами.
+     * Масштаб равен количеству цифр после точки, как у {@link BigDecimal#BigDecimal(String)}.
+     */
+    private BigDecimal readDecimal() {
+        boolean negative = consume('-');
+        int start = position;
+        int i = start;
+        long unscaled = 0;
+        while (i < end && isDigit(json[i])) {
+            unscaled = unscaled * 10 + (json[i++] - '0');
+        }
+        int integerDigits = i - start;
+        if (integerDigits == 0 || (integerDigits > 1 && json[start] == '0')) {
+            return null;
+        }
+        int scale = 0;
+        if (i < end && json[i] == '.') {
+            int fractionStart = ++i;
+            while (i < end && isDigit(json[i])) {
+                unscaled = unscaled * 10 + (json[i++] - '0');
+            }
+            scale = i - fractionStart;
+            if (scale == 0) {
+                return null;
+            }
+        }
+        position = i;
+        if (integerDigits + scale > MAX_DECIMAL_DIGITS || !atValueEnd()) {
+            return null;
+        }
+        if (!negative && scale <= 1 && unscaled <= CACHED_DECIMALS) {
+            return DECIMALS[scale][(int) unscaled];
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+
+    private boolean isNull() {
+        return consumeLiteral(NULL);
+    }
+
+    private boolean consumeLiteral(byte[] literal) {
+        int literalEnd = position + literal.length;
+        if (literalEnd > end || !Arrays.equals(json, position, literalEnd, literal, 0, literal.length)) {
+            return false;
+        }
+        int start = position;
+        position = literalEnd;
+        if (!atValueEnd()) {
+            position = start;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Значение закончилось: дальше пробел, запятая, конец объекта или конец входа.
+     */
+    private boolean atValueEnd() {
+        if (position == end) {
+            return true;
+        }
+        byte b = json[position];
+        return b == ',' || b == '}' || isWhitespace(b);
+    }
+
+    private boolean consume(char expected) {
+        if (position < end && json[position] == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        int i = position;
+        while (i < end && isWhitespace(json[i])) {
+            i++;
+        }
+        position = i;
+    }
+
+    private int find(byte[][] names, int from, int to) {
+        for (int i = 0; i < names.length; i++) {
+            byte[] name = names[i];
+            if (name.length == to - from && Arrays.equals(json, from, to, name, 0, name.length)) {
+                return i;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * Длина записи неотрицательного числа с масштабом 1 или -1, если число нужно записать через {@link BigDecimal#toString()}.
+     */
+    private static int tenthsLength(BigDecimal value) {
+        if (value.scale() != 1 || value.signum() < 0 || value.precision() > MAX_DECIMAL_DIGITS) {
+            return -1;
+        }
+        // цифры, точка и ноль целой части для значений меньше 1
+        return Math.max(value.precision(), 2) + 1;
+    }
+
+    private static int putTenths(byte[] out, int position, int length, long tenths) {
+        int end = position + length;
+        out[end - 1] = (byte) ('0' + tenths % 10);
+        out[end - 2] = '.';
+        long integer = tenths / 10;
+        for (int i = end - 3; i >= position; i--) {
+            out[i] = (byte) ('0' + integer % 10);
+            integer /= 10;
+        }
+        return end;
+    }
+
+    private static int put(byte[] out, int position, byte[] bytes) {
+        System.arraycopy(bytes, 0, out, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    private static byte[][] bytes(String... values) {
+        byte[][] bytes = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = values[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    private static byte[][] names(Enum<?>[] constants) {
+        byte[][] names = new byte[constants.length][];
+        for (Enum<?> constant : constants) {
+            names[constant.ordinal()] = constant.name().getBytes(StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    private static BigDecimal[][] decimals() {
+        BigDecimal[][] decimals = new BigDecimal[2][CACHED_DECIMALS + 1];
+        for (int scale = 0; scale < decimals.length; scale++) {
+            for (int unscaled = 0; unscaled <= CACHED_DECIMALS; unscaled++) {
+                decimals[scale][unscaled] = BigDecimal.valueOf(unscaled, scale);
+            }
+        }
+        return decimals;
+    }
+}
@@ -0,0 +1,142 @@
+package ru.khitrova.scoring.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Чтение {@link LoanRequest} и запись {@link LoanResponse} в JSON через {@link LoanJsonCodec}.
+ * Запросы, которые {@link LoanJsonCodec} не разбирает, и ответы с ошибками передаются Jackson
+ * ({@link MappingJackson2HttpMessageConverter} с тем же {@link ObjectMapper}), поэтому ошибки разбора
+ * остаются прежними. Частые ответы берутся готовыми из {@link LoanResponseCache} и записываются в поток
+ * ответа вместе с {@code Content-Length}. Попадания и промахи кэша считаются метрикой
+ * {@code scoring.json.response.cache}, а записанные из кэша байты — {@code scoring.json.response.cache.bytes}.
+ * Отключается {@code scoring.json.fast-codec=false}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "scoring.json.fast-codec", havingValue = "true", matchIfMissing = true)
+public class LoanJsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private static final String RESPONSE_CACHE = "scoring.json.response.cache";
+
+    private final MappingJackson2HttpMessageConverter jackson;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter cachedBytes;
+
+    public LoanJsonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry registry) {
+        super(MediaType.APPLICATION_JSON);
+        this.jackson = new MappingJackson2HttpMessageConverter(objectMapper);
+        this.cacheHits = Counter.builder(RESPONSE_CACHE)
+                .description("Ответы, записанные из кэша готовых байтов")
+                .tag("result", "hit")
+                .register(registry);
+        this.cacheMisses = Counter.builder(RESPONSE_CACHE)
+                .description("Ответы, записанные из кэша готовых байтов")
+                .tag("result", "miss")
+                .register(registry);
+        this.cachedBytes = Counter.builder(RESPONSE_CACHE + ".bytes")
+                .description("Байты ответов, записанные из кэша без сериализации")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == LoanRequest.class || clazz == LoanResponse.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == LoanRequest.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return clazz == LoanResponse.class && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        byte[] body = StreamUtils.copyToByteArray(inputMessage.getBody());
+        if (isUtf8(inputMessage.getHeaders().getContentType())) {
+            LoanRequest loanRequest = LoanJsonCodec.readRequest(body, 0, body.length);
+            if (loanRequest != null) {
+                return loanRequest;
+            }
+        }
+        return jackson.read(clazz, new BufferedInputMessage(body, inputMessage.getHeaders()));
+    }
+
+    @Override
+    protected Long getContentLength(Object object, MediaType contentType) {
+        byte[] cached = LoanResponseCache.get((LoanResponse) object);
+        return cached == null ? null : (long) cached.length;
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException {
+        LoanResponse loanResponse = (LoanResponse) object;
+        byte[] cached = LoanResponseCache.get(loanResponse);
+        if (cached != null) {
+            cacheHits.increment();
+            cachedBytes.increment(cached.length);
+            outputMessage.getBody().write(cached);
+            return;
+        }
+        cacheMisses.increment();
+        byte[] json = LoanJsonCodec.writeResponse(loanResponse);
+        if (json == null) {
+            jackson.write(object, outputMessage.getHeaders().getContentType(), outputMessage);
+            return;
+        }
+        outputMessage.getBody().write(json);
+    }
+
+    private static boolean isUtf8(MediaType contentType) {
+        Charset charset = contentType == null ? null : contentType.getCharset();
+        return charset == null || charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Прочитанное тело запроса для повторного разбора Jackson.
+     */
+    private static final class BufferedInputMessage implements HttpInputMessage {
+        private final byte[] body;
+        private final HttpHeaders headers;
+
+        BufferedInputMessage(byte[] body, HttpHeaders headers) {
+            this.body = body;
+            this.headers = headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
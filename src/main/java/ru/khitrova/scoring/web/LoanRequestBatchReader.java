@@ -0,0 +1,66 @@
+package ru.khitrova.scoring.web;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.scoring.BatchScoringService;
+import ru.khitrova.scoring.scoring.BatchSizeExceededException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение пакета запросов (JSON-массива) потоковым парсером с проверкой размера пакета.
+ * Пакет больше {@code scoring.batch.max-size} отклоняется, как только начинается лишний элемент:
+ * остаток тела не разбирается, и в памяти не бывает больше допустимого количества запросов.
+ */
+@Component
+public class LoanRequestBatchReader {
+
+    private static final String NOT_ARRAY_ERROR = "Пакет запросов должен быть массивом JSON";
+    private static final String PARSE_ERROR = "Некорректный JSON: ";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final int maxBatchSize;
+
+    public LoanRequestBatchReader(ObjectMapper objectMapper, BatchScoringService batchScoringService) {
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(LoanRequest.class);
+        this.maxBatchSize = batchScoringService.getMaxBatchSize();
+    }
+
+    /**
+     * @return запросы в порядке элементов массива, {@code null} для элементов {@code null}
+     * @throws BatchSizeExceededException если элементов больше {@code scoring.batch.max-size}
+     * @throws HttpMessageNotReadableException если тело не массив или JSON некорректен
+     */
+    public List<LoanRequest> read(HttpInputMessage inputMessage) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputMessage.getBody())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new HttpMessageNotReadableException(NOT_ARRAY_ERROR, inputMessage);
+            }
+            List<LoanRequest> loanRequests = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new HttpMessageNotReadableException(NOT_ARRAY_ERROR, inputMessage);
+                }
+                if (loanRequests.size() == maxBatchSize) {
+                    throw new BatchSizeExceededException(maxBatchSize);
+                }
+                loanRequests.add(token == JsonToken.VALUE_NULL ? null : requestReader.readValue(parser));
+            }
+            return loanRequests;
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException(PARSE_ERROR + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+}
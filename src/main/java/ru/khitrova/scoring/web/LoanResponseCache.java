@@ -0,0 +1,53 @@
+package ru.khitrova.scoring.web;
+
+import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.scoring.ScoringDecision;
+
+import java.math.BigDecimal;
+
+/**
+ * Готовые байты JSON для частых ответов: отказа и одобрения с годовым платежом в десятых
+ * от 0.0 до {@code (CACHED_PAYMENTS - 1) / 10}. Платеж ограничен суммой и сроком кредита, поэтому
+ * такая таблица покрывает все ответы сервиса скоринга, и закодировать ее целиком при загрузке класса
+ * дешевле и проще, чем считать частоту ответов. Массивы общие и не должны изменяться.
+ */
+public final class LoanResponseCache {
+
+    /**
+     * Количество платежей в десятых, для которых закодированы ответы с одобрением.
+     */
+    public static final int CACHED_PAYMENTS = 1000;
+
+    private static final byte[] REJECTED = LoanJsonCodec.writeResponse(ScoringDecision.REJECTED_RESPONSE);
+    private static final byte[][] APPROVED = approved();
+
+    private LoanResponseCache() {
+    }
+
+    /**
+     * Байты JSON ответа в том же виде, что и у {@link LoanJsonCodec#writeResponse(LoanResponse)}.
+     * @return общий массив или {@code null}, если ответа нет в кэше
+     */
+    public static byte[] get(LoanResponse loanResponse) {
+        BigDecimal payment = loanResponse.annualPayment;
+        if (loanResponse.errors != null || loanResponse.approved == null || payment == null) {
+            return null;
+        }
+        if (!loanResponse.approved) {
+            return payment.scale() == 0 && payment.signum() == 0 ? REJECTED : null;
+        }
+        if (payment.scale() != 1 || payment.signum() < 0 || payment.precision() > 4) {
+            return null;
+        }
+        int tenths = payment.unscaledValue().intValue();
+        return tenths < CACHED_PAYMENTS ? APPROVED[tenths] : null;
+    }
+
+    private static byte[][] approved() {
+        byte[][] approved = new byte[CACHED_PAYMENTS][];
+        for (int tenths = 0; tenths < CACHED_PAYMENTS; tenths++) {
+            approved[tenths] = LoanJsonCodec.writeResponse(ScoringDecision.toResponse(tenths));
+        }
+        return approved;
+    }
+}
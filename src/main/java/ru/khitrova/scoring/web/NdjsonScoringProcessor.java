@@ -0,0 +1,83 @@
+package ru.khitrova.scoring.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.scoring.BatchScoringService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+
+/**
+ * Потоковая проверка запросов в формате NDJSON (один JSON-объект на строку).
+ * Запросы читаются потоковым парсером по одному, ответ на каждый сразу записывается в выходной поток,
+ * который сбрасывается порциями. Объем занятой памяти не зависит от количества запросов.
+ */
+@Component
+public class NdjsonScoringProcessor {
+
+    private static final String PARSE_ERROR = "Некорректный JSON: ";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader requestReader;
+    private final ObjectWriter responseWriter;
+    private final BatchScoringService batchScoringService;
+    private final int flushSize;
+
+    public NdjsonScoringProcessor(ObjectMapper objectMapper,
+                                  BatchScoringService batchScoringService,
+                                  @Value("${scoring.stream.flush-size:256}") int flushSize) {
+        this.objectMapper = objectMapper;
+        this.requestReader = objectMapper.readerFor(LoanRequest.class);
+        this.responseWriter = objectMapper.writerFor(LoanResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.batchScoringService = batchScoringService;
+        this.flushSize = flushSize;
+    }
+
+    /**
+     * Проверка всех запросов из входного потока.
+     * Ошибки валидации возвращаются в строке ответа на запрос. После синтаксической ошибки JSON
+     * записывается строка с ошибкой, и обработка прекращается.
+     * @return количество записанных строк ответа
+     */
+    public long process(InputStream inputStream, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    LoanRequest loanRequest = token == JsonToken.VALUE_NULL ? null : requestReader.readValue(parser);
+                    write(generator, batchScoringService.checkLoan(loanRequest));
+                    if (++count % flushSize == 0) {
+                        generator.flush();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                LoanResponse loanResponse = new LoanResponse();
+                loanResponse.errors = Collections.singletonList(PARSE_ERROR + e.getOriginalMessage());
+                write(generator, loanResponse);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void write(JsonGenerator generator, LoanResponse loanResponse) throws IOException {
+        responseWriter.writeValue(generator, loanResponse);
+        generator.writeRaw('\n');
+    }
+}
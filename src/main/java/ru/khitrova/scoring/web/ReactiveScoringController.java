@@ -0,0 +1,57 @@
+package ru.khitrova.scoring.web;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+import ru.khitrova.scoring.model.LoanRequest;
+import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.scoring.LoanRequestValidator;
+import ru.khitrova.scoring.scoring.ScoringDecision;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import jakarta.validation.Valid;
+
+/**
+ * Проверка запроса на кредит в реактивном режиме (Spring WebFlux, {@code spring.main.web-application-type=reactive}).
+ * Контракт тот же, что у {@link ScoringController}: ошибки валидации возвращаются с кодом 400 и списком
+ * нарушений в {@code errors}. Сервис скоринга не блокируется, поэтому вызывается в потоке обработки запроса;
+ * сборка запросов в пачки, при которой запрос ждет пачку, в реактивном режиме не включается.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(
+        value = "/scoring",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+)
+public class ReactiveScoringController {
+
+    private final ScoringService scoringService;
+
+    private final LoanRequestValidator loanRequestValidator;
+
+    public ReactiveScoringController(ScoringService scoringService, LoanRequestValidator loanRequestValidator) {
+        this.scoringService = scoringService;
+        this.loanRequestValidator = loanRequestValidator;
+    }
+
+    /**
+     * {@code @Valid LoanRequest} проверяется {@link LoanRequestValidator} вместо Bean Validation.
+     */
+    @InitBinder
+    public void initBinder(WebDataBinder binder) {
+        if (binder.getTarget() instanceof LoanRequest) {
+            binder.setValidator(loanRequestValidator);
+        }
+    }
+
+    @PostMapping(value = "/check")
+    public Mono<LoanResponse> checkLoan(@Valid @RequestBody(required = false) Mono<LoanRequest> loanRequest) {
+        return loanRequest
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Required request body is missing")))
+                .map(request -> ScoringDecision.checkLoan(scoringService, request));
+    }
+}
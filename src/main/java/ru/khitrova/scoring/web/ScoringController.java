@@ -1,15 +1,24 @@
 package ru.khitrova.scoring.web;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 import ru.khitrova.scoring.model.LoanRequest;
 import ru.khitrova.scoring.model.LoanResponse;
+import ru.khitrova.scoring.scoring.BatchScoringService;
+import ru.khitrova.scoring.scoring.LoanRequestValidator;
+import ru.khitrova.scoring.scoring.ScoringDecision;
 import ru.khitrova.scoring.scoring.ScoringService;
 
-import javax.validation.Valid;
-import javax.validation.constraints.NotNull;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import java.io.IOException;
+import java.util.List;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(
         value = "/scoring",
         consumes = MediaType.APPLICATION_JSON_VALUE,
@@ -18,13 +27,42 @@ import javax.validation.constraints.NotNull;
 public class ScoringController {
 
     private final ScoringService scoringService;
+    private final BatchScoringService batchScoringService;
+    private final LoanRequestBatchReader batchReader;
 
-    public ScoringController(ScoringService scoringService) {
+    private final LoanRequestValidator loanRequestValidator;
+
+    public ScoringController(ScoringService scoringService, BatchScoringService batchScoringService,
+                             LoanRequestBatchReader batchReader, LoanRequestValidator loanRequestValidator) {
         this.scoringService = scoringService;
+        this.batchScoringService = batchScoringService;
+        this.batchReader = batchReader;
+        this.loanRequestValidator = loanRequestValidator;
+    }
+
+    /**
+     * {@code @Valid LoanRequest} проверяется {@link LoanRequestValidator} вместо Bean Validation.
+     * Ограничений Bean Validation на аргументах методов нет: с ними Spring включает проверку аргументов,
+     * и запрос проверялся бы еще раз через Bean Validation. Пустое тело отклоняет {@code @RequestBody}.
+     */
+    @InitBinder
+    public void initBinder(WebDataBinder binder) {
+        if (binder.getTarget() instanceof LoanRequest) {
+            binder.setValidator(loanRequestValidator);
+        }
     }
 
     @PostMapping(value = "/check")
-    public LoanResponse checkLoan(@NotNull @Valid @RequestBody LoanRequest loanRequest) {
-        return scoringService.checkLoan(loanRequest);
+    public LoanResponse checkLoan(@Valid @RequestBody LoanRequest loanRequest) {
+        return ScoringDecision.checkLoan(scoringService, loanRequest);
+    }
+
+    /**
+     * Тело читается {@link LoanRequestBatchReader}, а не конвертером сообщений, чтобы размер пакета
+     * проверялся во время разбора.
+     */
+    @PostMapping(value = "/check-batch")
+    public List<LoanResponse> checkLoans(HttpServletRequest request) throws IOException {
+        return batchScoringService.checkLoans(batchReader.read(new ServletServerHttpRequest(request)));
     }
 }
@@ -0,0 +1,64 @@
+package ru.khitrova.scoring.web;
+
+import jakarta.servlet.RequestDispatcher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.error.ErrorAttributeOptions;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.reactive.function.server.ServerRequest;
+
+import java.util.Map;
+
+/**
+ * Тело ответа с ошибкой для {@code /scoring}: стандартные атрибуты ошибки Spring Boot вместе с текстом
+ * ошибки ({@code message}) и нарушениями валидации ({@code errors}). Остальные адреса приложения отвечают
+ * без текста ошибки, как задано свойствами {@code server.error.*}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ScoringErrorConfiguration {
+
+    private static final String SCORING_PATH = "/scoring/";
+
+    private static final ErrorAttributeOptions.Include[] SCORING_INCLUDES = {
+            ErrorAttributeOptions.Include.MESSAGE,
+            ErrorAttributeOptions.Include.BINDING_ERRORS
+    };
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public org.springframework.boot.web.servlet.error.DefaultErrorAttributes servletErrorAttributes() {
+        return new ServletScoringErrorAttributes();
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public org.springframework.boot.web.reactive.error.DefaultErrorAttributes reactiveErrorAttributes() {
+        return new ReactiveScoringErrorAttributes();
+    }
+
+    private static ErrorAttributeOptions options(Object path, ErrorAttributeOptions options) {
+        return path instanceof String value && value.startsWith(SCORING_PATH)
+                ? options.including(SCORING_INCLUDES) : options;
+    }
+
+    private static final class ServletScoringErrorAttributes
+            extends org.springframework.boot.web.servlet.error.DefaultErrorAttributes {
+
+        @Override
+        public Map<String, Object> getErrorAttributes(WebRequest webRequest, ErrorAttributeOptions options) {
+            Object path = webRequest.getAttribute(RequestDispatcher.ERROR_REQUEST_URI, RequestAttributes.SCOPE_REQUEST);
+            return super.getErrorAttributes(webRequest, options(path, options));
+        }
+    }
+
+    private static final class ReactiveScoringErrorAttributes
+            extends org.springframework.boot.web.reactive.error.DefaultErrorAttributes {
+
+        @Override
+        public Map<String, Object> getErrorAttributes(ServerRequest request, ErrorAttributeOptions options) {
+            return super.getErrorAttributes(request, options(request.path(), options));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package ru.khitrova.scoring.web;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.khitrova.scoring.scoring.CompiledRulesScoringService;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Действующая версия правил {@link CompiledRulesScoringService} ({@code GET /actuator/scoringrules})
+ * и их повторная загрузка из файла ({@code POST /actuator/scoringrules}).
+ */
+@Component
+@Endpoint(id = "scoringrules")
+@ConditionalOnProperty(name = "scoring.engine", havingValue = "compiled-rules")
+public class ScoringRulesEndpoint {
+
+    private final CompiledRulesScoringService scoringService;
+
+    public ScoringRulesEndpoint(CompiledRulesScoringService scoringService) {
+        this.scoringService = scoringService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> rules() {
+        Map<String, Object> rules = new LinkedHashMap<>();
+        rules.put("version", scoringService.getVersion());
+        rules.put("location", String.valueOf(scoringService.getLocation()));
+        return rules;
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() throws IOException {
+        scoringService.reload();
+        return rules();
+    }
+}
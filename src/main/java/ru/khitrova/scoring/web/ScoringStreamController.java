@@ -0,0 +1,38 @@
+package ru.khitrova.scoring.web;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Потоковая проверка запросов в формате NDJSON по тому же адресу, что и {@link ScoringController}.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping(
+        value = "/scoring",
+        consumes = ScoringStreamController.APPLICATION_NDJSON_VALUE,
+        produces = ScoringStreamController.APPLICATION_NDJSON_VALUE
+)
+public class ScoringStreamController {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final NdjsonScoringProcessor ndjsonScoringProcessor;
+
+    public ScoringStreamController(NdjsonScoringProcessor ndjsonScoringProcessor) {
+        this.ndjsonScoringProcessor = ndjsonScoringProcessor;
+    }
+
+    @PostMapping(value = "/check")
+    public void checkLoans(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        ndjsonScoringProcessor.process(request.getInputStream(), response.getOutputStream());
+    }
+}
@@ -0,0 +1,161 @@
+package ru.khitrova.scoring.controller;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Тесты пакетной проверки запросов.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"scoring.batch.max-size=500", "scoring.batch.parallel-threshold=16"}
+)
+public class BatchScoringControllerTest {
+
+    private static final String URL_PATTERN = "http://localhost:%s/scoring/check-batch";
+
+    private final ScoringService scoringService = new InMemoryScoringService();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private LoanRequest loanRequest(int age, double requestedAmount, int repaymentPeriod) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = age;
+        loanRequest.sex = Sex.F;
+        loanRequest.requestedAmount = BigDecimal.valueOf(requestedAmount);
+        loanRequest.creditRating = 1;
+        loanRequest.lastYearIncome = BigDecimal.TEN;
+        loanRequest.sourceOfIncome = SourceOfIncome.EMPLOYEE;
+        loanRequest.loanPurpose = LoanPurpose.CAR;
+        loanRequest.repaymentPeriod = repaymentPeriod;
+
+        return loanRequest;
+    }
+
+    private ResponseEntity<LoanResponse[]> post(List<LoanRequest> loanRequests) {
+        return restTemplate.postForEntity(String.format(URL_PATTERN, port), loanRequests, LoanResponse[].class);
+    }
+
+    @Test
+    public void perItemValidationTest() {
+        LoanRequest invalidAge = loanRequest(201, 1, 2);
+        LoanRequest invalidAmountAndPeriod = loanRequest(30, 1, 2);
+        invalidAmountAndPeriod.requestedAmount = null;
+        invalidAmountAndPeriod.repaymentPeriod = 21;
+        List<LoanRequest> loanRequests = Arrays.asList(
+                loanRequest(30, 1, 2),
+                invalidAge,
+                null,
+                invalidAmountAndPeriod,
+                loanRequest(17, 1, 2)
+        );
+
+        ResponseEntity<LoanResponse[]> response = post(loanRequests);
+
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        LoanResponse[] loanResponses = response.getBody();
+        Assert.assertNotNull(loanResponses);
+        Assert.assertEquals(loanRequests.size(), loanResponses.length);
+
+        Assert.assertTrue(loanResponses[0].approved);
+        Assert.assertNull(loanResponses[0].errors);
+
+        Assert.assertNull(loanResponses[1].approved);
+        Assert.assertEquals(Collections.singletonList("Возраст не может быть больше 200"), loanResponses[1].errors);
+
+        Assert.assertEquals(Collections.singletonList("Запрос не может быть null"), loanResponses[2].errors);
+
+        Assert.assertEquals(Arrays.asList("Срок не может быть больше 20", "Сумма не может быть null"),
+                loanResponses[3].errors);
+
+        Assert.assertFalse(loanResponses[4].approved);
+        Assert.assertNull(loanResponses[4].errors);
+    }
+
+    @Test
+    public void parallelBatchKeepsOrderTest() {
+        List<LoanRequest> loanRequests = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            loanRequests.add(loanRequest(16 + i % 50, (i % 50 + 1) / 10.0, i % 20 + 1));
+        }
+
+        ResponseEntity<LoanResponse[]> response = post(loanRequests);
+
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        LoanResponse[] loanResponses = response.getBody();
+        Assert.assertNotNull(loanResponses);
+        Assert.assertEquals(loanRequests.size(), loanResponses.length);
+        for (int i = 0; i < loanResponses.length; i++) {
+            LoanResponse expected = scoringService.checkLoan(loanRequests.get(i));
+            Assert.assertEquals("Запрос " + i, expected.approved, loanResponses[i].approved);
+            Assert.assertEquals("Запрос " + i, 0, expected.annualPayment.compareTo(loanResponses[i].annualPayment));
+        }
+    }
+
+    @Test
+    public void tooLargeBatchTest() {
+        List<LoanRequest> loanRequests = Collections.nCopies(501, loanRequest(30, 1, 2));
+
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                String.format(URL_PATTERN, port),
+                loanRequests,
+                String.class
+        );
+
+        Assert.assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+        Assert.assertTrue(response.getBody().contains("Размер пакета не может быть больше 500"));
+    }
+
+    /**
+     * Размер пакета проверяется во время разбора: лишний элемент отклоняется до разбора остатка тела.
+     */
+    @Test
+    public void tooLargeBatchStopsReadingTest() {
+        String element = "{\"age\":30,\"sex\":\"F\",\"sourceOfIncome\":\"EMPLOYEE\",\"requestedAmount\":1,"
+                + "\"creditRating\":1,\"repaymentPeriod\":2,\"loanPurpose\":\"CAR\",\"lastYearIncome\":10}";
+        String body = "[" + String.join(",", Collections.nCopies(501, element)) + ", not json";
+
+        ResponseEntity<String> response = postJson(body);
+
+        Assert.assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+    }
+
+    @Test
+    public void notArrayTest() {
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, postJson("{\"age\":30}").getStatusCode());
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, postJson("[{\"age\":30}").getStatusCode());
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, postJson("").getStatusCode());
+    }
+
+    private ResponseEntity<String> postJson(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.postForEntity(String.format(URL_PATTERN, port), new HttpEntity<>(body, headers),
+                String.class);
+    }
+}
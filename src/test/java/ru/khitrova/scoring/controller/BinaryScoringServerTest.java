@@ -0,0 +1,197 @@
+package ru.khitrova.scoring.controller;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.khitrova.scoring.binary.BinaryProtocol;
+import ru.khitrova.scoring.binary.BinaryScoringClient;
+import ru.khitrova.scoring.binary.BinaryScoringServer;
+import ru.khitrova.scoring.model.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Тесты двоичного протокола скоринга.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"scoring.binary.enabled=true", "scoring.binary.host=localhost", "scoring.binary.port=0"})
+public class BinaryScoringServerTest {
+
+    private static final String URL_PATTERN = "http://localhost:%s/scoring/check";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BinaryScoringServer server;
+
+    private LoanRequest loanRequest(int age, String income, int amountTenths, int repaymentPeriod) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = age;
+        loanRequest.sex = Sex.M;
+        loanRequest.requestedAmount = BigDecimal.valueOf(amountTenths, 1);
+        loanRequest.creditRating = 1;
+        loanRequest.lastYearIncome = new BigDecimal(income);
+        loanRequest.sourceOfIncome = SourceOfIncome.OWN_BUSINESS;
+        loanRequest.loanPurpose = LoanPurpose.CONSUMER;
+        loanRequest.repaymentPeriod = repaymentPeriod;
+
+        return loanRequest;
+    }
+
+    private BinaryScoringClient client() throws IOException {
+        return new BinaryScoringClient("localhost", server.getPort());
+    }
+
+    @Test
+    public void approvedAndRejectedTest() throws IOException {
+        try (BinaryScoringClient client = client()) {
+            LoanResponse approved = client.checkLoan(loanRequest(30, "10", 5, 1));
+            Assert.assertEquals(true, approved.approved);
+            Assert.assertEquals(new BigDecimal("0.5"), approved.annualPayment);
+            Assert.assertNull(approved.errors);
+
+            LoanResponse rejected = client.checkLoan(loanRequest(16, "10", 5, 1));
+            Assert.assertEquals(false, rejected.approved);
+            Assert.assertEquals(BigDecimal.ZERO, rejected.annualPayment);
+        }
+    }
+
+    @Test
+    public void sameAsHttpTest() throws IOException {
+        List<LoanRequest> loanRequests = new ArrayList<>();
+        for (String income : new String[]{"1", "1.0", "2", "2.0", "20", "2E+1", "0.35", "100"}) {
+            for (int amountTenths = 1; amountTenths <= 100; amountTenths += 11) {
+                for (int period = 1; period <= 20; period += 6) {
+                    loanRequests.add(loanRequest(40, income, amountTenths, period));
+                }
+            }
+        }
+
+        List<LoanResponse> binaryResponses;
+        try (BinaryScoringClient client = client()) {
+            binaryResponses = client.checkLoans(loanRequests);
+        }
+
+        Assert.assertEquals(loanRequests.size(), binaryResponses.size());
+        for (int i = 0; i < loanRequests.size(); i++) {
+            LoanResponse httpResponse = restTemplate.postForObject(
+                    String.format(URL_PATTERN, port), loanRequests.get(i), LoanResponse.class);
+            Assert.assertEquals("Запрос " + i, httpResponse.approved, binaryResponses.get(i).approved);
+            Assert.assertEquals("Запрос " + i, 0,
+                    httpResponse.annualPayment.compareTo(binaryResponses.get(i).annualPayment));
+        }
+    }
+
+    @Test
+    public void pipeliningTest() throws IOException {
+        List<LoanRequest> loanRequests = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            loanRequests.add(loanRequest(14 + i % 60, "10", 5, 1));
+        }
+
+        try (BinaryScoringClient client = client()) {
+            List<LoanResponse> loanResponses = client.checkLoans(loanRequests);
+            Assert.assertEquals(loanRequests.size(), loanResponses.size());
+            for (int i = 0; i < loanRequests.size(); i++) {
+                int age = loanRequests.get(i).age;
+                Assert.assertEquals("Возраст " + age, age >= 18 && age <= 65, loanResponses.get(i).approved);
+            }
+        }
+    }
+
+    @Test
+    public void invalidRequestTest() throws IOException {
+        LoanRequest loanRequest = loanRequest(30, "10", 5, 1);
+        loanRequest.age = 201;
+        loanRequest.sex = null;
+
+        try (BinaryScoringClient client = client()) {
+            LoanResponse loanResponse = client.checkLoan(loanRequest);
+            Assert.assertNull(loanResponse.approved);
+            Assert.assertNotNull(loanResponse.errors);
+
+            Assert.assertEquals(true, client.checkLoan(loanRequest(30, "10", 5, 1)).approved);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void valueOutOfFrameTest() throws IOException {
+        LoanRequest loanRequest = loanRequest(30, "10", 5, 1);
+        loanRequest.lastYearIncome = new BigDecimal("1E+30").add(BigDecimal.ONE);
+
+        try (BinaryScoringClient client = client()) {
+            client.checkLoan(loanRequest);
+        }
+    }
+
+    @Test
+    public void malformedFrameTest() throws IOException {
+        ByteBuffer request = ByteBuffer.allocate(BinaryProtocol.REQUEST_SIZE);
+        request.putInt(42);
+        BinaryProtocol.writeRequest(request, loanRequest(30, "10", 5, 1));
+        request.put(7, (byte) 100);
+        request.flip();
+
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+            ByteBuffer response = ByteBuffer.allocate(BinaryProtocol.RESPONSE_SIZE);
+            while (response.hasRemaining()) {
+                Assert.assertTrue(channel.read(response) >= 0);
+            }
+            response.flip();
+            Assert.assertEquals(42, response.getInt());
+            Assert.assertEquals(BinaryProtocol.ERROR, response.get());
+        }
+    }
+
+    /**
+     * Кадры, отправленные до закрытия стороны записи клиента, проверяются, и ответы приходят до закрытия соединения.
+     */
+    @Test
+    public void halfCloseTest() throws IOException {
+        int frames = 3000;
+        ByteBuffer request = ByteBuffer.allocate(frames * BinaryProtocol.REQUEST_SIZE + 5);
+        for (int i = 0; i < frames; i++) {
+            request.putInt(i);
+            BinaryProtocol.writeRequest(request, loanRequest(30, "10", 5, 1));
+        }
+        // неполный кадр в конце отбрасывается
+        request.put(new byte[5]);
+        request.flip();
+
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+            channel.shutdownOutput();
+            ByteBuffer response = ByteBuffer.allocate((frames + 1) * BinaryProtocol.RESPONSE_SIZE);
+            while (channel.read(response) >= 0) {
+                Assert.assertTrue(response.hasRemaining());
+            }
+            response.flip();
+            Assert.assertEquals(frames * BinaryProtocol.RESPONSE_SIZE, response.remaining());
+            for (int i = 0; i < frames; i++) {
+                Assert.assertEquals(i, response.getInt());
+                Assert.assertEquals(true, BinaryProtocol.readResponse(response).approved);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ru.khitrova.scoring.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.web.ConcurrencyLimitFilter;
+import ru.khitrova.scoring.web.ConcurrencyLimiter;
+import ru.khitrova.scoring.web.ScoringStreamController;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Тесты ограничения одновременных запросов через HTTP: при ограничении в один запрос место занимает тест,
+ * и запрос к /scoring/check сразу получает 503.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"scoring.limit.enabled=true", "scoring.limit.initial-limit=1", "scoring.limit.min-limit=1",
+                "scoring.limit.max-limit=1", "scoring.limit.retry-after-seconds=2"})
+public class ConcurrencyLimitFilterTest {
+
+    private static final String URL_PATTERN = "http://localhost:%s/scoring/%s";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ConcurrencyLimitFilter filter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private LoanRequest loanRequest() {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = 30;
+        loanRequest.sex = Sex.F;
+        loanRequest.requestedAmount = BigDecimal.ONE;
+        loanRequest.creditRating = 2;
+        loanRequest.lastYearIncome = BigDecimal.TEN;
+        loanRequest.sourceOfIncome = SourceOfIncome.EMPLOYEE;
+        loanRequest.loanPurpose = LoanPurpose.CAR;
+        loanRequest.repaymentPeriod = 2;
+
+        return loanRequest;
+    }
+
+    private ResponseEntity<String> check() {
+        return restTemplate.postForEntity(String.format(URL_PATTERN, port, "check"), loanRequest(), String.class);
+    }
+
+    @Test
+    public void overLimitTest() throws Exception {
+        ConcurrencyLimiter limiter = filter.getLimiter();
+        Assert.assertEquals(HttpStatus.OK, check().getStatusCode());
+        awaitReleased();
+
+        double rejected = meterRegistry.get("scoring.limit.rejected").functionCounter().count();
+        Assert.assertTrue(limiter.tryAcquire());
+        try {
+            ResponseEntity<String> response = check();
+            Assert.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            Assert.assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            Assert.assertNull(response.getBody());
+            Assert.assertEquals(rejected + 1, meterRegistry.get("scoring.limit.rejected").functionCounter().count(), 0);
+            Assert.assertEquals(1, meterRegistry.get("scoring.limit.in.flight").gauge().value(), 0);
+            Assert.assertEquals(1, meterRegistry.get("scoring.limit.limit").gauge().value(), 0);
+
+            // пакетная и потоковая проверка не ограничиваются
+            Assert.assertEquals(HttpStatus.OK, restTemplate.postForEntity(
+                    String.format(URL_PATTERN, port, "check-batch"), List.of(loanRequest()), String.class)
+                    .getStatusCode());
+            RequestEntity<String> ndjson = RequestEntity.post(URI.create(String.format(URL_PATTERN, port, "check")))
+                    .contentType(MediaType.parseMediaType(ScoringStreamController.APPLICATION_NDJSON_VALUE))
+                    .accept(MediaType.parseMediaType(ScoringStreamController.APPLICATION_NDJSON_VALUE))
+                    .body("{\"age\":30,\"sex\":\"F\",\"sourceOfIncome\":\"EMPLOYEE\",\"lastYearIncome\":10,"
+                            + "\"creditRating\":2,\"requestedAmount\":1,\"repaymentPeriod\":2,\"loanPurpose\":\"CAR\"}\n");
+            Assert.assertEquals(HttpStatus.OK, restTemplate.exchange(ndjson, String.class).getStatusCode());
+        } finally {
+            limiter.release();
+        }
+
+        Assert.assertEquals(HttpStatus.OK, check().getStatusCode());
+        awaitReleased();
+        Assert.assertEquals(0, meterRegistry.get("scoring.limit.in.flight").gauge().value(), 0);
+    }
+
+    @Test
+    public void invalidRequestReleasedTest() throws Exception {
+        LoanRequest loanRequest = loanRequest();
+        loanRequest.age = null;
+        ResponseEntity<String> response = restTemplate.postForEntity(String.format(URL_PATTERN, port, "check"),
+                loanRequest, String.class);
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        awaitReleased();
+        Assert.assertEquals(HttpStatus.OK, check().getStatusCode());
+    }
+
+    /**
+     * Ожидание освобождения места: клиент получает ответ раньше, чем фильтр завершает обработку запроса.
+     */
+    private void awaitReleased() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (filter.getLimiter().getInFlight() > 0 && System.nanoTime() - deadline < 0) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(0, filter.getLimiter().getInFlight());
+    }
+}
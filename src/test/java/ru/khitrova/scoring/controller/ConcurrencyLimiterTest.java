@@ -0,0 +1,147 @@
+package ru.khitrova.scoring.controller;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.web.ConcurrencyLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Тесты адаптивного ограничения одновременных запросов на заданных временах ответа.
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final int WINDOW = 10;
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Ограничение без сглаживания: новое значение применяется сразу после окна.
+     */
+    private ConcurrencyLimiter limiter(int initialLimit) {
+        return new ConcurrencyLimiter(initialLimit, 2, 100, WINDOW, 1.5, 1.0, 600);
+    }
+
+    /**
+     * Окно, в котором все места заняты и освобождаются с временем ответа {@code rttNanos}.
+     * Места сверх окна освобождаются без времени ответа, чтобы ограничение пересчитывалось один раз.
+     */
+    private static void fullWindow(ConcurrencyLimiter limiter, long rttNanos) {
+        int samples = 0;
+        while (samples < WINDOW) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                if (samples < WINDOW) {
+                    limiter.release(rttNanos);
+                    samples++;
+                } else {
+                    limiter.release();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rejectedOverLimitTest() {
+        ConcurrencyLimiter limiter = limiter(2);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.getInFlight());
+        Assert.assertEquals(1, limiter.getRejected());
+
+        limiter.release();
+        Assert.assertTrue(limiter.tryAcquire());
+        limiter.release();
+        limiter.release();
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void growsWhileRttStableTest() {
+        ConcurrencyLimiter limiter = limiter(10);
+        int previous = limiter.getLimit();
+        for (int window = 0; window < 5; window++) {
+            fullWindow(limiter, RTT);
+            Assert.assertTrue(limiter.getLimit() > previous);
+            previous = limiter.getLimit();
+        }
+        for (int window = 0; window < 100; window++) {
+            fullWindow(limiter, RTT);
+        }
+        Assert.assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    public void shrinksWhenRttGrowsTest() {
+        ConcurrencyLimiter limiter = limiter(50);
+        fullWindow(limiter, RTT);
+        int stable = limiter.getLimit();
+        Assert.assertEquals(RTT, limiter.getLongRttNanos(), 1);
+
+        // время ответа выросло в 10 раз: градиент 0.5, ограничение примерно вдвое меньше
+        fullWindow(limiter, 10 * RTT);
+        Assert.assertEquals(stable * 0.5 + Math.sqrt(stable), limiter.getLimit(), 1);
+        Assert.assertEquals(10 * RTT, limiter.getShortRttNanos(), 1);
+        // при градиенте 0.5 ограничение сходится к L = 0.5 * L + sqrt(L) = 4, допустимой очереди
+        for (int window = 0; window < 30; window++) {
+            fullWindow(limiter, 10 * RTT);
+        }
+        Assert.assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    public void withinToleranceTest() {
+        ConcurrencyLimiter limiter = limiter(50);
+        fullWindow(limiter, RTT);
+        int stable = limiter.getLimit();
+        // время ответа выросло в 4/3 раза, меньше допуска 1.5: ограничение растет дальше
+        fullWindow(limiter, RTT * 4 / 3);
+        Assert.assertTrue(limiter.getLimit() > stable);
+    }
+
+    @Test
+    public void unchangedWithoutLoadTest() {
+        ConcurrencyLimiter limiter = limiter(50);
+        for (int i = 0; i < 10 * WINDOW; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+            limiter.release(i < 5 * WINDOW ? RTT : 10 * RTT);
+        }
+        Assert.assertEquals(50, limiter.getLimit());
+        Assert.assertEquals(10 * RTT, limiter.getShortRttNanos(), 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLimitsTest() {
+        new ConcurrencyLimiter(1, 2, 100, WINDOW, 1.5, 0.2, 600);
+    }
+
+    /**
+     * Освобождение из нескольких потоков: каждое время ответа попадает ровно в одно окно, поэтому среднее точное.
+     */
+    @Test
+    public void concurrentReleaseTest() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(50, 2, 100, 1000, 1.5, 1.0, 600);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    if (limiter.tryAcquire()) {
+                        limiter.release(RTT);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(0, limiter.getInFlight());
+        Assert.assertEquals(0, limiter.getRejected());
+        Assert.assertEquals(RTT, limiter.getShortRttNanos(), 0);
+        Assert.assertEquals(RTT, limiter.getLongRttNanos(), 0);
+    }
+}
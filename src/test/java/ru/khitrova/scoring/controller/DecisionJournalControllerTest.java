@@ -0,0 +1,153 @@
+package ru.khitrova.scoring.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.khitrova.scoring.ScoringApplication;
+import ru.khitrova.scoring.journal.DecisionJournal;
+import ru.khitrova.scoring.journal.JournalReader;
+import ru.khitrova.scoring.journal.JournalRecord;
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Тест журнала решений через HTTP: каждое решение /scoring/check попадает в журнал, а время ответа
+ * с журналом сравнивается со временем ответа такого же приложения без журнала. Запросы к двум приложениям
+ * чередуются, чтобы нагрузка на машине одинаково сказывалась на обоих замерах.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"scoring.engine=fixed-point", "scoring.journal.enabled=true"})
+public class DecisionJournalControllerTest {
+
+    private static final String URL_PATTERN = "http://localhost:%s/scoring/check";
+    private static final int WARMUP = 300;
+    private static final int REQUESTS = 1000;
+
+    /**
+     * Допустимое увеличение медианы времени ответа: запись в буфер занимает доли микросекунды,
+     * запас на шум при замере на общей машине
+     */
+    private static final long MAX_ADDED_MEDIAN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private DecisionJournal journal;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) {
+        registry.add("scoring.journal.directory", () -> folder.getRoot().getAbsolutePath());
+    }
+
+    private LoanRequest loanRequest(int age) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = age;
+        loanRequest.sex = Sex.F;
+        loanRequest.requestedAmount = BigDecimal.ONE;
+        loanRequest.creditRating = 2;
+        loanRequest.lastYearIncome = BigDecimal.TEN;
+        loanRequest.sourceOfIncome = SourceOfIncome.EMPLOYEE;
+        loanRequest.loanPurpose = LoanPurpose.CAR;
+        loanRequest.repaymentPeriod = 2;
+
+        return loanRequest;
+    }
+
+    @Test
+    public void journalLatencyTest() throws Exception {
+        long written = journal.getWritten();
+        long[] journaled = new long[REQUESTS];
+        long[] baseline = new long[REQUESTS];
+        try (ConfigurableApplicationContext withoutJournal = new SpringApplicationBuilder(ScoringApplication.class)
+                .logStartupInfo(false)
+                .run("--server.port=0", "--scoring.engine=fixed-point", "--scoring.journal.enabled=false",
+                        "--logging.level.root=ERROR")) {
+            int baselinePort = ((WebServerApplicationContext) withoutJournal).getWebServer().getPort();
+            for (int i = 0; i < WARMUP + REQUESTS; i++) {
+                // 17 лет - отказ, 30 лет - одобрение
+                LoanRequest loanRequest = loanRequest(i % 2 == 0 ? 30 : 17);
+                long baselineNanos = check(baselinePort, loanRequest);
+                long journaledNanos = check(port, loanRequest);
+                if (i >= WARMUP) {
+                    baseline[i - WARMUP] = baselineNanos;
+                    journaled[i - WARMUP] = journaledNanos;
+                }
+            }
+        }
+
+        long expected = written + WARMUP + REQUESTS;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (journal.getWritten() < expected && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(expected, journal.getWritten());
+        Assert.assertEquals(0, journal.getDropped());
+        Assert.assertEquals(expected, meterRegistry.get("scoring.journal.records").tag("result", "written")
+                .functionCounter().count(), 0);
+
+        JournalRecord last = null;
+        long records = 0;
+        for (JournalRecord record : JournalReader.open(folder.getRoot().toPath())) {
+            last = record;
+            records++;
+        }
+        Assert.assertEquals(expected, records);
+        Assert.assertEquals(Integer.valueOf(17), last.loanRequest.age);
+        Assert.assertFalse(last.loanResponse.approved);
+        Assert.assertNotNull(last.interestRate);
+
+        Arrays.sort(baseline);
+        Arrays.sort(journaled);
+        long addedMedian = percentile(journaled, 0.5) - percentile(baseline, 0.5);
+        System.out.printf("Journal latency on /scoring/check: p50 %d us (without journal %d us),"
+                        + " p99 %d us (without journal %d us)%n",
+                TimeUnit.NANOSECONDS.toMicros(percentile(journaled, 0.5)),
+                TimeUnit.NANOSECONDS.toMicros(percentile(baseline, 0.5)),
+                TimeUnit.NANOSECONDS.toMicros(percentile(journaled, 0.99)),
+                TimeUnit.NANOSECONDS.toMicros(percentile(baseline, 0.99)));
+        Assert.assertTrue("Журнал увеличил медиану на " + addedMedian + " нс", addedMedian < MAX_ADDED_MEDIAN_NANOS);
+    }
+
+    private long check(int port, LoanRequest loanRequest) {
+        long start = System.nanoTime();
+        ResponseEntity<LoanResponse> response = restTemplate.postForEntity(
+                String.format(URL_PATTERN, port), loanRequest, LoanResponse.class);
+        long elapsed = System.nanoTime() - start;
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assert.assertEquals(loanRequest.age >= 18, response.getBody().approved);
+        return elapsed;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * sorted.length))];
+    }
+}
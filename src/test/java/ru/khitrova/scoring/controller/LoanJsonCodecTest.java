@@ -0,0 +1,188 @@
+package ru.khitrova.scoring.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.service.ScoringDomain;
+import ru.khitrova.scoring.scoring.ScoringDecision;
+import ru.khitrova.scoring.web.LoanJsonCodec;
+import ru.khitrova.scoring.web.LoanJsonHttpMessageConverter;
+import ru.khitrova.scoring.web.LoanResponseCache;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * Тесты совпадения {@link LoanJsonCodec} с Jackson.
+ */
+public class LoanJsonCodecTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final MappingJackson2HttpMessageConverter jackson = new MappingJackson2HttpMessageConverter(objectMapper);
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final LoanJsonHttpMessageConverter converter = new LoanJsonHttpMessageConverter(objectMapper, registry);
+
+    @Test
+    public void serializedRequestsTest() throws IOException {
+        String[] amounts = {"0.1", "1", "1.0", "5.5", "10", "10.0", "10.00", "1.25", "0.05", "123"};
+        String[] incomes = {"0", "15", "15.0", "15.25", "-3", "123456789012.345678"};
+        for (int age = -1; age <= 201; age += 29) {
+            for (String amount : amounts) {
+                for (String income : incomes) {
+                    for (int rating = -3; rating <= 3; rating += 3) {
+                        LoanRequest loanRequest = ScoringDomain.request(age, Sex.M, SourceOfIncome.OWN_BUSINESS,
+                                rating, 1, 20, LoanPurpose.MORTGAGE, new BigDecimal(income));
+                        loanRequest.requestedAmount = new BigDecimal(amount);
+                        byte[] json = objectMapper.writeValueAsBytes(loanRequest);
+
+                        LoanRequest parsed = LoanJsonCodec.readRequest(json, 0, json.length);
+                        Assert.assertNotNull(new String(json, StandardCharsets.UTF_8), parsed);
+                        Assert.assertEquals(ScoringDomain.describe(loanRequest), ScoringDomain.describe(parsed));
+                    }
+                }
+            }
+        }
+        for (Sex sex : Sex.values()) {
+            for (SourceOfIncome source : SourceOfIncome.values()) {
+                for (LoanPurpose purpose : LoanPurpose.values()) {
+                    LoanRequest loanRequest = ScoringDomain.request(30, sex, source, 0, 10, 2, purpose, BigDecimal.TEN);
+                    byte[] json = objectMapper.writeValueAsBytes(loanRequest);
+                    Assert.assertEquals(ScoringDomain.describe(loanRequest),
+                            ScoringDomain.describe(LoanJsonCodec.readRequest(json, 0, json.length)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void handWrittenRequestsTest() throws IOException {
+        assertSameAsJackson("{}", true);
+        assertSameAsJackson(" \r\n\t{ \"age\" : 30 ,\n\"sex\":\"F\" , \"requestedAmount\": 1.5 }\n ", true);
+        assertSameAsJackson("{\"age\":null,\"sex\":null,\"sourceOfIncome\":null,\"lastYearIncome\":null,"
+                + "\"creditRating\":null,\"requestedAmount\":null,\"repaymentPeriod\":null,\"loanPurpose\":null}", true);
+        assertSameAsJackson("{\"age\":-0,\"lastYearIncome\":-0.0,\"requestedAmount\":0,\"creditRating\":-2}", true);
+        assertSameAsJackson("{\"age\":30,\"age\":40}", true);
+        assertSameAsJackson("{\"age\":999999999,\"lastYearIncome\":999999999999999999}", true);
+
+        // разбирает Jackson
+        assertSameAsJackson("{\"age\":1e1}", false);
+        assertSameAsJackson("{\"age\":30.0}", false);
+        assertSameAsJackson("{\"age\":\"30\"}", false);
+        assertSameAsJackson("{\"age\":1000000000}", false);
+        assertSameAsJackson("{\"requestedAmount\":1E+1}", false);
+        assertSameAsJackson("{\"lastYearIncome\":1234567890123456789}", false);
+        assertSameAsJackson("{\"sex\":\"\\u0046\"}", false);
+        assertSameAsJackson("{\"sex\":1}", false);
+        assertSameAsJackson("{\"unknown\":{\"a\":[1,2]},\"age\":30}", false);
+        assertSameAsJackson("\uFEFF{\"age\":30}", false);
+        assertSameAsJackson("{\"age\":30}  {\"age\":40}", false);
+    }
+
+    @Test
+    public void malformedRequestsTest() throws IOException {
+        String[] inputs = {
+                "{\"age\":", "{\"age\":30", "{\"age\":30,}", "{\"age\" 30}", "{\"age\":01}", "{\"age\":-}",
+                "{\"age\":3 0}", "{\"requestedAmount\":1.}", "{\"sex\":\"X\"}", "{\"sex\":\"F}", "{age:30}",
+                "[1]", "nul", "{\"age\":truex}", "{\"loanPurpose\":\"car\"}"
+        };
+        for (String input : inputs) {
+            Exception expected = readError(jackson, input);
+            Exception actual = readError(converter, input);
+            Assert.assertNotNull(input, expected);
+            Assert.assertNotNull(input, actual);
+            Assert.assertEquals(input, expected.getClass(), actual.getClass());
+            Assert.assertEquals(input, expected.getMessage(), actual.getMessage());
+        }
+    }
+
+    @Test
+    public void responsesTest() throws IOException {
+        BigDecimal[] payments = {
+                null, BigDecimal.ZERO, BigDecimal.valueOf(0, 1), BigDecimal.valueOf(5, 1), BigDecimal.valueOf(123, 1),
+                BigDecimal.valueOf(123456789012345L, 1), new BigDecimal("0.55"), new BigDecimal("-1.5"),
+                new BigDecimal("1E+3"), BigDecimal.TEN
+        };
+        for (Boolean approved : new Boolean[]{null, true, false}) {
+            for (BigDecimal payment : payments) {
+                LoanResponse loanResponse = new LoanResponse();
+                loanResponse.approved = approved;
+                loanResponse.annualPayment = payment;
+                Assert.assertEquals(objectMapper.writeValueAsString(loanResponse),
+                        new String(LoanJsonCodec.writeResponse(loanResponse), StandardCharsets.UTF_8));
+            }
+        }
+
+        LoanResponse withErrors = new LoanResponse();
+        withErrors.errors = Collections.singletonList("Возраст не может быть null");
+        Assert.assertNull(LoanJsonCodec.writeResponse(withErrors));
+    }
+
+    @Test
+    public void cachedResponsesTest() throws IOException {
+        long bytes = 0;
+        for (int tenths = -1; tenths < LoanResponseCache.CACHED_PAYMENTS; tenths++) {
+            LoanResponse loanResponse = ScoringDecision.toResponse(tenths);
+            Assert.assertNotNull(LoanResponseCache.get(loanResponse));
+            bytes += assertWrittenAsJackson(loanResponse, true);
+        }
+        LoanResponse notCached = new LoanResponse();
+        notCached.approved = true;
+        notCached.annualPayment = BigDecimal.valueOf(LoanResponseCache.CACHED_PAYMENTS, 1);
+        assertWrittenAsJackson(notCached, false);
+        notCached.annualPayment = new BigDecimal("0.55");
+        assertWrittenAsJackson(notCached, false);
+        notCached.approved = false;
+        notCached.annualPayment = BigDecimal.valueOf(0, 1);
+        assertWrittenAsJackson(notCached, false);
+
+        Assert.assertEquals(LoanResponseCache.CACHED_PAYMENTS + 1,
+                registry.get("scoring.json.response.cache").tag("result", "hit").counter().count(), 0);
+        Assert.assertEquals(3, registry.get("scoring.json.response.cache").tag("result", "miss").counter().count(), 0);
+        Assert.assertEquals(bytes, registry.get("scoring.json.response.cache.bytes").counter().count(), 0);
+    }
+
+    private long assertWrittenAsJackson(LoanResponse loanResponse, boolean cached) throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(loanResponse, MediaType.APPLICATION_JSON, output);
+        String expected = objectMapper.writeValueAsString(loanResponse);
+        Assert.assertEquals(expected, output.getBodyAsString(StandardCharsets.UTF_8));
+        Assert.assertEquals(expected, cached ? expected.length() : -1, output.getHeaders().getContentLength());
+        return output.getBodyAsBytes().length;
+    }
+
+    private void assertSameAsJackson(String json, boolean fast) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        LoanRequest parsed = LoanJsonCodec.readRequest(bytes, 0, bytes.length);
+        Assert.assertEquals(json, fast, parsed != null);
+
+        LoanRequest expected = (LoanRequest) jackson.read(LoanRequest.class, input(json));
+        LoanRequest actual = (LoanRequest) converter.read(LoanRequest.class, input(json));
+        Assert.assertEquals(json, ScoringDomain.describe(expected), ScoringDomain.describe(actual));
+    }
+
+    private static Exception readError(org.springframework.http.converter.HttpMessageConverter<Object> converter,
+                                       String json) {
+        try {
+            converter.read(LoanRequest.class, input(json));
+            return null;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    private static MockHttpInputMessage input(String json) {
+        MockHttpInputMessage inputMessage = new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8));
+        inputMessage.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return inputMessage;
+    }
+}
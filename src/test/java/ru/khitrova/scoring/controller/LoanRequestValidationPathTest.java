@@ -0,0 +1,99 @@
+package ru.khitrova.scoring.controller;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.executable.ExecutableValidator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Запрос {@code /scoring/check} проверяется только {@code LoanRequestValidator}: Bean Validation
+ * не вызывается ни для аргументов метода контроллера, ни для самого запроса.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class LoanRequestValidationPathTest {
+
+    private static final String URL_PATTERN = "http://localhost:%s/scoring/check";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CountingValidator validator;
+
+    @TestConfiguration
+    static class Configuration {
+
+        @Bean
+        CountingValidator countingValidator() {
+            return new CountingValidator();
+        }
+    }
+
+    /**
+     * Валидатор Bean Validation, который считает проверки объектов и аргументов методов.
+     */
+    static class CountingValidator extends LocalValidatorFactoryBean {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public <T> Set<ConstraintViolation<T>> validate(T object, Class<?>... groups) {
+            calls.incrementAndGet();
+            return super.validate(object, groups);
+        }
+
+        @Override
+        public ExecutableValidator forExecutables() {
+            calls.incrementAndGet();
+            return super.forExecutables();
+        }
+    }
+
+    private LoanRequest loanRequest(int age) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = age;
+        loanRequest.sex = Sex.M;
+        loanRequest.requestedAmount = BigDecimal.ONE;
+        loanRequest.creditRating = 2;
+        loanRequest.lastYearIncome = BigDecimal.TEN;
+        loanRequest.sourceOfIncome = SourceOfIncome.EMPLOYEE;
+        loanRequest.loanPurpose = LoanPurpose.CAR;
+        loanRequest.repaymentPeriod = 2;
+        return loanRequest;
+    }
+
+    @Test
+    public void noBeanValidationTest() {
+        // при создании LoanRequestValidator проверяет пробные запросы через Bean Validation
+        validator.calls.set(0);
+
+        ResponseEntity<LoanResponse> valid = restTemplate.postForEntity(
+                String.format(URL_PATTERN, port), loanRequest(30), LoanResponse.class);
+        Assert.assertEquals(HttpStatus.OK, valid.getStatusCode());
+        ResponseEntity<String> invalid = restTemplate.postForEntity(
+                String.format(URL_PATTERN, port), loanRequest(201), String.class);
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, invalid.getStatusCode());
+
+        Assert.assertEquals(0, validator.calls.get());
+    }
+}
@@ -0,0 +1,98 @@
+package ru.khitrova.scoring.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.MicroBatchingScoringService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Тесты проверки запросов через HTTP со сборкой одновременных запросов в пачки.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"scoring.engine=fixed-point", "scoring.micro-batch.enabled=true",
+                "scoring.micro-batch.max-wait-micros=2000", "scoring.micro-batch.bypass-concurrency=0"})
+public class MicroBatchingControllerTest {
+
+    private static final String URL_PATTERN = "http://localhost:%s/scoring/check";
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 25;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MicroBatchingScoringService microBatchingScoringService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private LoanRequest loanRequest(int age) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = age;
+        loanRequest.sex = Sex.F;
+        loanRequest.requestedAmount = BigDecimal.ONE;
+        loanRequest.creditRating = 2;
+        loanRequest.lastYearIncome = BigDecimal.TEN;
+        loanRequest.sourceOfIncome = SourceOfIncome.EMPLOYEE;
+        loanRequest.loanPurpose = LoanPurpose.CAR;
+        loanRequest.repaymentPeriod = 2;
+
+        return loanRequest;
+    }
+
+    @Test
+    public void concurrentRequestsTest() throws Exception {
+        Assert.assertNotNull(microBatchingScoringService);
+        double decisions = decisions();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        // 16 и 17 лет - отказ, 18 и 19 лет - одобрение
+                        int age = 16 + i % 4;
+                        ResponseEntity<LoanResponse> response = restTemplate.postForEntity(
+                                String.format(URL_PATTERN, port), loanRequest(age), LoanResponse.class);
+                        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+                        Assert.assertEquals(age >= 18, response.getBody().approved);
+                        Assert.assertEquals(age >= 18 ? new BigDecimal("0.5") : BigDecimal.ZERO,
+                                response.getBody().annualPayment);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(THREADS * REQUESTS_PER_THREAD, decisions() - decisions, 0);
+    }
+
+    private double decisions() {
+        return meterRegistry.get("scoring.decisions").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+}
@@ -0,0 +1,178 @@
+package ru.khitrova.scoring.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.BatchScoringService;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+import ru.khitrova.scoring.web.NdjsonScoringProcessor;
+
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Тесты потоковой проверки запросов в формате NDJSON.
+ */
+public class NdjsonScoringProcessorTest {
+
+    private static final int RECORDS = 1_000_000;
+    private static final long MAX_HEAP_GROWTH = 32L * 1024 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InMemoryScoringService scoringService = new InMemoryScoringService();
+    private final NdjsonScoringProcessor processor = new NdjsonScoringProcessor(
+            objectMapper,
+            new BatchScoringService(scoringService, Validation.buildDefaultValidatorFactory().getValidator(), 1000, 256),
+            256
+    );
+
+    private LoanRequest loanRequest(int age, int amountTenths, int repaymentPeriod) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = age;
+        loanRequest.sex = Sex.M;
+        loanRequest.requestedAmount = BigDecimal.valueOf(amountTenths, 1);
+        loanRequest.creditRating = 1;
+        loanRequest.lastYearIncome = BigDecimal.TEN;
+        loanRequest.sourceOfIncome = SourceOfIncome.OWN_BUSINESS;
+        loanRequest.loanPurpose = LoanPurpose.CONSUMER;
+        loanRequest.repaymentPeriod = repaymentPeriod;
+
+        return loanRequest;
+    }
+
+    @Test
+    public void millionRecordsTest() throws IOException {
+        LoanRequest[] loanRequests = new LoanRequest[10];
+        byte[][] requestLines = new byte[loanRequests.length][];
+        byte[][] expectedLines = new byte[loanRequests.length][];
+        for (int i = 0; i < loanRequests.length; i++) {
+            loanRequests[i] = loanRequest(15 + i * 6, i * 10 + 5, i + 1);
+            requestLines[i] = (objectMapper.writeValueAsString(loanRequests[i]) + "\n").getBytes(StandardCharsets.UTF_8);
+            expectedLines[i] = objectMapper.writeValueAsString(scoringService.checkLoan(loanRequests[i]))
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+
+        CheckingOutputStream outputStream = new CheckingOutputStream(expectedLines);
+        long count = processor.process(new GeneratingInputStream(requestLines, RECORDS), outputStream);
+
+        Assert.assertEquals(RECORDS, count);
+        Assert.assertEquals(RECORDS, outputStream.lines);
+        Assert.assertTrue("Потребление памяти выросло на " + outputStream.heapGrowth() + " байт",
+                outputStream.heapGrowth() < MAX_HEAP_GROWTH);
+    }
+
+    @Test
+    public void validationAndParseErrorTest() throws IOException {
+        String input = "{\"age\":201,\"sex\":\"M\",\"sourceOfIncome\":\"EMPLOYEE\",\"lastYearIncome\":10,"
+                + "\"creditRating\":1,\"requestedAmount\":1,\"repaymentPeriod\":2,\"loanPurpose\":\"CAR\"}\n"
+                + "null\n"
+                + "{\"age\":30,\"sex\":\"M\",\"sourceOfIncome\":\"EMPLOYEE\",\"lastYearIncome\":10,"
+                + "\"creditRating\":1,\"requestedAmount\":1,\"repaymentPeriod\":2,\"loanPurpose\":\"CAR\"}\n"
+                + "{\"age\":30,\"sex\":\n";
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long count = processor.process(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), outputStream);
+
+        String[] lines = outputStream.toString("UTF-8").split("\n");
+        Assert.assertEquals(4, count);
+        Assert.assertEquals(4, lines.length);
+        Assert.assertEquals("{\"approved\":null,\"annualPayment\":null,\"errors\":[\"Возраст не может быть больше 200\"]}", lines[0]);
+        Assert.assertEquals("{\"approved\":null,\"annualPayment\":null,\"errors\":[\"Запрос не может быть null\"]}", lines[1]);
+        Assert.assertEquals("{\"approved\":true,\"annualPayment\":0.5}", lines[2]);
+        Assert.assertTrue(lines[3].contains("Некорректный JSON"));
+    }
+
+    /**
+     * Входной поток, который формирует запросы по мере чтения и не хранит их целиком.
+     */
+    private static class GeneratingInputStream extends InputStream {
+        private final byte[][] lines;
+        private final int records;
+        private int record;
+        private int position;
+
+        GeneratingInputStream(byte[][] lines, int records) {
+            this.lines = lines;
+            this.records = records;
+        }
+
+        @Override
+        public int read() {
+            byte[] buffer = new byte[1];
+            return read(buffer, 0, 1) < 0 ? -1 : buffer[0];
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (record == records) {
+                return -1;
+            }
+            int read = 0;
+            while (read < length && record < records) {
+                byte[] line = lines[record % lines.length];
+                int chunk = Math.min(length - read, line.length - position);
+                System.arraycopy(line, position, buffer, offset + read, chunk);
+                read += chunk;
+                position += chunk;
+                if (position == line.length) {
+                    position = 0;
+                    record++;
+                }
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Выходной поток, который сверяет каждую строку ответа с ожидаемой и замеряет занятую память.
+     */
+    private static class CheckingOutputStream extends OutputStream {
+        private static final int MEASURE_AT = 100_000;
+
+        private final byte[][] expectedLines;
+        private final byte[] line = new byte[1024];
+        private int length;
+        private long lines;
+        private long heapAtStart;
+        private long heapAtEnd;
+
+        CheckingOutputStream(byte[][] expectedLines) {
+            this.expectedLines = expectedLines;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b != '\n') {
+                line[length++] = (byte) b;
+                return;
+            }
+            byte[] expected = expectedLines[(int) (lines % expectedLines.length)];
+            Assert.assertArrayEquals("Строка " + lines, expected, Arrays.copyOf(line, length));
+            length = 0;
+            lines++;
+            if (lines == MEASURE_AT) {
+                heapAtStart = usedHeap();
+            } else if (lines == RECORDS) {
+                heapAtEnd = usedHeap();
+            }
+        }
+
+        long heapGrowth() {
+            return heapAtEnd - heapAtStart;
+        }
+
+        private static long usedHeap() {
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
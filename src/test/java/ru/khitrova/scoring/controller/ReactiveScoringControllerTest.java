@@ -0,0 +1,35 @@
+package ru.khitrova.scoring.controller;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.khitrova.scoring.scoring.MicroBatchingScoringService;
+
+/**
+ * Тесты валидации входных значений для контроллера в реактивном режиме: те же проверки,
+ * что и в {@link ScoringControllerTest}. Сборка запросов в пачки включена свойством, но в реактивном режиме
+ * не создается.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.main.web-application-type=reactive", "scoring.micro-batch.enabled=true"})
+public class ReactiveScoringControllerTest extends ScoringControllerTest {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    public void reactiveModeTest() {
+        Assert.assertTrue(applicationContext instanceof ReactiveWebApplicationContext);
+    }
+
+    @Test
+    public void noMicroBatchingTest() {
+        Assert.assertTrue(applicationContext.getBeansOfType(MicroBatchingScoringService.class).isEmpty());
+    }
+}
@@ -0,0 +1,72 @@
+package ru.khitrova.scoring.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Тесты кэша результатов проверки и его метрик.
+ */
+@RunWith(SpringRunner.class)
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"scoring.cache.enabled=true", "scoring.cache.maximum-size=100"})
+public class ScoringCacheTest {
+
+    private static final String CHECK_URL_PATTERN = "http://localhost:%s/scoring/check";
+    private static final String PROMETHEUS_URL_PATTERN = "http://localhost:%s/actuator/prometheus";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private LoanRequest loanRequest() {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = 30;
+        loanRequest.sex = Sex.F;
+        loanRequest.requestedAmount = BigDecimal.ONE;
+        loanRequest.creditRating = 2;
+        loanRequest.lastYearIncome = BigDecimal.TEN;
+        loanRequest.sourceOfIncome = SourceOfIncome.EMPLOYEE;
+        loanRequest.loanPurpose = LoanPurpose.CAR;
+        loanRequest.repaymentPeriod = 2;
+
+        return loanRequest;
+    }
+
+    @Test
+    public void cacheMetricsTest() {
+        double hits = meterRegistry.get("cache.gets").tags("cache", "scoring", "result", "hit").functionCounter().count();
+
+        for (int i = 0; i < 3; i++) {
+            ResponseEntity<LoanResponse> response = restTemplate.postForEntity(
+                    String.format(CHECK_URL_PATTERN, port), loanRequest(), LoanResponse.class);
+            Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+            Assert.assertTrue(response.getBody().approved);
+            Assert.assertEquals(new BigDecimal("0.5"), response.getBody().annualPayment);
+        }
+
+        Assert.assertEquals(hits + 2,
+                meterRegistry.get("cache.gets").tags("cache", "scoring", "result", "hit").functionCounter().count(), 0);
+
+        String metrics = restTemplate.getForObject(String.format(PROMETHEUS_URL_PATTERN, port), String.class);
+        Assert.assertTrue(metrics, metrics.contains("cache_evictions_total{cache=\"scoring\",}"));
+    }
+}
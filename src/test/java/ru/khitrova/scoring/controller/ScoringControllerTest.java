@@ -5,8 +5,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.boot.test.web.client.TestRestTemplate;
-import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.util.StringUtils;
@@ -14,6 +15,8 @@ import ru.khitrova.scoring.model.*;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Тесты валидации входных значений для контроллера.
@@ -23,6 +26,9 @@ import java.net.URI;
 public class ScoringControllerTest {
 
     private static final String URL_PATTERN = "http://localhost:%s/scoring/check";
+    private static final ParameterizedTypeReference<Map<String, Object>> ERROR_BODY =
+            new ParameterizedTypeReference<>() {
+            };
 
     @LocalServerPort
     private int port;
@@ -303,4 +309,49 @@ public class ScoringControllerTest {
         Assert.assertTrue(responseBody.contains("Цель не может быть null"));
     }
 
+    /**
+     * Ответ с ошибкой валидации - стандартное тело ошибки Spring Boot с текстом и нарушениями.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void validationErrorsBodyTest() {
+        LoanRequest loanRequest = loanRequestForValidationTest();
+        loanRequest.age = 201;
+        loanRequest.loanPurpose = null;
+
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                RequestEntity.post(URI.create(String.format(URL_PATTERN, port))).body(loanRequest),
+                ERROR_BODY
+        );
+        Assert.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        Map<String, Object> body = response.getBody();
+        Assert.assertNotNull(body);
+        Assert.assertEquals(400, body.get("status"));
+        Assert.assertEquals("Bad Request", body.get("error"));
+        Assert.assertEquals("/scoring/check", body.get("path"));
+        Assert.assertNotNull(body.get("timestamp"));
+        Assert.assertNotNull(body.get("message"));
+        Assert.assertFalse(body.containsKey("approved"));
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) body.get("errors");
+        Assert.assertEquals(2, errors.size());
+        Assert.assertTrue(errors.stream().anyMatch(error -> "age".equals(error.get("field"))
+                && "Возраст не может быть больше 200".equals(error.get("defaultMessage"))));
+        Assert.assertTrue(errors.stream().anyMatch(error -> "loanPurpose".equals(error.get("field"))
+                && "Цель не может быть null".equals(error.get("defaultMessage"))));
+    }
+
+    /**
+     * Вне {@code /scoring} текст ошибки в ответ не попадает.
+     */
+    @Test
+    public void noMessageOutsideScoringTest() {
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+                RequestEntity.post(URI.create(String.format("http://localhost:%s/unknown", port)))
+                        .body(loanRequestForValidationTest()),
+                ERROR_BODY
+        );
+        Assert.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assert.assertNotNull(response.getBody());
+        Assert.assertFalse(response.getBody().containsKey("message"));
+    }
 }
@@ -0,0 +1,99 @@
+package ru.khitrova.scoring.controller;
+
+import org.junit.Assert;
+import org.junit.Test;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.khitrova.scoring.model.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Тесты метрик сервиса скоринга на endpoint Prometheus.
+ */
+@RunWith(SpringRunner.class)
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ScoringMetricsTest {
+
+    private static final String CHECK_URL_PATTERN = "http://localhost:%s/scoring/check";
+    private static final String PROMETHEUS_URL_PATTERN = "http://localhost:%s/actuator/prometheus";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private LoanRequest loanRequest() {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = 30;
+        loanRequest.sex = Sex.F;
+        loanRequest.requestedAmount = BigDecimal.ONE;
+        loanRequest.creditRating = 2;
+        loanRequest.lastYearIncome = BigDecimal.TEN;
+        loanRequest.sourceOfIncome = SourceOfIncome.EMPLOYEE;
+        loanRequest.loanPurpose = LoanPurpose.CAR;
+        loanRequest.repaymentPeriod = 2;
+
+        return loanRequest;
+    }
+
+    private void check(LoanRequest loanRequest) {
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                String.format(CHECK_URL_PATTERN, port), loanRequest, String.class);
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    /**
+     * Контекст приложения общий для тестов контроллеров, поэтому проверяется прирост метрик.
+     */
+    @Test
+    public void decisionMetricsTest() {
+        double approved = decisions("approved", "none");
+        double age = decisions("rejected", "age");
+        double sourceOfIncome = decisions("rejected", "source_of_income");
+        double annualPayment = decisions("rejected", "annual_payment");
+        long checks = meterRegistry.get("scoring.check").timer().count();
+        long payments = meterRegistry.get("scoring.annual.payment").summary().count();
+
+        check(loanRequest());
+        check(loanRequest());
+
+        LoanRequest tooYoung = loanRequest();
+        tooYoung.age = 17;
+        check(tooYoung);
+
+        LoanRequest unemployed = loanRequest();
+        unemployed.sourceOfIncome = SourceOfIncome.UNEMPLOYED;
+        check(unemployed);
+
+        Assert.assertEquals(approved + 2, decisions("approved", "none"), 0);
+        Assert.assertEquals(age + 1, decisions("rejected", "age"), 0);
+        Assert.assertEquals(sourceOfIncome + 1, decisions("rejected", "source_of_income"), 0);
+        Assert.assertEquals(annualPayment, decisions("rejected", "annual_payment"), 0);
+        Assert.assertEquals(checks + 4, meterRegistry.get("scoring.check").timer().count());
+        Assert.assertEquals(payments + 2, meterRegistry.get("scoring.annual.payment").summary().count());
+
+        String metrics = restTemplate.getForObject(String.format(PROMETHEUS_URL_PATTERN, port), String.class);
+
+        Assert.assertTrue(metrics, metrics.contains("scoring_decisions_total{decision=\"rejected\",reason=\"credit_rating\",}"));
+        Assert.assertTrue(metrics, metrics.contains("scoring_check_seconds_bucket{le="));
+        Assert.assertTrue(metrics, metrics.contains("scoring_annual_payment_millions_bucket{le=\"1.0\",}"));
+    }
+
+    private double decisions(String decision, String reason) {
+        return meterRegistry.get("scoring.decisions").tags("decision", decision, "reason", reason).counter().count();
+    }
+}
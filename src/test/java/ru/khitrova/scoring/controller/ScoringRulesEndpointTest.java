@@ -0,0 +1,75 @@
+package ru.khitrova.scoring.controller;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.khitrova.scoring.scoring.CompiledRulesScoringService;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Тесты повторной загрузки правил скоринга через actuator на отдельном порту, как описано
+ * в application.properties: на порту приложения endpoint недоступен.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"scoring.engine=compiled-rules", "management.server.port=0",
+                "management.endpoints.web.exposure.include=health,info,prometheus,scoringrules"})
+public class ScoringRulesEndpointTest {
+
+    private static final String URL_PATTERN = "http://localhost:%s/actuator/scoringrules";
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CompiledRulesScoringService scoringService;
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void reloadTest() {
+        long version = scoringService.getVersion();
+
+        RequestEntity<Void> request = RequestEntity.post(URI.create(String.format(URL_PATTERN, managementPort)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .build();
+        ResponseEntity<Map> response = restTemplate.exchange(request, Map.class);
+
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assert.assertEquals(version + 1, ((Number) response.getBody().get("version")).longValue());
+        Assert.assertEquals(version + 1, scoringService.getVersion());
+
+        Map rules = restTemplate.getForObject(String.format(URL_PATTERN, managementPort), Map.class);
+        Assert.assertEquals(version + 1, ((Number) rules.get("version")).longValue());
+        Assert.assertTrue(rules.get("location").toString().contains("scoring-rules.json"));
+    }
+
+    @Test
+    public void notOnApplicationPortTest() {
+        long version = scoringService.getVersion();
+        RequestEntity<Void> request = RequestEntity.post(URI.create(String.format(URL_PATTERN, port)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .build();
+        ResponseEntity<String> response = restTemplate.exchange(request, String.class);
+
+        Assert.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assert.assertEquals(version, scoringService.getVersion());
+    }
+}
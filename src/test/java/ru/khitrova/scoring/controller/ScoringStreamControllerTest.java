@@ -0,0 +1,57 @@
+package ru.khitrova.scoring.controller;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.khitrova.scoring.web.ScoringStreamController;
+
+import java.net.URI;
+
+/**
+ * Тесты потоковой проверки запросов в формате NDJSON через HTTP.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ScoringStreamControllerTest {
+
+    private static final String URL_PATTERN = "http://localhost:%s/scoring/check";
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(ScoringStreamController.APPLICATION_NDJSON_VALUE);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    public void streamTest() {
+        StringBuilder body = new StringBuilder();
+        for (int age = 16; age < 20; age++) {
+            body.append("{\"age\":").append(age).append(",\"sex\":\"F\",\"sourceOfIncome\":\"EMPLOYEE\",")
+                    .append("\"lastYearIncome\":10,\"creditRating\":2,\"requestedAmount\":1,")
+                    .append("\"repaymentPeriod\":2,\"loanPurpose\":\"CAR\"}\n");
+        }
+        RequestEntity<String> request = RequestEntity
+                .post(URI.create(String.format(URL_PATTERN, port)))
+                .contentType(APPLICATION_NDJSON)
+                .accept(APPLICATION_NDJSON)
+                .body(body.toString());
+
+        ResponseEntity<String> response = restTemplate.exchange(request, String.class);
+
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assert.assertTrue(APPLICATION_NDJSON.isCompatibleWith(response.getHeaders().getContentType()));
+        Assert.assertEquals(
+                "{\"approved\":false,\"annualPayment\":0}\n"
+                        + "{\"approved\":false,\"annualPayment\":0}\n"
+                        + "{\"approved\":true,\"annualPayment\":0.5}\n"
+                        + "{\"approved\":true,\"annualPayment\":0.5}\n",
+                response.getBody());
+    }
+}
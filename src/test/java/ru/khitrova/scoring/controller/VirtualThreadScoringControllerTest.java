@@ -0,0 +1,32 @@
+package ru.khitrova.scoring.controller;
+
+import org.apache.catalina.connector.Connector;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Тесты валидации входных значений для контроллера при обработке запросов в виртуальных потоках:
+ * те же проверки, что и в {@link ScoringControllerTest}.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+public class VirtualThreadScoringControllerTest extends ScoringControllerTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext applicationContext;
+
+    @Test
+    public void virtualThreadExecutorTest() {
+        TomcatWebServer webServer = (TomcatWebServer) applicationContext.getWebServer();
+        Connector connector = webServer.getTomcat().getConnector();
+
+        Assert.assertTrue(connector.getProtocolHandler().getExecutor().getClass().getSimpleName().contains("Virtual"));
+    }
+}
@@ -0,0 +1,131 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.khitrova.scoring.binary.BinaryProtocol;
+import ru.khitrova.scoring.bulk.*;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.BatchScoringService;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+
+import jakarta.validation.Validation;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Тесты пакетной проверки файлов.
+ */
+public class BulkScoringProcessorTest {
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final String[] INCOMES = {"10", "15", "15.0", "2E+1", "0.35", "123456789012345678901.5"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final InMemoryScoringService reference = new InMemoryScoringService();
+    private final BatchScoringService batchScoringService = new BatchScoringService(reference,
+            Validation.buildDefaultValidatorFactory().getValidator(), 1000, 256);
+
+    private List<LoanRequest> loanRequests() {
+        List<LoanRequest> loanRequests = new ArrayList<>();
+        new ScoringDomain().forEachAge(loanRequests::add);
+        for (String income : INCOMES) {
+            for (int tenths = 1; tenths <= 100; tenths += 9) {
+                loanRequests.add(ScoringDomain.request(40, Sex.M, SourceOfIncome.OWN_BUSINESS, 1, tenths, 2,
+                        LoanPurpose.CONSUMER, new BigDecimal(income)));
+            }
+        }
+        return loanRequests;
+    }
+
+    private static String csv(LoanRequest loanRequest) {
+        return loanRequest.age + "," + loanRequest.sex + "," + loanRequest.sourceOfIncome + ","
+                + loanRequest.lastYearIncome + "," + loanRequest.creditRating + "," + loanRequest.requestedAmount + ","
+                + loanRequest.repaymentPeriod + "," + loanRequest.loanPurpose;
+    }
+
+    private BulkScoringReport process(RecordFormat format, Path input, Path output, int parallelism)
+            throws IOException {
+        return new BulkScoringProcessor(batchScoringService, format, CHUNK_SIZE, parallelism)
+                .process(input, output, report -> { });
+    }
+
+    @Test
+    public void csvTest() throws IOException {
+        List<LoanRequest> loanRequests = loanRequests();
+        StringBuilder input = new StringBuilder(CsvRecordFormat.HEADER).append('\n');
+        List<String> expected = new ArrayList<>();
+        long approved = 0;
+        for (LoanRequest loanRequest : loanRequests) {
+            input.append(csv(loanRequest)).append(loanRequest.age % 2 == 0 ? "\n" : "\r\n");
+            LoanResponse loanResponse = reference.checkLoan(loanRequest);
+            expected.add(loanResponse.approved + "," + loanResponse.annualPayment + ",");
+            approved += loanResponse.approved ? 1 : 0;
+        }
+        input.append("\n30,M,EMPLOYEE,10,1,1,2\n");
+        expected.add(",,\"Некорректная строка CSV\"");
+        input.append("30,X,EMPLOYEE,10,1,1,2,CAR\n");
+        expected.add(",,\"Некорректная строка CSV\"");
+        input.append("201,M,EMPLOYEE,10,1,1,2,\n");
+        expected.add(",,\"Возраст не может быть больше 200; Цель не может быть null\"");
+        input.append("30,M,EMPLOYEE,,1,1,2,CAR");
+        expected.add(",,\"Не удалось проверить запрос\"");
+
+        Path inputFile = folder.newFile("input.csv").toPath();
+        Path outputFile = folder.newFile("output.csv").toPath();
+        Files.write(inputFile, input.toString().getBytes(StandardCharsets.UTF_8));
+
+        BulkScoringReport report = process(new CsvRecordFormat(), inputFile, outputFile, 4);
+
+        Assert.assertEquals(expected, Files.readAllLines(outputFile, StandardCharsets.UTF_8));
+        Assert.assertEquals(loanRequests.size() + 4, report.records());
+        Assert.assertEquals(approved, report.approved);
+        Assert.assertEquals(4, report.invalid);
+        Assert.assertEquals(Files.size(inputFile), report.processedBytes);
+    }
+
+    @Test
+    public void binaryTest() throws IOException {
+        List<LoanRequest> loanRequests = loanRequests();
+        loanRequests.removeIf(loanRequest -> loanRequest.lastYearIncome.precision() > 18);
+        ByteBuffer input = ByteBuffer.allocate(loanRequests.size() * BinaryProtocol.REQUEST_SIZE);
+        for (int i = 0; i < loanRequests.size(); i++) {
+            input.putInt(i);
+            BinaryProtocol.writeRequest(input, loanRequests.get(i));
+        }
+
+        Path inputFile = folder.newFile("input.bin").toPath();
+        Path outputFile = folder.newFile("output.bin").toPath();
+        Files.write(inputFile, input.array());
+
+        BulkScoringReport report = process(new BinaryRecordFormat(), inputFile, outputFile, 3);
+
+        ByteBuffer output = ByteBuffer.wrap(Files.readAllBytes(outputFile));
+        Assert.assertEquals(loanRequests.size() * BinaryProtocol.RESPONSE_SIZE, output.remaining());
+        for (int i = 0; i < loanRequests.size(); i++) {
+            LoanResponse expected = reference.checkLoan(loanRequests.get(i));
+            Assert.assertEquals(i, output.getInt());
+            LoanResponse actual = BinaryProtocol.readResponse(output);
+            Assert.assertEquals("Запрос " + i, expected.approved, actual.approved);
+            Assert.assertEquals("Запрос " + i, expected.annualPayment, actual.annualPayment);
+        }
+        Assert.assertEquals(loanRequests.size(), report.records());
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedBinaryTest() throws IOException {
+        Path inputFile = folder.newFile("truncated.bin").toPath();
+        Files.write(inputFile, new byte[BinaryProtocol.REQUEST_SIZE + 1]);
+
+        process(new BinaryRecordFormat(), inputFile, folder.newFile("truncated.out").toPath(), 1);
+    }
+}
@@ -0,0 +1,174 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.CachingScoringService;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+import ru.khitrova.scoring.scoring.InterestRateTable;
+import ru.khitrova.scoring.scoring.InterestRates;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Тесты кэша результатов проверки.
+ */
+public class CachingScoringServiceTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ScoringService reference = new InMemoryScoringService();
+    private final ScoringService counting = loanRequest -> {
+        calls.incrementAndGet();
+        return reference.checkLoan(loanRequest);
+    };
+
+    private LoanRequest loanRequest(String amount, String income) {
+        LoanRequest loanRequest = ScoringDomain.request(30, Sex.M, SourceOfIncome.OWN_BUSINESS, 2, 10, 1,
+                LoanPurpose.CAR, new BigDecimal(income));
+        loanRequest.requestedAmount = new BigDecimal(amount);
+        return loanRequest;
+    }
+
+    @Test
+    public void repeatedRequestTest() {
+        CachingScoringService scoringService = new CachingScoringService(counting, 100);
+
+        LoanResponse first = scoringService.checkLoan(loanRequest("1", "10"));
+        LoanResponse second = scoringService.checkLoan(loanRequest("1.0", "10"));
+
+        Assert.assertEquals(1, calls.get());
+        Assert.assertTrue(first.approved);
+        Assert.assertEquals(first.annualPayment, second.annualPayment);
+        Assert.assertEquals(1, scoringService.getCache().stats().hitCount());
+    }
+
+    @Test
+    public void responseCopyTest() {
+        CachingScoringService scoringService = new CachingScoringService(counting, 100);
+
+        scoringService.checkLoan(loanRequest("1", "10")).approved = false;
+
+        Assert.assertTrue(scoringService.checkLoan(loanRequest("1", "10")).approved);
+    }
+
+    /**
+     * Половина дохода округляется с масштабом дохода, поэтому доход 15 и 15.0, 20 и 2E+1 - разные ключи,
+     * а 15.0 и 15.00 - один.
+     */
+    @Test
+    public void incomeScaleTest() {
+        CachingScoringService scoringService = new CachingScoringService(counting, 100);
+
+        scoringService.checkLoan(loanRequest("1", "15"));
+        scoringService.checkLoan(loanRequest("1", "15.0"));
+        Assert.assertEquals(2, calls.get());
+
+        scoringService.checkLoan(loanRequest("1", "15.00"));
+        scoringService.checkLoan(loanRequest("1", "15.000"));
+        Assert.assertEquals(2, calls.get());
+
+        scoringService.checkLoan(loanRequest("1", "1.5E+1"));
+        Assert.assertEquals(2, calls.get());
+
+        scoringService.checkLoan(loanRequest("1", "20"));
+        scoringService.checkLoan(loanRequest("1", "2E+1"));
+        Assert.assertEquals(4, calls.get());
+    }
+
+    /**
+     * Половина отрицательного дохода округляется по-разному при разном масштабе: доход -0.01 проходит проверку
+     * годового платежа, а -0.010 - нет, поэтому это разные ключи.
+     */
+    @Test
+    public void negativeIncomeScaleTest() {
+        CachingScoringService scoringService = new CachingScoringService(counting, 100);
+        LoanRequest first = ScoringDomain.request(30, Sex.M, SourceOfIncome.EMPLOYEE, 1, 1, 20,
+                LoanPurpose.MORTGAGE, new BigDecimal("-0.01"));
+        LoanRequest second = ScoringDomain.request(30, Sex.M, SourceOfIncome.EMPLOYEE, 1, 1, 20,
+                LoanPurpose.MORTGAGE, new BigDecimal("-0.010"));
+
+        Assert.assertTrue(reference.checkLoan(first).approved);
+        Assert.assertFalse(reference.checkLoan(second).approved);
+
+        Assert.assertTrue(scoringService.checkLoan(first).approved);
+        Assert.assertFalse(scoringService.checkLoan(second).approved);
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void maximumSizeTest() {
+        CachingScoringService scoringService = new CachingScoringService(counting, 100);
+        for (int i = 0; i < 1000; i++) {
+            scoringService.checkLoan(loanRequest("1", String.valueOf(i)));
+        }
+        scoringService.getCache().cleanUp();
+
+        Assert.assertTrue(scoringService.getCache().estimatedSize() <= 100);
+        Assert.assertTrue(scoringService.getCache().stats().evictionCount() >= 900);
+    }
+
+    /**
+     * Ответы из кэша совпадают с расчетом, в том числе для доходов с разным масштабом.
+     */
+    @Test
+    public void wholeDomainTest() {
+        CachingScoringService scoringService = new CachingScoringService(reference, 10_000);
+        new ScoringDomain().forEachRequest(30, Sex.M, loanRequest -> {
+            LoanResponse expected = reference.checkLoan(loanRequest);
+            LoanResponse actual = scoringService.checkLoan(loanRequest);
+            String message = ScoringDomain.describe(loanRequest);
+            Assert.assertEquals(message, expected.approved, actual.approved);
+            Assert.assertEquals(message, expected.annualPayment, actual.annualPayment);
+        });
+        Assert.assertTrue(scoringService.getCache().stats().hitCount() > 0);
+    }
+
+    /**
+     * Ответ из кэша возвращается со ставками, по которым рассчитан, даже если ставки после этого заменены.
+     */
+    @Test
+    public void cachedRatesTest() {
+        InterestRates replaced = (loanPurpose, creditRating, requestedAmount, sourceOfIncome) -> BigDecimal.ONE;
+        AtomicReference<InterestRates> rates = new AtomicReference<>(InterestRateTable.INTEREST_RATES);
+        CachingScoringService scoringService = new CachingScoringService(counting, 100, rates::get);
+
+        CachingScoringService.CachedResponse first = scoringService.checkCached(loanRequest("1", "10"));
+        rates.set(replaced);
+        CachingScoringService.CachedResponse second = scoringService.checkCached(loanRequest("1", "10"));
+
+        Assert.assertFalse(first.hit);
+        Assert.assertTrue(second.hit);
+        Assert.assertSame(InterestRateTable.INTEREST_RATES, second.rates);
+        Assert.assertEquals(first.loanResponse.annualPayment, second.loanResponse.annualPayment);
+        Assert.assertEquals(1, calls.get());
+    }
+
+    /**
+     * Если ставки заменены во время расчета, версия правил ответа неизвестна и ответ не кэшируется:
+     * следующий такой же запрос рассчитывается заново.
+     */
+    @Test
+    public void ratesReplacedDuringCheckTest() {
+        InterestRates replaced = (loanPurpose, creditRating, requestedAmount, sourceOfIncome) -> BigDecimal.ONE;
+        AtomicReference<InterestRates> rates = new AtomicReference<>(InterestRateTable.INTEREST_RATES);
+        ScoringService replacing = loanRequest -> {
+            rates.set(replaced);
+            return counting.checkLoan(loanRequest);
+        };
+        CachingScoringService scoringService = new CachingScoringService(replacing, 100, rates::get);
+
+        Assert.assertTrue(scoringService.checkLoan(loanRequest("1", "10")).approved);
+        Assert.assertEquals(0, scoringService.getCache().estimatedSize());
+
+        CachingScoringService.CachedResponse second = scoringService.checkCached(loanRequest("1", "10"));
+        CachingScoringService.CachedResponse third = scoringService.checkCached(loanRequest("1", "10"));
+
+        Assert.assertFalse(second.hit);
+        Assert.assertTrue(third.hit);
+        Assert.assertSame(replaced, third.rates);
+        Assert.assertEquals(2, calls.get());
+    }
+}
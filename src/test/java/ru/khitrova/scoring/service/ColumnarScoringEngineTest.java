@@ -0,0 +1,155 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Тесты проверки пачки запросов в столбцах: решения совпадают с проверкой каждого {@link LoanRequest}.
+ */
+public class ColumnarScoringEngineTest {
+
+    private final ScoringDomain domain = new ScoringDomain();
+    private final ScoringService reference = new InMemoryScoringService();
+    private final ScoringService fallback = new FixedPointScoringService();
+    private final ColumnarScoringEngine engine = new ColumnarScoringEngine();
+
+    @Test
+    public void sameDecisionTest() {
+        List<LoanRequest> loanRequests = Collections.synchronizedList(new ArrayList<>());
+        domain.forEachRequest(30, Sex.F, loanRequest -> {
+            // доход, который не помещается в long, в столбцах не представим
+            if (LoanColumns.fits(loanRequest)) {
+                loanRequests.add(loanRequest);
+            }
+        });
+        domain.forEachAge(loanRequests::add);
+        Assert.assertTrue(loanRequests.size() > 160_000);
+
+        assertSameDecisions(loanRequests);
+    }
+
+    /**
+     * Значения вне таблицы проверяются по одной записи и не нарушают решения соседних записей.
+     */
+    @Test
+    public void outOfDomainTest() {
+        int[][] values = {
+                // рейтинг, сумма в десятых долях, срок, доход без масштаба, масштаб дохода
+                {2, 101, 2, 15, 0},
+                {3, 10, 21, 15, 0},
+                {-3, 10, 2, 15, 0},
+                {1, 10, 2, 1, -2},
+                {1, 10, 2, -150, 1},
+                {1, 10, 2, 150, 17},
+                {1, 10, 2, 150, 1}
+        };
+        List<LoanRequest> loanRequests = new ArrayList<>();
+        for (int[] value : values) {
+            for (int age : new int[]{Integer.MIN_VALUE, -1, 30, 61, 66, Integer.MAX_VALUE}) {
+                for (Sex sex : Sex.values()) {
+                    loanRequests.add(ScoringDecision.toRequest(age, sex, SourceOfIncome.OWN_BUSINESS, value[0],
+                            value[1], value[2], LoanPurpose.CAR, value[3], value[4]));
+                }
+            }
+        }
+        assertSameDecisions(loanRequests);
+    }
+
+    /**
+     * Слушатель получает те же решения и причины отказа, что и при проверке по одной записи.
+     */
+    @Test
+    public void listenerTest() {
+        List<LoanRequest> loanRequests = Collections.synchronizedList(new ArrayList<>());
+        domain.forEachRequest(30, Sex.M, loanRequests::add);
+        domain.forEachAge(loanRequests::add);
+        loanRequests.removeIf(loanRequest -> !LoanColumns.fits(loanRequest));
+        LoanColumns columns = columns(loanRequests);
+
+        CountingListener expected = new CountingListener();
+        ScoringService scoringService = new FixedPointScoringService(expected);
+        for (LoanRequest loanRequest : loanRequests) {
+            scoringService.checkLoan(loanRequest);
+        }
+        CountingListener actual = new CountingListener();
+        new FixedPointScoringService(actual).checkLoans(columns, new long[columns.size]);
+
+        Assert.assertEquals(expected.counts, actual.counts);
+        Assert.assertEquals(loanRequests.size(), actual.counts.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    public void shortDecisionsTest() {
+        try {
+            engine.checkLoans(new LoanColumns(2), new long[1], fallback);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("1 < 2"));
+        }
+    }
+
+    /**
+     * Столбцы заполняются напрямую, чтобы в них попадали и значения вне таблицы.
+     */
+    private static LoanColumns columns(List<LoanRequest> loanRequests) {
+        LoanColumns columns = new LoanColumns(loanRequests.size());
+        for (int i = 0; i < columns.size; i++) {
+            LoanRequest loanRequest = loanRequests.get(i);
+            BigDecimal income = loanRequest.lastYearIncome;
+            columns.age[i] = loanRequest.age;
+            columns.sex[i] = loanRequest.sex.ordinal();
+            columns.sourceOfIncome[i] = loanRequest.sourceOfIncome.ordinal();
+            columns.creditRating[i] = loanRequest.creditRating;
+            columns.amountTenths[i] = loanRequest.requestedAmount.unscaledValue().intValueExact();
+            columns.repaymentPeriod[i] = loanRequest.repaymentPeriod;
+            columns.loanPurpose[i] = loanRequest.loanPurpose.ordinal();
+            columns.incomeUnscaled[i] = income.unscaledValue().longValueExact();
+            columns.incomeScale[i] = income.scale();
+        }
+        return columns;
+    }
+
+    private void assertSameDecisions(List<LoanRequest> loanRequests) {
+        LoanColumns columns = columns(loanRequests);
+        long[] decisions = new long[columns.size];
+
+        engine.checkLoans(columns, decisions, fallback);
+
+        for (int i = 0; i < columns.size; i++) {
+            LoanRequest loanRequest = loanRequests.get(i);
+            Assert.assertEquals(ScoringDomain.describe(loanRequest),
+                    ScoringDecision.toDecision(reference.checkLoan(loanRequest)), decisions[i]);
+        }
+    }
+
+    /**
+     * Получатель решений, который считает одобрения и отказы по причинам.
+     */
+    private static final class CountingListener implements ScoringListener {
+        final Map<String, Integer> counts = new HashMap<>();
+
+        @Override
+        public void approved(BigDecimal annualPayment) {
+            counts.merge("approved", 1, Integer::sum);
+        }
+
+        @Override
+        public void approved(long annualPaymentTenths) {
+            counts.merge("approved", 1, Integer::sum);
+        }
+
+        @Override
+        public void rejected(RejectionReason reason) {
+            counts.merge(reason.name(), 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.rules.ScoringRules;
+import ru.khitrova.scoring.scoring.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Тесты сервиса скоринга по правилам из файла: с правилами по умолчанию результаты и причины отказа
+ * совпадают с {@link InMemoryScoringService}, измененные правила меняют решения.
+ */
+public class CompiledRulesScoringServiceTest {
+    private final RecordingListener referenceListener = new RecordingListener();
+    private final RecordingListener listener = new RecordingListener();
+    private final ScoringService reference = new InMemoryScoringService(referenceListener);
+    private final ScoringService scoringService = new CompiledRulesScoringService(listener, ScoringRules.defaults());
+    private final ScoringDomain domain = new ScoringDomain();
+
+    @Test
+    public void wholeDomainTest() {
+        AtomicLong checked = new AtomicLong();
+        domain.forEachRequest(30, Sex.F, loanRequest -> {
+            assertSameResponse(loanRequest);
+            checked.incrementAndGet();
+        });
+        Assert.assertTrue(checked.get() > 160_000);
+    }
+
+    @Test
+    public void ageTest() {
+        domain.forEachAge(this::assertSameResponse);
+    }
+
+    @Test
+    public void outOfDomainTest() {
+        LoanRequest loanRequest = ScoringDomain.request(30, Sex.F, SourceOfIncome.OWN_BUSINESS, 2, 50, 2,
+                LoanPurpose.CAR, BigDecimal.valueOf(15));
+        for (String amount : new String[]{"10.1", "1.25", "1E+1", "0.05"}) {
+            loanRequest.requestedAmount = new BigDecimal(amount);
+            assertSameResponse(loanRequest);
+        }
+
+        loanRequest.requestedAmount = BigDecimal.ONE;
+        for (int period : new int[]{21, 100}) {
+            loanRequest.repaymentPeriod = period;
+            assertSameResponse(loanRequest);
+        }
+
+        loanRequest.repaymentPeriod = 2;
+        for (int rating : new int[]{-5, 3, 10}) {
+            loanRequest.creditRating = rating;
+            assertSameResponse(loanRequest);
+        }
+    }
+
+    @Test
+    public void changedRulesTest() throws IOException {
+        ScoringRules rules = ScoringRules.defaults();
+        rules.ageBySex.get(Sex.F).max = 63;
+        rules.interestRateByLoanPurpose.put(LoanPurpose.CAR, BigDecimal.valueOf(5));
+        CompiledRulesScoringService changed = new CompiledRulesScoringService(ScoringListener.NOOP, rules);
+
+        LoanRequest loanRequest = ScoringDomain.request(62, Sex.F, SourceOfIncome.EMPLOYEE, 2, 10, 2,
+                LoanPurpose.CAR, BigDecimal.TEN);
+        Assert.assertFalse(reference.checkLoan(loanRequest).approved);
+        LoanResponse loanResponse = changed.checkLoan(loanRequest);
+        Assert.assertTrue(loanResponse.approved);
+        // ставка 10 + 5 - 0.75 - 0.25 + ln(1) = 14, платеж 1 * (1 + 0.2) / 2
+        Assert.assertEquals(new BigDecimal("0.6"), loanResponse.annualPayment);
+        Assert.assertEquals(0, BigDecimal.valueOf(14).compareTo(
+                changed.currentRules().interestRate(LoanPurpose.CAR, 2, BigDecimal.ONE, SourceOfIncome.EMPLOYEE)));
+        Assert.assertEquals(new BigDecimal("0.5"), reference.checkLoan(ScoringDomain.request(30, Sex.F,
+                SourceOfIncome.EMPLOYEE, 2, 10, 2, LoanPurpose.CAR, BigDecimal.TEN)).annualPayment);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void incompleteRulesTest() throws IOException {
+        ScoringRules rules = ScoringRules.read(new ByteArrayInputStream(
+                "{\"minCreditRating\": -1}".getBytes(StandardCharsets.UTF_8)));
+        new CompiledRulesScoringService(ScoringListener.NOOP, rules);
+    }
+
+    @Test
+    public void tooHighRateTest() {
+        ScoringRules rules = ScoringRules.defaults();
+        rules.interestRateByLoanPurpose.put(LoanPurpose.BUSINESS, new BigDecimal("20000"));
+        try {
+            new CompiledRulesScoringService(listener, rules);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("для цели BUSINESS"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownRuleTest() throws IOException {
+        ScoringRules.read(new ByteArrayInputStream("{\"minCreditRaiting\": -1}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void assertSameResponse(LoanRequest loanRequest) {
+        LoanResponse expected = reference.checkLoan(loanRequest);
+        LoanResponse actual = scoringService.checkLoan(loanRequest);
+        String message = ScoringDomain.describe(loanRequest);
+        Assert.assertEquals(message, expected.approved, actual.approved);
+        Assert.assertEquals(message, expected.annualPayment, actual.annualPayment);
+        Assert.assertEquals(message, referenceListener.reason.get(), listener.reason.get());
+    }
+
+    /**
+     * Последняя причина отказа в каждом потоке: домен перебирается параллельно.
+     */
+    private static class RecordingListener implements ScoringListener {
+        private final ThreadLocal<RejectionReason> reason = new ThreadLocal<>();
+
+        @Override
+        public void approved(BigDecimal annualPayment) {
+            reason.set(null);
+        }
+
+        @Override
+        public void rejected(RejectionReason reason) {
+            this.reason.set(reason);
+        }
+    }
+}
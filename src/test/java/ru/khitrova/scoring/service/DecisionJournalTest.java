@@ -0,0 +1,364 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.khitrova.scoring.journal.*;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.rules.CompiledScoringRules;
+import ru.khitrova.scoring.rules.ScoringRules;
+import ru.khitrova.scoring.scoring.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Тесты журнала решений: записи читаются в порядке добавления с теми же полями, ставкой и решением,
+ * сегменты сменяются, при заполненном буфере записи отбрасываются, недописанный хвост сегмента пропускается.
+ */
+public class DecisionJournalTest {
+
+    private static final int SEGMENT_SIZE = 1 << 20;
+    private static final int BUFFER_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final InterestRates RATES = InterestRateTable.INTEREST_RATES;
+
+    private final ScoringService reference = new InMemoryScoringService();
+    private final ScoringService fixedPoint = new FixedPointScoringService();
+
+    private List<LoanRequest> loanRequests() {
+        List<LoanRequest> loanRequests = new ArrayList<>();
+        new ScoringDomain().forEachAge(loanRequests::add);
+        // суммы и доходы, которые не представимы в примитивном входе
+        loanRequests.add(ScoringDomain.request(40, Sex.M, SourceOfIncome.OWN_BUSINESS, 1, 10, 2,
+                LoanPurpose.CONSUMER, new BigDecimal("123456789012345678901.5")));
+        LoanRequest loanRequest = ScoringDomain.request(30, Sex.F, SourceOfIncome.EMPLOYEE, 2, 10, 2,
+                LoanPurpose.CAR, new BigDecimal("2E+1"));
+        loanRequest.requestedAmount = new BigDecimal("0.15");
+        loanRequests.add(loanRequest);
+        return loanRequests;
+    }
+
+    private DecisionJournal journal(Path directory, int segmentSize, int bufferSize, long maxBlockNanos)
+            throws IOException {
+        return new DecisionJournal(directory, segmentSize, bufferSize, SyncPolicy.BATCH, 0, maxBlockNanos);
+    }
+
+    @Test
+    public void sameRecordsTest() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        List<LoanRequest> loanRequests = loanRequests();
+        try (DecisionJournal journal = journal(directory, SEGMENT_SIZE, BUFFER_SIZE, TimeUnit.SECONDS.toNanos(10))) {
+            ScoringService objects = new JournalingScoringService(reference, journal, RATES);
+            ScoringService primitives = new JournalingScoringService(fixedPoint, journal, RATES);
+            for (LoanRequest loanRequest : loanRequests) {
+                objects.checkLoan(loanRequest);
+                ScoringDecision.checkLoan(primitives, loanRequest);
+            }
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        JournalReader.open(directory).forEach(records::add);
+        Assert.assertEquals(loanRequests.size() * 2, records.size());
+        for (int i = 0; i < loanRequests.size(); i++) {
+            LoanRequest loanRequest = loanRequests.get(i);
+            assertSameRecord(loanRequest, records.get(2 * i));
+            assertSameRecord(loanRequest, records.get(2 * i + 1));
+        }
+    }
+
+    @Test
+    public void rollingSegmentsTest() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        List<LoanRequest> loanRequests = loanRequests();
+        try (DecisionJournal journal = journal(directory, 4096, BUFFER_SIZE, TimeUnit.SECONDS.toNanos(10))) {
+            for (LoanRequest loanRequest : loanRequests) {
+                journal.append(loanRequest, reference.checkLoan(loanRequest), RATES);
+            }
+            Assert.assertEquals(0, journal.getDropped());
+        }
+        // новый журнал в том же каталоге начинает следующий сегмент
+        try (DecisionJournal journal = journal(directory, 4096, BUFFER_SIZE, 0)) {
+            journal.append(loanRequests.get(0), reference.checkLoan(loanRequests.get(0)), RATES);
+        }
+
+        JournalReader reader = JournalReader.open(directory);
+        Assert.assertTrue(reader.getSegments().size() > 2);
+        List<JournalRecord> records = new ArrayList<>();
+        reader.forEach(records::add);
+        Assert.assertEquals(loanRequests.size() + 1, records.size());
+        for (int i = 0; i < loanRequests.size(); i++) {
+            assertSameRecord(loanRequests.get(i), records.get(i));
+        }
+        assertSameRecord(loanRequests.get(0), records.get(loanRequests.size()));
+    }
+
+    @Test
+    public void concurrentAppendTest() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        List<LoanRequest> loanRequests = loanRequests();
+        int threads = 8;
+        try (DecisionJournal journal = journal(directory, SEGMENT_SIZE, 64, TimeUnit.SECONDS.toNanos(10))) {
+            ScoringService scoringService = new JournalingScoringService(fixedPoint, journal, RATES);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int thread = 0; thread < threads; thread++) {
+                    futures.add(executor.submit(() -> loanRequests.forEach(scoringService::checkLoan)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        int count = 0;
+        for (JournalRecord record : JournalReader.open(directory)) {
+            Assert.assertNotNull(record.loanRequest.age);
+            count++;
+        }
+        Assert.assertEquals(loanRequests.size() * threads, count);
+    }
+
+    /**
+     * Записи, добавляемые во время закрытия журнала, либо записываются, либо учитываются как отброшенные.
+     */
+    @Test
+    public void closeDuringAppendTest() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        LoanRequest loanRequest = loanRequests().get(0);
+        LoanResponse loanResponse = reference.checkLoan(loanRequest);
+        int threads = 8;
+        DecisionJournal journal = journal(directory, SEGMENT_SIZE, 64, 0);
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicLong appended = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    while (!closed.get()) {
+                        journal.append(loanRequest, loanResponse, RATES);
+                        appended.incrementAndGet();
+                    }
+                }));
+            }
+            Thread.sleep(50);
+            journal.close();
+            closed.set(true);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int count = 0;
+        for (JournalRecord ignored : JournalReader.open(directory)) {
+            count++;
+        }
+        Assert.assertEquals(journal.getWritten(), count);
+        Assert.assertEquals(0, journal.getFailed());
+        Assert.assertEquals(appended.get(), journal.getWritten() + journal.getDropped());
+    }
+
+    @Test
+    public void droppedWhenFullTest() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // поток записи останавливается на расчете ставки первой записи
+        InterestRates slowRates = (loanPurpose, creditRating, requestedAmount, sourceOfIncome) -> {
+            writerBlocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return RATES.interestRate(loanPurpose, creditRating, requestedAmount, sourceOfIncome);
+        };
+        LoanRequest loanRequest = loanRequests().get(0);
+        LoanResponse loanResponse = reference.checkLoan(loanRequest);
+        try (DecisionJournal journal = journal(directory, SEGMENT_SIZE, 4, TimeUnit.MILLISECONDS.toNanos(1))) {
+            Assert.assertTrue(journal.append(loanRequest, loanResponse, slowRates));
+            Assert.assertTrue(writerBlocked.await(10, TimeUnit.SECONDS));
+            // ячейка первой записи занята, пока поток записи ее не запишет
+            for (int i = 0; i < 3; i++) {
+                Assert.assertTrue(journal.append(loanRequest, loanResponse, slowRates));
+            }
+            Assert.assertFalse(journal.append(loanRequest, loanResponse, slowRates));
+            Assert.assertEquals(1, journal.getDropped());
+            release.countDown();
+        }
+
+        int count = 0;
+        for (JournalRecord ignored : JournalReader.open(directory)) {
+            count++;
+        }
+        Assert.assertEquals(4, count);
+    }
+
+    /**
+     * Правила заменяются после каждой проверки, до добавления записи в журнал: ставка в записи все равно
+     * рассчитывается по правилам, которыми проверен запрос, а пачка проверяется по одной версии правил.
+     */
+    @Test
+    public void rateByRulesAtCheckTest() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        CompiledRulesScoringService compiled = new CompiledRulesScoringService() {
+            private int reloads;
+
+            @Override
+            public LoanResponse checkLoan(LoanRequest loanRequest, CompiledScoringRules rules) {
+                LoanResponse loanResponse = super.checkLoan(loanRequest, rules);
+                replaceRules();
+                return loanResponse;
+            }
+
+            @Override
+            public long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating,
+                                  int amountTenths, int repaymentPeriod, LoanPurpose loanPurpose,
+                                  long incomeUnscaled, int incomeScale, CompiledScoringRules rules) {
+                long decision = super.checkLoan(age, sex, sourceOfIncome, creditRating, amountTenths,
+                        repaymentPeriod, loanPurpose, incomeUnscaled, incomeScale, rules);
+                replaceRules();
+                return decision;
+            }
+
+            private void replaceRules() {
+                ScoringRules changed = ScoringRules.defaults();
+                changed.baseInterestRate = changed.baseInterestRate.add(BigDecimal.valueOf(++reloads));
+                reload(changed);
+            }
+        };
+        LoanRequest loanRequest = ScoringDomain.request(30, Sex.F, SourceOfIncome.EMPLOYEE, 2, 10, 2,
+                LoanPurpose.CAR, BigDecimal.valueOf(20));
+        BigDecimal before = compiled.currentRules().interestRate(loanRequest.loanPurpose, loanRequest.creditRating,
+                loanRequest.requestedAmount, loanRequest.sourceOfIncome);
+        try (DecisionJournal journal = journal(directory, SEGMENT_SIZE, BUFFER_SIZE, 0)) {
+            ScoringService journaling = new JournalingScoringService(compiled, journal);
+            journaling.checkLoan(loanRequest);
+            ScoringDecision.checkLoan(journaling, loanRequest);
+            LoanColumns columns = new LoanColumns(2);
+            columns.set(0, loanRequest);
+            columns.set(1, loanRequest);
+            journaling.checkLoans(columns, new long[columns.size]);
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        JournalReader.open(directory).forEach(records::add);
+        Assert.assertEquals(4, records.size());
+        Assert.assertEquals(before, records.get(0).interestRate);
+        Assert.assertEquals(before.add(BigDecimal.ONE), records.get(1).interestRate);
+        Assert.assertEquals(before.add(BigDecimal.valueOf(2)), records.get(2).interestRate);
+        Assert.assertEquals(before.add(BigDecimal.valueOf(2)), records.get(3).interestRate);
+    }
+
+    /**
+     * Ответы из кэша записываются в журнал наравне с рассчитанными и со ставкой правил, по которым
+     * ответ попал в кэш, даже если правила после этого заменены.
+     */
+    @Test
+    public void cacheHitsTest() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        CompiledRulesScoringService compiled = new CompiledRulesScoringService();
+        LoanRequest loanRequest = ScoringDomain.request(30, Sex.F, SourceOfIncome.EMPLOYEE, 2, 10, 2,
+                LoanPurpose.CAR, BigDecimal.valueOf(20));
+        BigDecimal before = compiled.currentRules().interestRate(loanRequest.loanPurpose, loanRequest.creditRating,
+                loanRequest.requestedAmount, loanRequest.sourceOfIncome);
+        try (DecisionJournal journal = journal(directory, SEGMENT_SIZE, BUFFER_SIZE, 0)) {
+            CachingScoringService cache = new CachingScoringService(new JournalingScoringService(compiled, journal),
+                    100, compiled::currentRules);
+            ScoringService journaling = new CacheHitJournalingScoringService(cache, journal);
+            journaling.checkLoan(loanRequest);
+            journaling.checkLoan(loanRequest);
+            ScoringRules changed = ScoringRules.defaults();
+            changed.baseInterestRate = changed.baseInterestRate.add(BigDecimal.ONE);
+            compiled.reload(changed);
+            journaling.checkLoan(loanRequest);
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        JournalReader.open(directory).forEach(records::add);
+        Assert.assertEquals(3, records.size());
+        for (JournalRecord record : records) {
+            Assert.assertEquals(before, record.interestRate);
+            Assert.assertEquals(loanRequest.lastYearIncome, record.loanRequest.lastYearIncome);
+        }
+    }
+
+    @Test
+    public void tornTailTest() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        List<LoanRequest> loanRequests = loanRequests();
+        try (DecisionJournal journal = journal(directory, SEGMENT_SIZE, BUFFER_SIZE, TimeUnit.SECONDS.toNanos(10))) {
+            for (LoanRequest loanRequest : loanRequests) {
+                journal.append(loanRequest, reference.checkLoan(loanRequest), RATES);
+            }
+        }
+        Path segment = JournalReader.segments(directory).get(0);
+
+        // испорченный последний байт последней записи: запись не совпадает с CRC и не читается
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int last = lastRecordEnd(buffer) - 1;
+            buffer.put(last, (byte) (buffer.get(last) ^ 1));
+        }
+        int count = 0;
+        for (JournalRecord ignored : JournalReader.open(directory)) {
+            count++;
+        }
+        Assert.assertEquals(loanRequests.size() - 1, count);
+    }
+
+    private static int lastRecordEnd(ByteBuffer buffer) {
+        int position = JournalFormat.HEADER_SIZE;
+        while (true) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                return position;
+            }
+            position += JournalFormat.RECORD_HEADER_SIZE + length;
+        }
+    }
+
+    private void assertSameRecord(LoanRequest loanRequest, JournalRecord record) {
+        String message = ScoringDomain.describe(loanRequest);
+        Assert.assertEquals(message, loanRequest.age, record.loanRequest.age);
+        Assert.assertEquals(message, loanRequest.sex, record.loanRequest.sex);
+        Assert.assertEquals(message, loanRequest.sourceOfIncome, record.loanRequest.sourceOfIncome);
+        Assert.assertEquals(message, loanRequest.creditRating, record.loanRequest.creditRating);
+        Assert.assertEquals(message, loanRequest.repaymentPeriod, record.loanRequest.repaymentPeriod);
+        Assert.assertEquals(message, loanRequest.loanPurpose, record.loanRequest.loanPurpose);
+        Assert.assertEquals(message, 0, loanRequest.requestedAmount.compareTo(record.loanRequest.requestedAmount));
+        // масштаб дохода влияет на округление, поэтому доход сохраняется точно
+        Assert.assertEquals(message, loanRequest.lastYearIncome, record.loanRequest.lastYearIncome);
+
+        LoanResponse expected = reference.checkLoan(loanRequest);
+        Assert.assertEquals(message, expected.approved, record.loanResponse.approved);
+        Assert.assertEquals(message, 0, expected.annualPayment.compareTo(record.loanResponse.annualPayment));
+        Assert.assertEquals(message, InterestRateTable.rate(loanRequest.loanPurpose, loanRequest.creditRating,
+                loanRequest.requestedAmount, loanRequest.sourceOfIncome), record.interestRate);
+        Assert.assertTrue(message, record.time > 0);
+    }
+}
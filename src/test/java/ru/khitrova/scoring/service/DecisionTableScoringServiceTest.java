@@ -0,0 +1,70 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.DecisionTableScoringService;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Тесты совпадения решений по таблице минимального дохода с эталонной реализацией.
+ */
+public class DecisionTableScoringServiceTest {
+    private final ScoringService reference = new InMemoryScoringService();
+    private final ScoringService scoringService = new DecisionTableScoringService();
+    private final ScoringDomain domain = new ScoringDomain();
+
+    /**
+     * Пол влияет только на проверку возраста, которая перебирается отдельно в {@link #ageTest()}.
+     */
+    @Test
+    public void wholeDomainTest() {
+        AtomicLong checked = new AtomicLong();
+        AtomicLong approved = new AtomicLong();
+        domain.forEachRequest(45, Sex.M, loanRequest -> {
+            if (assertSameResponse(loanRequest)) {
+                approved.incrementAndGet();
+            }
+            checked.incrementAndGet();
+        });
+        Assert.assertTrue(checked.get() > 160_000);
+        Assert.assertTrue(approved.get() > 0);
+    }
+
+    @Test
+    public void ageTest() {
+        domain.forEachAge(this::assertSameResponse);
+    }
+
+    @Test
+    public void outOfTableTest() {
+        LoanRequest loanRequest = ScoringDomain.request(30, Sex.F, SourceOfIncome.OWN_BUSINESS, 2, 50, 2,
+                LoanPurpose.CAR, BigDecimal.valueOf(15));
+        loanRequest.age = 250;
+        assertSameResponse(loanRequest);
+
+        loanRequest.age = -1;
+        assertSameResponse(loanRequest);
+
+        loanRequest.age = 30;
+        loanRequest.requestedAmount = BigDecimal.valueOf(10.1);
+        assertSameResponse(loanRequest);
+
+        loanRequest.requestedAmount = new BigDecimal("0.05");
+        loanRequest.lastYearIncome = new BigDecimal("-0.01");
+        assertSameResponse(loanRequest);
+    }
+
+    private boolean assertSameResponse(LoanRequest loanRequest) {
+        LoanResponse expected = reference.checkLoan(loanRequest);
+        LoanResponse actual = scoringService.checkLoan(loanRequest);
+        String message = ScoringDomain.describe(loanRequest);
+        Assert.assertEquals(message, expected.approved, actual.approved);
+        Assert.assertEquals(message, expected.annualPayment, actual.annualPayment);
+        return actual.approved;
+    }
+}
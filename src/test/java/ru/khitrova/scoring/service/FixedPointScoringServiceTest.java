@@ -0,0 +1,61 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.FixedPointScoringService;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Тесты совпадения результатов целочисленной реализации с реализацией на {@link BigDecimal}.
+ */
+public class FixedPointScoringServiceTest {
+    private final ScoringService reference = new InMemoryScoringService();
+    private final ScoringService scoringService = new FixedPointScoringService();
+    private final ScoringDomain domain = new ScoringDomain();
+
+    /**
+     * Пол влияет только на проверку возраста, которая перебирается отдельно в {@link #ageTest()}.
+     */
+    @Test
+    public void wholeDomainTest() {
+        AtomicLong checked = new AtomicLong();
+        domain.forEachRequest(30, Sex.F, loanRequest -> {
+            assertSameResponse(loanRequest);
+            checked.incrementAndGet();
+        });
+        Assert.assertTrue(checked.get() > 160_000);
+    }
+
+    @Test
+    public void ageTest() {
+        domain.forEachAge(this::assertSameResponse);
+    }
+
+    @Test
+    public void outOfDomainTest() {
+        LoanRequest loanRequest = ScoringDomain.request(30, Sex.F, SourceOfIncome.OWN_BUSINESS, 2, 50, 2,
+                LoanPurpose.CAR, BigDecimal.valueOf(15));
+        loanRequest.requestedAmount = BigDecimal.valueOf(10.1);
+        assertSameResponse(loanRequest);
+
+        loanRequest.requestedAmount = new BigDecimal("1.25");
+        assertSameResponse(loanRequest);
+
+        loanRequest.requestedAmount = BigDecimal.ONE;
+        loanRequest.repaymentPeriod = 21;
+        assertSameResponse(loanRequest);
+    }
+
+    private void assertSameResponse(LoanRequest loanRequest) {
+        LoanResponse expected = reference.checkLoan(loanRequest);
+        LoanResponse actual = scoringService.checkLoan(loanRequest);
+        String message = ScoringDomain.describe(loanRequest);
+        Assert.assertEquals(message, expected.approved, actual.approved);
+        Assert.assertEquals(message, expected.annualPayment, actual.annualPayment);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.LoanPurpose;
+import ru.khitrova.scoring.model.SourceOfIncome;
+import ru.khitrova.scoring.scoring.InterestRateTable;
+
+import java.math.BigDecimal;
+
+/**
+ * Тесты таблицы процентных ставок: табличная ставка должна совпадать с рассчитанной
+ * для всех допустимых значений входных параметров.
+ */
+public class InterestRateTableTest {
+    private final String rateError = "Табличная ставка отличается от рассчитанной. Цель: %s, рейтинг: %s, источник: %s, сумма: %s";
+
+    @Test
+    public void wholeDomainTest() {
+        int checked = 0;
+        for (LoanPurpose purpose : LoanPurpose.values()) {
+            for (int rating = InterestRateTable.MIN_RATING; rating <= InterestRateTable.MAX_RATING; rating++) {
+                for (SourceOfIncome source : SourceOfIncome.values()) {
+                    for (int tenths = InterestRateTable.MIN_AMOUNT_TENTHS; tenths <= InterestRateTable.MAX_AMOUNT_TENTHS; tenths++) {
+                        BigDecimal amount = BigDecimal.valueOf(tenths, 1);
+                        BigDecimal expected = InterestRateTable.calculate(purpose, rating, amount, source);
+                        String message = String.format(rateError, purpose, rating, source, amount);
+
+                        Assert.assertEquals(message, expected, InterestRateTable.rate(purpose, rating, amount, source));
+                        Assert.assertEquals(message, expected,
+                                InterestRateTable.lookup(purpose.ordinal(), rating, source.ordinal(), tenths));
+                        if (tenths % 10 == 0) {
+                            BigDecimal wholeAmount = BigDecimal.valueOf(tenths / 10);
+                            Assert.assertEquals(message, expected, InterestRateTable.rate(purpose, rating, wholeAmount, source));
+                        }
+                        checked++;
+                    }
+                }
+            }
+        }
+        Assert.assertEquals(4 * 5 * 4 * 100, checked);
+    }
+
+    @Test
+    public void amountInTenthsTest() {
+        Assert.assertEquals(1, InterestRateTable.amountInTenths(BigDecimal.valueOf(0.1)));
+        Assert.assertEquals(42, InterestRateTable.amountInTenths(BigDecimal.valueOf(4.2)));
+        Assert.assertEquals(100, InterestRateTable.amountInTenths(BigDecimal.TEN));
+        Assert.assertEquals(100, InterestRateTable.amountInTenths(new BigDecimal("1E+1")));
+        Assert.assertEquals(-1, InterestRateTable.amountInTenths(BigDecimal.valueOf(10.1)));
+        Assert.assertEquals(-1, InterestRateTable.amountInTenths(BigDecimal.valueOf(0.01)));
+        Assert.assertEquals(-1, InterestRateTable.amountInTenths(BigDecimal.ZERO));
+        Assert.assertEquals(-1, InterestRateTable.amountInTenths(null));
+    }
+
+    @Test
+    public void outOfTableAmountTest() {
+        BigDecimal amount = new BigDecimal("1.25");
+        Assert.assertEquals(InterestRateTable.calculate(LoanPurpose.CAR, 1, amount, SourceOfIncome.EMPLOYEE),
+                InterestRateTable.rate(LoanPurpose.CAR, 1, amount, SourceOfIncome.EMPLOYEE));
+    }
+}
@@ -0,0 +1,98 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.LoanRequestValidator;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Тесты совпадения {@link LoanRequestValidator} с Bean Validation.
+ */
+public class LoanRequestValidatorTest {
+
+    private static final Integer[] AGES = {null, -1, 0, 200, 201};
+    private static final Integer[] RATINGS = {null, -3, -2, 2, 3};
+    private static final Integer[] PERIODS = {null, 0, 1, 20, 21};
+    private static final String[] AMOUNTS = {
+            null, "-1", "0", "0.05", "0.1", "0.10", "1", "1.25", "10", "10.0", "10.00", "10.05", "10.1", "1E+1", "100"
+    };
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final SpringValidatorAdapter adapter = new SpringValidatorAdapter(validator);
+    private final LoanRequestValidator loanRequestValidator = new LoanRequestValidator(validator);
+
+    @Test
+    public void sameErrorsTest() {
+        int checked = 0;
+        for (Integer age : AGES) {
+            for (Integer rating : RATINGS) {
+                for (Integer period : PERIODS) {
+                    for (String amount : AMOUNTS) {
+                        for (int nulls = 0; nulls < 8; nulls++) {
+                            LoanRequest loanRequest = new LoanRequest();
+                            loanRequest.age = age;
+                            loanRequest.creditRating = rating;
+                            loanRequest.repaymentPeriod = period;
+                            loanRequest.requestedAmount = amount == null ? null : new BigDecimal(amount);
+                            loanRequest.lastYearIncome = BigDecimal.TEN;
+                            loanRequest.sex = (nulls & 1) == 0 ? Sex.F : null;
+                            loanRequest.sourceOfIncome = (nulls & 2) == 0 ? SourceOfIncome.EMPLOYEE : null;
+                            loanRequest.loanPurpose = (nulls & 4) == 0 ? LoanPurpose.CAR : null;
+                            assertSameErrors(loanRequest);
+                            checked++;
+                        }
+                    }
+                }
+            }
+        }
+        Assert.assertEquals(AGES.length * RATINGS.length * PERIODS.length * AMOUNTS.length * 8, checked);
+    }
+
+    @Test
+    public void validRequestTest() {
+        LoanRequest loanRequest = ScoringDomain.request(30, Sex.M, SourceOfIncome.EMPLOYEE, 1, 10, 2,
+                LoanPurpose.CAR, null);
+
+        Assert.assertSame(Collections.emptyList(), loanRequestValidator.validate(loanRequest));
+    }
+
+    private void assertSameErrors(LoanRequest loanRequest) {
+        String message = ScoringDomain.describe(loanRequest);
+
+        List<String> expectedMessages = new ArrayList<>();
+        for (ConstraintViolation<LoanRequest> violation : validator.validate(loanRequest)) {
+            expectedMessages.add(violation.getMessage());
+        }
+        Collections.sort(expectedMessages);
+        Assert.assertEquals(message, expectedMessages, loanRequestValidator.validate(loanRequest));
+
+        BindingResult expected = new BeanPropertyBindingResult(loanRequest, "loanRequest");
+        adapter.validate(loanRequest, expected);
+        BindingResult actual = new BeanPropertyBindingResult(loanRequest, "loanRequest");
+        loanRequestValidator.validate(loanRequest, actual);
+        Assert.assertEquals(message, describe(expected), describe(actual));
+    }
+
+    private static List<String> describe(BindingResult bindingResult) {
+        List<String> errors = new ArrayList<>();
+        for (FieldError error : bindingResult.getFieldErrors()) {
+            errors.add(error.getField() + " " + error.getRejectedValue() + " " + Arrays.toString(error.getCodes())
+                    + " " + Arrays.deepToString(error.getArguments()) + " " + error.getDefaultMessage());
+        }
+        Collections.sort(errors);
+        return errors;
+    }
+}
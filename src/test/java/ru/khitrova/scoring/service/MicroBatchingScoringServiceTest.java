@@ -0,0 +1,130 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Тесты сборки одновременных запросов в пачки: решения совпадают с проверкой по одному запросу,
+ * при низкой нагрузке и для сервиса без примитивного входа пачки не собираются.
+ */
+public class MicroBatchingScoringServiceTest {
+
+    private static final int THREADS = 16;
+    private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final ScoringDomain domain = new ScoringDomain();
+    private final ScoringService reference = new InMemoryScoringService();
+
+    @Test
+    public void concurrentSameDecisionTest() throws Exception {
+        List<LoanRequest> loanRequests = Collections.synchronizedList(new ArrayList<>());
+        domain.forEachRequest(30, Sex.M, loanRequests::add);
+        // запрос, который не представим в столбцах, проверяется без пачки
+        loanRequests.get(0).requestedAmount = new BigDecimal("0.05");
+
+        CountingEngine engine = new CountingEngine();
+        try (MicroBatchingScoringService scoringService =
+                     new MicroBatchingScoringService(engine, THREADS / 2, MAX_WAIT_NANOS, 0)) {
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int thread = 0; thread < THREADS; thread++) {
+                    int first = thread;
+                    futures.add(executor.submit(() -> {
+                        for (int i = first; i < loanRequests.size(); i += THREADS * 50) {
+                            LoanRequest loanRequest = loanRequests.get(i);
+                            assertSameResponse(reference.checkLoan(loanRequest), scoringService.checkLoan(loanRequest),
+                                    ScoringDomain.describe(loanRequest));
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+        Assert.assertTrue(engine.batches.get() > 0);
+        Assert.assertTrue("Пачки из одного запроса", engine.maxBatchSize.get() > 1);
+        Assert.assertTrue(engine.maxBatchSize.get() <= THREADS / 2);
+    }
+
+    @Test
+    public void bypassTest() throws Exception {
+        CountingEngine engine = new CountingEngine();
+        LoanRequest loanRequest = approved();
+        try (MicroBatchingScoringService scoringService = new MicroBatchingScoringService(engine, 64, MAX_WAIT_NANOS, 1)) {
+            for (int i = 0; i < 100; i++) {
+                assertSameResponse(reference.checkLoan(loanRequest), scoringService.checkLoan(loanRequest), "");
+            }
+        }
+        Assert.assertEquals(0, engine.batches.get());
+    }
+
+    @Test
+    public void withoutPrimitiveCheckTest() throws Exception {
+        LoanRequest loanRequest = approved();
+        try (MicroBatchingScoringService scoringService =
+                     new MicroBatchingScoringService(new InMemoryScoringService(), 64, MAX_WAIT_NANOS, 0)) {
+            assertSameResponse(reference.checkLoan(loanRequest), scoringService.checkLoan(loanRequest), "");
+        }
+    }
+
+    @Test
+    public void closedTest() throws Exception {
+        CountingEngine engine = new CountingEngine();
+        MicroBatchingScoringService scoringService = new MicroBatchingScoringService(engine, 64, MAX_WAIT_NANOS, 0);
+        scoringService.close();
+
+        LoanRequest loanRequest = approved();
+        assertSameResponse(reference.checkLoan(loanRequest), scoringService.checkLoan(loanRequest), "");
+        Assert.assertEquals(0, engine.batches.get());
+    }
+
+    @Test
+    public void invalidParametersTest() {
+        try {
+            new MicroBatchingScoringService(new FixedPointScoringService(), 0, MAX_WAIT_NANOS, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("размер 0"));
+        }
+    }
+
+    private static void assertSameResponse(LoanResponse expected, LoanResponse actual, String message) {
+        Assert.assertEquals(message, expected.approved, actual.approved);
+        Assert.assertEquals(message, expected.annualPayment, actual.annualPayment);
+    }
+
+    private static LoanRequest approved() {
+        return ScoringDomain.request(30, Sex.F, SourceOfIncome.EMPLOYEE, 2, 10, 2, LoanPurpose.CAR, BigDecimal.TEN);
+    }
+
+    /**
+     * Реализация на целочисленной арифметике, которая считает пачки и их наибольший размер.
+     */
+    private static final class CountingEngine extends FixedPointScoringService {
+        final AtomicInteger batches = new AtomicInteger();
+        final AtomicInteger maxBatchSize = new AtomicInteger();
+
+        @Override
+        public void checkLoans(LoanColumns columns, long[] decisions) {
+            batches.incrementAndGet();
+            maxBatchSize.accumulateAndGet(columns.size, Math::max);
+            super.checkLoans(columns, decisions);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package ru.khitrova.scoring.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.khitrova.scoring.journal.DecisionJournal;
+import ru.khitrova.scoring.journal.JournalingScoringService;
+import ru.khitrova.scoring.journal.SyncPolicy;
+import ru.khitrova.scoring.metrics.MeteredScoringService;
+import ru.khitrova.scoring.metrics.ScoringMetrics;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.rules.ScoringRules;
+import ru.khitrova.scoring.scoring.*;
+
+import jakarta.validation.Validation;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Тесты примитивного входа сервисов: решения совпадают с проверкой {@link LoanRequest},
+ * а проверка в целочисленных реализациях не выделяет память.
+ */
+public class PrimitiveScoringTest {
+
+    private static final int ROUNDS = 10;
+    private static final int ITERATIONS = 1_000_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ScoringDomain domain = new ScoringDomain();
+
+    @Test
+    public void sameDecisionTest() {
+        ScoringService reference = new InMemoryScoringService();
+        ScoringService[] scoringServices = {
+                new FixedPointScoringService(), new DecisionTableScoringService(), new CompiledRulesScoringService()
+        };
+        AtomicLong checked = new AtomicLong();
+        domain.forEachRequest(30, Sex.F, loanRequest -> {
+            long expected = ScoringDecision.toDecision(reference.checkLoan(loanRequest));
+            for (ScoringService scoringService : scoringServices) {
+                Assert.assertEquals(ScoringDomain.describe(loanRequest), expected,
+                        ScoringDecision.toDecision(ScoringDecision.checkLoan(scoringService, loanRequest)));
+            }
+            checked.incrementAndGet();
+        });
+        Assert.assertTrue(checked.get() > 160_000);
+    }
+
+    /**
+     * Значения вне целочисленных таблиц передаются в проверку на {@link BigDecimal}.
+     */
+    @Test
+    public void outOfDomainTest() {
+        ScoringService reference = new InMemoryScoringService();
+        ScoringService[] scoringServices = {
+                new FixedPointScoringService(), new DecisionTableScoringService(), new CompiledRulesScoringService()
+        };
+        int[][] values = {
+                // рейтинг, сумма в десятых долях, срок, доход без масштаба, масштаб дохода
+                {2, 101, 2, 15, 0},
+                {3, 10, 21, 15, 0},
+                {1, 10, 2, 1, -2},
+                {1, 10, 2, -150, 1},
+                {1, 10, 2, 150, 17}
+        };
+        for (int[] value : values) {
+            LoanRequest loanRequest = ScoringDecision.toRequest(30, Sex.M, SourceOfIncome.OWN_BUSINESS, value[0],
+                    value[1], value[2], LoanPurpose.CAR, value[3], value[4]);
+            long expected = ScoringDecision.toDecision(reference.checkLoan(loanRequest));
+            for (ScoringService scoringService : scoringServices) {
+                Assert.assertEquals(ScoringDomain.describe(loanRequest), expected, scoringService.checkLoan(30, Sex.M,
+                        SourceOfIncome.OWN_BUSINESS, value[0], value[1], value[2], LoanPurpose.CAR, value[3], value[4]));
+            }
+        }
+    }
+
+    @Test
+    public void sharedRejectedResponseTest() {
+        LoanRequest loanRequest = ScoringDomain.request(16, Sex.F, SourceOfIncome.EMPLOYEE, 1, 10, 2,
+                LoanPurpose.CAR, BigDecimal.TEN);
+
+        Assert.assertSame(ScoringDecision.REJECTED_RESPONSE,
+                ScoringDecision.checkLoan(new FixedPointScoringService(), loanRequest));
+        Assert.assertSame(ScoringDecision.REJECTED_RESPONSE, new CompiledRulesScoringService().checkLoan(loanRequest));
+        Assert.assertEquals(Boolean.FALSE, ScoringDecision.REJECTED_RESPONSE.approved);
+        Assert.assertEquals(BigDecimal.ZERO, ScoringDecision.REJECTED_RESPONSE.annualPayment);
+    }
+
+    /**
+     * Общий ответ отказа проходит через все обертки сервиса и пакетную проверку и не изменяется ими.
+     */
+    @Test
+    public void sharedRejectedResponseUnchangedTest() throws IOException {
+        List<LoanRequest> loanRequests = Arrays.asList(
+                ScoringDomain.request(16, Sex.F, SourceOfIncome.EMPLOYEE, 1, 10, 2, LoanPurpose.CAR, BigDecimal.TEN),
+                ScoringDomain.request(30, Sex.M, SourceOfIncome.OWN_BUSINESS, 1, 100, 1, LoanPurpose.CAR,
+                        BigDecimal.TEN),
+                ScoringDomain.request(30, Sex.M, SourceOfIncome.EMPLOYEE, 1, 10, 2, LoanPurpose.CAR, BigDecimal.ONE));
+        ScoringMetrics metrics = new ScoringMetrics(new SimpleMeterRegistry());
+        try (DecisionJournal journal = new DecisionJournal(folder.newFolder().toPath(), 1 << 16, 64, SyncPolicy.NONE,
+                0, TimeUnit.SECONDS.toNanos(10));
+             MicroBatchingScoringService microBatching = new MicroBatchingScoringService(
+                     new JournalingScoringService(new CompiledRulesScoringService(metrics, ScoringRules.defaults()),
+                             journal), 8, TimeUnit.MILLISECONDS.toNanos(1), 0)) {
+            ScoringService scoringService = new MeteredScoringService(new CachingScoringService(microBatching, 100),
+                    metrics.getCheckTimer());
+            BatchScoringService batchScoringService = new BatchScoringService(scoringService,
+                    Validation.buildDefaultValidatorFactory().getValidator(), 100, 2);
+            for (int round = 0; round < 2; round++) {
+                for (LoanRequest loanRequest : loanRequests) {
+                    Assert.assertEquals(Boolean.FALSE, scoringService.checkLoan(loanRequest).approved);
+                    Assert.assertEquals(Boolean.FALSE,
+                            ScoringDecision.checkLoan(scoringService, loanRequest).approved);
+                }
+                for (LoanResponse loanResponse : batchScoringService.checkLoans(loanRequests)) {
+                    Assert.assertEquals(Boolean.FALSE, loanResponse.approved);
+                }
+            }
+        }
+        Assert.assertEquals(Boolean.FALSE, ScoringDecision.REJECTED_RESPONSE.approved);
+        Assert.assertEquals(BigDecimal.ZERO, ScoringDecision.REJECTED_RESPONSE.annualPayment);
+        Assert.assertNull(ScoringDecision.REJECTED_RESPONSE.errors);
+    }
+
+    @Test
+    public void fixedPointAllocationTest() {
+        assertNoAllocation(FixedPointScoringService::new);
+    }
+
+    @Test
+    public void decisionTableAllocationTest() {
+        assertNoAllocation(DecisionTableScoringService::new);
+    }
+
+    @Test
+    public void compiledRulesAllocationTest() {
+        assertNoAllocation(listener -> new CompiledRulesScoringService(listener, ScoringRules.defaults()));
+    }
+
+    /**
+     * Проверка одобренных и отклоненных запросов без слушателя и с метриками за таймером.
+     */
+    private void assertNoAllocation(Engine engine) {
+        ScoringMetrics metrics = new ScoringMetrics(new SimpleMeterRegistry());
+        ScoringService[] scoringServices = {
+                engine.create(ScoringListener.NOOP),
+                new MeteredScoringService(engine.create(metrics), metrics.getCheckTimer())
+        };
+        for (ScoringService scoringService : scoringServices) {
+            Assert.assertNotEquals(ScoringDecision.REJECTED, checkLoan(scoringService, 30, 10, 2));
+            // отказ по возрасту и по сумме
+            Assert.assertEquals(ScoringDecision.REJECTED, checkLoan(scoringService, 16, 10, 2));
+            Assert.assertEquals(ScoringDecision.REJECTED, checkLoan(scoringService, 30, 100, 1));
+
+            // до компиляции JIT проверка может выделять память, поэтому берется лучший из нескольких замеров
+            long allocated = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS && allocated >= ITERATIONS; round++) {
+                long before = allocatedBytes();
+                long checksum = checkLoans(scoringService, ITERATIONS);
+                allocated = Math.min(allocated, allocatedBytes() - before);
+                Assert.assertNotEquals(0, checksum);
+            }
+            Assert.assertEquals("Выделено " + allocated + " байт на " + ITERATIONS + " проверок",
+                    0, allocated / ITERATIONS);
+        }
+    }
+
+    private static long checkLoans(ScoringService scoringService, int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            checksum += checkLoan(scoringService, 14 + (i & 31), 1 + (i & 63), 1 + (i & 3));
+        }
+        return checksum;
+    }
+
+    private static long checkLoan(ScoringService scoringService, int age, int amountTenths, int repaymentPeriod) {
+        return scoringService.checkLoan(age, Sex.M, SourceOfIncome.EMPLOYEE, 1, amountTenths, repaymentPeriod,
+                LoanPurpose.CAR, 100, 1);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private interface Engine {
+        ScoringService create(ScoringListener listener);
+    }
+}
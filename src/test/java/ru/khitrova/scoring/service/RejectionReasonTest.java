@@ -0,0 +1,105 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Тесты причин отказа, которые реализации сервиса скоринга передают получателю результатов.
+ */
+public class RejectionReasonTest {
+    private final RecordingListener referenceListener = new RecordingListener();
+    private final RecordingListener listener = new RecordingListener();
+    private final ScoringService reference = new InMemoryScoringService(referenceListener);
+
+    private LoanRequest loanRequest() {
+        return ScoringDomain.request(30, Sex.M, SourceOfIncome.EMPLOYEE, 1, 20, 2, LoanPurpose.CAR, BigDecimal.TEN);
+    }
+
+    @Test
+    public void reasonsTest() {
+        for (Function<ScoringListener, ScoringService> engine : engines()) {
+            ScoringService scoringService = engine.apply(listener);
+
+            LoanRequest loanRequest = loanRequest();
+            assertReason(scoringService, loanRequest, null);
+
+            loanRequest.age = 70;
+            assertReason(scoringService, loanRequest, RejectionReason.AGE);
+
+            loanRequest = loanRequest();
+            loanRequest.creditRating = -2;
+            assertReason(scoringService, loanRequest, RejectionReason.CREDIT_RATING);
+
+            loanRequest = loanRequest();
+            loanRequest.sourceOfIncome = SourceOfIncome.UNEMPLOYED;
+            assertReason(scoringService, loanRequest, RejectionReason.SOURCE_OF_INCOME);
+
+            loanRequest = loanRequest();
+            loanRequest.requestedAmount = BigDecimal.valueOf(6);
+            assertReason(scoringService, loanRequest, RejectionReason.REQUESTED_AMOUNT);
+
+            loanRequest = loanRequest();
+            loanRequest.lastYearIncome = BigDecimal.valueOf(2.9);
+            assertReason(scoringService, loanRequest, RejectionReason.REQUESTED_AMOUNT);
+
+            loanRequest = ScoringDomain.request(30, Sex.M, SourceOfIncome.OWN_BUSINESS, 2, 100, 20, LoanPurpose.CAR,
+                    BigDecimal.valueOf(2.0));
+            assertReason(scoringService, loanRequest, RejectionReason.ANNUAL_PAYMENT);
+        }
+    }
+
+    /**
+     * Таблица минимального дохода определяет причину отказа отдельно от решения,
+     * поэтому причины сверяются с эталонной реализацией на всех комбинациях.
+     */
+    @Test
+    public void decisionTableWholeDomainTest() {
+        ThreadLocal<RecordingListener> listeners = ThreadLocal.withInitial(RecordingListener::new);
+        ThreadLocal<ScoringService> references = ThreadLocal.withInitial(() -> new InMemoryScoringService(listeners.get()));
+        ThreadLocal<ScoringService> engines = ThreadLocal.withInitial(() -> new DecisionTableScoringService(listeners.get()));
+        new ScoringDomain().forEachRequest(30, Sex.F, loanRequest -> {
+            RecordingListener recordingListener = listeners.get();
+            references.get().checkLoan(loanRequest);
+            RejectionReason expected = recordingListener.reason;
+            engines.get().checkLoan(loanRequest);
+            Assert.assertEquals(ScoringDomain.describe(loanRequest), expected, recordingListener.reason);
+        });
+    }
+
+    private List<Function<ScoringListener, ScoringService>> engines() {
+        return List.of(InMemoryScoringService::new, FixedPointScoringService::new, DecisionTableScoringService::new);
+    }
+
+    private void assertReason(ScoringService scoringService, LoanRequest loanRequest, RejectionReason expected) {
+        reference.checkLoan(loanRequest);
+        Assert.assertEquals("Эталонная причина: " + ScoringDomain.describe(loanRequest), expected, referenceListener.reason);
+
+        LoanResponse loanResponse = scoringService.checkLoan(loanRequest);
+        String message = scoringService.getClass().getSimpleName() + ": " + ScoringDomain.describe(loanRequest);
+        Assert.assertEquals(message, expected, listener.reason);
+        Assert.assertEquals(message, expected == null, loanResponse.approved);
+    }
+
+    /**
+     * Получатель, запоминающий причину последнего отказа ({@code null} после одобрения).
+     */
+    private static class RecordingListener implements ScoringListener {
+        private RejectionReason reason;
+
+        @Override
+        public void approved(BigDecimal annualPayment) {
+            reason = null;
+        }
+
+        @Override
+        public void rejected(RejectionReason reason) {
+            this.reason = reason;
+        }
+    }
+}
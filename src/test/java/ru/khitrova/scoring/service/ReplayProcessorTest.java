@@ -0,0 +1,148 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.khitrova.scoring.journal.*;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.replay.ReplayProcessor;
+import ru.khitrova.scoring.replay.ReplayReport;
+import ru.khitrova.scoring.rules.ScoringRules;
+import ru.khitrova.scoring.scoring.*;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Тесты повторной проверки журнала: изменения решений и платежей совпадают с прямым сравнением
+ * конфигураций, результат не зависит от размера частей и количества потоков.
+ */
+public class ReplayProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ScoringService reference = new InMemoryScoringService();
+    private final List<LoanRequest> loanRequests = new ArrayList<>();
+    private ScoringService candidate;
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        new ScoringDomain().forEachAge(loanRequests::add);
+        ScoringRules rules = ScoringRules.defaults();
+        // женщинам старше 57 лет отказ, ставка по автокредитам выше
+        rules.ageBySex.get(Sex.F).max = 57;
+        rules.interestRateByLoanPurpose.put(LoanPurpose.CAR, BigDecimal.valueOf(30));
+        candidate = new CompiledRulesScoringService(ScoringListener.NOOP, rules);
+
+        // сегменты по 4 КБ, чтобы журнал занимал несколько сегментов
+        directory = folder.newFolder().toPath();
+        try (DecisionJournal journal = new DecisionJournal(directory, 4096, 1024, SyncPolicy.BATCH, 0,
+                TimeUnit.SECONDS.toNanos(10))) {
+            ScoringService journaling = new JournalingScoringService(reference, journal,
+                    InterestRateTable.INTEREST_RATES);
+            for (LoanRequest loanRequest : loanRequests) {
+                journaling.checkLoan(loanRequest);
+            }
+        }
+        Assert.assertTrue(JournalReader.open(directory).getSegments().size() > 1);
+    }
+
+    @Test
+    public void sameAsDirectComparisonTest() throws Exception {
+        long approvedToRejected = 0;
+        long rejectedToApproved = 0;
+        long paymentChanged = 0;
+        long womenApprovedToRejected = 0;
+        for (LoanRequest loanRequest : loanRequests) {
+            LoanResponse recorded = reference.checkLoan(loanRequest);
+            LoanResponse changed = candidate.checkLoan(loanRequest);
+            if (recorded.approved && !changed.approved) {
+                approvedToRejected++;
+                if (loanRequest.sex == Sex.F) {
+                    womenApprovedToRejected++;
+                }
+            } else if (!recorded.approved && changed.approved) {
+                rejectedToApproved++;
+            } else if (recorded.approved && recorded.annualPayment.compareTo(changed.annualPayment) != 0) {
+                paymentChanged++;
+            }
+        }
+
+        ByteArrayOutputStream diff = new ByteArrayOutputStream();
+        List<ReplayReport> progress = new ArrayList<>();
+        ReplayReport report = new ReplayProcessor(candidate, 100, 2)
+                .process(JournalReader.open(directory), diff, progress::add);
+
+        Assert.assertEquals(loanRequests.size(), report.getRecords());
+        Assert.assertEquals(0, report.getErrors());
+        Assert.assertTrue(approvedToRejected > 0);
+        Assert.assertTrue(paymentChanged > 0);
+        Assert.assertEquals(approvedToRejected, report.getApprovedToRejected());
+        Assert.assertEquals(rejectedToApproved, report.getRejectedToApproved());
+        Assert.assertEquals(paymentChanged, report.getPaymentChanged());
+        Assert.assertEquals(womenApprovedToRejected,
+                report.getSegmentApprovedToRejected(ReplayReport.Segment.SEX, Sex.F.ordinal()));
+        Assert.assertEquals(0, report.getSegmentApprovedToRejected(ReplayReport.Segment.SEX, Sex.M.ordinal()));
+        Assert.assertFalse(progress.isEmpty());
+
+        long deltas = 0;
+        for (long count : report.getDeltas()) {
+            deltas += count;
+        }
+        long approvedByBoth = loanRequests.stream()
+                .filter(loanRequest -> reference.checkLoan(loanRequest).approved
+                        && candidate.checkLoan(loanRequest).approved)
+                .count();
+        Assert.assertEquals(approvedByBoth, deltas);
+
+        String[] lines = diff.toString(StandardCharsets.UTF_8).split("\n");
+        Assert.assertEquals(1 + approvedToRejected + rejectedToApproved + paymentChanged, lines.length);
+        Assert.assertTrue(lines[0].startsWith("time,age,sex"));
+        Assert.assertEquals(13, lines[1].split(",", -1).length);
+        Assert.assertTrue(report.toString().contains("Одобрение сменилось отказом: "
+                + String.format("%,d", approvedToRejected)));
+    }
+
+    @Test
+    public void sameResultForAnyParallelismTest() throws Exception {
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        ReplayReport sequentialReport = new ReplayProcessor(candidate, Integer.MAX_VALUE, 1)
+                .process(JournalReader.open(directory), sequential, report -> { });
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        ReplayReport parallelReport = new ReplayProcessor(candidate, 7, 4)
+                .process(JournalReader.open(directory), parallel, report -> { });
+
+        Assert.assertEquals(sequential.toString(StandardCharsets.UTF_8), parallel.toString(StandardCharsets.UTF_8));
+        Assert.assertEquals(sequentialReport.getRecords(), parallelReport.getRecords());
+        Assert.assertArrayEquals(sequentialReport.getDeltas(), parallelReport.getDeltas());
+    }
+
+    @Test
+    public void chunksTest() throws Exception {
+        JournalReader reader = JournalReader.open(directory);
+        long records = 0;
+        Iterator<ByteBuffer> chunks = reader.chunks(10);
+        while (chunks.hasNext()) {
+            int chunkRecords = 0;
+            Iterator<JournalRecord> chunk = JournalReader.records(chunks.next());
+            while (chunk.hasNext()) {
+                Assert.assertEquals(loanRequests.get((int) records).age, chunk.next().loanRequest.age);
+                chunkRecords++;
+                records++;
+            }
+            Assert.assertTrue(chunkRecords > 0 && chunkRecords <= 10);
+        }
+        Assert.assertEquals(loanRequests.size(), records);
+    }
+}
@@ -0,0 +1,129 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+import ru.khitrova.scoring.scoring.RejectionReason;
+import ru.khitrova.scoring.scoring.RulePipeline;
+import ru.khitrova.scoring.scoring.ScoringListener;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Тесты адаптивного порядка проверок.
+ */
+public class RulePipelineTest {
+
+    private static final int REQUESTS = RulePipeline.SAMPLE_INTERVAL * RulePipeline.REORDER_SAMPLES * 4;
+
+    private LoanRequest unemployed() {
+        return ScoringDomain.request(30, Sex.M, SourceOfIncome.UNEMPLOYED, 1, 20, 2, LoanPurpose.CAR, BigDecimal.TEN);
+    }
+
+    @Test
+    public void initialOrderTest() {
+        InMemoryScoringService scoringService = new InMemoryScoringService();
+
+        Assert.assertEquals(Arrays.asList(RejectionReason.AGE, RejectionReason.CREDIT_RATING,
+                RejectionReason.SOURCE_OF_INCOME, RejectionReason.REQUESTED_AMOUNT),
+                scoringService.getRules().order());
+    }
+
+    @Test
+    public void mostSelectiveFirstTest() {
+        InMemoryScoringService scoringService = new InMemoryScoringService(ScoringListener.NOOP, true);
+        for (int i = 0; i < REQUESTS; i++) {
+            Assert.assertFalse(scoringService.checkLoan(unemployed()).approved);
+        }
+
+        Assert.assertEquals(RejectionReason.SOURCE_OF_INCOME, scoringService.getRules().order().get(0));
+    }
+
+    @Test
+    public void fixedOrderTest() {
+        InMemoryScoringService scoringService = new InMemoryScoringService(ScoringListener.NOOP, false);
+        for (int i = 0; i < REQUESTS; i++) {
+            scoringService.checkLoan(unemployed());
+        }
+
+        Assert.assertEquals(RejectionReason.AGE, scoringService.getRules().order().get(0));
+    }
+
+    /**
+     * После смены порядка причиной отказа считается проверка, на которой остановилась проверка запроса.
+     */
+    @Test
+    public void reasonAfterReorderTest() {
+        RejectionReason[] reason = new RejectionReason[1];
+        InMemoryScoringService scoringService = new InMemoryScoringService(new ScoringListener() {
+            @Override
+            public void approved(BigDecimal annualPayment) {
+                reason[0] = null;
+            }
+
+            @Override
+            public void rejected(RejectionReason rejectionReason) {
+                reason[0] = rejectionReason;
+            }
+        }, true);
+        for (int i = 0; i < REQUESTS; i++) {
+            scoringService.checkLoan(unemployed());
+        }
+        Assert.assertEquals(RejectionReason.SOURCE_OF_INCOME, scoringService.getRules().order().get(0));
+
+        LoanRequest loanRequest = unemployed();
+        loanRequest.age = 17;
+        Assert.assertFalse(scoringService.checkLoan(loanRequest).approved);
+        Assert.assertTrue(reason[0] == RejectionReason.SOURCE_OF_INCOME || reason[0] == RejectionReason.AGE);
+
+        loanRequest = unemployed();
+        loanRequest.sourceOfIncome = SourceOfIncome.EMPLOYEE;
+        loanRequest.age = 17;
+        Assert.assertFalse(scoringService.checkLoan(loanRequest).approved);
+        Assert.assertEquals(RejectionReason.AGE, reason[0]);
+    }
+
+    /**
+     * Запрос без дохода с отказом по возрасту отклоняется и в выборке, где выполняются все проверки,
+     * и после смены порядка: проверка суммы, которая делит доход, не выполняется раньше проверок заемщика.
+     */
+    @Test
+    public void missingIncomeTest() {
+        InMemoryScoringService scoringService = new InMemoryScoringService(ScoringListener.NOOP, true);
+        for (int i = 0; i < REQUESTS; i++) {
+            LoanRequest loanRequest = i % 2 == 0 ? unemployed()
+                    : ScoringDomain.request(30, Sex.M, SourceOfIncome.EMPLOYEE, 1, 100, 1, LoanPurpose.CAR,
+                    BigDecimal.ONE);
+            Assert.assertFalse(scoringService.checkLoan(loanRequest).approved);
+
+            LoanRequest withoutIncome = ScoringDomain.request(17, Sex.M, SourceOfIncome.EMPLOYEE, 1, 20, 2,
+                    LoanPurpose.CAR, null);
+            LoanResponse loanResponse = scoringService.checkLoan(withoutIncome);
+            Assert.assertFalse(loanResponse.approved);
+            Assert.assertEquals(BigDecimal.ZERO, loanResponse.annualPayment);
+        }
+        Assert.assertEquals(RejectionReason.REQUESTED_AMOUNT, scoringService.getRules().order().get(3));
+    }
+
+    /**
+     * Решения с адаптивным порядком совпадают с решениями в исходном порядке.
+     */
+    @Test
+    public void wholeDomainTest() {
+        InMemoryScoringService adaptive = new InMemoryScoringService(ScoringListener.NOOP, true);
+        InMemoryScoringService fixed = new InMemoryScoringService(ScoringListener.NOOP, false);
+        new ScoringDomain().forEachRequest(30, Sex.M, loanRequest -> {
+            LoanResponse expected = fixed.checkLoan(loanRequest);
+            LoanResponse actual = adaptive.checkLoan(loanRequest);
+            String message = ScoringDomain.describe(loanRequest);
+            Assert.assertEquals(message, expected.approved, actual.approved);
+            Assert.assertEquals(message, expected.annualPayment, actual.annualPayment);
+        });
+        new ScoringDomain().forEachAge(loanRequest -> {
+            String message = ScoringDomain.describe(loanRequest);
+            Assert.assertEquals(message, fixed.checkLoan(loanRequest).approved, adaptive.checkLoan(loanRequest).approved);
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package ru.khitrova.scoring.service;
+
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.scoring.InMemoryScoringService;
+import ru.khitrova.scoring.scoring.ScoringService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Перебор допустимых значений запроса для сравнения реализаций сервиса скоринга с эталонной.
+ * Доход не ограничен валидацией, поэтому для каждой комбинации проверяются значения около порогов
+ * одобрения с разным масштабом, а также значения, не укладывающиеся в целочисленное представление.
+ */
+public final class ScoringDomain {
+
+    public static final int MIN_AGE = 0;
+    public static final int MAX_AGE = 200;
+    public static final int MIN_RATING = -2;
+    public static final int MAX_RATING = 2;
+    public static final int MIN_AMOUNT_TENTHS = 1;
+    public static final int MAX_AMOUNT_TENTHS = 100;
+    public static final int MIN_PERIOD = 1;
+    public static final int MAX_PERIOD = 20;
+
+    private static final BigDecimal[] FIXED_INCOMES = {
+            BigDecimal.ZERO,
+            new BigDecimal("-0.01"),
+            new BigDecimal("-0.3"),
+            BigDecimal.valueOf(15),
+            new BigDecimal("15.0"),
+            new BigDecimal("10.10"),
+            new BigDecimal("1E+2"),
+            new BigDecimal("123456789012345678901.5")
+    };
+
+    private static final BigDecimal LARGE_INCOME = BigDecimal.valueOf(1000);
+
+    private final ScoringService reference = new InMemoryScoringService();
+
+    /**
+     * Обход всех комбинаций источника дохода, рейтинга, суммы, срока и цели с набором доходов для каждой.
+     * Комбинации обходятся параллельно, поэтому обработчик должен быть потокобезопасным.
+     */
+    public void forEachRequest(int age, Sex sex, Consumer<LoanRequest> consumer) {
+        IntStream.rangeClosed(MIN_AMOUNT_TENTHS, MAX_AMOUNT_TENTHS).parallel().forEach(tenths -> {
+            for (SourceOfIncome source : SourceOfIncome.values()) {
+                for (int rating = MIN_RATING; rating <= MAX_RATING; rating++) {
+                    for (int period = MIN_PERIOD; period <= MAX_PERIOD; period++) {
+                        for (LoanPurpose purpose : LoanPurpose.values()) {
+                            LoanRequest template = request(age, sex, source, rating, tenths, period, purpose, LARGE_INCOME);
+                            for (BigDecimal income : incomes(template)) {
+                                consumer.accept(request(age, sex, source, rating, tenths, period, purpose, income));
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Обход всех значений возраста и пола для нескольких фиксированных комбинаций остальных полей.
+     */
+    public void forEachAge(Consumer<LoanRequest> consumer) {
+        for (int age = MIN_AGE; age <= MAX_AGE; age++) {
+            for (Sex sex : Sex.values()) {
+                consumer.accept(request(age, sex, SourceOfIncome.EMPLOYEE, 1, 20, 5, LoanPurpose.CAR, BigDecimal.TEN));
+                consumer.accept(request(age, sex, SourceOfIncome.OWN_BUSINESS, 2, 100, 1, LoanPurpose.MORTGAGE, BigDecimal.valueOf(22)));
+                consumer.accept(request(age, sex, SourceOfIncome.UNEMPLOYED, 0, 5, 2, LoanPurpose.CONSUMER, BigDecimal.TEN));
+            }
+        }
+    }
+
+    public static LoanRequest request(int age, Sex sex, SourceOfIncome source, int rating, int amountTenths,
+                                      int period, LoanPurpose purpose, BigDecimal income) {
+        LoanRequest loanRequest = new LoanRequest();
+        loanRequest.age = age;
+        loanRequest.sex = sex;
+        loanRequest.sourceOfIncome = source;
+        loanRequest.creditRating = rating;
+        loanRequest.requestedAmount = BigDecimal.valueOf(amountTenths, 1);
+        loanRequest.repaymentPeriod = period;
+        loanRequest.loanPurpose = purpose;
+        loanRequest.lastYearIncome = income;
+        return loanRequest;
+    }
+
+    /**
+     * Описание запроса для сообщений об ошибках.
+     */
+    public static String describe(LoanRequest loanRequest) {
+        return String.format("возраст: %s, пол: %s, источник: %s, рейтинг: %s, сумма: %s, срок: %s, цель: %s, доход: %s",
+                loanRequest.age, loanRequest.sex, loanRequest.sourceOfIncome, loanRequest.creditRating,
+                loanRequest.requestedAmount, loanRequest.repaymentPeriod, loanRequest.loanPurpose,
+                loanRequest.lastYearIncome);
+    }
+
+    /**
+     * Доходы около порогов "сумма в год не больше трети дохода" и "платеж не больше половины дохода".
+     */
+    private List<BigDecimal> incomes(LoanRequest template) {
+        List<BigDecimal> incomes = new ArrayList<>();
+        for (BigDecimal income : FIXED_INCOMES) {
+            incomes.add(income);
+        }
+
+        long yearAmount = template.requestedAmount.unscaledValue().longValue() / template.repaymentPeriod;
+        LoanRequest eligible = request(30, Sex.M, template.sourceOfIncome, template.creditRating,
+                template.requestedAmount.unscaledValue().intValue(), template.repaymentPeriod,
+                template.loanPurpose, LARGE_INCOME);
+        LoanResponse response = reference.checkLoan(eligible);
+        long payment = response.approved ? response.annualPayment.unscaledValue().longValue() : 0;
+
+        for (long tenths : new long[]{3 * yearAmount - 1, 3 * yearAmount, 2 * payment - 1, 2 * payment, 2 * payment + 1}) {
+            incomes.add(BigDecimal.valueOf(tenths, 1));
+            incomes.add(BigDecimal.valueOf(tenths * 10 + 1, 2));
+        }
+        long wholeThird = (3 * yearAmount + 9) / 10;
+        long wholeHalf = 2 * ((payment + 9) / 10);
+        for (long whole : new long[]{wholeThird - 1, wholeThird, wholeHalf - 1, wholeHalf}) {
+            incomes.add(BigDecimal.valueOf(whole));
+        }
+        return incomes;
+    }
+}
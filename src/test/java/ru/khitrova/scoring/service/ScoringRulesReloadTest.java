@@ -0,0 +1,222 @@
+package ru.khitrova.scoring.service;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.FileSystemResource;
+import ru.khitrova.scoring.model.*;
+import ru.khitrova.scoring.rules.ScoringRules;
+import ru.khitrova.scoring.scoring.CompiledRulesScoringService;
+import ru.khitrova.scoring.scoring.MicroBatchingScoringService;
+import ru.khitrova.scoring.scoring.ScoringDecision;
+import ru.khitrova.scoring.scoring.ScoringListener;
+import ru.khitrova.scoring.scoring.ScoringService;
+import ru.khitrova.scoring.scoring.ScoringRulesWatcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Тесты замены правил во время проверки запросов.
+ * Правила A (по умолчанию) и B отличаются предельным возрастом женщин (60 и 63) и ставкой для CAR (+0 и +5).
+ * Запрос, проверенный частично по A и частично по B, дал бы ответ, невозможный ни по одной из версий.
+ */
+public class ScoringRulesReloadTest {
+
+    private static final int THREADS = 4;
+    private static final long STRESS_MILLIS = 2000;
+    private static final long WATCH_TIMEOUT_MILLIS = 20_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static ScoringRules rulesB() {
+        ScoringRules rules = ScoringRules.defaults();
+        rules.ageBySex.get(Sex.F).max = 63;
+        rules.interestRateByLoanPurpose.put(LoanPurpose.CAR, BigDecimal.valueOf(5));
+        return rules;
+    }
+
+    private static LoanRequest request(int age) {
+        return ScoringDomain.request(age, Sex.F, SourceOfIncome.EMPLOYEE, 2, 10, 2, LoanPurpose.CAR, BigDecimal.TEN);
+    }
+
+    /**
+     * Ответ в виде строки: платеж одобренного запроса или "отказ".
+     */
+    private static String decision(LoanResponse loanResponse) {
+        return loanResponse.approved ? loanResponse.annualPayment.toPlainString() : "отказ";
+    }
+
+    @Test
+    public void noTornReadsUnderLoadTest() throws InterruptedException {
+        ScoringRules rulesA = ScoringRules.defaults();
+        ScoringRules rulesB = rulesB();
+        CompiledRulesScoringService scoringService = new CompiledRulesScoringService(ScoringListener.NOOP, rulesA);
+        LoanRequest older = request(62);
+        LoanRequest younger = request(30);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong checked = new AtomicLong();
+        AtomicReference<String> torn = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                while (running.get()) {
+                    String olderDecision = decision(scoringService.checkLoan(older));
+                    String youngerDecision = decision(scoringService.checkLoan(younger));
+                    // A: отказ и 0.5, B: 0.6 и 0.6; по одному запросу за раз допустимы и смешанные пары
+                    if (!olderDecision.equals("отказ") && !olderDecision.equals("0.6")
+                            || !youngerDecision.equals("0.5") && !youngerDecision.equals("0.6")) {
+                        torn.compareAndSet(null, olderDecision + ", " + youngerDecision);
+                    }
+                    checked.addAndGet(2);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        started.await();
+        long reloads = 0;
+        long deadline = System.currentTimeMillis() + STRESS_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            scoringService.reload(reloads % 2 == 0 ? rulesB : rulesA);
+            reloads++;
+        }
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertNull("Ответ не соответствует ни одной версии правил: " + torn.get(), torn.get());
+        Assert.assertEquals(reloads + 1, scoringService.getVersion());
+        Assert.assertTrue(reloads > 10);
+        Assert.assertTrue(checked.get() > 1000);
+    }
+
+    /**
+     * Правила заменены на правила с платежом в сотых долях между выбором примитивного входа и проверкой:
+     * запрос проверяется через объектный вход по новым правилам, а не завершается ошибкой.
+     */
+    @Test
+    public void reloadBetweenInputChoiceAndCheckTest() {
+        CompiledRulesScoringService scoringService = new CompiledRulesScoringService(ScoringListener.NOOP,
+                ScoringRules.defaults());
+        ScoringRules hundredths = ScoringRules.defaults();
+        hundredths.scale = 2;
+        ScoringService reloadedAfterChoice = new ScoringService() {
+            @Override
+            public LoanResponse checkLoan(LoanRequest loanRequest) {
+                return scoringService.checkLoan(loanRequest);
+            }
+
+            @Override
+            public long checkLoan(int age, Sex sex, SourceOfIncome sourceOfIncome, int creditRating,
+                                  int amountTenths, int repaymentPeriod, LoanPurpose loanPurpose,
+                                  long incomeUnscaled, int incomeScale) {
+                return scoringService.checkLoan(age, sex, sourceOfIncome, creditRating, amountTenths,
+                        repaymentPeriod, loanPurpose, incomeUnscaled, incomeScale);
+            }
+
+            @Override
+            public boolean supportsPrimitiveCheck() {
+                boolean supported = scoringService.supportsPrimitiveCheck();
+                scoringService.reload(hundredths);
+                return supported;
+            }
+        };
+
+        LoanRequest loanRequest = ScoringDomain.request(30, Sex.M, SourceOfIncome.EMPLOYEE, 2, 15, 3,
+                LoanPurpose.CAR, BigDecimal.TEN);
+        LoanResponse loanResponse = ScoringDecision.checkLoan(reloadedAfterChoice, loanRequest);
+        Assert.assertFalse(scoringService.supportsPrimitiveCheck());
+        Assert.assertEquals(scoringService.checkLoan(loanRequest).approved, loanResponse.approved);
+        Assert.assertEquals(scoringService.checkLoan(loanRequest).annualPayment, loanResponse.annualPayment);
+    }
+
+    /**
+     * Правила с платежом в сотых заменены после создания {@link MicroBatchingScoringService}: пачка
+     * не проверяется примитивным входом, и каждый запрос пачки проверяется через объектный вход.
+     */
+    @Test
+    public void reloadAfterMicroBatchingCreatedTest() {
+        CompiledRulesScoringService scoringService = new CompiledRulesScoringService(ScoringListener.NOOP,
+                ScoringRules.defaults());
+        ScoringRules hundredths = ScoringRules.defaults();
+        hundredths.scale = 2;
+        LoanRequest loanRequest = ScoringDomain.request(30, Sex.M, SourceOfIncome.EMPLOYEE, 2, 15, 3,
+                LoanPurpose.CAR, BigDecimal.TEN);
+
+        try (MicroBatchingScoringService microBatching = new MicroBatchingScoringService(scoringService, 8,
+                TimeUnit.MILLISECONDS.toNanos(1), 0)) {
+            scoringService.reload(hundredths);
+            LoanResponse loanResponse = microBatching.checkLoan(loanRequest);
+            Assert.assertEquals(scoringService.checkLoan(loanRequest).approved, loanResponse.approved);
+            Assert.assertEquals(scoringService.checkLoan(loanRequest).annualPayment, loanResponse.annualPayment);
+            Assert.assertEquals(2, loanResponse.annualPayment.scale());
+        }
+    }
+
+    @Test
+    public void invalidRulesKeepPreviousTest() {
+        CompiledRulesScoringService scoringService = new CompiledRulesScoringService();
+        ScoringRules invalid = ScoringRules.defaults();
+        invalid.ageBySex = null;
+        try {
+            scoringService.reload(invalid);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // правила не скомпилированы
+        }
+        Assert.assertEquals(1, scoringService.getVersion());
+        Assert.assertEquals("0.5", decision(scoringService.checkLoan(request(30))));
+    }
+
+    @Test
+    public void watchedFileTest() throws IOException, InterruptedException {
+        Path file = folder.getRoot().toPath().resolve("scoring-rules.json");
+        copyDefaults(file);
+        CompiledRulesScoringService scoringService = new CompiledRulesScoringService(ScoringListener.NOOP,
+                new FileSystemResource(file));
+        ScoringRulesWatcher watcher = new ScoringRulesWatcher(scoringService);
+        watcher.start();
+        try {
+            Assert.assertEquals("отказ", decision(scoringService.checkLoan(request(62))));
+
+            Path changed = folder.getRoot().toPath().resolve("changed.json");
+            String json = new String(Files.readAllBytes(file), "UTF-8").replace("\"max\": 60", "\"max\": 63");
+            Files.write(changed, json.getBytes("UTF-8"));
+            Files.move(changed, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long deadline = System.currentTimeMillis() + WATCH_TIMEOUT_MILLIS;
+            while (scoringService.getVersion() == 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals("0.5", decision(scoringService.checkLoan(request(62))));
+        } finally {
+            watcher.stop();
+        }
+    }
+
+    private static void copyDefaults(Path file) throws IOException {
+        try (InputStream inputStream = ScoringRules.class.getClassLoader()
+                .getResourceAsStream(ScoringRules.DEFAULT_LOCATION)) {
+            Files.copy(inputStream, file);
+        }
+    }
+}